@@ -0,0 +1,100 @@
+package eu.modernmt.benchmark;
+
+import eu.modernmt.cluster.ClusterNode;
+import eu.modernmt.config.EngineConfig;
+import eu.modernmt.config.NodeConfig;
+import eu.modernmt.context.lucene.analysis.ContextAnalyzerIndex;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.facade.ModernMT;
+import eu.modernmt.io.Paths;
+import eu.modernmt.lang.LanguageIndex;
+import org.apache.commons.io.FileUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process ModernMT node for benchmarking purposes: the engine is created in a temporary
+ * installation folder with a synthetic translation memory and context corpus, and the neural
+ * decoder runs in echo-server mode, so that no GPU, model or network access is required.
+ * <p>
+ * Since the installation path is a JVM-wide property, at most one node can be started per JVM.
+ */
+public class BenchmarkNode implements Closeable {
+
+    public static final String ENGINE_NAME = "benchmark";
+
+    private final File home;
+    private final SyntheticData data;
+    private final List<TranslationUnitMessage> units;
+
+    public BenchmarkNode(SyntheticData data, int memories, int unitsPerMemory) throws IOException {
+        this.home = new File(FileUtils.getTempDirectory(), "mmt-benchmark-" + System.nanoTime());
+        this.data = data;
+        this.units = data.translationUnits(new Random(1), memories, unitsPerMemory);
+
+        File models = Paths.join(home, "engines", ENGINE_NAME, "models");
+        FileUtils.forceMkdir(new File(home, "runtime"));
+
+        // Decoder
+        File decoder = new File(models, "decoder");
+        FileUtils.forceMkdir(decoder);
+        FileUtils.write(new File(decoder, "model.conf"), "[models]\n" +
+                SyntheticData.DIRECTION.source.toLanguageTag() + "__" + SyntheticData.DIRECTION.target.toLanguageTag() + " = model\n", "UTF-8");
+
+        try (LuceneTranslationMemory memory = new LuceneTranslationMemory(new File(decoder, "memory"), 10)) {
+            SyntheticData.index(memory, units);
+        }
+
+        // Context analyzer
+        try (ContextAnalyzerIndex index = new ContextAnalyzerIndex(Paths.join(models, "context", "index"))) {
+            SyntheticData.index(index, units);
+        }
+    }
+
+    public SyntheticData getData() {
+        return data;
+    }
+
+    public List<TranslationUnitMessage> getTranslationUnits() {
+        return units;
+    }
+
+    public void start() throws Exception {
+        System.setProperty("mmt.home", home.getAbsolutePath());
+
+        NodeConfig config = new NodeConfig();
+        config.getNetworkConfig().getApiConfig().setEnabled(false);
+        config.getBinaryLogConfig().setEnabled(false);
+        config.getDatabaseConfig().setEnabled(false);
+
+        EngineConfig engineConfig = config.getEngineConfig();
+        engineConfig.setName(ENGINE_NAME);
+        engineConfig.setLanguageIndex(new LanguageIndex.Builder().add(SyntheticData.DIRECTION).build());
+        engineConfig.getAlignerConfig().setEnabled(false);
+        engineConfig.getDecoderConfig().setEchoServer(true);
+
+        ModernMT.start(config, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            ClusterNode node = ModernMT.getNode();
+            node.shutdown();
+            node.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (IllegalStateException e) {
+            // node not started
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            FileUtils.deleteDirectory(home);
+        }
+    }
+
+}
@@ -0,0 +1,262 @@
+package eu.modernmt.benchmark;
+
+import eu.modernmt.context.lucene.analysis.ContextAnalyzerIndex;
+import eu.modernmt.context.lucene.analysis.DocumentBuilder;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Word;
+import eu.modernmt.model.corpus.TranslationUnit;
+
+import org.apache.lucene.index.IndexWriter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * Deterministic generator of synthetic text: words are drawn from a fixed pseudo-vocabulary
+ * with a Zipf distribution, so that term statistics resemble natural language.
+ * The "translation" of a word is its reversed spelling.
+ */
+public class SyntheticData {
+
+    public static final LanguageDirection DIRECTION = new LanguageDirection(Language.ENGLISH, Language.ITALIAN);
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+    private static final String[] TAGS = new String[]{"b", "i", "u", "span"};
+
+    private final String[] vocabulary;
+    private final ZipfDistribution words;
+
+    public SyntheticData(long seed) {
+        this(seed, 5000);
+    }
+
+    public SyntheticData(long seed, int vocabularySize) {
+        Random random = new Random(seed);
+
+        this.vocabulary = new String[vocabularySize];
+        for (int i = 0; i < vocabularySize; i++) {
+            int length = 3 + random.nextInt(7);
+
+            StringBuilder word = new StringBuilder(length);
+            for (int j = 0; j < length; j++)
+                word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+
+            vocabulary[i] = word.toString();
+        }
+
+        this.words = new ZipfDistribution(vocabularySize, 1.);
+    }
+
+    public String word(Random random) {
+        return vocabulary[words.sample(random)];
+    }
+
+    public String sentence(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0)
+                text.append(' ');
+            text.append(word(random));
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Generates a sentence with well-formed XML tags around random spans of words.
+     */
+    public String taggedSentence(Random random, int minLength, int maxLength, int tags) {
+        String[] tokens = sentence(random, minLength, maxLength).split(" ");
+
+        String[] open = new String[tokens.length];
+        String[] close = new String[tokens.length];
+
+        for (int i = 0; i < tags; i++) {
+            int begin = random.nextInt(tokens.length);
+            int end = begin + random.nextInt(tokens.length - begin);
+
+            if (open[begin] != null || close[end] != null)
+                continue;
+
+            String tag = TAGS[random.nextInt(TAGS.length)];
+            open[begin] = '<' + tag + '>';
+            close[end] = "</" + tag + '>';
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0)
+                text.append(' ');
+            if (open[i] != null)
+                text.append(open[i]);
+            text.append(tokens[i]);
+            if (close[i] != null)
+                text.append(close[i]);
+        }
+
+        return text.toString();
+    }
+
+    /**
+     * Generates a sentence with exactly the given number of tags, as in documents with heavy inline formatting:
+     * nested pairs and empty tags, several of them between two words if tags outnumber words.
+     */
+    public String denselyTaggedSentence(Random random, int length, int tags) {
+        String[] tokens = sentence(random, length, length).split(" ");
+
+        int[] positions = new int[tags];
+        for (int i = 0; i < tags; i++)
+            positions[i] = random.nextInt(tokens.length + 1);
+        Arrays.sort(positions);
+
+        StringBuilder[] before = new StringBuilder[tokens.length + 1];
+        for (int i = 0; i < before.length; i++)
+            before[i] = new StringBuilder();
+
+        ArrayDeque<String> stack = new ArrayDeque<>();
+        for (int i = 0; i < tags; i++) {
+            int choice = random.nextInt(5);
+            int remaining = tags - i;
+
+            if (!stack.isEmpty() && (choice < 2 || remaining <= stack.size())) {
+                before[positions[i]].append("</").append(stack.pop()).append('>');
+            } else if (choice == 2 || remaining < stack.size() + 2) {
+                before[positions[i]].append("<br/>");
+            } else {
+                String tag = TAGS[random.nextInt(TAGS.length)];
+                before[positions[i]].append('<').append(tag).append('>');
+                stack.push(tag);
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0)
+                text.append(' ');
+            text.append(before[i]).append(tokens[i]);
+        }
+        text.append(before[tokens.length]);
+
+        return text.toString();
+    }
+
+    public static String translate(String sentence) {
+        String[] tokens = sentence.split(" ");
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens.length; i++) {
+            if (i > 0)
+                text.append(' ');
+            text.append(new StringBuilder(tokens[i]).reverse());
+        }
+
+        return text.toString();
+    }
+
+    public static Sentence tokenize(String text) {
+        String[] tokens = text.split(" ");
+
+        Word[] words = new Word[tokens.length];
+        for (int i = 0; i < tokens.length; i++)
+            words[i] = new Word(tokens[i], i > 0 ? " " : null, i < tokens.length - 1 ? " " : null);
+
+        return new Sentence(words);
+    }
+
+    /**
+     * Generates the translation units of a synthetic translation memory: memories have the same
+     * size, and sentences of every memory are drawn from its own shifted vocabulary, so that
+     * context analysis can discriminate between them.
+     */
+    public List<TranslationUnitMessage> translationUnits(Random random, int memories, int unitsPerMemory) {
+        return translationUnits(random, memories, unitsPerMemory, DIRECTION);
+    }
+
+    /**
+     * Same as {@link #translationUnits(Random, int, int)}, with memories assigned round-robin
+     * to the given language directions.
+     */
+    public List<TranslationUnitMessage> translationUnits(Random random, int memories, int unitsPerMemory, LanguageDirection... directions) {
+        ArrayList<TranslationUnitMessage> units = new ArrayList<>(memories * unitsPerMemory);
+
+        long position = 0;
+        for (int memory = 1; memory <= memories; memory++) {
+            LanguageDirection direction = directions[(memory - 1) % directions.length];
+
+            for (int i = 0; i < unitsPerMemory; i++) {
+                String source = memorySentence(random, memory, 5, 25);
+                String target = translate(source);
+
+                TranslationUnit tu = new TranslationUnit(null, direction, source, target, new Date());
+                units.add(new TranslationUnitMessage((short) 0, position++, memory, null, tu,
+                        false, null, null, direction, tokenize(source), tokenize(target), null));
+            }
+        }
+
+        return units;
+    }
+
+    /**
+     * Generates a sentence that is typical of the given memory.
+     */
+    public String memorySentence(Random random, long memory, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        int shift = (int) (memory * 97 % vocabulary.length);
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0)
+                text.append(' ');
+
+            // half of the words are memory specific, the others are common words
+            int rank = words.sample(random);
+            if (random.nextBoolean())
+                rank = (rank + shift) % vocabulary.length;
+
+            text.append(vocabulary[rank]);
+        }
+
+        return text.toString();
+    }
+
+    // Indexing
+
+    public static void index(LuceneTranslationMemory memory, List<TranslationUnitMessage> units) throws IOException {
+        IndexWriter writer = memory.getIndexWriter();
+        for (TranslationUnitMessage unit : units)
+            writer.addDocument(memory.getDocumentBuilder().create(unit));
+        writer.commit();
+    }
+
+    /**
+     * Merges the memory into a single segment: no merge runs in background during the measurement.
+     */
+    public static void forceMerge(LuceneTranslationMemory memory) throws IOException {
+        memory.getIndexWriter().forceMerge(1);
+        memory.commit();
+    }
+
+    public static void index(ContextAnalyzerIndex index, List<TranslationUnitMessage> units) throws IOException {
+        TreeMap<Long, StringBuilder> contents = new TreeMap<>();
+        HashMap<Long, LanguageDirection> directions = new HashMap<>();
+        for (TranslationUnitMessage unit : units) {
+            contents.computeIfAbsent(unit.memory, key -> new StringBuilder()).append(unit.value.source).append('\n');
+            directions.put(unit.memory, unit.language);
+        }
+
+        for (Map.Entry<Long, StringBuilder> entry : contents.entrySet()) {
+            StringReader reader = new StringReader(entry.getValue().toString());
+            index.update(DocumentBuilder.newInstance(null, entry.getKey(), directions.get(entry.getKey()), reader));
+        }
+
+        index.flush();
+    }
+
+}
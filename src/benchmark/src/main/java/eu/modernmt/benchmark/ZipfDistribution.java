@@ -0,0 +1,42 @@
+package eu.modernmt.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks in [0, size) following a Zipf distribution with the given exponent:
+ * rank 0 is the most frequent one.
+ */
+public class ZipfDistribution {
+
+    private final double[] cdf;
+
+    public ZipfDistribution(int size, double exponent) {
+        if (size < 1)
+            throw new IllegalArgumentException("size must be positive");
+
+        this.cdf = new double[size];
+
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1. / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+
+        for (int i = 0; i < size; i++)
+            cdf[i] /= sum;
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        if (index < 0)
+            index = -index - 1;
+
+        return Math.min(index, cdf.length - 1);
+    }
+
+}
@@ -0,0 +1,140 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.context.lucene.analysis.ContextAnalyzerIndex;
+import eu.modernmt.context.lucene.analysis.DocumentBuilder;
+import eu.modernmt.context.lucene.analysis.rescoring.CosineSimilarityRescorer;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.DefaultDocumentBuilder;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.analysis.DefaultAnalyzerFactory;
+import eu.modernmt.decoder.neural.memory.lucene.query.DefaultQueryBuilder;
+import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.F1BleuRescorer;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.corpus.impl.StringCorpus;
+import org.apache.lucene.store.RAMDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Context and memory searches of many distinct users on shared indexes, with and without the cache
+ * of the access filters (owner filter of the context analyzer, memories filter of the translation memory).
+ * Every user owns a few private memories and a quarter of the memories are public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessFilterBenchmark {
+
+    @Param({"2000"})
+    public int memories;
+
+    @Param({"20"})
+    public int unitsPerMemory;
+
+    @Param({"100", "1000"})
+    public int users;
+
+    @Param({"0", "67108864"})
+    public long filterCacheSize;
+
+    private ContextAnalyzerIndex index;
+    private LuceneTranslationMemory memory;
+
+    private UUID[] queryUsers;
+    private StringCorpus[] documents;
+    private Sentence[] sentences;
+    private ContextVector[] contexts;
+    private int query = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        UUID[] owners = new UUID[users];
+        for (int i = 0; i < owners.length; i++)
+            owners[i] = new UUID(random.nextLong(), random.nextLong());
+
+        List<TranslationUnitMessage> units = data.translationUnits(random, memories, unitsPerMemory);
+
+        // Context analyzer: one document per memory
+        index = new ContextAnalyzerIndex(new RAMDirectory(), new CosineSimilarityRescorer(), filterCacheSize);
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < units.size(); i++) {
+            content.append(units.get(i).value.source).append('\n');
+
+            if ((i + 1) % unitsPerMemory == 0) {
+                long memoryId = units.get(i).memory;
+                UUID owner = memoryId % 4 == 0 ? null : owners[(int) (memoryId % users)];
+
+                index.update(DocumentBuilder.newInstance(owner, memoryId, SyntheticData.DIRECTION, new StringReader(content.toString())));
+                content.setLength(0);
+            }
+        }
+        index.flush();
+
+        // Translation memory
+        memory = new LuceneTranslationMemory(new RAMDirectory(), new DefaultDocumentBuilder(),
+                new DefaultQueryBuilder(filterCacheSize), new F1BleuRescorer(), new DefaultAnalyzerFactory(), 10);
+        SyntheticData.index(memory, units);
+        SyntheticData.forceMerge(memory);
+
+        // Queries: the memories of the context vector are the ones visible to the user
+        queryUsers = new UUID[1000];
+        documents = new StringCorpus[queryUsers.length];
+        sentences = new Sentence[queryUsers.length];
+        contexts = new ContextVector[queryUsers.length];
+
+        for (int i = 0; i < queryUsers.length; i++) {
+            int user = random.nextInt(users);
+            queryUsers[i] = owners[user];
+
+            long memoryId = 1 + random.nextInt(memories);
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 5; j++)
+                text.append(data.memorySentence(random, memoryId, 5, 25)).append('\n');
+
+            documents[i] = new StringCorpus(null, SyntheticData.DIRECTION.source, text.toString());
+            sentences[i] = SyntheticData.tokenize(data.memorySentence(random, memoryId, 5, 25));
+
+            // Same context for all the requests of the same user
+            ContextVector.Builder builder = new ContextVector.Builder(10);
+            Random userRandom = new Random(user);
+            for (int j = 0; j < 10; j++)
+                builder.add(1 + userRandom.nextInt(memories), userRandom.nextFloat());
+            contexts[i] = builder.build();
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        index.close();
+        memory.close();
+    }
+
+    @Benchmark
+    public ContextVector contextSearch() throws IOException {
+        int i = query++ % queryUsers.length;
+        return index.getContextVector(queryUsers[i], SyntheticData.DIRECTION, documents[i], 10);
+    }
+
+    @Benchmark
+    public ScoreEntry[] memorySearch() throws IOException {
+        int i = query++ % queryUsers.length;
+        return memory.search(queryUsers[i], SyntheticData.DIRECTION, sentences[i], contexts[i], 1);
+    }
+
+}
@@ -0,0 +1,69 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.context.lucene.analysis.ContextAnalyzerIndex;
+import eu.modernmt.context.lucene.analysis.rescoring.CosineSimilarityRescorer;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.corpus.impl.StringCorpus;
+import org.apache.lucene.store.RAMDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Context vector computation, including the cosine-similarity rescoring of the top documents.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextAnalyzerBenchmark {
+
+    @Param({"100"})
+    public int memories;
+
+    @Param({"1000"})
+    public int unitsPerMemory;
+
+    @Param({"10"})
+    public int limit;
+
+    private ContextAnalyzerIndex index;
+    private StringCorpus[] queries;
+    private int query = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        index = new ContextAnalyzerIndex(new RAMDirectory(), new CosineSimilarityRescorer());
+        SyntheticData.index(index, data.translationUnits(random, memories, unitsPerMemory));
+
+        queries = new StringCorpus[100];
+        for (int i = 0; i < queries.length; i++) {
+            long memory = 1 + random.nextInt(memories);
+
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 5; j++)
+                text.append(data.memorySentence(random, memory, 5, 25)).append('\n');
+
+            queries[i] = new StringCorpus(null, SyntheticData.DIRECTION.source, text.toString());
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        index.close();
+    }
+
+    @Benchmark
+    public ContextVector getContextVector() throws IOException {
+        return index.getContextVector(null, SyntheticData.DIRECTION, queries[query++ % queries.length], limit);
+    }
+
+}
@@ -0,0 +1,90 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.context.lucene.analysis.ContextAnalyzerIndex;
+import eu.modernmt.context.lucene.analysis.rescoring.CosineSimilarityRescorer;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.corpus.impl.StringCorpus;
+import org.apache.lucene.store.RAMDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Context vectors of one document for many target languages, as requested by CAT tools:
+ * one search per target against the single-pass multi-target computation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContextVectorsBenchmark {
+
+    private static final String[] TARGETS = new String[]{
+            "it", "fr", "de", "es", "pt", "nl", "ru", "pl", "sv", "da", "tr", "cs", "ro", "hu", "fi"
+    };
+
+    @Param({"1", "5", "15"})
+    public int targets;
+
+    @Param({"200"})
+    public int documentSentences;
+
+    private ContextAnalyzerIndex index;
+    private List<LanguageDirection> directions;
+    private StringCorpus[] queries;
+    private int query = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        LanguageDirection[] all = new LanguageDirection[TARGETS.length];
+        for (int i = 0; i < all.length; i++)
+            all[i] = new LanguageDirection(Language.ENGLISH, Language.fromString(TARGETS[i]));
+
+        index = new ContextAnalyzerIndex(new RAMDirectory(), new CosineSimilarityRescorer());
+        SyntheticData.index(index, data.translationUnits(random, 20 * all.length, 200, all));
+
+        directions = Arrays.asList(all).subList(0, targets);
+
+        queries = new StringCorpus[20];
+        for (int i = 0; i < queries.length; i++) {
+            long memory = 1 + random.nextInt(20 * all.length);
+
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < documentSentences; j++)
+                text.append(data.memorySentence(random, memory, 5, 25)).append('\n');
+
+            queries[i] = new StringCorpus(null, Language.ENGLISH, text.toString());
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        index.close();
+    }
+
+    @Benchmark
+    public Map<LanguageDirection, ContextVector> perTarget() throws IOException {
+        StringCorpus document = queries[query++ % queries.length];
+
+        HashMap<LanguageDirection, ContextVector> result = new HashMap<>(directions.size());
+        for (LanguageDirection direction : directions)
+            result.put(direction, index.getContextVector(null, direction, document, 10));
+        return result;
+    }
+
+    @Benchmark
+    public Map<LanguageDirection, ContextVector> singlePass() throws IOException {
+        return index.getContextVectors(null, directions, queries[query++ % queries.length], 10);
+    }
+
+}
@@ -0,0 +1,86 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.F1BleuCalculator;
+import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.F1BleuRescorer;
+import eu.modernmt.io.TokensOutputStream;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rescoring of the candidates retrieved from the translation memory: "rescore" is the cost of a whole
+ * search, "calc" the per-candidate cost of the F1-BLEU score. Run with "-prof gc" for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class F1BleuRescorerBenchmark {
+
+    @Param({"10", "100"})
+    public int candidates;
+
+    private final F1BleuRescorer rescorer = new F1BleuRescorer();
+
+    private Sentence[] inputs;
+    private ScoreEntry[][] entries;
+    private ContextVector context;
+    private F1BleuCalculator[] calculators;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        inputs = new Sentence[100];
+        entries = new ScoreEntry[inputs.length][];
+        calculators = new F1BleuCalculator[inputs.length];
+
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = SyntheticData.tokenize(data.memorySentence(random, 1, 5, 25));
+            calculators[i] = new F1BleuCalculator(TokensOutputStream.tokens(inputs[i], false, true));
+
+            entries[i] = new ScoreEntry[candidates];
+            for (int j = 0; j < candidates; j++) {
+                long memory = 1 + random.nextInt(20);
+                String source = data.memorySentence(random, memory, 5, 25);
+
+                entries[i][j] = new ScoreEntry(memory, SyntheticData.DIRECTION,
+                        source.split(" "), SyntheticData.translate(source).split(" "));
+            }
+        }
+
+        ContextVector.Builder builder = new ContextVector.Builder(20);
+        for (int memory = 1; memory <= 20; memory++)
+            builder.add(memory, random.nextFloat());
+        context = builder.build();
+    }
+
+    @Benchmark
+    public ScoreEntry[] rescore() {
+        int i = index++ % inputs.length;
+
+        ScoreEntry[] candidates = entries[i];
+        for (ScoreEntry entry : candidates)
+            entry.score = 1.f;
+
+        return rescorer.rescore(SyntheticData.DIRECTION, inputs[i], candidates, context);
+    }
+
+    @Benchmark
+    public float calc() {
+        int i = index++;
+        int input = (i / candidates) % inputs.length;
+
+        return calculators[input].calc(entries[input][i % candidates].sentenceTokens);
+    }
+
+}
@@ -0,0 +1,68 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.HashGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashing of a translation unit: "hash" and "tuidHash" are the hashes stored in the translation memory,
+ * "hash64" is the fast hash of the content and "dedupHash64" its variant used for the deduplication of corpora.
+ * Run with "-prof gc" for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashGeneratorBenchmark {
+
+    private String[] sentences;
+    private String[] translations;
+    private String[] tuids;
+    private int index = 0;
+
+    @Setup
+    public void setup() {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        sentences = new String[1000];
+        translations = new String[sentences.length];
+        tuids = new String[sentences.length];
+
+        for (int i = 0; i < sentences.length; i++) {
+            sentences[i] = data.sentence(random, 5, 40);
+            translations[i] = SyntheticData.translate(sentences[i]);
+            tuids[i] = "tu-" + random.nextInt(1000000) + "-" + Integer.toHexString(random.nextInt());
+        }
+    }
+
+    @Benchmark
+    public String hash() {
+        int i = index++ % sentences.length;
+        return HashGenerator.hash(SyntheticData.DIRECTION, sentences[i], translations[i]);
+    }
+
+    @Benchmark
+    public String tuidHash() {
+        int i = index++ % sentences.length;
+        return HashGenerator.hash(SyntheticData.DIRECTION, tuids[i]);
+    }
+
+    @Benchmark
+    public long hash64() {
+        int i = index++ % sentences.length;
+        return HashGenerator.hash64(SyntheticData.DIRECTION, sentences[i], translations[i]);
+    }
+
+    @Benchmark
+    public long dedupHash64() {
+        int i = index++ % sentences.length;
+        return HashGenerator.dedupHash64(SyntheticData.DIRECTION, sentences[i], translations[i]);
+    }
+
+}
@@ -0,0 +1,96 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.persistence.PersistenceException;
+import eu.modernmt.persistence.cassandra.CassandraConnection;
+import eu.modernmt.persistence.cassandra.CassandraDatabase;
+import eu.modernmt.persistence.cassandra.CassandraIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Memory creation storm: 16 concurrent clients on 4 nodes generating IDs from the same counter.
+ * The counters table is simulated with the latency of a read (0.2ms) and of a lightweight transaction
+ * (1ms, Paxos rounds included); a transaction fails if another one updated the counter in the meantime.
+ * A block size of 1 reserves every ID with its own transaction, as the generator did before block allocation
+ * (which also read the counter before every transaction).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    private static final int NODES = 4;
+    private static final long READ_LATENCY = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long TRANSACTION_LATENCY = TimeUnit.MICROSECONDS.toNanos(1000);
+
+    private static class SimulatedNode extends CassandraIdGenerator {
+
+        private final AtomicLong table;
+
+        SimulatedNode(AtomicLong table, int blockSize) {
+            super(CassandraDatabase.MEMORIES_TABLE_ID, blockSize);
+            this.table = table;
+        }
+
+        @Override
+        protected long readCounter(CassandraConnection connection) {
+            LockSupport.parkNanos(READ_LATENCY);
+            return table.get();
+        }
+
+        @Override
+        protected long compareAndSet(CassandraConnection connection, long expected, long value) {
+            long current = table.get();
+            LockSupport.parkNanos(TRANSACTION_LATENCY);
+
+            if (current == expected && table.compareAndSet(expected, value))
+                return expected;
+            else
+                return table.get();
+        }
+
+        @Override
+        protected boolean advance(CassandraConnection connection, long newCounter) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Param({"1", "100"})
+    public int blockSize;
+
+    private SimulatedNode[] nodes;
+    private final AtomicLong clients = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private SimulatedNode node;
+
+        @Setup
+        public void setup(IdGeneratorBenchmark benchmark) {
+            node = benchmark.nodes[(int) (benchmark.clients.getAndIncrement() % NODES)];
+        }
+    }
+
+    @Setup
+    public void setup() {
+        AtomicLong table = new AtomicLong();
+
+        nodes = new SimulatedNode[NODES];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = new SimulatedNode(table, blockSize);
+    }
+
+    @Benchmark
+    public long generate(Client client) throws PersistenceException {
+        return client.node.generate(null);
+    }
+
+}
@@ -0,0 +1,72 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.lang.LanguageIndex;
+import eu.modernmt.lang.LanguagePattern;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Language pair resolution of every request, on an index with dialects, rules and pivots:
+ * a mix of supported pairs, dialects mapped by rules, reversed and unsupported pairs.
+ * Run with "-prof gc" for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LanguageIndexBenchmark {
+
+    private static final String[] DIRECTIONS = {
+            "en it", "it en", "en es-ES", "en es-419", "es en", "en pt-PT", "en pt-BR", "pt en",
+            "en zh-TW", "en zh-CN", "zh en", "en de", "de en", "en fr", "fr en"
+    };
+    private static final String[][] RULES = {
+            {"es * NULL", "es-ES"}, {"es * +", "es-419"}, {"pt * NULL", "pt-PT"},
+            {"zh Hans *", "zh-CN"}, {"zh Hant *", "zh-TW"}, {"zh * SG", "zh-CN"}, {"zh * HK", "zh-TW"},
+            {"zh * MO", "zh-TW"}, {"zh * *", "zh-CN"}
+    };
+    private static final String[] PAIRS = {
+            "en it", "en-US it-IT", "en es-MX", "en-GB es", "zh-Hant-HK en", "en zh-SG", "pt-BR en",
+            "it-IT fr-FR", "de-DE es-CO", "it-CH en-US", "ja en", "en ko-KR", "pl it"
+    };
+
+    private LanguageIndex index;
+    private LanguageDirection[] pairs;
+    private int request = 0;
+
+    private static LanguageDirection parse(String pair) {
+        String[] parts = pair.split(" ");
+        return new LanguageDirection(Language.fromString(parts[0]), Language.fromString(parts[1]));
+    }
+
+    @Setup
+    public void setup() {
+        LanguageIndex.Builder builder = new LanguageIndex.Builder();
+        for (String direction : DIRECTIONS)
+            builder.add(parse(direction));
+        for (String[] rule : RULES)
+            builder.addRule(LanguagePattern.parse(rule[0]), Language.fromString(rule[1]));
+
+        index = builder.build(true);
+
+        pairs = new LanguageDirection[PAIRS.length];
+        for (int i = 0; i < pairs.length; i++)
+            pairs[i] = parse(PAIRS[i]);
+    }
+
+    @Benchmark
+    public LanguageDirection map() {
+        return index.map(pairs[request++ % pairs.length]);
+    }
+
+    @Benchmark
+    public LanguageDirection mapIgnoringDirection() {
+        return index.mapIgnoringDirection(pairs[request++ % pairs.length]);
+    }
+
+}
@@ -0,0 +1,48 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Histogram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording overhead of the in-process metrics, which are updated on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final Histogram histogram = new Histogram();
+    private final Counter counter = new Counter();
+
+    @Benchmark
+    @Threads(1)
+    public void histogramUpdate() {
+        histogram.update(ThreadLocalRandom.current().nextInt(1000000));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void histogramUpdateContended() {
+        histogram.update(ThreadLocalRandom.current().nextInt(1000000));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void histogramUpdateSince() {
+        histogram.updateSince(System.nanoTime());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void counterIncrementContended() {
+        counter.increment();
+    }
+
+}
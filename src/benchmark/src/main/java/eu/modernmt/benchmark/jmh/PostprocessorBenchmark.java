@@ -0,0 +1,66 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.io.TokensOutputStream;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Translation;
+import eu.modernmt.processing.Postprocessor;
+import eu.modernmt.processing.Preprocessor;
+import eu.modernmt.processing.ProcessingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post-processing of echo translations (target tokens equal to source tokens).
+ * Since post-processing modifies the translation in place, a new translation
+ * is created at every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostprocessorBenchmark {
+
+    private Postprocessor postprocessor;
+    private Sentence[] sources;
+    private String[][] tokens;
+    private int index = 0;
+
+    @Setup
+    public void setup() throws IOException, ProcessingException {
+        postprocessor = new Postprocessor(1);
+
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        try (Preprocessor preprocessor = new Preprocessor(1)) {
+            sources = new Sentence[1000];
+            tokens = new String[sources.length][];
+
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = preprocessor.process(SyntheticData.DIRECTION, data.taggedSentence(random, 5, 30, 3));
+                tokens[i] = TokensOutputStream.tokens(sources[i], false, true);
+            }
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        postprocessor.close();
+    }
+
+    @Benchmark
+    public Translation process() throws ProcessingException {
+        int i = index++ % sources.length;
+
+        Translation translation = Translation.fromTokens(sources[i], tokens[i]);
+        postprocessor.process(SyntheticData.DIRECTION, translation);
+        return translation;
+    }
+
+}
@@ -0,0 +1,70 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.benchmark.ZipfDistribution;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.processing.Preprocessor;
+import eu.modernmt.processing.ProcessingException;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pre-processing of single sentences. Inputs are drawn with a Zipf distribution from a pool
+ * of distinct sentences, in order to measure the effect of the pre-processing cache
+ * on a realistic, skewed workload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreprocessorBenchmark {
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    @Param({"1.0"})
+    public double skew;
+
+    @Param({"false", "true"})
+    public boolean tags;
+
+    private Preprocessor preprocessor;
+    private String[] inputs;
+    private ZipfDistribution distribution;
+
+    @State(Scope.Thread)
+    public static class Sampler {
+        final Random random = new Random(42);
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        preprocessor = new Preprocessor(1, Preprocessor.getDefaultBuilder(), cacheSize);
+
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        inputs = new String[50000];
+        for (int i = 0; i < inputs.length; i++)
+            inputs[i] = tags ? data.taggedSentence(random, 5, 30, 3) : data.sentence(random, 5, 30);
+
+        distribution = new ZipfDistribution(inputs.length, skew);
+    }
+
+    @TearDown
+    public void teardown() {
+        preprocessor.close();
+    }
+
+    @Benchmark
+    public Sentence process(Sampler sampler) throws ProcessingException {
+        String input = inputs[distribution.sample(sampler.random)];
+        return preprocessor.process(SyntheticData.DIRECTION, input);
+    }
+
+}
@@ -0,0 +1,76 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.api.framework.HttpMethod;
+import eu.modernmt.api.framework.actions.Action;
+import eu.modernmt.api.framework.routing.Route;
+import eu.modernmt.api.framework.routing.RouteTemplate;
+import eu.modernmt.api.framework.routing.RouteTree;
+import org.openjdk.jmh.annotations.*;
+import org.reflections.Reflections;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request dispatch overhead of the REST API: route matching, action lookup and
+ * extraction of the path parameters, over a mix of the paths of the API (and an unknown one).
+ * The route tree is built from the same {@code @Route} scan of the API server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouterBenchmark {
+
+    private static final HttpMethod[] METHODS = {
+            HttpMethod.GET, HttpMethod.GET, HttpMethod.GET, HttpMethod.PUT, HttpMethod.GET,
+            HttpMethod.GET, HttpMethod.POST, HttpMethod.GET, HttpMethod.DELETE, HttpMethod.GET
+    };
+    private static final String[] PATHS = {
+            "translate", "memories/42", "memories/imports/00000000-0000-0000-0000-000000000042",
+            "memories/42/corpus", "languages/en/it", "context-vector", "tags-projection/batch",
+            "_health", "domains/42", "unknown/path"
+    };
+    private static final String[] VARIABLES = {"id", "source", "target"};
+
+    private RouteTree routes;
+    private int request = 0;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        RouteTree.Builder builder = new RouteTree.Builder();
+
+        Reflections reflections = new Reflections("eu.modernmt.api.actions");
+        for (Class<?> clazz : reflections.getTypesAnnotatedWith(Route.class)) {
+            Class<? extends Action> actionClass = clazz.asSubclass(Action.class);
+            Route route = actionClass.getAnnotation(Route.class);
+            Action action = actionClass.newInstance();
+
+            for (String path : route.aliases())
+                builder.add(new RouteTemplate('/' + path, actionClass, () -> action, route.method()));
+        }
+
+        routes = builder.build();
+    }
+
+    @Benchmark
+    public int dispatch() {
+        int i = request++ % PATHS.length;
+        String path = PATHS[i];
+
+        RouteTemplate template = routes.get(METHODS[i], path);
+        if (template == null)
+            return 0;
+
+        int result = System.identityHashCode(template.getAction());
+        for (String variable : VARIABLES) {
+            int index = template.indexOfVariable(variable);
+            if (index >= 0)
+                result += RouteTemplate.getTokenAt(path, index).length();
+        }
+
+        return result;
+    }
+
+}
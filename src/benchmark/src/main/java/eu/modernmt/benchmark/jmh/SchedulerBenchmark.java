@@ -0,0 +1,79 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.decoder.DecoderException;
+import eu.modernmt.decoder.neural.scheduler.Scheduler;
+import eu.modernmt.decoder.neural.scheduler.SentenceBatchScheduler;
+import eu.modernmt.decoder.neural.scheduler.TranslationSplit;
+import eu.modernmt.model.Priority;
+import eu.modernmt.model.Sentence;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling overhead of the decoder queue: every invocation schedules a job and takes one
+ * from the queue, as a decoder thread would do. Since every thread schedules before taking,
+ * the queue is never empty and {@link Scheduler#take()} never blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private SentenceBatchScheduler scheduler;
+    private Sentence[] sentences;
+
+    @State(Scope.Thread)
+    public static class Sampler {
+        final Random random = new Random(42);
+    }
+
+    @Setup
+    public void setup() {
+        scheduler = new SentenceBatchScheduler(100000, () -> 4);
+
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        sentences = new Sentence[1000];
+        for (int i = 0; i < sentences.length; i++)
+            sentences[i] = SyntheticData.tokenize(data.sentence(random, 5, 30));
+    }
+
+    @TearDown
+    public void teardown() {
+        scheduler.close();
+    }
+
+    private Scheduler.Job cycle(Random random) throws DecoderException, InterruptedException {
+        Priority priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+        Sentence sentence = sentences[random.nextInt(sentences.length)];
+        long expiration = System.currentTimeMillis() + 60000L;
+
+        scheduler.schedule(SyntheticData.DIRECTION, new TranslationSplit[]{new TranslationSplit(priority, sentence, expiration)}, null);
+
+        Scheduler.Job job = scheduler.take();
+        scheduler.onJobCompleted(job, 1, 1000000L);
+        return job;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Scheduler.Job scheduleAndTake(Sampler sampler) throws DecoderException, InterruptedException {
+        return cycle(sampler.random);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Scheduler.Job scheduleAndTakeContended(Sampler sampler) throws DecoderException, InterruptedException {
+        return cycle(sampler.random);
+    }
+
+}
@@ -0,0 +1,118 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.ShardedTranslationMemory;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.memory.TranslationMemory;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion lookup in an on-disk synthetic translation memory spanning several language directions,
+ * stored either in a single index or in one index per language pair. The sharded memory is obtained
+ * by migrating the single index, as it happens when sharding is enabled on an existing engine.
+ * Run with "-bm thrpt -t N" to measure the throughput of concurrent searches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedTranslationMemoryBenchmark {
+
+    private static final LanguageDirection[] DIRECTIONS = new LanguageDirection[]{
+            direction("en", "it"), direction("en", "fr"), direction("en", "de"), direction("en", "es"),
+            direction("it", "en"), direction("fr", "en"), direction("de", "fr"), direction("es", "pt"),
+    };
+
+    private static LanguageDirection direction(String source, String target) {
+        return new LanguageDirection(Language.fromString(source), Language.fromString(target));
+    }
+
+    @Param({"single", "sharded"})
+    public String layout;
+
+    @Param({"400"})
+    public int memories;
+
+    @Param({"250"})
+    public int unitsPerMemory;
+
+    @Param({"1"})
+    public int limit;
+
+    private File path;
+    private TranslationMemory memory;
+    private LanguageDirection[] directions;
+    private Sentence[] queries;
+    private ContextVector[] contexts;
+    private int index = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        List<TranslationUnitMessage> units = data.translationUnits(random, memories, unitsPerMemory, DIRECTIONS);
+
+        path = Files.createTempDirectory("mmt-benchmark-tm").toFile();
+        try (LuceneTranslationMemory single = new LuceneTranslationMemory(path, 10)) {
+            SyntheticData.index(single, units);
+        }
+
+        if ("sharded".equals(layout)) {
+            ShardedTranslationMemory sharded = new ShardedTranslationMemory(path, 10);
+            for (LuceneTranslationMemory shard : sharded.getShards().values())
+                SyntheticData.forceMerge(shard);
+            memory = sharded;
+        } else {
+            LuceneTranslationMemory single = new LuceneTranslationMemory(path, 10);
+            SyntheticData.forceMerge(single);
+            memory = single;
+        }
+
+        queries = new Sentence[1000];
+        contexts = new ContextVector[queries.length];
+        directions = new LanguageDirection[queries.length];
+
+        for (int i = 0; i < queries.length; i++) {
+            TranslationUnitMessage unit = units.get(random.nextInt(units.size()));
+            queries[i] = SyntheticData.tokenize(data.memorySentence(random, unit.memory, 5, 25));
+            directions[i] = unit.language;
+
+            ContextVector.Builder builder = new ContextVector.Builder(10);
+            builder.add(unit.memory, 1.f);
+            for (int j = 0; j < 9; j++)
+                builder.add(1 + random.nextInt(memories), random.nextFloat());
+
+            contexts[i] = builder.build();
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        memory.close();
+        FileUtils.deleteDirectory(path);
+    }
+
+    @Benchmark
+    public ScoreEntry[] search() throws IOException {
+        int i = index++ % queries.length;
+        return memory.search(null, directions[i], queries[i], contexts[i], limit);
+    }
+
+}
@@ -0,0 +1,85 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.io.UTF8Charset;
+import eu.modernmt.model.corpus.TUReader;
+import eu.modernmt.model.corpus.impl.tmx.TMXCorpus;
+import eu.modernmt.xml.XMLUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full read of a generated TMX file of "megabytes" MB: one thread is the sequential reader,
+ * more threads split the file in chunks parsed concurrently.
+ * The default size keeps the run short, use "-p megabytes=4096" for a multi-GB file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TMXReaderBenchmark {
+
+    @Param({"256"})
+    public int megabytes;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private File file;
+    private TMXCorpus corpus;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("mmt-benchmark", ".tmx").toFile();
+
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+        long size = megabytes * 1024L * 1024L;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF8Charset.get()))) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<tmx version=\"1.4\">\n" +
+                    "<header srclang=\"en\" datatype=\"plaintext\" segtype=\"sentence\" o-tmf=\"mmt\"/>\n<body>\n");
+
+            for (int i = 0; file.length() < size; i++) {
+                String source = XMLUtils.escapeText(data.sentence(random, 5, 40));
+                String target = XMLUtils.escapeText(SyntheticData.translate(source));
+
+                writer.write("<tu tuid=\"" + i + "\" srclang=\"en\" datatype=\"plaintext\" creationdate=\"20190101T120000Z\">\n" +
+                        "<tuv xml:lang=\"en\"><seg>" + source + "</seg></tuv>\n" +
+                        "<tuv xml:lang=\"it\"><seg>" + target + "</seg></tuv>\n</tu>\n");
+
+                if (i % 10000 == 0)
+                    writer.flush();
+            }
+
+            writer.write("</body>\n</tmx>\n");
+        }
+
+        corpus = new TMXCorpus(file);
+        corpus.setParsingThreads(threads);
+    }
+
+    @TearDown
+    public void teardown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long count = 0;
+
+        try (TUReader reader = corpus.getContentReader()) {
+            while (reader.read() != null)
+                count++;
+        }
+
+        return count;
+    }
+
+}
@@ -0,0 +1,90 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.model.*;
+import eu.modernmt.processing.Preprocessor;
+import eu.modernmt.processing.ProcessingException;
+import eu.modernmt.processing.tags.projection.TagProjector;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tag projection from tagged source sentences onto translations with locally reordered alignments,
+ * from plain sentences with a single tag to tag-heavy segments with many nested tags per word.
+ * Since projection modifies the translation in place, a new translation is created at every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagProjectorBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    public int tags;
+
+    @Param({"50"})
+    public int length;
+
+    private final TagProjector projector = new TagProjector();
+
+    private Sentence[] sources;
+    private Alignment[] alignments;
+    private int index = 0;
+
+    @Setup
+    public void setup() throws IOException, ProcessingException {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        try (Preprocessor preprocessor = new Preprocessor(1)) {
+            sources = new Sentence[1000];
+            alignments = new Alignment[sources.length];
+
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = preprocessor.process(SyntheticData.DIRECTION, data.denselyTaggedSentence(random, length, tags));
+                alignments[i] = reordered(random, sources[i].getWords().length);
+            }
+        }
+    }
+
+    private static Alignment reordered(Random random, int length) {
+        int[] target = new int[length];
+        for (int i = 0; i < length; i++)
+            target[i] = i;
+
+        for (int i = 0; i + 1 < length; i++) {
+            if (random.nextInt(4) == 0) {
+                int swap = target[i];
+                target[i] = target[i + 1];
+                target[i + 1] = swap;
+            }
+        }
+
+        int[][] pairs = new int[length][];
+        for (int i = 0; i < length; i++)
+            pairs[i] = new int[]{i, target[i]};
+
+        return Alignment.fromAlignmentPairs(pairs);
+    }
+
+    @Benchmark
+    public Translation project() {
+        int i = index++ % sources.length;
+
+        Sentence source = sources[i];
+        Word[] sourceWords = source.getWords();
+        Word[] words = new Word[sourceWords.length];
+        for (int j = 0; j < words.length; j++) {
+            Word word = sourceWords[j];
+            words[j] = new Word(word.getText(), word.getPlaceholder(), word.getLeftSpace(), word.getRightSpace());
+        }
+
+        return projector.project(new Translation(words, source, alignments[i]));
+    }
+
+}
@@ -0,0 +1,122 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.lang.Language;
+import eu.modernmt.processing.string.SentenceBuilder;
+import eu.modernmt.processing.tokenizer.BaseTokenizer;
+import eu.modernmt.processing.tokenizer.StatisticalChineseAnnotator;
+import eu.modernmt.processing.tokenizer.TokenizedString;
+import eu.modernmt.processing.tokenizer.Tokenizer;
+import eu.modernmt.processing.tokenizer.abbr.AbbreviationAnnotator;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenization of single sentences. "annotate" measures the dictionary annotator alone
+ * (abbreviations for European languages, word segmentation for Chinese), "tokenize" the whole tokenizer.
+ * European inputs are synthetic sentences with abbreviations of the language resource,
+ * Chinese inputs are sequences of words and characters of the segmentation dictionary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final String RESOURCES = "/eu/modernmt/processing/tokenizer/";
+
+    @Param({"en", "de", "zh"})
+    public String language;
+
+    private Language lang;
+    private Tokenizer tokenizer;
+    private BaseTokenizer.Annotator annotator;
+    private String[] inputs;
+    private int index = 0;
+
+    private static List<String> readLines(String resource) throws IOException {
+        ArrayList<String> result = new ArrayList<>();
+        try (InputStream stream = TokenizerBenchmark.class.getResourceAsStream(resource)) {
+            for (String line : IOUtils.readLines(stream, StandardCharsets.UTF_8)) {
+                line = line.replace("#NUMERIC_ONLY#", "").trim();
+                if (!line.isEmpty() && line.charAt(0) != '#')
+                    result.add(line);
+            }
+        }
+
+        return result;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        lang = Language.fromString(language);
+        tokenizer = new Tokenizer(lang, Language.ENGLISH);
+
+        Random random = new Random(2);
+        inputs = new String[1000];
+
+        if ("zh".equals(language)) {
+            annotator = new StatisticalChineseAnnotator();
+            List<String> words = readLines(RESOURCES + "chinese-words.list");
+
+            for (int i = 0; i < inputs.length; i++) {
+                StringBuilder text = new StringBuilder();
+
+                int length = 5 + random.nextInt(20);
+                for (int j = 0; j < length; j++) {
+                    String word = words.get(random.nextInt(words.size()));
+                    text.append(random.nextBoolean() ? word : word.substring(0, 1));
+                }
+                text.append('。');
+
+                inputs[i] = text.toString();
+            }
+        } else {
+            annotator = AbbreviationAnnotator.getInstance(lang, "en".equals(language));
+            List<String> abbreviations = readLines(RESOURCES + "abbr/" + language + ".txt");
+            SyntheticData data = new SyntheticData(1);
+
+            for (int i = 0; i < inputs.length; i++) {
+                StringBuilder text = new StringBuilder();
+
+                int length = 5 + random.nextInt(25);
+                for (int j = 0; j < length; j++) {
+                    if (j > 0)
+                        text.append(' ');
+
+                    if (random.nextInt(10) == 0)
+                        text.append(abbreviations.get(random.nextInt(abbreviations.size())));
+                    else
+                        text.append(data.word(random));
+                }
+                text.append('.');
+
+                inputs[i] = text.toString();
+            }
+        }
+    }
+
+    @Benchmark
+    public TokenizedString annotate() {
+        TokenizedString string = new TokenizedString(inputs[index++ % inputs.length], true);
+        annotator.annotate(string);
+        return string;
+    }
+
+    @Benchmark
+    public SentenceBuilder tokenize() {
+        String input = inputs[index++ % inputs.length];
+        return tokenizer.call(new SentenceBuilder(lang, input), null);
+    }
+
+}
@@ -0,0 +1,106 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.BenchmarkNode;
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.facade.ModernMT;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Priority;
+import eu.modernmt.model.Translation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full translation path ({@link eu.modernmt.facade.TranslationFacade#get}) on an in-process
+ * node: pre-processing, memory lookup, scheduling, (echo) decoding and post-processing.
+ * A "repetitionRate" fraction of the inputs are sentences already in the memories.
+ * "translateInMemory" uses an explicit context vector (the "context_vector" API parameter)
+ * made of the input memory only, as clients do when translating within their own memories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TranslationFacadeBenchmark {
+
+    @Param({"100"})
+    public int memories;
+
+    @Param({"1000"})
+    public int unitsPerMemory;
+
+    @Param({"0.5", "0.9"})
+    public float repetitionRate;
+
+    private BenchmarkNode node;
+    private String[] inputs;
+    private String[] contexts;
+    private ContextVector[] contextVectors;
+    private ContextVector[] memoryContextVectors;
+
+    @State(Scope.Thread)
+    public static class Sampler {
+        final Random random = new Random(42);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        SyntheticData data = new SyntheticData(1);
+        node = new BenchmarkNode(data, memories, unitsPerMemory);
+        node.start();
+
+        Random random = new Random(2);
+        List<TranslationUnitMessage> units = node.getTranslationUnits();
+
+        inputs = new String[1000];
+        contexts = new String[inputs.length];
+        contextVectors = new ContextVector[inputs.length];
+        memoryContextVectors = new ContextVector[inputs.length];
+
+        for (int i = 0; i < inputs.length; i++) {
+            long memory = 1 + random.nextInt(memories);
+
+            if (random.nextFloat() < repetitionRate) {
+                TranslationUnitMessage unit = units.get(random.nextInt(units.size()));
+                memory = unit.memory;
+                inputs[i] = unit.value.source;
+            } else {
+                inputs[i] = data.memorySentence(random, memory, 5, 25);
+            }
+
+            contexts[i] = data.memorySentence(random, memory, 20, 40);
+            contextVectors[i] = ModernMT.translation.getContextVector(null, SyntheticData.DIRECTION, contexts[i], 10);
+            memoryContextVectors[i] = new ContextVector.Builder(1).add(memory, 1.f).build();
+        }
+    }
+
+    @TearDown
+    public void teardown() throws Exception {
+        node.close();
+    }
+
+    @Benchmark
+    public Translation translate(Sampler sampler) throws Exception {
+        int i = sampler.random.nextInt(inputs.length);
+        return ModernMT.translation.get(null, SyntheticData.DIRECTION, null, inputs[i], contextVectors[i], Priority.NORMAL, 0L);
+    }
+
+    @Benchmark
+    public Translation translateInMemory(Sampler sampler) throws Exception {
+        int i = sampler.random.nextInt(inputs.length);
+        return ModernMT.translation.get(null, SyntheticData.DIRECTION, null, inputs[i], memoryContextVectors[i], Priority.NORMAL, 0L);
+    }
+
+    @Benchmark
+    public Translation translateWithContextAnalysis(Sampler sampler) throws Exception {
+        int i = sampler.random.nextInt(inputs.length);
+        ContextVector context = ModernMT.translation.getContextVector(null, SyntheticData.DIRECTION, contexts[i], 10);
+        return ModernMT.translation.get(null, SyntheticData.DIRECTION, null, inputs[i], context, Priority.NORMAL, 0L);
+    }
+
+}
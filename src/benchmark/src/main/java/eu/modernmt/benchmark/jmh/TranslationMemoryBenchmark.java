@@ -0,0 +1,102 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import org.apache.lucene.store.RAMDirectory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion lookup in a synthetic translation memory. A "repetitionRate" fraction of the queries are
+ * exact matches of memory entries, the others are new sentences typical of a random memory (fuzzy matches).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslationMemoryBenchmark {
+
+    @Param({"100"})
+    public int memories;
+
+    @Param({"1000"})
+    public int unitsPerMemory;
+
+    @Param({"1"})
+    public int limit;
+
+    @Param({"0.5", "0.9"})
+    public float repetitionRate;
+
+    private LuceneTranslationMemory memory;
+    private Sentence[] queries;
+    private ContextVector[] contexts;
+    private int index = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        SyntheticData data = new SyntheticData(1);
+        Random random = new Random(2);
+
+        List<TranslationUnitMessage> units = data.translationUnits(random, memories, unitsPerMemory);
+
+        memory = new LuceneTranslationMemory(new RAMDirectory(), 10);
+        SyntheticData.index(memory, units);
+        SyntheticData.forceMerge(memory);
+
+        queries = new Sentence[1000];
+        contexts = new ContextVector[queries.length];
+
+        for (int i = 0; i < queries.length; i++) {
+            long memoryId;
+
+            if (random.nextFloat() < repetitionRate) {
+                TranslationUnitMessage unit = units.get(random.nextInt(units.size()));
+                memoryId = unit.memory;
+                queries[i] = SyntheticData.tokenize(unit.value.source);
+            } else {
+                memoryId = 1 + random.nextInt(memories);
+                queries[i] = SyntheticData.tokenize(data.memorySentence(random, memoryId, 5, 25));
+            }
+
+            ContextVector.Builder builder = new ContextVector.Builder(10);
+            builder.add(memoryId, 1.f);
+            for (int j = 0; j < 9; j++)
+                builder.add(1 + random.nextInt(memories), random.nextFloat());
+
+            contexts[i] = builder.build();
+        }
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        memory.close();
+    }
+
+    @Benchmark
+    public ScoreEntry[] search() throws IOException {
+        int i = index++ % queries.length;
+        return memory.search(null, SyntheticData.DIRECTION, queries[i], contexts[i], limit);
+    }
+
+    /**
+     * The lookup done by the decoder: the exact match if any, the fuzzy search otherwise
+     */
+    @Benchmark
+    public Object lookup() throws IOException {
+        int i = index++ % queries.length;
+        ScoreEntry entry = memory.searchExactMatch(null, SyntheticData.DIRECTION, queries[i], contexts[i]);
+        return entry != null ? entry : memory.search(null, SyntheticData.DIRECTION, queries[i], contexts[i], limit);
+    }
+
+}
@@ -0,0 +1,115 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.DataBatch;
+import eu.modernmt.data.DeletionMessage;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.corpus.TranslationUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single contributions delivered to an on-disk translation memory, one DataBatch each as
+ * it happens with interactive post-editing. "contribute" measures the ingest cost, "contributeAndSearch"
+ * the visibility latency: the time until the contribution can be returned by a search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslationMemoryIngestBenchmark {
+
+    private static final short CONTRIBUTIONS_CHANNEL = 1;
+
+    @Param({"10000"})
+    public int size;
+
+    private File path;
+    private LuceneTranslationMemory memory;
+    private SyntheticData data;
+    private Random random;
+    private ContextVector context;
+    private long position = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("mmt-benchmark-tm").toFile();
+        data = new SyntheticData(1);
+        random = new Random(2);
+
+        context = new ContextVector.Builder(1).add(1L, 1.f).build();
+        memory = new LuceneTranslationMemory(path, 10);
+        SyntheticData.index(memory, data.translationUnits(random, 10, size / 10));
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        memory.close();
+        FileUtils.deleteDirectory(path);
+    }
+
+    private TranslationUnitMessage contribution() {
+        String source = data.memorySentence(random, 1, 5, 25);
+        String target = SyntheticData.translate(source);
+
+        TranslationUnit tu = new TranslationUnit(null, SyntheticData.DIRECTION, source, target, new Date());
+        return new TranslationUnitMessage(CONTRIBUTIONS_CHANNEL, position++, 1, null, tu, false, null, null,
+                SyntheticData.DIRECTION, SyntheticData.tokenize(source), SyntheticData.tokenize(target), null);
+    }
+
+    @Benchmark
+    public void contribute() throws IOException {
+        memory.onDataReceived(new Batch(contribution()));
+    }
+
+    @Benchmark
+    public ScoreEntry[] contributeAndSearch() throws IOException {
+        TranslationUnitMessage unit = contribution();
+        memory.onDataReceived(new Batch(unit));
+
+        Sentence query = SyntheticData.tokenize(unit.value.source);
+        ScoreEntry[] result = memory.search(null, SyntheticData.DIRECTION, query, context, 1);
+
+        if (result.length == 0 || !unit.value.source.equals(String.join(" ", result[0].sentenceTokens)))
+            throw new IllegalStateException("Contribution not visible: " + unit.value.source);
+
+        return result;
+    }
+
+    private static final class Batch implements DataBatch {
+
+        private final TranslationUnitMessage unit;
+
+        private Batch(TranslationUnitMessage unit) {
+            this.unit = unit;
+        }
+
+        @Override
+        public Collection<TranslationUnitMessage> getTranslationUnits() {
+            return Collections.singleton(unit);
+        }
+
+        @Override
+        public Collection<DeletionMessage> getDeletions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Short, Long> getChannelPositions() {
+            return Collections.singletonMap(unit.channel, unit.channelPosition);
+        }
+    }
+
+}
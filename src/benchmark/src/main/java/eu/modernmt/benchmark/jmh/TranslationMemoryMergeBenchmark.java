@@ -0,0 +1,162 @@
+package eu.modernmt.benchmark.jmh;
+
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.DataBatch;
+import eu.modernmt.data.DeletionMessage;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.corpus.TranslationUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency and ingest cost of an on-disk translation memory while it is optimized in background.
+ * Contributions update a set of "hot" entries (by tuid), so deleted documents accumulate in the
+ * new segments while the bulk of the index is never updated:
+ * <ul>
+ * <li>"none": no maintenance</li>
+ * <li>"forceMerge": the previous optimize(), a forceMerge(1) holding the memory lock, repeated</li>
+ * <li>"mergeDeletes": the current optimize(), merging only the segments with too many deleted documents, repeated</li>
+ * </ul>
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranslationMemoryMergeBenchmark {
+
+    private static final short CONTRIBUTIONS_CHANNEL = 1;
+    private static final int HOT_ENTRIES = 2000;
+
+    @Param({"20000"})
+    public int size;
+
+    @Param({"none", "forceMerge", "mergeDeletes"})
+    public String maintenance;
+
+    private File path;
+    private LuceneTranslationMemory memory;
+    private SyntheticData data;
+    private Random random;
+    private ContextVector context;
+    private Sentence[] queries;
+    private long position = 0;
+    private int query = 0;
+
+    private Thread maintainer;
+    private volatile boolean running;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempDirectory("mmt-benchmark-tm").toFile();
+        data = new SyntheticData(1);
+        random = new Random(2);
+
+        context = new ContextVector.Builder(1).add(1L, 1.f).build();
+        memory = new LuceneTranslationMemory(path, 10);
+        memory.setMergePolicy(0, LuceneTranslationMemory.DEFAULT_MERGE_DELETES_PCT, LuceneTranslationMemory.DEFAULT_MERGE_MAX_MB_PER_SEC);
+        SyntheticData.index(memory, data.translationUnits(random, 10, size / 10));
+
+        queries = new Sentence[1000];
+        for (int i = 0; i < queries.length; i++)
+            queries[i] = SyntheticData.tokenize(data.memorySentence(random, 1 + random.nextInt(10), 5, 25));
+
+        // Half of the hot entries already exist: the first contributions are updates too
+        for (int i = 0; i < HOT_ENTRIES / 2; i++)
+            memory.onDataReceived(new Batch(contribution()));
+        memory.commit();
+
+        running = true;
+        maintainer = new Thread(this::maintain, "TranslationMemoryMaintainer");
+        maintainer.setDaemon(true);
+        maintainer.start();
+    }
+
+    @TearDown
+    public void teardown() throws IOException, InterruptedException {
+        running = false;
+        maintainer.join();
+
+        memory.close();
+        FileUtils.deleteDirectory(path);
+    }
+
+    private void maintain() {
+        try {
+            while (running) {
+                if ("forceMerge".equals(maintenance)) {
+                    synchronized (memory) {
+                        memory.getIndexWriter().forceMerge(1);
+                        memory.commit();
+                    }
+                } else if ("mergeDeletes".equals(maintenance)) {
+                    memory.optimize();
+                }
+
+                Thread.sleep(100);
+            }
+        } catch (InterruptedException e) {
+            // exit
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private TranslationUnitMessage contribution() {
+        String tuid = "hot-" + random.nextInt(HOT_ENTRIES);
+        String source = data.memorySentence(random, 1, 5, 25);
+        String target = SyntheticData.translate(source);
+
+        TranslationUnit tu = new TranslationUnit(tuid, SyntheticData.DIRECTION, source, target, new Date());
+        return new TranslationUnitMessage(CONTRIBUTIONS_CHANNEL, position++, 1, null, tu, true, null, null,
+                SyntheticData.DIRECTION, SyntheticData.tokenize(source), SyntheticData.tokenize(target), null);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    public ScoreEntry[] search() throws IOException {
+        return memory.search(null, SyntheticData.DIRECTION, queries[query++ % queries.length], context, 1);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    public void contribute() throws IOException {
+        memory.onDataReceived(new Batch(contribution()));
+    }
+
+    private static final class Batch implements DataBatch {
+
+        private final TranslationUnitMessage unit;
+
+        private Batch(TranslationUnitMessage unit) {
+            this.unit = unit;
+        }
+
+        @Override
+        public Collection<TranslationUnitMessage> getTranslationUnits() {
+            return Collections.singleton(unit);
+        }
+
+        @Override
+        public Collection<DeletionMessage> getDeletions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Short, Long> getChannelPositions() {
+            return Collections.singletonMap(unit.channel, unit.channelPosition);
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+package eu.modernmt.benchmark.load;
+
+import eu.modernmt.decoder.TranslationTimeoutException;
+import eu.modernmt.metrics.Histogram;
+
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a request function with either a closed-loop or an open-loop workload and
+ * collects throughput and latency statistics.
+ * <p>
+ * In closed-loop mode a fixed number of clients send a new request as soon as the previous
+ * one completes. In open-loop mode requests arrive following a Poisson process with the
+ * given rate, regardless of completions; latency is measured from the intended arrival time,
+ * so that a saturated system is not hidden by the generator slowing down (coordinated omission).
+ */
+public class LoadGenerator {
+
+    public interface Request {
+
+        void execute(Random random) throws Exception;
+
+    }
+
+    public static class Report {
+
+        public final long duration;  // millis
+        public final long completed;
+        public final long timeouts;
+        public final long errors;
+        public final long dropped;
+        public final Histogram.Snapshot latency;  // micros
+
+        private Report(long duration, long completed, long timeouts, long errors, long dropped, Histogram.Snapshot latency) {
+            this.duration = duration;
+            this.completed = completed;
+            this.timeouts = timeouts;
+            this.errors = errors;
+            this.dropped = dropped;
+            this.latency = latency;
+        }
+
+        public double getThroughput() {
+            return completed * 1000. / duration;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("duration=%.1fs completed=%d timeouts=%d errors=%d dropped=%d throughput=%.1f/s\n" +
+                            "latency (ms): mean=%.2f p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                    duration / 1000., completed, timeouts, errors, dropped, getThroughput(),
+                    latency.getMean() / 1000., latency.getPercentile(50) / 1000., latency.getPercentile(90) / 1000.,
+                    latency.getPercentile(99) / 1000., latency.getPercentile(99.9) / 1000., latency.getMax() / 1000.);
+        }
+
+    }
+
+    private final Request request;
+    private final long seed;
+
+    private volatile Recorder recorder;
+
+    public LoadGenerator(Request request, long seed) {
+        this.request = request;
+        this.seed = seed;
+    }
+
+    private static class Recorder {
+
+        final Histogram latency = new Histogram();
+        final LongAdder completed = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+
+        Report report(long duration) {
+            return new Report(duration, completed.sum(), timeouts.sum(), errors.sum(), dropped.sum(), latency.getSnapshot());
+        }
+
+    }
+
+    private void execute(Random random, long beginNanos) {
+        Recorder recorder = this.recorder;
+
+        try {
+            request.execute(random);
+            recorder.latency.updateSince(beginNanos);
+            recorder.completed.increment();
+        } catch (TranslationTimeoutException e) {
+            recorder.timeouts.increment();
+        } catch (Throwable e) {
+            recorder.errors.increment();
+        }
+    }
+
+    /**
+     * Runs a closed-loop workload.
+     *
+     * @param clients  number of concurrent clients
+     * @param warmup   warm-up time in millis, not included in the report
+     * @param duration measurement time in millis
+     * @return the measurement report
+     */
+    public Report runClosedLoop(int clients, long warmup, long duration) throws InterruptedException {
+        recorder = new Recorder();
+
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmup + duration);
+
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            final Random random = new Random(seed + i);
+
+            threads[i] = new Thread(() -> {
+                long begin;
+                while ((begin = System.nanoTime()) < end)
+                    execute(random, begin);
+            }, "LoadGenerator-" + i);
+            threads[i].start();
+        }
+
+        long begin = startMeasurement(warmup);
+
+        for (Thread thread : threads)
+            thread.join();
+
+        return recorder.report(System.currentTimeMillis() - begin);
+    }
+
+    /**
+     * Runs an open-loop workload.
+     *
+     * @param rate           average number of requests per second
+     * @param maxOutstanding maximum number of requests in progress, further arrivals are dropped
+     * @param warmup         warm-up time in millis, not included in the report
+     * @param duration       measurement time in millis
+     * @return the measurement report
+     */
+    public Report runOpenLoop(double rate, int maxOutstanding, long warmup, long duration) throws InterruptedException {
+        recorder = new Recorder();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxOutstanding, maxOutstanding,
+                60, TimeUnit.SECONDS, new SynchronousQueue<>());
+        executor.prestartAllCoreThreads();
+
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(warmup + duration);
+        final double meanInterval = TimeUnit.SECONDS.toNanos(1) / rate;
+
+        Thread dispatcher = new Thread(() -> {
+            Random arrivals = new Random(seed);
+            long next = System.nanoTime();
+
+            while (next < end) {
+                long delay = next - System.nanoTime();
+                if (delay > 0)
+                    LockSupport.parkNanos(delay);
+
+                final long arrival = next;
+                final Random random = new Random(arrivals.nextLong());
+                try {
+                    executor.execute(() -> execute(random, arrival));
+                } catch (RejectedExecutionException e) {
+                    recorder.dropped.increment();
+                }
+
+                next += (long) (-Math.log(1. - arrivals.nextDouble()) * meanInterval);
+            }
+        }, "LoadGenerator-dispatcher");
+        dispatcher.start();
+
+        long begin = startMeasurement(warmup);
+        dispatcher.join();
+        long elapsed = System.currentTimeMillis() - begin;
+
+        // wait for outstanding requests
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        return recorder.report(elapsed);
+    }
+
+    private long startMeasurement(long warmup) throws InterruptedException {
+        Thread.sleep(warmup);
+        recorder = new Recorder();
+        return System.currentTimeMillis();
+    }
+
+}
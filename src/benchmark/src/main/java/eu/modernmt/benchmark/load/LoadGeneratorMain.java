@@ -0,0 +1,144 @@
+package eu.modernmt.benchmark.load;
+
+import eu.modernmt.benchmark.BenchmarkNode;
+import eu.modernmt.benchmark.SyntheticData;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.facade.ModernMT;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Priority;
+import org.apache.commons.cli.*;
+
+import java.util.List;
+
+/**
+ * Starts an in-process node with a synthetic engine and drives the full translation
+ * path with a closed-loop or open-loop workload.
+ */
+public class LoadGeneratorMain {
+
+    private static class Args {
+
+        private static final Options cliOptions;
+
+        static {
+            Option mode = Option.builder().longOpt("mode").hasArg().required(false).desc("closed (default) or open").build();
+            Option clients = Option.builder("c").longOpt("clients").hasArg().required(false).desc("closed-loop clients (default 8)").build();
+            Option rate = Option.builder("r").longOpt("rate").hasArg().required(false).desc("open-loop requests per second (default 100)").build();
+            Option outstanding = Option.builder().longOpt("max-outstanding").hasArg().required(false).desc("open-loop maximum requests in progress (default 256)").build();
+            Option duration = Option.builder("d").longOpt("duration").hasArg().required(false).desc("measurement time in seconds (default 60)").build();
+            Option warmup = Option.builder("w").longOpt("warmup").hasArg().required(false).desc("warm-up time in seconds (default 10)").build();
+            Option timeout = Option.builder().longOpt("timeout").hasArg().required(false).desc("translation timeout in millis (default none)").build();
+            Option memories = Option.builder().longOpt("memories").hasArg().required(false).desc("synthetic memories (default 100)").build();
+            Option units = Option.builder().longOpt("units").hasArg().required(false).desc("translation units per memory (default 1000)").build();
+            Option context = Option.builder().longOpt("context-analysis").hasArg(false).required(false).desc("compute the context vector at every request").build();
+            Option seed = Option.builder().longOpt("seed").hasArg().required(false).desc("random seed (default 1)").build();
+
+            cliOptions = new Options();
+            cliOptions.addOption(mode);
+            cliOptions.addOption(clients);
+            cliOptions.addOption(rate);
+            cliOptions.addOption(outstanding);
+            cliOptions.addOption(duration);
+            cliOptions.addOption(warmup);
+            cliOptions.addOption(timeout);
+            cliOptions.addOption(memories);
+            cliOptions.addOption(units);
+            cliOptions.addOption(context);
+            cliOptions.addOption(seed);
+        }
+
+        public final boolean openLoop;
+        public final int clients;
+        public final double rate;
+        public final int maxOutstanding;
+        public final long duration;
+        public final long warmup;
+        public final long timeout;
+        public final int memories;
+        public final int units;
+        public final boolean contextAnalysis;
+        public final long seed;
+
+        public Args(String[] args) throws ParseException {
+            CommandLineParser parser = new DefaultParser();
+            CommandLine cli = parser.parse(cliOptions, args);
+
+            String mode = cli.getOptionValue("mode", "closed");
+            if (!"closed".equals(mode) && !"open".equals(mode))
+                throw new ParseException("Invalid mode: " + mode);
+
+            openLoop = "open".equals(mode);
+            clients = Integer.parseInt(cli.getOptionValue("clients", "8"));
+            rate = Double.parseDouble(cli.getOptionValue("rate", "100"));
+            maxOutstanding = Integer.parseInt(cli.getOptionValue("max-outstanding", "256"));
+            duration = Long.parseLong(cli.getOptionValue("duration", "60")) * 1000L;
+            warmup = Long.parseLong(cli.getOptionValue("warmup", "10")) * 1000L;
+            timeout = Long.parseLong(cli.getOptionValue("timeout", "0"));
+            memories = Integer.parseInt(cli.getOptionValue("memories", "100"));
+            units = Integer.parseInt(cli.getOptionValue("units", "1000"));
+            contextAnalysis = cli.hasOption("context-analysis");
+            seed = Long.parseLong(cli.getOptionValue("seed", "1"));
+        }
+
+    }
+
+    public static void main(String[] _args) throws Throwable {
+        Args args;
+        try {
+            args = new Args(_args);
+        } catch (ParseException e) {
+            System.err.println(e.getMessage());
+            new HelpFormatter().printHelp("LoadGeneratorMain", Args.cliOptions);
+            System.exit(1);
+            return;
+        }
+
+        SyntheticData data = new SyntheticData(args.seed);
+
+        System.out.println("Creating synthetic engine (" + args.memories + " memories, " + args.units + " units each)");
+
+        try (BenchmarkNode node = new BenchmarkNode(data, args.memories, args.units)) {
+            node.start();
+
+            List<TranslationUnitMessage> units = node.getTranslationUnits();
+
+            LoadGenerator generator = new LoadGenerator(random -> {
+                // half exact matches, half fuzzy matches
+                long memory = 1 + random.nextInt(args.memories);
+                String text;
+
+                if (random.nextBoolean()) {
+                    TranslationUnitMessage unit = units.get(random.nextInt(units.size()));
+                    memory = unit.memory;
+                    text = unit.value.source;
+                } else {
+                    text = data.memorySentence(random, memory, 5, 25);
+                }
+
+                ContextVector context;
+                if (args.contextAnalysis) {
+                    String contextText = data.memorySentence(random, memory, 20, 40);
+                    context = ModernMT.translation.getContextVector(null, SyntheticData.DIRECTION, contextText, 10);
+                } else {
+                    context = new ContextVector.Builder(1).add(memory, 1.f).build();
+                }
+
+                ModernMT.translation.get(null, SyntheticData.DIRECTION, null, text, context, Priority.NORMAL, args.timeout);
+            }, args.seed);
+
+            LoadGenerator.Report report;
+            if (args.openLoop) {
+                System.out.println("Running open-loop workload: " + args.rate + " req/s for " + (args.duration / 1000) + "s");
+                report = generator.runOpenLoop(args.rate, args.maxOutstanding, args.warmup, args.duration);
+            } else {
+                System.out.println("Running closed-loop workload: " + args.clients + " clients for " + (args.duration / 1000) + "s");
+                report = generator.runClosedLoop(args.clients, args.warmup, args.duration);
+            }
+
+            System.out.println(report);
+        }
+
+        System.exit(0);
+    }
+
+}
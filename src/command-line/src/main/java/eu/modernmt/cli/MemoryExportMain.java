@@ -1,8 +1,10 @@
 package eu.modernmt.cli;
 
 import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.ShardedTranslationMemory;
 import eu.modernmt.io.RuntimeIOException;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.memory.TranslationMemory;
 import eu.modernmt.model.corpus.MultilingualCorpus;
 import eu.modernmt.model.corpus.TUWriter;
 import eu.modernmt.model.corpus.TranslationUnit;
@@ -57,7 +59,8 @@ public class MemoryExportMain {
         FileUtils.forceMkdir(args.outputFolder);
         HashMap<String, TUWriter> writers = new HashMap<>();
 
-        LuceneTranslationMemory memory = new LuceneTranslationMemory(args.memoryFolder, 1);
+        TranslationMemory memory = ShardedTranslationMemory.isShardedLayout(args.memoryFolder) ?
+                new ShardedTranslationMemory(args.memoryFolder, 1) : new LuceneTranslationMemory(args.memoryFolder, 1);
         memory.dump(args.owner, args.id, entry -> {
             String key = toKey(entry.language);
             TUWriter writer = writers.computeIfAbsent(key, k -> {
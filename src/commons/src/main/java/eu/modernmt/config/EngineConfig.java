@@ -10,6 +10,7 @@ public class EngineConfig {
     private final NodeConfig parent;
     private String name = "default";
     private LanguageIndex languageIndex = null;
+    private int preprocessingCacheSize = 10000;
     private DecoderConfig decoderConfig = new DecoderConfig(this);
     private AlignerConfig alignerConfig = new AlignerConfig(this);
     private AnalyzerConfig analyzerConfig = new AnalyzerConfig(this);
@@ -39,6 +40,14 @@ public class EngineConfig {
         this.languageIndex = languageIndex;
     }
 
+    public int getPreprocessingCacheSize() {
+        return preprocessingCacheSize;
+    }
+
+    public void setPreprocessingCacheSize(int preprocessingCacheSize) {
+        this.preprocessingCacheSize = preprocessingCacheSize;
+    }
+
     public DecoderConfig getDecoderConfig() {
         return decoderConfig;
     }
@@ -56,6 +65,7 @@ public class EngineConfig {
         return "Engine: " +
                 "name='" + name + '\'' +
                 ", languages=" + languageIndex.size() +
+                ", preprocessingCacheSize=" + preprocessingCacheSize +
                 "\n  " + decoderConfig.toString().replace("\n", "\n  ") +
                 "\n  " + alignerConfig.toString().replace("\n", "\n  ") +
                 "\n  " + analyzerConfig.toString().replace("\n", "\n  ");
@@ -44,6 +44,9 @@ class XMLEngineConfigBuilder extends XMLAbstractBuilder {
 
         config.setLanguageIndex(languages);
 
+        if (hasAttribute("preprocessing-cache"))
+            config.setPreprocessingCacheSize(getIntAttribute("preprocessing-cache"));
+
         decoderConfigBuilder.build(config.getDecoderConfig());
         alignerConfigBuilder.build(config.getAlignerConfig());
         analyzerConfigBuilder.build(config.getAnalyzerConfig());
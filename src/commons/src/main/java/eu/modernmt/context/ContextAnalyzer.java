@@ -7,6 +7,9 @@ import eu.modernmt.model.corpus.Corpus;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -20,6 +23,19 @@ public interface ContextAnalyzer extends Closeable {
 
     ContextVector getContextVector(UUID user, LanguageDirection direction, Corpus query, int limit) throws ContextAnalyzerException;
 
+    /**
+     * Computes the context vectors of the same query for many language directions.
+     * Implementations should analyze the query only once; by default every direction is computed on its own.
+     *
+     * @return the context vector of every direction
+     */
+    default Map<LanguageDirection, ContextVector> getContextVectors(UUID user, Collection<LanguageDirection> directions, Corpus query, int limit) throws ContextAnalyzerException {
+        HashMap<LanguageDirection, ContextVector> result = new HashMap<>(directions.size());
+        for (LanguageDirection direction : directions)
+            result.put(direction, getContextVector(user, direction, query, limit));
+        return result;
+    }
+
     void optimize() throws ContextAnalyzerException;
 
 }
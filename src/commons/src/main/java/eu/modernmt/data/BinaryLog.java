@@ -57,4 +57,6 @@ public interface BinaryLog extends Closeable {
 
     void waitChannelPositions(Map<Short, Long> positions) throws InterruptedException;
 
+    boolean waitChannelPositions(Map<Short, Long> positions, long timeout, TimeUnit unit) throws InterruptedException;
+
 }
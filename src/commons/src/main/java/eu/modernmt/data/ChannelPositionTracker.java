@@ -0,0 +1,110 @@
+package eu.modernmt.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of the channel positions committed by all the {@link LogDataListener}s of a node.
+ * <p>
+ * Positions are monotonic watermarks: an update never moves a channel backwards.
+ * Threads waiting for a set of positions block on a condition that is signalled at every
+ * update, so they wake up as soon as the last listener commits, without polling.
+ */
+public class ChannelPositionTracker {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition updated = lock.newCondition();
+    private final HashMap<Short, Long> positions = new HashMap<>();
+
+    public void update(Map<Short, Long> committed) {
+        if (committed == null || committed.isEmpty())
+            return;
+
+        lock.lock();
+        try {
+            boolean changed = false;
+
+            for (Map.Entry<Short, Long> entry : committed.entrySet()) {
+                Long value = entry.getValue();
+                if (value == null)
+                    continue;
+
+                Long current = positions.get(entry.getKey());
+                if (current == null || current < value) {
+                    positions.put(entry.getKey(), value);
+                    changed = true;
+                }
+            }
+
+            if (changed)
+                updated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<Short, Long> getPositions() {
+        lock.lock();
+        try {
+            return new HashMap<>(positions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void await(Map<Short, Long> targets) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!isReached(targets))
+                updated.await();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every channel has reached the target position or the timeout expires.
+     * A target position equal to 0 is always considered reached.
+     *
+     * @param targets the positions to wait for, by channel id
+     * @param timeout the maximum time to wait
+     * @param unit    the time unit of the timeout argument
+     * @return true if all the positions have been reached, false if the timeout expired
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean await(Map<Short, Long> targets, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+
+        lock.lock();
+        try {
+            while (!isReached(targets)) {
+                if (nanos <= 0L)
+                    return false;
+
+                nanos = updated.awaitNanos(nanos);
+            }
+
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isReached(Map<Short, Long> targets) {
+        for (Map.Entry<Short, Long> entry : targets.entrySet()) {
+            Long target = entry.getValue();
+            if (target == null || target == 0L)
+                continue;
+
+            Long position = positions.get(entry.getKey());
+            if (position == null || position < target)
+                return false;
+        }
+
+        return true;
+    }
+
+}
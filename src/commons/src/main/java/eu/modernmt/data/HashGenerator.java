@@ -1,11 +1,22 @@
 package eu.modernmt.data;
 
-import eu.modernmt.io.UTF8Charset;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.model.corpus.TranslationUnit;
 
 /**
  * Created by davide on 30/09/17.
+ * <p>
+ * This class provides two families of hashes:
+ * <ul>
+ * <li>the <code>hash()</code> methods return the 80-bit FNV-1a hashes stored in the translation memory indexes,
+ * as strings of four 20-bit hex groups. The output is the same of the first implementation (UTF-8 bytes of the
+ * concatenated language tags and strings), but the bytes are encoded while hashing, without building
+ * intermediate strings and arrays. This saves allocations rather than time: FNV-1a still hashes one byte at a time.</li>
+ * <li>the <code>hash64()</code> methods return a 64-bit hash computed directly on the chars of the strings,
+ * four chars at a time. It is not compatible with the stored hashes and it must be used only for hashes
+ * that are not persisted. The <code>dedupHash64()</code> methods are the same hash with new lines hashed
+ * as spaces, the normalization of the key used for the deduplication of corpora.</li>
+ * </ul>
  */
 public class HashGenerator {
 
@@ -15,28 +26,63 @@ public class HashGenerator {
     private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
     private static final String CHARS = "0123456789ABCDEF";
 
+    private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME64_3 = 0x165667B19E3779F9L;
+    private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+    // ---------------------------------------------------------------------------------
+    //  Compatible hashes (translation memory)
+    // ---------------------------------------------------------------------------------
+
     public static String hash(LanguageDirection language, String tuid) {
-        String text = language.source.toLanguageTag() + ',' + language.target.toLanguageTag() + ',' + tuid;
+        // FNV-1a of the even and odd bytes of "source,target,tuid"
+        long ha = FNV_OFFSET_BASIS;
+        long hb = FNV_OFFSET_BASIS;
+        int index = 0;
+
+        for (int part = 0; part < 5; part++) {
+            CharSequence string;
+            switch (part) {
+                case 0:
+                    string = language.source.toLanguageTag();
+                    break;
+                case 2:
+                    string = language.target.toLanguageTag();
+                    break;
+                case 4:
+                    string = tuid;
+                    break;
+                default:
+                    string = ",";
+                    break;
+            }
 
-        byte[] original = text.getBytes(UTF8Charset.get());
-        int size = (original.length + 1) / 2;
+            int length = string.length();
 
-        int ia = 0;
-        int ib = 0;
-        byte[] a = new byte[size];
-        byte[] b = new byte[size];
+            for (int i = 0; i < length; ) {
+                long encoded = encodeUTF8(string, i);
+                int bytes = (int) encoded;
+                int count = (int) (encoded >>> 32) & 0xFF;
 
-        for (int i = 0; i < original.length; i++) {
-            if (i % 2 == 0)
-                a[ia++] = original[i];
-            else
-                b[ib++] = original[i];
+                for (int j = 0; j < count; j++) {
+                    int b = (bytes >>> (j * 8)) & 0xFF;
+
+                    if ((index++ & 1) == 0)
+                        ha = (ha ^ b) * FNV_PRIME;
+                    else
+                        hb = (hb ^ b) * FNV_PRIME;
+                }
+
+                i += (int) (encoded >>> 40);
+            }
         }
 
-        long h1_40bit = FNV_1a_lazy_mod_mapping(a);
-        long h2_40bit = FNV_1a_lazy_mod_mapping(b);
+        // The odd bytes were hashed as an array of the same size of the even ones, padded with zero
+        if ((index & 1) == 1)
+            hb *= FNV_PRIME;
 
-        return toString(h1_40bit, h2_40bit);
+        return toString(ha & TRUE_HASH_MASK, hb & TRUE_HASH_MASK);
     }
 
     public static String hash(TranslationUnit tu) {
@@ -44,13 +90,11 @@ public class HashGenerator {
     }
 
     public static String hash(LanguageDirection language, String sentence, String translation) {
-        sentence = language.source.toLanguageTag() + "|||" + sentence;
-        translation = language.target.toLanguageTag() + "|||" + translation;
-
-        long h1_40bit = FNV_1a_lazy_mod_mapping(sentence);
-        long h2_40bit = FNV_1a_lazy_mod_mapping(translation);
+        // FNV-1a of "source|||sentence" and "target|||translation"
+        long h1 = FNV_1a(FNV_1a(FNV_1a(FNV_OFFSET_BASIS, language.source.toLanguageTag()), "|||"), sentence);
+        long h2 = FNV_1a(FNV_1a(FNV_1a(FNV_OFFSET_BASIS, language.target.toLanguageTag()), "|||"), translation);
 
-        return toString(h1_40bit, h2_40bit);
+        return toString(h1 & TRUE_HASH_MASK, h2 & TRUE_HASH_MASK);
     }
 
     private static String toString(long h1_40bit, long h2_40bit) {
@@ -67,18 +111,62 @@ public class HashGenerator {
         return new String(string);
     }
 
-    private static long FNV_1a_lazy_mod_mapping(String sentence) {
-        return FNV_1a_lazy_mod_mapping(sentence.getBytes(UTF8Charset.get()));
+    private static long FNV_1a(long hash, CharSequence string) {
+        int length = string.length();
+
+        for (int i = 0; i < length; ) {
+            char c = string.charAt(i);
+
+            if (c < 0x80) {
+                hash = (hash ^ c) * FNV_PRIME;
+                i++;
+            } else {
+                long encoded = encodeUTF8(string, i);
+                int bytes = (int) encoded;
+                int count = (int) (encoded >>> 32) & 0xFF;
+
+                for (int j = 0; j < count; j++) {
+                    hash ^= (bytes >>> (j * 8)) & 0xFF;
+                    hash *= FNV_PRIME;
+                }
+
+                i += (int) (encoded >>> 40);
+            }
+        }
+
+        return hash;
     }
 
-    private static long FNV_1a_lazy_mod_mapping(byte[] bytes) {
-        long hash = FNV_OFFSET_BASIS;
-        for (byte b : bytes) {
-            hash ^= (b & 0xff);
-            hash *= FNV_PRIME;
+    /**
+     * Encodes the char at the given index as {@link String#getBytes(java.nio.charset.Charset)} with UTF-8 does:
+     * surrogate pairs are encoded as a single code point, unpaired surrogates are replaced by '?'.
+     *
+     * @return the bytes (first byte in the lowest bits) in bits 0-31, the number of bytes in bits 32-39
+     * and the number of chars consumed in bits 40-47
+     */
+    private static long encodeUTF8(CharSequence string, int i) {
+        char c = string.charAt(i);
+
+        if (c < 0x80)
+            return (1L << 40) | (1L << 32) | c;
+
+        if (c < 0x800)
+            return (1L << 40) | (2L << 32) | (0xC0 | (c >>> 6)) | ((0x80 | (c & 0x3F)) << 8);
+
+        if (Character.isSurrogate(c)) {
+            if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, string.charAt(i + 1));
+                long bytes = (0xF0 | (cp >>> 18)) |
+                        ((0x80 | ((cp >>> 12) & 0x3F)) << 8) |
+                        ((0x80 | ((cp >>> 6) & 0x3F)) << 16) |
+                        ((long) (0x80 | (cp & 0x3F)) << 24);
+                return (2L << 40) | (4L << 32) | bytes;
+            } else {
+                return (1L << 40) | (1L << 32) | '?';
+            }
         }
 
-        return (hash % TRUE_HASH_SIZE) & TRUE_HASH_MASK;
+        return (1L << 40) | (3L << 32) | (0xE0 | (c >>> 12)) | ((0x80 | ((c >>> 6) & 0x3F)) << 8) | ((0x80 | (c & 0x3F)) << 16);
     }
 
     private static void toHex(int b20, char[] dest, int offset) {
@@ -88,4 +176,98 @@ public class HashGenerator {
         }
     }
 
+    // ---------------------------------------------------------------------------------
+    //  Fast hashes (not persisted)
+    // ---------------------------------------------------------------------------------
+
+    public static long hash64(CharSequence string) {
+        return avalanche(update(PRIME64_5, string, false));
+    }
+
+    public static long hash64(TranslationUnit tu) {
+        return hash64(tu.language, tu.source, tu.target);
+    }
+
+    public static long hash64(LanguageDirection language, CharSequence sentence, CharSequence translation) {
+        return hash64(language, sentence, translation, false);
+    }
+
+    public static long dedupHash64(CharSequence string) {
+        return avalanche(update(PRIME64_5, string, true));
+    }
+
+    public static long dedupHash64(TranslationUnit tu) {
+        return dedupHash64(tu.language, tu.source, tu.target);
+    }
+
+    public static long dedupHash64(LanguageDirection language, CharSequence sentence, CharSequence translation) {
+        return hash64(language, sentence, translation, true);
+    }
+
+    private static long hash64(LanguageDirection language, CharSequence sentence, CharSequence translation, boolean newLinesAsSpaces) {
+        long hash = PRIME64_5;
+        hash = update(hash, language.source.toLanguageTag(), newLinesAsSpaces);
+        hash = update(hash, language.target.toLanguageTag(), newLinesAsSpaces);
+        hash = update(hash, sentence, newLinesAsSpaces);
+        hash = update(hash, translation, newLinesAsSpaces);
+
+        return avalanche(hash);
+    }
+
+    /**
+     * Hashes the chars of the string in two lanes of four chars at a time, then its length:
+     * the concatenation of different strings never produces the same sequence of rounds.
+     */
+    private static long update(long hash, CharSequence string, boolean newLinesAsSpaces) {
+        int length = string.length();
+        int i = 0;
+
+        if (length >= 8) {
+            long v1 = hash;
+            long v2 = hash + PRIME64_2;
+
+            for (; i + 8 <= length; i += 8) {
+                v1 = round(v1, word(string, i, newLinesAsSpaces));
+                v2 = round(v2, word(string, i + 4, newLinesAsSpaces));
+            }
+
+            hash = round(v1, v2);
+        }
+
+        for (; i + 4 <= length; i += 4)
+            hash = round(hash, word(string, i, newLinesAsSpaces));
+
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16)
+            tail |= charAt(string, i, newLinesAsSpaces) << shift;
+
+        return round(round(hash, tail), length);
+    }
+
+    private static long word(CharSequence string, int i, boolean newLinesAsSpaces) {
+        return charAt(string, i, newLinesAsSpaces) |
+                (charAt(string, i + 1, newLinesAsSpaces) << 16) |
+                (charAt(string, i + 2, newLinesAsSpaces) << 32) |
+                (charAt(string, i + 3, newLinesAsSpaces) << 48);
+    }
+
+    private static long charAt(CharSequence string, int i, boolean newLinesAsSpaces) {
+        char c = string.charAt(i);
+        return newLinesAsSpaces && c == '\n' ? ' ' : c;
+    }
+
+    private static long round(long hash, long input) {
+        hash ^= Long.rotateLeft(input * PRIME64_2, 31) * PRIME64_1;
+        return Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_3;
+    }
+
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME64_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME64_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
 }
@@ -33,6 +33,14 @@ public abstract class Decoder implements Closeable {
 
     public abstract void test() throws DecoderException;
 
-
+    /**
+     * Estimates how long a new translation with the given priority would wait before being decoded.
+     *
+     * @param priority the priority of the translation
+     * @return the estimated waiting time in milliseconds, 0 if the decoder does not provide an estimate
+     */
+    public long estimateQueueTime(Priority priority) {
+        return 0L;
+    }
 
 }
@@ -25,6 +25,8 @@ public interface FileProxy {
 
     class NativeFileProxy implements FileProxy {
 
+        private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
         private final File file;
         private final boolean gzipped;
 
@@ -50,7 +52,7 @@ public interface FileProxy {
         public InputStream getInputStream() throws IOException {
             InputStream stream = new FileInputStream(file);
             if (gzipped)
-                stream = new GZIPInputStream(stream);
+                stream = new GZIPInputStream(stream, GZIP_BUFFER_SIZE);
             return stream;
         }
 
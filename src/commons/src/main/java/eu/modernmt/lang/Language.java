@@ -1,7 +1,6 @@
 package eu.modernmt.lang;
 
 import java.io.Serializable;
-import java.util.Objects;
 import java.util.regex.Pattern;
 
 /**
@@ -236,7 +235,7 @@ public final class Language implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(tag);
+        return 31 + tag.hashCode();  // same of Objects.hash(tag), without the varargs array
     }
 
 }
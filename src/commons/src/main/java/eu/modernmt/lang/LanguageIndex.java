@@ -69,43 +69,31 @@ public class LanguageIndex {
 
     }
 
-    private final Map<SimpleLanguageDirection, List<LanguageDirection>> index;
-    private final Map<String, List<LanguageRule>> rules;
-
-    private final Set<LanguageDirection> languages;
-    private final ConcurrentHashMap<LanguageDirection, LanguageDirection> mappingCache;
-    private final Map<LanguageDirection, LanguageBridge> pivotLanguages;
+    private volatile Table table;
 
     private LanguageIndex(Map<SimpleLanguageDirection, List<LanguageDirection>> index, Map<String, List<LanguageRule>> rules, Map<LanguageDirection, LanguageBridge> pivots) {
-        HashSet<LanguageDirection> languages = new HashSet<>();
-        for (List<LanguageDirection> entries : index.values())
-            languages.addAll(entries);
-
-        this.pivotLanguages = pivots;
-        this.languages = Collections.unmodifiableSet(languages);
-        this.index = index;
-        this.rules = rules;
-        this.mappingCache = new ConcurrentHashMap<>();
+        this.table = new Table(index, rules, pivots);
     }
 
     public Set<LanguageDirection> getLanguages() {
-        return languages;
+        return table.languages;
     }
 
     public int size() {
-        return languages.size();
+        return table.languages.size();
     }
 
     public LanguageDirection asSingleLanguagePair() {
+        Set<LanguageDirection> languages = table.languages;
         return languages.size() == 1 ? languages.iterator().next() : null;
     }
 
     public boolean hasPivotLanguage(LanguageDirection direction) {
-        return pivotLanguages.containsKey(direction);
+        return table.pivotLanguages.containsKey(direction);
     }
 
     public LanguageBridge getLanguageBridge(LanguageDirection direction) {
-        return pivotLanguages.get(direction);
+        return table.pivotLanguages.get(direction);
     }
 
     /**
@@ -117,88 +105,184 @@ public class LanguageIndex {
      * @return the supported language pair that matches the input pair, or null if no mapping found
      */
     public LanguageDirection map(LanguageDirection pair) {
-        return mappingCache.computeIfAbsent(pair, this::search);
+        return table.resolve(pair).direction;
     }
 
     public LanguageDirection mapIgnoringDirection(LanguageDirection pair) {
-        LanguageDirection cached = mappingCache.get(pair);
-        if (cached != null)
-            return cached;
-        cached = mappingCache.get(pair.reversed());
-        if (cached != null)
-            return cached.reversed();
+        return table.resolve(pair).anyDirection;
+    }
 
-        LanguageDirection mapped = map(pair);
+    /**
+     * Replaces languages, rules and pivots of this index with the ones of the given index.
+     * Readers are never blocked: a concurrent lookup completes with either the previous or the new rules.
+     *
+     * @param index the index with the new configuration
+     */
+    public void reload(LanguageIndex index) {
+        this.table = index.table;
+    }
 
-        if (mapped == null) {
-            mapped = map(pair.reversed());
-            if (mapped != null)
-                mapped = mapped.reversed();
-        }
+    int getCachedMappingsCount() {
+        return table.cache.size();
+    }
 
-        return mapped;
+    boolean isMappingCached(LanguageDirection pair) {
+        return table.cache.containsKey(pair);
     }
 
-    private LanguageDirection search(LanguageDirection language) {
-        SimpleLanguageDirection key = SimpleLanguageDirection.fromLanguageDirection(language);
-        List<LanguageDirection> entries = index.get(key);
+    @Override
+    public String toString() {
+        return "i" + table.languages;
+    }
 
-        if (entries == null)
-            return null;
+    /**
+     * Immutable snapshot of the index: the language pairs are grouped by (source, target) language code and
+     * the rules by language code, so that the resolution of a pair never allocates. Resolutions, both
+     * positive and negative, are cached up to MAX_CACHED_MAPPINGS pairs: when the limit is reached
+     * (i.e. with unexpected tags from clients) the cache is cleared and filled again by the following lookups.
+     * A lookup of a cached pair is a plain map read, that does not allocate nor record the access.
+     */
+    private static final class Table {
 
-        // First try if there is a matching pair without rules transformation
-        for (LanguageDirection entry : entries) {
-            if (entry.isEqualOrMoreGenericThan(language))
-                return entry;
+        private static final int MAX_CACHED_MAPPINGS = 4096;
+
+        private final Map<String, Map<String, Entry[]>> entries;
+        private final Map<String, Dialects> dialects;
+        private final Set<LanguageDirection> languages;
+        private final Map<LanguageDirection, LanguageBridge> pivotLanguages;
+        private final ConcurrentHashMap<LanguageDirection, Resolution> cache = new ConcurrentHashMap<>();
+
+        Table(Map<SimpleLanguageDirection, List<LanguageDirection>> index, Map<String, List<LanguageRule>> rules, Map<LanguageDirection, LanguageBridge> pivots) {
+            HashSet<LanguageDirection> languages = new HashSet<>();
+            HashMap<String, Map<String, Entry[]>> entries = new HashMap<>();
+            HashMap<String, Dialects> dialects = new HashMap<>();
+
+            for (Map.Entry<SimpleLanguageDirection, List<LanguageDirection>> e : index.entrySet()) {
+                SimpleLanguageDirection key = e.getKey();
+                List<LanguageDirection> list = e.getValue();
+
+                Entry[] array = new Entry[list.size()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = new Entry(list.get(i));
+
+                entries.computeIfAbsent(key.source, k -> new HashMap<>()).put(key.target, array);
+                languages.addAll(list);
+
+                dialects.computeIfAbsent(key.source, k -> new Dialects(k, rules.get(k)));
+                dialects.computeIfAbsent(key.target, k -> new Dialects(k, rules.get(k)));
+            }
+
+            this.entries = entries;
+            this.dialects = dialects;
+            this.languages = Collections.unmodifiableSet(languages);
+            this.pivotLanguages = pivots;
         }
 
-        // If not found, try applying transformation
-        language = transform(language);
+        Resolution resolve(LanguageDirection pair) {
+            Resolution resolution = cache.get(pair);
 
-        if (language == null)  // no transformation applied
-            return null;
+            if (resolution == null) {
+                Entry entry = search(pair.source, pair.target);
 
-        for (LanguageDirection entry : entries) {
-            if (entry.isEqualOrMoreGenericThan(language))
-                return entry;
+                if (entry != null) {
+                    resolution = entry.forward;
+                } else {
+                    entry = search(pair.target, pair.source);
+                    resolution = entry == null ? Resolution.NONE : entry.backward;
+                }
+
+                if (cache.size() >= MAX_CACHED_MAPPINGS)
+                    cache.clear();
+                cache.put(pair, resolution);
+            }
+
+            return resolution;
         }
 
-        return null;
-    }
+        private Entry search(Language source, Language target) {
+            Map<String, Entry[]> targets = entries.get(source.getLanguage());
+            Entry[] candidates = targets == null ? null : targets.get(target.getLanguage());
 
-    private LanguageDirection transform(LanguageDirection language) {
-        Language source = transform(language.source);
-        Language target = transform(language.target);
+            if (candidates == null)
+                return null;
 
-        if (source == null && target == null)
-            return null;
+            // First try if there is a matching pair without rules transformation
+            Entry entry = match(candidates, source, target);
+            if (entry != null)
+                return entry;
 
-        if (source == null)
-            source = language.source;
-        if (target == null)
-            target = language.target;
+            // If not found, try applying transformation
+            Language transformedSource = transform(source);
+            Language transformedTarget = transform(target);
 
-        return new LanguageDirection(source, target);
-    }
+            if (transformedSource == null && transformedTarget == null)  // no transformation applied
+                return null;
+
+            return match(candidates,
+                    transformedSource == null ? source : transformedSource,
+                    transformedTarget == null ? target : transformedTarget);
+        }
 
-    private Language transform(Language language) {
-        List<LanguageRule> rules = this.rules.get(language.getLanguage());
+        private static Entry match(Entry[] candidates, Language source, Language target) {
+            for (Entry candidate : candidates) {
+                if (candidate.direction.source.isEqualOrMoreGenericThan(source) &&
+                        candidate.direction.target.isEqualOrMoreGenericThan(target))
+                    return candidate;
+            }
 
-        if (rules != null) {
-            for (LanguageRule rule : rules) {
+            return null;
+        }
+
+        private Language transform(Language language) {
+            Dialects dialects = this.dialects.get(language.getLanguage());
+
+            for (LanguageRule rule : dialects.rules) {
                 if (rule.match(language))
                     return rule.getOutputLanguage();
             }
+
+            // Default behaviour is to transform language in its simplest version, with 'language' code only
+            // (returning null signals the caller that the object has been returned untouched)
+            return language.isLanguageOnly() ? null : dialects.base;
         }
 
-        // Default behaviour is to transform language in its simplest version, with 'language' code only
-        // (returning null signals the caller that the object has been returned untouched)
-        return language.getLanguage().equals(language.toLanguageTag()) ? null : new Language(language.getLanguage());
     }
 
-    @Override
-    public String toString() {
-        return "i" + languages;
+    private static final class Dialects {
+
+        private final Language base;
+        private final LanguageRule[] rules;
+
+        Dialects(String language, List<LanguageRule> rules) {
+            this.base = new Language(language);
+            this.rules = rules == null ? new LanguageRule[0] : rules.toArray(new LanguageRule[0]);
+        }
+    }
+
+    private static final class Entry {
+
+        private final LanguageDirection direction;
+        private final Resolution forward;
+        private final Resolution backward;
+
+        Entry(LanguageDirection direction) {
+            this.direction = direction;
+            this.forward = new Resolution(direction, direction);
+            this.backward = new Resolution(null, direction.reversed());
+        }
+    }
+
+    private static final class Resolution {
+
+        private static final Resolution NONE = new Resolution(null, null);
+
+        private final LanguageDirection direction;
+        private final LanguageDirection anyDirection;
+
+        Resolution(LanguageDirection direction, LanguageDirection anyDirection) {
+            this.direction = direction;
+            this.anyDirection = anyDirection;
+        }
     }
 
     private static final class SimpleLanguageDirection {
@@ -63,6 +63,8 @@ public interface TranslationMemory extends Closeable, LogDataListener {
 
     ScoreEntry[] search(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector, int limit) throws IOException;
 
+    ScoreEntry searchExactMatch(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector) throws IOException;
+
     void optimize() throws IOException;
 
     long size();
@@ -0,0 +1,24 @@
+package eu.modernmt.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic counter, optimized for concurrent updates.
+ */
+public class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void increment(long delta) {
+        value.add(delta);
+    }
+
+    public long getCount() {
+        return value.sum();
+    }
+
+}
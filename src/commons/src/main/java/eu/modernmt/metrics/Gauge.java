@@ -0,0 +1,11 @@
+package eu.modernmt.metrics;
+
+/**
+ * A gauge reads an instantaneous value when a snapshot of the metrics is taken.
+ */
+@FunctionalInterface
+public interface Gauge {
+
+    long getValue();
+
+}
@@ -0,0 +1,160 @@
+package eu.modernmt.metrics;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram with log-linear buckets (HDR-style): every power-of-two range is split
+ * into {@link #SUB_BUCKETS} linear sub-buckets, so the relative error of every recorded value is
+ * bounded by 1 / SUB_BUCKETS regardless of its magnitude.
+ * <p>
+ * Latency histograms record values in microseconds.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS;
+
+        return (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        return lowerBoundOf(index) + (1L << shift) - 1;
+    }
+
+    public void update(long value) {
+        if (value < 0)
+            value = 0;
+
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value))
+                break;
+        }
+    }
+
+    /**
+     * Records the time elapsed since the given timestamp, in microseconds.
+     *
+     * @param beginNanos a timestamp obtained from {@link System#nanoTime()}
+     */
+    public void updateSince(long beginNanos) {
+        update((System.nanoTime() - beginNanos) / 1000L);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Snapshot getSnapshot() {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = counts.get(i);
+
+        return new Snapshot(buckets, count.sum(), sum.sum(), max.get());
+    }
+
+    public static class Snapshot implements Serializable {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] buckets, long count, long sum, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0. : ((double) sum) / count;
+        }
+
+        /**
+         * Returns the value at the given percentile, approximated with the upper bound of its bucket.
+         *
+         * @param percentile a value between 0 and 100
+         * @return the value at the given percentile
+         */
+        public long getPercentile(double percentile) {
+            long total = 0;
+            for (long bucket : buckets)
+                total += bucket;
+
+            if (total == 0)
+                return 0;
+
+            long rank = (long) Math.ceil(total * Math.min(100., Math.max(0., percentile)) / 100.);
+            if (rank < 1)
+                rank = 1;
+
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank)
+                    return Math.min(upperBoundOf(i), max);
+            }
+
+            return max;
+        }
+
+        public Snapshot merge(Snapshot other) {
+            long[] merged = Arrays.copyOf(buckets, buckets.length);
+            for (int i = 0; i < merged.length; i++)
+                merged[i] += other.buckets[i];
+
+            return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+        }
+
+    }
+
+}
@@ -0,0 +1,70 @@
+package eu.modernmt.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process registry of the node metrics.
+ * <p>
+ * Metrics are created lazily and they live for the entire life of the JVM, so components
+ * usually keep a static reference to them:
+ * <pre>
+ *     private static final Histogram searchTime = Metrics.histogram("memory.search");
+ *
+ *     long begin = System.nanoTime();
+ *     ...
+ *     searchTime.updateSince(begin);
+ * </pre>
+ */
+public class Metrics {
+
+    private static final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * Registers a gauge, replacing the one previously registered with the same name (if any).
+     *
+     * @param name  the name of the gauge
+     * @param gauge the gauge
+     */
+    public static void gauge(String name, Gauge gauge) {
+        gauges.put(name, gauge);
+    }
+
+    public static void removeGauge(String name, Gauge gauge) {
+        gauges.remove(name, gauge);
+    }
+
+    public static MetricsSnapshot snapshot() {
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+
+        for (Map.Entry<String, Counter> entry : counters.entrySet())
+            snapshot.counters.put(entry.getKey(), entry.getValue().getCount());
+
+        for (Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            long value;
+            try {
+                value = entry.getValue().getValue();
+            } catch (RuntimeException e) {
+                continue;
+            }
+
+            snapshot.gauges.put(entry.getKey(), value);
+        }
+
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet())
+            snapshot.histograms.put(entry.getKey(), entry.getValue().getSnapshot());
+
+        return snapshot;
+    }
+
+}
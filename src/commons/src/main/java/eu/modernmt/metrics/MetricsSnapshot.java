@@ -0,0 +1,54 @@
+package eu.modernmt.metrics;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A point-in-time copy of a set of metrics. Snapshots of different nodes
+ * can be merged in order to obtain the aggregated metrics of the cluster.
+ */
+public class MetricsSnapshot implements Serializable {
+
+    final TreeMap<String, Long> counters = new TreeMap<>();
+    final TreeMap<String, Long> gauges = new TreeMap<>();
+    final TreeMap<String, Histogram.Snapshot> histograms = new TreeMap<>();
+
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    public Map<String, Histogram.Snapshot> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Merges this snapshot with another one: counters and gauges are summed, while
+     * histograms are combined bucket by bucket.
+     *
+     * @param other the snapshot to merge
+     * @return a new snapshot containing the merged metrics
+     */
+    public MetricsSnapshot merge(MetricsSnapshot other) {
+        MetricsSnapshot result = new MetricsSnapshot();
+
+        result.counters.putAll(counters);
+        for (Map.Entry<String, Long> entry : other.counters.entrySet())
+            result.counters.merge(entry.getKey(), entry.getValue(), Long::sum);
+
+        result.gauges.putAll(gauges);
+        for (Map.Entry<String, Long> entry : other.gauges.entrySet())
+            result.gauges.merge(entry.getKey(), entry.getValue(), Long::sum);
+
+        result.histograms.putAll(histograms);
+        for (Map.Entry<String, Histogram.Snapshot> entry : other.histograms.entrySet())
+            result.histograms.merge(entry.getKey(), entry.getValue(), Histogram.Snapshot::merge);
+
+        return result;
+    }
+
+}
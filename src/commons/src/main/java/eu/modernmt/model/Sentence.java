@@ -74,6 +74,10 @@ public class Sentence implements Serializable, Iterable<Token> {
         return getAnnotation(annotation.getId()) != null;
     }
 
+    public Collection<Annotation> getAnnotations() {
+        return annotations == null ? Collections.emptySet() : Collections.unmodifiableCollection(annotations.values());
+    }
+
     @SuppressWarnings("unchecked")
     public <T extends Annotation> T getAnnotation(String string) {
         return annotations == null ? null : (T) this.annotations.get(string);
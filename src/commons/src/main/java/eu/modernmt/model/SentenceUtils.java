@@ -28,6 +28,49 @@ public class SentenceUtils {
                 .anyMatch(Character::isLetterOrDigit);
     }
 
+    /**
+     * Creates a deep copy of the sentence: words and tags are duplicated so that
+     * the returned object can be modified without affecting the original one.
+     * Annotations are immutable and they are shared between the two sentences.
+     *
+     * @param sentence the sentence to copy
+     * @return a new sentence equal to the given one
+     */
+    public static Sentence copy(Sentence sentence) {
+        Word[] words = sentence.getWords();
+        Tag[] tags = sentence.getTags();
+
+        Word[] wordsCopy = new Word[words.length];
+        for (int i = 0; i < words.length; i++)
+            wordsCopy[i] = copy(words[i]);
+
+        Tag[] tagsCopy = new Tag[tags.length];
+        for (int i = 0; i < tags.length; i++)
+            tagsCopy[i] = copy(tags[i]);
+
+        Sentence copy = new Sentence(wordsCopy, tagsCopy);
+        for (Annotation annotation : sentence.getAnnotations())
+            copy.addAnnotation(annotation);
+
+        return copy;
+    }
+
+    private static Word copy(Word word) {
+        Word copy = new Word(word.getText(), word.getPlaceholder(), word.getLeftSpace(), word.getRightSpace(),
+                word.isLeftSpaceRequired(), word.isRightSpaceRequired());
+        copy.setHiddenLeftSpace(word.hasHiddenLeftSpace());
+        copy.setHiddenRightSpace(word.hasHiddenRightSpace());
+        copy.setSentenceBreak(word.isSentenceBreak());
+        return copy;
+    }
+
+    private static Tag copy(Tag tag) {
+        Tag copy = tag.clone();
+        copy.setPlaceholder(tag.getPlaceholder());
+        copy.setSentenceBreak(tag.isSentenceBreak());
+        return copy;
+    }
+
     public static Translation verbatimTranslation(Sentence sentence) {
         Word[] words = sentence.getWords();
         int length = words.length;
@@ -0,0 +1,302 @@
+package eu.modernmt.model.corpus.impl.tmx;
+
+import eu.modernmt.io.FileProxy;
+import eu.modernmt.io.UTF8Charset;
+import eu.modernmt.model.corpus.TUReader;
+import eu.modernmt.model.corpus.TranslationUnit;
+import eu.modernmt.xml.XMLUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A TMX reader that parses a large, uncompressed TMX file with multiple threads.
+ * <p>
+ * The file is split in chunks of about "chunkSize" bytes, each one starting with a &lt;tu&gt; tag.
+ * Every chunk is parsed as a document made of the prolog of the file (all the bytes before the first &lt;tu&gt;,
+ * with the header), the bytes of the chunk and the closing tags of the elements left open by the prolog.
+ * Translation units are returned in the order of the file, while at most two chunks per thread are parsed
+ * ahead of the reader: the memory used does not depend on the size of the file.
+ * <p>
+ * The boundaries of the chunks are searched in the raw bytes: the file must be encoded in UTF-8 (as it is
+ * decoded anyway when it has no byte order mark). A "&lt;tu" string inside a comment or a CDATA section
+ * is taken for a boundary too, and the chunk that ends there can not be parsed: when a chunk fails,
+ * the reader falls back to a sequential {@link TMXReader} that skips the translation units already returned,
+ * so that only a file that is really malformed results in an error.
+ */
+class ParallelTMXReader implements TUReader {
+
+    static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final File tmx;
+    private final long chunkSize;
+    private final int maxPendingChunks;
+    private final FileChannel channel;
+    private final long length;
+    private final ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    private final byte[] prolog;
+    private final byte[] epilog;
+
+    private final ExecutorService executor;
+    private final ArrayDeque<Future<List<TranslationUnit>>> pendingChunks = new ArrayDeque<>();
+
+    private long position = 0L;
+    private List<TranslationUnit> chunk = Collections.emptyList();
+    private int index = 0;
+    private long returned = 0L;
+    private TUReader sequentialReader = null;
+
+    /**
+     * @param tmx the TMX file
+     * @return true if the file can be split in chunks, false if it is encoded in UTF-16
+     */
+    static boolean supports(File tmx) throws IOException {
+        byte[] bom = new byte[2];
+
+        try (InputStream stream = new FileInputStream(tmx)) {
+            if (IOUtils.read(stream, bom) < bom.length)
+                return true;
+        }
+
+        return !((bom[0] == (byte) 0xFE && bom[1] == (byte) 0xFF) || (bom[0] == (byte) 0xFF && bom[1] == (byte) 0xFE));
+    }
+
+    ParallelTMXReader(File tmx, int threads, long chunkSize) throws IOException {
+        this.tmx = tmx;
+        this.chunkSize = chunkSize;
+        this.maxPendingChunks = 2 * threads;
+        this.channel = FileChannel.open(tmx.toPath(), StandardOpenOption.READ);
+
+        boolean success = false;
+
+        try {
+            this.length = channel.size();
+
+            long firstTu = findTu(0L);
+            if (firstTu < length) {
+                this.prolog = new byte[(int) firstTu];
+                IOUtils.readFully(newInputStream(0L), prolog);
+                this.epilog = getClosingTags(prolog);
+            } else {
+                this.prolog = this.epilog = new byte[0];
+            }
+
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "TMXReader");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            success = true;
+        } finally {
+            if (!success)
+                IOUtils.closeQuietly(channel);
+        }
+    }
+
+    /**
+     * @return the position of the first "&lt;tu" tag at or after the given position, or the length of the file
+     */
+    private long findTu(long from) throws IOException {
+        byte[] bytes = scanBuffer.array();
+        long offset = from;
+
+        while (offset < length) {
+            scanBuffer.clear();
+            int read = channel.read(scanBuffer, offset);
+            if (read < 4)
+                break;
+
+            for (int i = 0; i + 3 < read; i++) {
+                if (bytes[i] == '<' && bytes[i + 1] == 't' && bytes[i + 2] == 'u') {
+                    byte next = bytes[i + 3];
+                    if (next == ' ' || next == '>' || next == '\t' || next == '\n' || next == '\r')
+                        return offset + i;
+                }
+            }
+
+            offset += read - 3;
+        }
+
+        return length;
+    }
+
+    private static byte[] getClosingTags(byte[] prolog) {
+        ArrayDeque<String> elements = new ArrayDeque<>();
+        XMLStreamReader reader = null;
+
+        try {
+            reader = XMLUtils.createStreamReader(new ByteArrayInputStream(prolog));
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        String prefix = reader.getPrefix();
+                        String name = reader.getLocalName();
+                        elements.push(prefix == null || prefix.isEmpty() ? name : (prefix + ':' + name));
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        elements.pop();
+                        break;
+                }
+            }
+        } catch (XMLStreamException e) {
+            // Expected: the prolog ends inside the root element
+        } finally {
+            XMLUtils.closeQuietly(reader);
+        }
+
+        StringBuilder tags = new StringBuilder();
+        for (String element : elements)
+            tags.append("</").append(element).append('>');
+
+        return tags.toString().getBytes(UTF8Charset.get());
+    }
+
+    private void submitChunks() throws IOException {
+        while (pendingChunks.size() < maxPendingChunks && position < length) {
+            long start = position;
+            long end = findTu(start + chunkSize);
+
+            pendingChunks.add(executor.submit(() -> parse(start, end)));
+            position = end;
+        }
+    }
+
+    private List<TranslationUnit> parse(long start, long end) throws IOException {
+        ArrayList<InputStream> streams = new ArrayList<>(3);
+        if (start > 0)
+            streams.add(new ByteArrayInputStream(prolog));
+        streams.add(new BoundedInputStream(newInputStream(start), end - start));
+        if (end < length)
+            streams.add(new ByteArrayInputStream(epilog));
+
+        XMLStreamReader reader = null;
+
+        try {
+            reader = XMLUtils.createStreamReader(new SequenceInputStream(Collections.enumeration(streams)));
+
+            TMXTUReader tuReader = new TMXTUReader();
+            ArrayList<TranslationUnit> result = new ArrayList<>();
+
+            List<TranslationUnit> tus;
+            while ((tus = tuReader.read(reader)) != null)
+                result.addAll(tus);
+
+            return result;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid TMX " + tmx + " in bytes " + start + "-" + end, e);
+        } finally {
+            XMLUtils.closeQuietly(reader);
+        }
+    }
+
+    @Override
+    public TranslationUnit read() throws IOException {
+        if (sequentialReader != null)
+            return sequentialReader.read();
+
+        while (index == chunk.size()) {
+            submitChunks();
+
+            Future<List<TranslationUnit>> next = pendingChunks.poll();
+            if (next == null)
+                return null;
+
+            try {
+                chunk = next.get();
+                index = 0;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+
+                if (cause instanceof IOException)
+                    return readSequentially();
+                else if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                else
+                    throw new Error("Unexpected exception", cause);
+            } catch (InterruptedException e) {
+                throw new IOException("Interrupted queue", e);
+            }
+        }
+
+        // Release the translation units as soon as they are returned
+        returned++;
+        return chunk.set(index++, null);
+    }
+
+    /**
+     * Stops the parsing threads and continues with a sequential reader from the first translation unit
+     * not returned yet: if the file is really malformed, the sequential reader fails too.
+     */
+    private TranslationUnit readSequentially() throws IOException {
+        stopParsing();
+        sequentialReader = new TMXReader(FileProxy.wrap(tmx));
+
+        for (long i = 0; i < returned; i++) {
+            if (sequentialReader.read() == null)
+                return null;
+        }
+
+        return sequentialReader.read();
+    }
+
+    private void stopParsing() {
+        for (Future<List<TranslationUnit>> future : pendingChunks)
+            future.cancel(true);
+        pendingChunks.clear();
+
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopParsing();
+
+        try {
+            channel.close();
+        } finally {
+            if (sequentialReader != null)
+                sequentialReader.close();
+        }
+    }
+
+    /**
+     * @return a stream of the file starting from the given position: streams of the same channel
+     * use positional reads and can be read concurrently
+     */
+    private InputStream newInputStream(long position) {
+        return new InputStream() {
+
+            private long offset = position;
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xFF);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = channel.read(ByteBuffer.wrap(b, off, len), offset);
+                if (read > 0)
+                    offset += read;
+                return read;
+            }
+        };
+    }
+
+}
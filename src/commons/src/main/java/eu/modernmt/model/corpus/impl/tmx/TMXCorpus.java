@@ -17,8 +17,12 @@ public class TMXCorpus extends BaseMultilingualCorpus {
     public static final String TMX_DATE_FORMAT = "yyyyMMdd'T'HHmmss'Z'";
     public static final String XML_NAMESPACE = "http://www.w3.org/XML/1998/namespace";
 
+    public static final int DEFAULT_PARSING_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final long PARALLEL_PARSING_MIN_SIZE = 4 * ParallelTMXReader.DEFAULT_CHUNK_SIZE;
+
     private final FileProxy tmx;
     private final String name;
+    private int parsingThreads = DEFAULT_PARSING_THREADS;
 
     public TMXCorpus(File tmx) {
         this(FileProxy.wrap(tmx));
@@ -41,6 +45,16 @@ public class TMXCorpus extends BaseMultilingualCorpus {
         return tmx;
     }
 
+    /**
+     * Uncompressed TMX files larger than a few chunks are parsed by the given number of threads,
+     * while the translation units are returned in the order of the file.
+     *
+     * @param threads the number of parsing threads, 1 to always parse the file sequentially
+     */
+    public void setParsingThreads(int threads) {
+        this.parsingThreads = threads;
+    }
+
     @Override
     public String getName() {
         return name;
@@ -48,6 +62,14 @@ public class TMXCorpus extends BaseMultilingualCorpus {
 
     @Override
     public TUReader getContentReader() throws IOException {
+        if (parsingThreads > 1 && tmx instanceof FileProxy.NativeFileProxy) {
+            FileProxy.NativeFileProxy proxy = (FileProxy.NativeFileProxy) tmx;
+            File file = proxy.getFile();
+
+            if (!proxy.isGzipped() && file.length() >= PARALLEL_PARSING_MIN_SIZE && ParallelTMXReader.supports(file))
+                return new ParallelTMXReader(file, parsingThreads, ParallelTMXReader.DEFAULT_CHUNK_SIZE);
+        }
+
         return new TMXReader(tmx);
     }
 
@@ -6,8 +6,8 @@ import eu.modernmt.model.corpus.TranslationUnit;
 import eu.modernmt.xml.XMLUtils;
 import org.apache.commons.io.IOUtils;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
@@ -22,7 +22,7 @@ class TMXReader implements TUReader {
 
     private final FileProxy tmx;
     private final InputStream stream;
-    private final XMLEventReader reader;
+    private final XMLStreamReader reader;
 
     private List<TranslationUnit> cachedTUs = Collections.emptyList();
 
@@ -30,11 +30,11 @@ class TMXReader implements TUReader {
         this.tmx = tmx;
 
         InputStream stream = null;
-        XMLEventReader reader = null;
+        XMLStreamReader reader = null;
 
         try {
             stream = tmx.getInputStream();
-            reader = XMLUtils.createEventReader(stream);
+            reader = XMLUtils.createStreamReader(stream);
         } catch (XMLStreamException e) {
             throw new IOException("Error while creating XMLStreamReader for TMX " + tmx, e);
         } finally {
@@ -2,16 +2,13 @@ package eu.modernmt.model.corpus.impl.tmx;
 
 import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
-import eu.modernmt.model.corpus.MultilingualCorpus;
 import eu.modernmt.model.corpus.TranslationUnit;
 import eu.modernmt.xml.XMLUtils;
 
 import javax.xml.stream.Location;
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.events.StartElement;
-import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.XMLStreamReader;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -21,11 +18,15 @@ import java.util.TimeZone;
 
 /**
  * Created by davide on 14/03/16.
+ * <p>
+ * The reader walks the document with the cursor of a {@link XMLStreamReader}: no event object is created
+ * for tags and text, and the text of the segments is collected in a single reused buffer.
  */
 class TMXTUReader {
 
     private final LanguageCache languageCache = new LanguageCache();
     private final ArrayList<TranslationUnit> resultCache = new ArrayList<>(8);
+    private final StringBuilder textBuffer = new StringBuilder(1024);
 
     private final SimpleDateFormat dateFormat = new SimpleDateFormat(TMXCorpus.TMX_DATE_FORMAT);
     private Language headerSourceLanguage = null;
@@ -34,63 +35,54 @@ class TMXTUReader {
         dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
     }
 
-    public List<TranslationUnit> read(XMLEventReader reader) throws XMLStreamException {
+    public List<TranslationUnit> read(XMLStreamReader reader) throws XMLStreamException {
         while (reader.hasNext()) {
-            XMLEvent event = reader.nextEvent();
-
-            switch (event.getEventType()) {
-                case XMLStreamConstants.START_ELEMENT:
-                    StartElement element = event.asStartElement();
-                    String name = XMLUtils.getLocalName(element);
-                    if ("header".equals(name)) {
-                        readHeader(element);
-                    } else if ("tu".equals(name)) {
-                        return readTu(reader, element);
-                    }
-
-                    break;
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("header".equals(name)) {
+                    readHeader(reader);
+                } else if ("tu".equals(name)) {
+                    return readTu(reader);
+                }
             }
         }
 
         return null;
     }
 
-    private void readHeader(StartElement header) {
+    private void readHeader(XMLStreamReader header) {
         this.headerSourceLanguage = languageCache.get(XMLUtils.getAttributeValue(header, null, "srclang"));
     }
 
-    private List<TranslationUnit> readTu(XMLEventReader reader, StartElement tu) throws XMLStreamException {
+    private List<TranslationUnit> readTu(XMLStreamReader reader) throws XMLStreamException {
         this.resultCache.clear();
 
-        Date tuTimestamp = getTimestamp(tu);
-        String tuid = getTuid(tu);
-        Language tuSourceLanguage = languageCache.get(XMLUtils.getAttributeValue(tu, null, "srclang"));
+        Location tuLocation = reader.getLocation();
+        Date tuTimestamp = getTimestamp(reader);
+        String tuid = getTuid(reader);
+        Language tuSourceLanguage = languageCache.get(XMLUtils.getAttributeValue(reader, null, "srclang"));
 
         Language sourceLanguage = tuSourceLanguage == null ? headerSourceLanguage : tuSourceLanguage;
         String sourceText = null;
 
         while (reader.hasNext()) {
-            XMLEvent event = reader.nextEvent();
-
-            switch (event.getEventType()) {
+            switch (reader.next()) {
                 case XMLStreamConstants.START_ELEMENT:
-                    StartElement element = event.asStartElement();
-
-                    if ("tuv".equals(XMLUtils.getLocalName(element))) {
-                        String _lang = XMLUtils.getAttributeValue(element, TMXCorpus.XML_NAMESPACE, "lang");
+                    if ("tuv".equals(reader.getLocalName())) {
+                        String _lang = XMLUtils.getAttributeValue(reader, TMXCorpus.XML_NAMESPACE, "lang");
                         if (_lang == null)
-                            _lang = XMLUtils.getAttributeValue(element, null, "lang");
+                            _lang = XMLUtils.getAttributeValue(reader, null, "lang");
                         if (_lang == null)
-                            throw new XMLStreamException(format("Missing language for 'tuv'", event));
+                            throw new XMLStreamException(format("Missing language for 'tuv'", reader.getLocation()));
 
                         Language lang = languageCache.get(_lang);
                         if (sourceLanguage == null)
                             sourceLanguage = lang; // The first <TUV> element in a <TU> is expected to be the source.
 
-                        Date tuvTimestamp = getTimestamp(element);
+                        Date tuvTimestamp = getTimestamp(reader);
 
                         Date timestamp = tuvTimestamp == null ? tuTimestamp : tuvTimestamp;
-                        String text = readTuv(reader, element);
+                        String text = readTuv(reader);
 
                         if (sourceLanguage.isEqualOrMoreGenericThan(lang)) {
                             sourceText = text;
@@ -101,11 +93,11 @@ class TMXTUReader {
                     }
                     break;
                 case XMLStreamConstants.END_ELEMENT:
-                    if ("tu".equals(XMLUtils.getLocalName(event.asEndElement()))) {
+                    if ("tu".equals(reader.getLocalName())) {
                         if (sourceText == null)
-                            throw new XMLStreamException(format("Missing source text in <tu> element", event));
+                            throw new XMLStreamException(format("Missing source text in <tu> element", reader.getLocation()));
                         if (resultCache.isEmpty())
-                            throw new XMLStreamException(format("Not enough <tuv> elements found in <tu> element", event));
+                            throw new XMLStreamException(format("Not enough <tuv> elements found in <tu> element", reader.getLocation()));
 
                         for (TranslationUnit entry : resultCache)
                             entry.source = sourceText;
@@ -116,52 +108,52 @@ class TMXTUReader {
             }
         }
 
-        throw new XMLStreamException(format("Missing closing tag for 'tuv' element", tu));
+        throw new XMLStreamException(format("Missing closing tag for 'tuv' element", tuLocation));
     }
 
-    private String readTuv(XMLEventReader reader, StartElement tuv) throws XMLStreamException {
+    private String readTuv(XMLStreamReader reader) throws XMLStreamException {
+        Location tuvLocation = reader.getLocation();
+
         while (reader.hasNext()) {
-            XMLEvent event = reader.nextEvent();
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && "seg".equals(reader.getLocalName())) {
+                textBuffer.setLength(0);
+                XMLUtils.getTextContent(reader, textBuffer);
 
-            switch (event.getEventType()) {
-                case XMLStreamConstants.START_ELEMENT:
-                    StartElement element = event.asStartElement();
+                for (int i = 0; i < textBuffer.length(); i++) {
+                    if (textBuffer.charAt(i) == '\n')
+                        textBuffer.setCharAt(i, ' ');
+                }
 
-                    if ("seg".equals(XMLUtils.getLocalName(element))) {
-                        return XMLUtils.getXMLContent(reader, element, false)
-                                .replace('\n', ' ');
-                    }
-                    break;
+                return textBuffer.toString();
             }
         }
 
-        throw new XMLStreamException(format("Missing 'seg' inside 'tuv' element", tuv));
+        throw new XMLStreamException(format("Missing 'seg' inside 'tuv' element", tuvLocation));
     }
 
-    private Date getTimestamp(StartElement tu) throws XMLStreamException {
+    private Date getTimestamp(XMLStreamReader element) throws XMLStreamException {
         Date timestamp = null;
 
-        String date = XMLUtils.getAttributeValue(tu, null, "changedate");
+        String date = XMLUtils.getAttributeValue(element, null, "changedate");
         if (date == null)
-            date = XMLUtils.getAttributeValue(tu, null, "creationdate");
+            date = XMLUtils.getAttributeValue(element, null, "creationdate");
 
         if (date != null) {
             try {
                 timestamp = dateFormat.parse(date);
             } catch (ParseException | NumberFormatException e) {
-                throw new XMLStreamException(format("Invalid date '" + date + "'", tu), e);
+                throw new XMLStreamException(format("Invalid date '" + date + "'", element.getLocation()), e);
             }
         }
 
         return timestamp;
     }
 
-    private String getTuid(StartElement tu) {
+    private String getTuid(XMLStreamReader tu) {
         return XMLUtils.getAttributeValue(tu, null, "tuid");
     }
 
-    private static String format(String message, XMLEvent event) {
-        Location location = event == null ? null : event.getLocation();
+    private static String format(String message, Location location) {
         return location == null ? message : (message + " at line " + location.getLineNumber());
     }
 
@@ -4,6 +4,7 @@ import eu.modernmt.model.Memory;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by davide on 21/09/16.
@@ -20,8 +21,14 @@ public interface MemoryDAO {
 
     Memory store(Memory memory) throws PersistenceException;
 
+    Collection<Memory> store(Collection<Memory> memories) throws PersistenceException;
+
     Memory update(Memory memory) throws PersistenceException;
 
+    Collection<Memory> update(Collection<Memory> memories) throws PersistenceException;
+
     boolean delete(long id) throws PersistenceException;
 
+    Set<Long> delete(Collection<Long> ids) throws PersistenceException;
+
 }
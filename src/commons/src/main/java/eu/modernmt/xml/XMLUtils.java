@@ -49,6 +49,16 @@ public class XMLUtils {
     }
 
     public static XMLEventReader createEventReader(InputStream stream) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        return factory.createXMLEventReader(createFixReader(stream));
+    }
+
+    public static XMLStreamReader createStreamReader(InputStream stream) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        return factory.createXMLStreamReader(createFixReader(stream));
+    }
+
+    private static Reader createFixReader(InputStream stream) throws XMLStreamException {
         Charset charset = UTF8Charset.get();
 
         BOMInputStream bomStream = new BOMInputStream(stream, false,
@@ -60,8 +70,7 @@ public class XMLUtils {
             throw new XMLStreamException(e);
         }
 
-        XMLInputFactory factory = XMLInputFactory.newInstance();
-        return factory.createXMLEventReader(new XMLFixInputStreamReader(bomStream, charset));
+        return new XMLFixInputStreamReader(bomStream, charset);
     }
 
     public static void closeQuietly(XMLEventReader reader) {
@@ -73,6 +82,15 @@ public class XMLUtils {
             }
     }
 
+    public static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null)
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // Ignore
+            }
+    }
+
     public static XMLStreamWriter createStreamWriter(OutputStream stream) throws XMLStreamException {
         Charset charset = UTF8Charset.get();
 
@@ -94,6 +112,49 @@ public class XMLUtils {
         return attribute == null ? null : attribute.getValue();
     }
 
+    /**
+     * Same as {@link #getAttributeValue(StartElement, String, String)} for the current start element of a cursor:
+     * a null namespace matches only the attributes with no namespace.
+     */
+    public static String getAttributeValue(XMLStreamReader reader, String namespaceURI, String localPart) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (!localPart.equals(reader.getAttributeLocalName(i)))
+                continue;
+
+            String namespace = reader.getAttributeNamespace(i);
+            if (namespaceURI == null ? (namespace == null || namespace.isEmpty()) : namespaceURI.equals(namespace))
+                return reader.getAttributeValue(i);
+        }
+
+        return null;
+    }
+
+    /**
+     * Same as {@link #getXMLContent(XMLEventReader, StartElement, boolean)} without tags, for the current start
+     * element of a cursor: the text of the element is appended to the buffer without creating intermediate strings.
+     * When the method returns, the cursor is on the end tag of the element.
+     */
+    public static void getTextContent(XMLStreamReader reader, StringBuilder buffer) throws XMLStreamException {
+        String rootElementName = reader.getLocalName();
+        Location location = reader.getLocation();
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.END_ELEMENT:
+                    if (rootElementName.equals(reader.getLocalName()))
+                        return;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    buffer.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+            }
+        }
+
+        throw new XMLStreamException(format("Missing closing tag for '" + rootElementName + "' element", location));
+    }
+
     public static String getXMLContent(XMLEventReader reader, StartElement element, boolean includeTags) throws XMLStreamException {
         String rootElementName = getLocalName(element);
 
@@ -202,7 +263,10 @@ public class XMLUtils {
     }
 
     private static String format(String message, XMLEvent event) {
-        Location location = event == null ? null : event.getLocation();
+        return format(message, event == null ? null : event.getLocation());
+    }
+
+    private static String format(String message, Location location) {
         return location == null ? message : (message + " at line " + location.getLineNumber());
     }
 
@@ -0,0 +1,87 @@
+package eu.modernmt.data;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class ChannelPositionTrackerTest {
+
+    private static Map<Short, Long> positions(long memories, long contributions) {
+        HashMap<Short, Long> map = new HashMap<>();
+        map.put(BinaryLog.MEMORY_UPLOAD_CHANNEL_ID, memories);
+        map.put(BinaryLog.CONTRIBUTIONS_CHANNEL_ID, contributions);
+        return map;
+    }
+
+    @Test
+    public void positionsAreMonotonic() {
+        ChannelPositionTracker tracker = new ChannelPositionTracker();
+        tracker.update(positions(10, 5));
+        tracker.update(positions(8, 7));
+
+        assertEquals(positions(10, 7), tracker.getPositions());
+    }
+
+    @Test
+    public void zeroTargetsAreAlwaysReached() throws InterruptedException {
+        ChannelPositionTracker tracker = new ChannelPositionTracker();
+        assertTrue(tracker.await(positions(0, 0), 0, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void awaitTimesOut() throws InterruptedException {
+        ChannelPositionTracker tracker = new ChannelPositionTracker();
+        tracker.update(positions(10, 4));
+
+        long begin = System.nanoTime();
+        assertFalse(tracker.await(positions(10, 5), 100, TimeUnit.MILLISECONDS));
+        assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void waiterWakesUpWhenLastChannelCommits() throws Throwable {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        ChannelPositionTracker tracker = new ChannelPositionTracker();
+
+        AtomicLong wakeUpTime = new AtomicLong();
+        Throwable[] error = new Throwable[1];
+
+        Thread waiter = new Thread(() -> {
+            try {
+                if (tracker.await(positions(10, 5), 10, TimeUnit.SECONDS))
+                    wakeUpTime.set(System.nanoTime());
+            } catch (Throwable e) {
+                error[0] = e;
+            }
+        });
+        waiter.start();
+
+        tracker.update(positions(10, 0));
+        Thread.sleep(500);
+        assertTrue(waiter.isAlive());
+
+        if (mx.isThreadCpuTimeSupported()) {
+            long cpuTime = mx.getThreadCpuTime(waiter.getId());
+            assertTrue("waiter consumed " + cpuTime + "ns of CPU", cpuTime >= 0 && cpuTime < TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        long commitTime = System.nanoTime();
+        tracker.update(positions(10, 5));
+        waiter.join(5000);
+
+        if (error[0] != null)
+            throw error[0];
+
+        assertFalse(waiter.isAlive());
+        assertTrue(wakeUpTime.get() >= commitTime);
+        assertTrue(wakeUpTime.get() - commitTime < TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+}
@@ -0,0 +1,130 @@
+package eu.modernmt.data;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HashGeneratorTest {
+
+    private static final LanguageDirection EN__IT = new LanguageDirection(Language.fromString("en"), Language.fromString("it"));
+    private static final LanguageDirection ZH_TW__EN_US = new LanguageDirection(Language.fromString("zh-TW"), Language.fromString("en-US"));
+    private static final LanguageDirection[] DIRECTIONS = {EN__IT, EN__IT.reversed(), ZH_TW__EN_US};
+
+    private static String randomString(Random random) {
+        StringBuilder string = new StringBuilder();
+        int length = random.nextInt(40);
+
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                    string.append((char) (0x80 + random.nextInt(0x800 - 0x80)));
+                    break;
+                case 1:
+                    string.append((char) (0x800 + random.nextInt(0xD800 - 0x800)));
+                    break;
+                case 2:
+                    string.appendCodePoint(0x10000 + random.nextInt(0x10FFFF - 0x10000));
+                    break;
+                case 3:
+                    // Unpaired surrogate
+                    string.append((char) (0xD800 + random.nextInt(0x800)));
+                    break;
+                default:
+                    string.append((char) random.nextInt(0x80));
+                    break;
+            }
+        }
+
+        return string.toString();
+    }
+
+    @Test
+    public void storedHashes() {
+        // Hashes of the first implementation, as stored in existing translation memory indexes
+        assertEquals("D4255 32B02 0D4BD 31E1F", HashGenerator.hash(EN__IT, "Hello world", "Ciao mondo"));
+        assertEquals("84F99 AAEC3 7C628 93474", HashGenerator.hash(ZH_TW__EN_US, "\u4F60\u597D\uFF0C\u4E16\u754C \uD83D\uDE00", "Hello world!"));
+        assertEquals("BF255 1F6F2 BF220 67A5C", HashGenerator.hash(EN__IT, "", ""));
+        assertEquals("E9762 EED78 D8F82 3F569", HashGenerator.hash(EN__IT, "tu-0001"));
+        assertEquals("287F7 21D0E 52F47 1A661", HashGenerator.hash(ZH_TW__EN_US, "\u00DCn\u00EFc\u00F8deT\u00FC\u00EFd-\uD83D\uDE00"));
+    }
+
+    @Test
+    public void sameHashesOfLegacyImplementation() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            LanguageDirection direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            String sentence = randomString(random);
+            String translation = randomString(random);
+
+            assertEquals(eu.modernmt.data.legacy.HashGenerator.hash(direction, sentence, translation),
+                    HashGenerator.hash(direction, sentence, translation));
+            assertEquals(eu.modernmt.data.legacy.HashGenerator.hash(direction, sentence),
+                    HashGenerator.hash(direction, sentence));
+        }
+    }
+
+    @Test
+    public void hash64OfCharSequences() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000; i++) {
+            String sentence = randomString(random);
+            String translation = randomString(random);
+
+            assertEquals(HashGenerator.hash64(EN__IT, sentence, translation),
+                    HashGenerator.hash64(EN__IT, new StringBuilder(sentence), new StringBuilder(translation)));
+            assertEquals(HashGenerator.hash64(sentence), HashGenerator.hash64(new StringBuilder(sentence)));
+        }
+    }
+
+    @Test
+    public void hash64Boundaries() {
+        // Same chars, different strings
+        assertNotEquals(HashGenerator.hash64(EN__IT, "ab", "c"), HashGenerator.hash64(EN__IT, "a", "bc"));
+        assertNotEquals(HashGenerator.hash64(EN__IT, "", "abcd"), HashGenerator.hash64(EN__IT, "abcd", ""));
+        assertNotEquals(HashGenerator.hash64(EN__IT, "a", "b"), HashGenerator.hash64(EN__IT.reversed(), "a", "b"));
+
+        // Trailing zero chars
+        assertNotEquals(HashGenerator.hash64("a"), HashGenerator.hash64("a\u0000"));
+        assertNotEquals(HashGenerator.hash64(""), HashGenerator.hash64("\u0000"));
+    }
+
+    @Test
+    public void hash64NewLinesAreNotSpaces() {
+        assertNotEquals(HashGenerator.hash64(EN__IT, "Hello\nworld", "Ciao mondo"), HashGenerator.hash64(EN__IT, "Hello world", "Ciao mondo"));
+        assertNotEquals(HashGenerator.hash64("a long line\nwith a break"), HashGenerator.hash64("a long line with a break"));
+    }
+
+    @Test
+    public void dedupHash64NewLinesAsSpaces() {
+        assertEquals(HashGenerator.dedupHash64(EN__IT, "Hello\nworld", "Ciao mondo"), HashGenerator.dedupHash64(EN__IT, "Hello world", "Ciao\nmondo"));
+        assertEquals(HashGenerator.dedupHash64("a long line\nwith a break"), HashGenerator.dedupHash64("a long line with a break"));
+        assertNotEquals(HashGenerator.dedupHash64(EN__IT, "Hello\nworld", "Ciao mondo"), HashGenerator.dedupHash64(EN__IT, "Hello\tworld", "Ciao mondo"));
+
+        // Same hash of the strings without new lines
+        assertEquals(HashGenerator.hash64(EN__IT, "Hello world", "Ciao mondo"), HashGenerator.dedupHash64(EN__IT, "Hello\nworld", "Ciao\nmondo"));
+        assertEquals(HashGenerator.hash64("a long line with a break"), HashGenerator.dedupHash64("a long line\nwith a break"));
+    }
+
+    @Test
+    public void hash64Collisions() {
+        HashSet<Long> hashes = new HashSet<>();
+        HashSet<Integer> low = new HashSet<>();
+
+        for (int i = 0; i < 200000; i++) {
+            String sentence = "sentence " + i;
+            assertTrue(hashes.add(HashGenerator.hash64(EN__IT, sentence, "translation")));
+            low.add((int) HashGenerator.hash64(sentence) & 0xFFFFF);
+        }
+
+        // 200k uniform values in 2^20 buckets: about 181k distinct buckets
+        assertTrue(low.size() > 178000);
+    }
+
+}
@@ -2,8 +2,15 @@ package eu.modernmt.lang;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.*;
 
@@ -367,4 +374,186 @@ public class LanguageIndexTest {
         assertEquals(lp("it zh-TW"), index.map(lp("it zh-HK")));
         assertEquals(lp("it zh-TW"), index.map(lp("it-IT zh-HK")));
     }
+
+    // Equivalence with the first implementation
+
+    private static final String[] COMPLEX_DIRECTIONS = {
+            "en it", "it en", "en pl", "en es-ES", "en es-419", "es en", "en pt-PT", "en pt-BR", "pt en",
+            "en zh-TW", "en zh-CN", "zh en", "en sr-Latn", "en sr-Cyrl", "en ru-AA", "en ru-BB", "es ru", "en ms"
+    };
+    private static final String[][] COMPLEX_RULES = {
+            {"es * NULL", "es-ES"}, {"es * +", "es-419"}, {"pt * NULL", "pt-PT"},
+            {"zh Hans *", "zh-CN"}, {"zh Hant *", "zh-TW"}, {"zh * SG", "zh-CN"}, {"zh * HK", "zh-TW"},
+            {"zh * MO", "zh-TW"}, {"zh * *", "zh-CN"}, {"sr * *", "sr-Latn"}, {"ms * *", "id"}
+    };
+
+    private static List<Language> languages() {
+        String[] languages = {"en", "it", "es", "pt", "zh", "sr", "ru", "ms", "ko"};
+        String[] scripts = {"", "-Latn", "-Hans", "-Hant"};
+        String[] regions = {"", "-US", "-419", "-MX", "-BR", "-CN", "-HK", "-AA", "-XX"};
+        String[] variants = {"", "-x-Custom"};
+
+        ArrayList<Language> result = new ArrayList<>();
+        for (String language : languages)
+            for (String script : scripts)
+                for (String region : regions)
+                    for (String variant : variants)
+                        result.add(l(language + script + region + variant));
+
+        return result;
+    }
+
+    private static void assertSameMappings(boolean includePivot) {
+        LanguageIndex.Builder builder = new LanguageIndex.Builder();
+        eu.modernmt.lang.legacy.LanguageIndex.Builder legacyBuilder = new eu.modernmt.lang.legacy.LanguageIndex.Builder();
+
+        for (String direction : COMPLEX_DIRECTIONS) {
+            builder.add(lp(direction));
+            legacyBuilder.add(lp(direction));
+        }
+        for (String[] rule : COMPLEX_RULES) {
+            builder.addRule(p(rule[0]), l(rule[1]));
+            legacyBuilder.addRule(p(rule[0]), l(rule[1]));
+        }
+
+        LanguageIndex index = builder.build(includePivot);
+        eu.modernmt.lang.legacy.LanguageIndex legacy = legacyBuilder.build(includePivot);
+
+        assertEquals(legacy.getLanguages(), index.getLanguages());
+        for (LanguageDirection direction : index.getLanguages())
+            assertEquals(legacy.getLanguageBridge(direction), index.getLanguageBridge(direction));
+
+        List<Language> languages = languages();
+
+        // Second iteration with the cache full: cached and uncached pairs
+        for (int iteration = 0; iteration < 2; iteration++) {
+            for (Language source : languages) {
+                for (Language target : languages) {
+                    LanguageDirection pair = new LanguageDirection(source, target);
+                    LanguageDirection expected = legacy.map(pair);
+
+                    assertEquals(pair.toString(), expected, index.map(pair));
+
+                    // The legacy mapIgnoringDirection() could return the mapping of the reversed pair
+                    // depending on the content of the cache: the reference is its result with an empty cache
+                    if (expected == null) {
+                        expected = legacy.map(pair.reversed());
+                        if (expected != null)
+                            expected = expected.reversed();
+                    }
+
+                    assertEquals(pair.toString(), expected, index.mapIgnoringDirection(pair));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameMappingsOfLegacyImplementation() {
+        assertSameMappings(false);
+    }
+
+    @Test
+    public void sameMappingsOfLegacyImplementationWithPivot() {
+        assertSameMappings(true);
+    }
+
+    @Test
+    public void boundedMappingCache() {
+        LanguageIndex index = new LanguageIndex.Builder()
+                .add(lp("en it"))
+                .build();
+
+        // Negative results are cached too
+        assertNull(index.map(lp("en de")));
+        assertNull(index.mapIgnoringDirection(lp("de en")));
+        assertEquals(2, index.getCachedMappingsCount());
+
+        LanguageDirection last = null;
+        for (int i = 0; i < 20000; i++) {
+            String variant = "-x-" + Integer.toString(i, 36);
+            assertEquals(lp("en it"), index.map(lp("en" + variant + " it")));
+            assertNull(index.map(lp("en" + variant + " fr")));
+
+            last = lp("en" + variant + " fr");
+        }
+
+        // The full cache is cleared, new pairs are still cached
+        assertTrue(index.getCachedMappingsCount() <= 4096);
+        assertFalse(index.isMappingCached(lp("en de")));
+        assertTrue(index.isMappingCached(last));
+    }
+
+    private static LanguageIndex mexicanSpanishIndex() {
+        return new LanguageIndex.Builder()
+                .add(lp("en es-ES"))
+                .add(lp("en es-MX"))
+                .addRule(p("es * *"), l("es-MX"))
+                .build();
+    }
+
+    private static LanguageIndex europeanSpanishIndex() {
+        return new LanguageIndex.Builder()
+                .add(lp("en es-ES"))
+                .add(lp("en es-MX"))
+                .add(lp("en fr"))
+                .addRule(p("es * *"), l("es-ES"))
+                .build();
+    }
+
+    @Test
+    public void reload() {
+        LanguageIndex index = mexicanSpanishIndex();
+
+        assertEquals(lp("en es-MX"), index.map(lp("en es-CO")));
+        assertNull(index.map(lp("en fr")));
+
+        index.reload(europeanSpanishIndex());
+
+        assertEquals(lpset("en es-ES", "en es-MX", "en fr"), index.getLanguages());
+        assertEquals(lp("en es-ES"), index.map(lp("en es-CO")));
+        assertEquals(lp("en fr"), index.map(lp("en fr")));
+        assertEquals(lp("en fr"), index.mapIgnoringDirection(lp("fr en")).reversed());
+    }
+
+    @Test
+    public void readWhileReloading() throws Exception {
+        LanguageIndex index = mexicanSpanishIndex();
+        LanguageIndex[] configurations = {europeanSpanishIndex(), mexicanSpanishIndex()};
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong lookups = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            ArrayList<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                readers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        LanguageDirection spanish = index.map(lp("en es-CO"));
+                        assertTrue(String.valueOf(spanish), lp("en es-MX").equals(spanish) || lp("en es-ES").equals(spanish));
+
+                        LanguageDirection french = index.mapIgnoringDirection(lp("fr en"));
+                        assertTrue(String.valueOf(french), french == null || lp("fr en").equals(french));
+
+                        lookups.incrementAndGet();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < 10000 || lookups.get() < 10000; i++)
+                index.reload(configurations[i % 2]);
+
+            running.set(false);
+            for (Future<?> reader : readers)
+                reader.get();
+        } finally {
+            running.set(false);
+            executor.shutdownNow();
+        }
+
+        index.reload(configurations[0]);
+        assertEquals(lp("en es-ES"), index.map(lp("en es-CO")));
+        assertEquals(lp("fr en"), index.mapIgnoringDirection(lp("fr en")));
+    }
 }
@@ -0,0 +1,102 @@
+package eu.modernmt.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void bucketBoundsContainValue() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+            int index = Histogram.indexOf(value);
+
+            assertTrue(index < Histogram.BUCKETS);
+            assertTrue(Histogram.lowerBoundOf(index) <= value);
+            assertTrue(Histogram.upperBoundOf(index) >= value);
+        }
+
+        for (long value = 0; value < 10000; value++) {
+            int index = Histogram.indexOf(value);
+            assertTrue(Histogram.lowerBoundOf(index) <= value);
+            assertTrue(Histogram.upperBoundOf(index) >= value);
+        }
+    }
+
+    @Test
+    public void percentilesRelativeError() {
+        Histogram histogram = new Histogram();
+        for (long i = 1; i <= 100000; i++)
+            histogram.update(i);
+
+        Histogram.Snapshot snapshot = histogram.getSnapshot();
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(100000, snapshot.getMax());
+        assertEquals(50000.5, snapshot.getMean(), 0.0001);
+
+        double maxError = 1. / Histogram.SUB_BUCKETS;
+        for (double percentile : new double[]{10, 50, 90, 99, 99.9}) {
+            double expected = percentile * 1000;
+            double actual = snapshot.getPercentile(percentile);
+
+            assertTrue(actual >= expected);
+            assertTrue((actual - expected) / expected <= maxError);
+        }
+
+        assertEquals(100000, snapshot.getPercentile(100));
+    }
+
+    @Test
+    public void emptyHistogram() {
+        Histogram.Snapshot snapshot = new Histogram().getSnapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getPercentile(99));
+        assertEquals(0., snapshot.getMean(), 0.);
+    }
+
+    @Test
+    public void mergeSnapshots() {
+        Histogram a = new Histogram();
+        Histogram b = new Histogram();
+        Histogram all = new Histogram();
+
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            long value = random.nextInt(1000000);
+            (i % 3 == 0 ? a : b).update(value);
+            all.update(value);
+        }
+
+        Histogram.Snapshot merged = a.getSnapshot().merge(b.getSnapshot());
+        Histogram.Snapshot expected = all.getSnapshot();
+
+        assertEquals(expected.getCount(), merged.getCount());
+        assertEquals(expected.getSum(), merged.getSum());
+        assertEquals(expected.getMax(), merged.getMax());
+        for (double percentile : new double[]{1, 25, 50, 75, 99, 100})
+            assertEquals(expected.getPercentile(percentile), merged.getPercentile(percentile));
+    }
+
+    @Test
+    public void mergeMetricsSnapshots() {
+        MetricsSnapshot a = new MetricsSnapshot();
+        a.counters.put("c", 3L);
+        a.gauges.put("g", 1L);
+
+        MetricsSnapshot b = new MetricsSnapshot();
+        b.counters.put("c", 4L);
+        b.counters.put("d", 1L);
+
+        MetricsSnapshot merged = a.merge(b);
+        assertEquals(7L, (long) merged.getCounters().get("c"));
+        assertEquals(1L, (long) merged.getCounters().get("d"));
+        assertEquals(1L, (long) merged.getGauges().get("g"));
+        assertEquals(3L, (long) a.getCounters().get("c"));
+    }
+
+}
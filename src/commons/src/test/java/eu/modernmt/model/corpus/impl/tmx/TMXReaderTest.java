@@ -0,0 +1,182 @@
+package eu.modernmt.model.corpus.impl.tmx;
+
+import eu.modernmt.io.FileProxy;
+import eu.modernmt.io.UTF8Charset;
+import eu.modernmt.model.corpus.TUReader;
+import eu.modernmt.model.corpus.TranslationUnit;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TMXReaderTest {
+
+    private static final String[] UNITS = {
+            // plain unit with dates and entities
+            "<tu tuid=\"tu-%d\" creationdate=\"20190101T120000Z\">" +
+                    "<tuv xml:lang=\"en\"><seg>Hello &amp; world %d</seg></tuv>" +
+                    "<tuv xml:lang=\"it\"><seg>Ciao &lt;mondo&gt; %d</seg></tuv></tu>",
+            // source language in the unit, "lang" attribute, multiple targets, tuv dates
+            "<tu tuid=\"tu-%d\" srclang=\"it\" changedate=\"20190102T120000Z\">" +
+                    "<tuv lang=\"en-US\" changedate=\"20190103T120000Z\"><seg>Good morning %d</seg></tuv>" +
+                    "<tuv lang=\"it\"><seg>Buongiorno %d</seg></tuv>" +
+                    "<tuv xml:lang=\"fr\"><seg>Bonjour %d</seg></tuv></tu>",
+            // inline tags, CDATA, new lines, comments
+            "<tu tuid=\"tu-%d\"><!-- a comment -->\n" +
+                    "  <tuv xml:lang=\"en\"><seg>Press <bpt i=\"1\">&lt;b&gt;</bpt>OK<ept i=\"1\">&lt;/b&gt;</ept>\nnow %d</seg></tuv>\n" +
+                    "  <tuv xml:lang=\"it\"><seg><![CDATA[Premi <b>OK</b>]]> ora\n%d</seg></tuv>\n</tu>",
+            // malformations tolerated by XMLFixInputStreamReader, non-BMP characters
+            "<tu tuid=\"tu-%d\">" +
+                    "<tuv xml:lang=\"en\"><seg>Invalid &#x1E;entities&#x1; and \u0001control\u001F chars %d</seg></tuv>" +
+                    "<tuv xml:lang=\"it\"><seg>Emoji \uD83D\uDE00 and &#x41; %d</seg></tuv></tu>",
+            // no tuid and no dates, whitespaces inside the tags
+            "<tu\n    datatype=\"plaintext\"\t>" +
+                    "<tuv\txml:lang=\"en\" ><seg>No id %d</seg></tuv>" +
+                    "<tuv xml:lang=\"it\"><seg>Nessun id %d</seg></tuv></tu\n>"
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File tmx(String prefix, int count) throws IOException {
+        StringBuilder content = new StringBuilder(prefix);
+        content.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<!-- the tmx file -->\n")
+                .append("<tmx version=\"1.4\">\n")
+                .append("<header srclang=\"en\" datatype=\"plaintext\" segtype=\"sentence\" o-tmf=\"test\"/>\n")
+                .append("<body>\n");
+
+        for (int i = 0; i < count; i++) {
+            content.append(String.format(UNITS[i % UNITS.length], i, i, i, i)).append('\n');
+        }
+
+        content.append("</body>\n</tmx>\n");
+
+        File file = folder.newFile();
+        FileUtils.write(file, content, UTF8Charset.get());
+        return file;
+    }
+
+    private static List<TranslationUnit> readAll(TUReader reader) throws IOException {
+        ArrayList<TranslationUnit> result = new ArrayList<>();
+
+        try {
+            TranslationUnit tu;
+            while ((tu = reader.read()) != null)
+                result.add(tu);
+        } finally {
+            reader.close();
+        }
+
+        return result;
+    }
+
+    private static List<TranslationUnit> readLegacy(File file) throws IOException {
+        return readAll(new eu.modernmt.model.corpus.impl.tmx.legacy.TMXReader(file));
+    }
+
+    @Test
+    public void sameUnitsOfLegacyImplementation() throws IOException {
+        File file = tmx("", 100);
+
+        List<TranslationUnit> expected = readLegacy(file);
+        assertEquals(120, expected.size());
+        assertEquals(expected, readAll(new TMXReader(FileProxy.wrap(file))));
+    }
+
+    @Test
+    public void sameUnitsOfLegacyImplementationWithBOM() throws IOException {
+        File file = tmx("\uFEFF", 10);
+
+        List<TranslationUnit> expected = readLegacy(file);
+        assertEquals(12, expected.size());
+        assertEquals(expected, readAll(new TMXReader(FileProxy.wrap(file))));
+        assertEquals(expected, readAll(new ParallelTMXReader(file, 2, 100)));
+    }
+
+    @Test
+    public void parallelReaderKeepsOrder() throws IOException {
+        File file = tmx("", 500);
+        List<TranslationUnit> expected = readAll(new TMXReader(FileProxy.wrap(file)));
+
+        for (long chunkSize : new long[]{1, 200, 4096, 1 << 20}) {
+            for (int threads : new int[]{1, 3})
+                assertEquals(chunkSize + "/" + threads, expected, readAll(new ParallelTMXReader(file, threads, chunkSize)));
+        }
+    }
+
+    @Test
+    public void parallelReaderWithoutUnits() throws IOException {
+        File file = tmx("", 0);
+        assertTrue(readAll(new ParallelTMXReader(file, 2, 1)).isEmpty());
+    }
+
+    @Test
+    public void invalidUnit() throws IOException {
+        File file = tmx("", 20);
+        String content = FileUtils.readFileToString(file, UTF8Charset.get())
+                .replace("<tuv xml:lang=\"en\"><seg>Hello &amp; world 10</seg></tuv>", "");
+        FileUtils.write(file, content, UTF8Charset.get());
+
+        try {
+            readAll(new TMXReader(FileProxy.wrap(file)));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+
+        try {
+            readAll(new ParallelTMXReader(file, 2, 100));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // expected: the sequential reader fails too
+        }
+    }
+
+    private void assertSameUnitsOfSequentialReader(File file) throws IOException {
+        List<TranslationUnit> expected = readLegacy(file);
+        assertEquals(expected, readAll(new TMXReader(FileProxy.wrap(file))));
+
+        for (long chunkSize : new long[]{1, 200, 4096}) {
+            for (int threads : new int[]{1, 3})
+                assertEquals(chunkSize + "/" + threads, expected, readAll(new ParallelTMXReader(file, threads, chunkSize)));
+        }
+    }
+
+    @Test
+    public void tuTagInsideComment() throws IOException {
+        File file = tmx("", 100);
+        String content = FileUtils.readFileToString(file, UTF8Charset.get())
+                .replace("<!-- a comment -->", "<!-- <tu tuid=\"commented\"> -->");
+        FileUtils.write(file, content, UTF8Charset.get());
+
+        assertSameUnitsOfSequentialReader(file);
+    }
+
+    @Test
+    public void tuTagInsideCDATA() throws IOException {
+        File file = tmx("", 100);
+        String content = FileUtils.readFileToString(file, UTF8Charset.get())
+                .replace("<![CDATA[Premi <b>OK</b>]]>", "<![CDATA[Premi <tu >OK</tu>]]>");
+        FileUtils.write(file, content, UTF8Charset.get());
+
+        assertSameUnitsOfSequentialReader(file);
+    }
+
+    @Test
+    public void utf16FilesAreNotSplit() throws IOException {
+        File file = folder.newFile();
+        FileUtils.write(file, "<?xml version=\"1.0\"?><tmx/>", "UTF-16");
+
+        assertFalse(ParallelTMXReader.supports(file));
+        assertTrue(ParallelTMXReader.supports(tmx("", 1)));
+    }
+
+}
@@ -0,0 +1,205 @@
+package eu.modernmt.model.corpus.impl.tmx.legacy;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.corpus.TUReader;
+import eu.modernmt.model.corpus.TranslationUnit;
+import eu.modernmt.model.corpus.impl.tmx.TMXCorpus;
+import eu.modernmt.xml.XMLUtils;
+import org.apache.commons.io.IOUtils;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * The first implementation of the TMX reader, based on {@link XMLEventReader},
+ * kept as reference for the equivalence tests.
+ */
+public class TMXReader implements TUReader {
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat(TMXCorpus.TMX_DATE_FORMAT);
+    private final ArrayList<TranslationUnit> resultCache = new ArrayList<>(8);
+    private Language headerSourceLanguage = null;
+
+    private final File tmx;
+    private final InputStream stream;
+    private final XMLEventReader reader;
+
+    private List<TranslationUnit> cachedTUs = Collections.emptyList();
+
+    public TMXReader(File tmx) throws IOException {
+        this.tmx = tmx;
+        this.dateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+        InputStream stream = null;
+        XMLEventReader reader = null;
+
+        try {
+            stream = new FileInputStream(tmx);
+            reader = XMLUtils.createEventReader(stream);
+        } catch (XMLStreamException e) {
+            throw new IOException("Error while creating XMLStreamReader for TMX " + tmx, e);
+        } finally {
+            if (reader == null)
+                IOUtils.closeQuietly(stream);
+        }
+
+        this.stream = stream;
+        this.reader = reader;
+    }
+
+    @Override
+    public TranslationUnit read() throws IOException {
+        try {
+            if (cachedTUs.isEmpty())
+                cachedTUs = read(reader);
+
+            return (cachedTUs == null || cachedTUs.isEmpty()) ? null : cachedTUs.remove(0);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid TMX " + tmx, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error while closing XMLStreamReader", e);
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
+    private List<TranslationUnit> read(XMLEventReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+
+            if (event.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                StartElement element = event.asStartElement();
+                String name = XMLUtils.getLocalName(element);
+                if ("header".equals(name)) {
+                    this.headerSourceLanguage = language(XMLUtils.getAttributeValue(element, null, "srclang"));
+                } else if ("tu".equals(name)) {
+                    return readTu(reader, element);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private List<TranslationUnit> readTu(XMLEventReader reader, StartElement tu) throws XMLStreamException {
+        this.resultCache.clear();
+
+        Date tuTimestamp = getTimestamp(tu);
+        String tuid = XMLUtils.getAttributeValue(tu, null, "tuid");
+        Language tuSourceLanguage = language(XMLUtils.getAttributeValue(tu, null, "srclang"));
+
+        Language sourceLanguage = tuSourceLanguage == null ? headerSourceLanguage : tuSourceLanguage;
+        String sourceText = null;
+
+        while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+
+            switch (event.getEventType()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    StartElement element = event.asStartElement();
+
+                    if ("tuv".equals(XMLUtils.getLocalName(element))) {
+                        String _lang = XMLUtils.getAttributeValue(element, TMXCorpus.XML_NAMESPACE, "lang");
+                        if (_lang == null)
+                            _lang = XMLUtils.getAttributeValue(element, null, "lang");
+                        if (_lang == null)
+                            throw new XMLStreamException(format("Missing language for 'tuv'", event));
+
+                        Language lang = language(_lang);
+                        if (sourceLanguage == null)
+                            sourceLanguage = lang;
+
+                        Date tuvTimestamp = getTimestamp(element);
+
+                        Date timestamp = tuvTimestamp == null ? tuTimestamp : tuvTimestamp;
+                        String text = readTuv(reader, element);
+
+                        if (sourceLanguage.isEqualOrMoreGenericThan(lang)) {
+                            sourceText = text;
+                        } else {
+                            LanguageDirection language = new LanguageDirection(sourceLanguage, lang);
+                            resultCache.add(new TranslationUnit(tuid, language, null, text, timestamp));
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if ("tu".equals(XMLUtils.getLocalName(event.asEndElement()))) {
+                        if (sourceText == null)
+                            throw new XMLStreamException(format("Missing source text in <tu> element", event));
+                        if (resultCache.isEmpty())
+                            throw new XMLStreamException(format("Not enough <tuv> elements found in <tu> element", event));
+
+                        for (TranslationUnit entry : resultCache)
+                            entry.source = sourceText;
+
+                        return resultCache;
+                    }
+                    break;
+            }
+        }
+
+        throw new XMLStreamException(format("Missing closing tag for 'tuv' element", tu));
+    }
+
+    private String readTuv(XMLEventReader reader, StartElement tuv) throws XMLStreamException {
+        while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+
+            if (event.getEventType() == XMLStreamConstants.START_ELEMENT) {
+                StartElement element = event.asStartElement();
+
+                if ("seg".equals(XMLUtils.getLocalName(element)))
+                    return XMLUtils.getXMLContent(reader, element, false).replace('\n', ' ');
+            }
+        }
+
+        throw new XMLStreamException(format("Missing 'seg' inside 'tuv' element", tuv));
+    }
+
+    private Date getTimestamp(StartElement tu) throws XMLStreamException {
+        Date timestamp = null;
+
+        String date = XMLUtils.getAttributeValue(tu, null, "changedate");
+        if (date == null)
+            date = XMLUtils.getAttributeValue(tu, null, "creationdate");
+
+        if (date != null) {
+            try {
+                timestamp = dateFormat.parse(date);
+            } catch (ParseException | NumberFormatException e) {
+                throw new XMLStreamException(format("Invalid date '" + date + "'", tu), e);
+            }
+        }
+
+        return timestamp;
+    }
+
+    private static Language language(String tag) {
+        return tag == null ? null : Language.fromString(tag);
+    }
+
+    private static String format(String message, XMLEvent event) {
+        Location location = event == null ? null : event.getLocation();
+        return location == null ? message : (message + " at line " + location.getLineNumber());
+    }
+
+}
@@ -81,16 +81,25 @@ public class LuceneAnalyzer implements ContextAnalyzer, DataListenerProvider {
     }
 
     @Override
-    public synchronized void optimize() throws ContextAnalyzerException {
-        logger.info("Starting memory forced merge");
+    public Map<LanguageDirection, ContextVector> getContextVectors(UUID user, Collection<LanguageDirection> directions, Corpus query, int limit) throws ContextAnalyzerException {
+        try {
+            return this.index.getContextVectors(user, directions, query, limit);
+        } catch (IOException e) {
+            throw new ContextAnalyzerException("Failed to calculate context-vectors due an internal error", e);
+        }
+    }
+
+    @Override
+    public void optimize() throws ContextAnalyzerException {
+        logger.info("Starting merge of deleted documents");
         long begin = System.currentTimeMillis();
         try {
-            this.index.forceMerge();
+            this.index.forceMergeDeletes();
         } catch (IOException e) {
             throw new ContextAnalyzerException(e);
         }
         long elapsed = System.currentTimeMillis() - begin;
-        logger.info("Memory forced merge completed in " + (elapsed / 1000.) + "s");
+        logger.info("Merge of deleted documents completed in " + (elapsed / 1000.) + "s");
     }
 
     public void analyze(Bucket bucket) throws IOException {
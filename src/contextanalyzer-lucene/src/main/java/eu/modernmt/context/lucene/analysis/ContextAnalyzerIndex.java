@@ -3,6 +3,9 @@ package eu.modernmt.context.lucene.analysis;
 import eu.modernmt.context.lucene.analysis.rescoring.CosineSimilarityRescorer;
 import eu.modernmt.context.lucene.analysis.rescoring.Rescorer;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.lucene.FilterCache;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.model.ContextVector;
 import eu.modernmt.model.corpus.Corpus;
 import org.apache.commons.io.FileUtils;
@@ -20,20 +23,30 @@ import org.apache.lucene.util.Version;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Created by davide on 10/07/15.
  */
 public class ContextAnalyzerIndex implements Closeable {
 
+    public static final long DEFAULT_FILTER_CACHE_SIZE = 16L * 1024 * 1024;
+
     private static final int MIN_RESULT_BATCH = 20;
 
+    private static final Histogram searchTime = Metrics.histogram("context.search");
+    private static final Histogram batchSearchTime = Metrics.histogram("context.search.batch");
+
     private final Directory indexDirectory;
     private final Analyzer analyzer;
     private final IndexWriter indexWriter;
     private final Rescorer rescorer;
+    private final ExecutorService executor;
+    private final FilterCache<UUID> ownerFilters;
 
     private DirectoryReader _indexReader;
     private IndexSearcher _indexSearcher;
@@ -57,9 +70,22 @@ public class ContextAnalyzerIndex implements Closeable {
     }
 
     public ContextAnalyzerIndex(Directory directory, Rescorer rescorer) throws IOException {
+        this(directory, rescorer, DEFAULT_FILTER_CACHE_SIZE);
+    }
+
+    /**
+     * @param filterCacheSize the maximum memory (in bytes) of the cached owner filters, 0 to disable the cache
+     */
+    public ContextAnalyzerIndex(Directory directory, Rescorer rescorer, long filterCacheSize) throws IOException {
         this.indexDirectory = directory;
         this.analyzer = new CorpusAnalyzer();
         this.rescorer = rescorer;
+        this.ownerFilters = new FilterCache<>(filterCacheSize, "context.filters");
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "ContextAnalyzerSearch");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         // Index writer setup
         IndexWriterConfig indexConfig = new IndexWriterConfig(Version.LUCENE_4_10_4, this.analyzer);
@@ -73,6 +99,11 @@ public class ContextAnalyzerIndex implements Closeable {
 
         });
 
+        // Documents are replaced at every update of their memory: segments with many deleted documents are merged first
+        TieredMergePolicy mergePolicy = new TieredMergePolicy();
+        mergePolicy.setReclaimDeletesWeight(3.0);
+        indexConfig.setMergePolicy(mergePolicy);
+
         this.indexWriter = new IndexWriter(this.indexDirectory, indexConfig);
 
         // Ensure index exists
@@ -94,6 +125,9 @@ public class ContextAnalyzerIndex implements Closeable {
                 this._indexReader.incRef();
 
                 this._indexSearcher = new IndexSearcher(this._indexReader);
+
+                // Previous readers stay open, the segments they do not share with the new one are gone
+                this.ownerFilters.retain(this._indexReader);
             }
         }
 
@@ -105,6 +139,10 @@ public class ContextAnalyzerIndex implements Closeable {
         return this._indexSearcher;
     }
 
+    public FilterCache<UUID> getOwnerFilterCache() {
+        return ownerFilters;
+    }
+
     public void update(Document document) throws IOException {
         String id = DocumentBuilder.getId(document);
         this.indexWriter.updateDocument(DocumentBuilder.makeIdTerm(id), document);
@@ -129,14 +167,114 @@ public class ContextAnalyzerIndex implements Closeable {
         this.indexWriter.commit();
     }
 
+    /**
+     * Merges only the segments with more deleted documents than the merge policy allows, without blocking updates.
+     */
+    public void forceMergeDeletes() throws IOException {
+        this.indexWriter.forceMergeDeletes(true);
+        this.indexWriter.commit();
+    }
+
     public ContextVector getContextVector(UUID user, LanguageDirection direction, Corpus queryDocument, int limit) throws IOException {
         return this.getContextVector(user, direction, queryDocument, limit, this.rescorer);
     }
 
     public ContextVector getContextVector(UUID user, LanguageDirection direction, Corpus queryDocument, int limit, Rescorer rescorer) throws IOException {
-        String contentFieldName = DocumentBuilder.makeContentFieldName(direction);
+        long begin = System.nanoTime();
+
+        try {
+            IndexSearcher searcher = this.getIndexSearcher();
+            QueryDocument query = analyze(direction, queryDocument);
+
+            return search(searcher, user, direction, query, limit, rescorer);
+        } finally {
+            searchTime.updateSince(begin);
+        }
+    }
+
+    /**
+     * Computes the context vectors of the same query document for many language directions.
+     * The document is read and analyzed once for every source language, then the searches
+     * of the single directions run in parallel.
+     *
+     * @return the context vector of every direction
+     */
+    public Map<LanguageDirection, ContextVector> getContextVectors(UUID user, Collection<LanguageDirection> directions,
+                                                                   Corpus queryDocument, int limit) throws IOException {
+        long begin = System.nanoTime();
+
+        try {
+            return searchAll(user, directions, queryDocument, limit);
+        } finally {
+            batchSearchTime.updateSince(begin);
+        }
+    }
+
+    private Map<LanguageDirection, ContextVector> searchAll(UUID user, Collection<LanguageDirection> directions,
+                                                            Corpus queryDocument, int limit) throws IOException {
+        HashMap<LanguageDirection, ContextVector> result = new HashMap<>(directions.size());
+        if (directions.isEmpty())
+            return result;
 
         IndexSearcher searcher = this.getIndexSearcher();
+
+        // The analysis only depends on the source language
+        HashMap<String, QueryDocument> queries = new HashMap<>();
+        for (LanguageDirection direction : directions) {
+            String language = direction.source.getLanguage();
+            if (!queries.containsKey(language))
+                queries.put(language, analyze(direction, queryDocument));
+        }
+
+        ArrayList<LanguageDirection> pending = new ArrayList<>(directions.size());
+        ArrayList<Future<ContextVector>> tasks = new ArrayList<>(directions.size());
+
+        try {
+            for (LanguageDirection direction : directions) {
+                if (result.containsKey(direction) || pending.contains(direction))
+                    continue;
+
+                QueryDocument query = queries.get(direction.source.getLanguage());
+
+                if (directions.size() == 1) {
+                    result.put(direction, search(searcher, user, direction, query, limit, this.rescorer));
+                } else {
+                    pending.add(direction);
+                    tasks.add(executor.submit(() -> search(searcher, user, direction, query, limit, this.rescorer)));
+                }
+            }
+
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    result.put(pending.get(i), tasks.get(i).get());
+                } catch (InterruptedException e) {
+                    throw new IOException("Execution interrupted", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                    else if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    else
+                        throw new Error("Unexpected exception", cause);
+                }
+            }
+        } finally {
+            for (Future<ContextVector> task : tasks)
+                task.cancel(true);
+        }
+
+        return result;
+    }
+
+    private QueryDocument analyze(LanguageDirection direction, Corpus queryDocument) throws IOException {
+        String contentFieldName = DocumentBuilder.makeContentFieldName(direction);
+        return QueryDocument.analyze(this.analyzer, contentFieldName, queryDocument, MoreLikeThis.DEFAULT_MAX_NUM_TOKENS_PARSED);
+    }
+
+    private ContextVector search(IndexSearcher searcher, UUID user, LanguageDirection direction,
+                                 QueryDocument queryDocument, int limit, Rescorer rescorer) throws IOException {
+        String contentFieldName = DocumentBuilder.makeContentFieldName(direction);
         IndexReader reader = searcher.getIndexReader();
 
         // Get matching documents
@@ -149,38 +287,20 @@ public class ContextAnalyzerIndex implements Closeable {
         mlt.setMinTermFreq(1);
         mlt.setMinWordLen(2);
         mlt.setBoost(true);
-        mlt.setAnalyzer(analyzer);
+        mlt.setAnalyzer(queryDocument.getAnalyzer());
 
         TopScoreDocCollector collector = TopScoreDocCollector.create(rawLimit, true);
 
-        Reader queryDocumentReader = queryDocument.getRawContentReader();
-
-        try {
-            Query mltQuery = mlt.like(contentFieldName, queryDocumentReader);
-            BooleanQuery ownerQuery = new BooleanQuery();
-
-            if (user == null) {
-                ownerQuery.add(DocumentBuilder.makePublicOwnerMatchingQuery(), BooleanClause.Occur.MUST);
-            } else {
-                ownerQuery.add(DocumentBuilder.makePublicOwnerMatchingQuery(), BooleanClause.Occur.SHOULD);
-                ownerQuery.add(DocumentBuilder.makeOwnerMatchingQuery(user), BooleanClause.Occur.SHOULD);
-                ownerQuery.setMinimumNumberShouldMatch(1);
-            }
-
-            FilteredQuery query = new FilteredQuery(mltQuery, new QueryWrapperFilter(ownerQuery));
-            searcher.search(query, collector);
-        } finally {
-            IOUtils.closeQuietly(queryDocumentReader);
-        }
+        Query mltQuery = mlt.like(contentFieldName, queryDocument.getReader());
+        FilteredQuery query = new FilteredQuery(mltQuery, ownerFilters.getFilter(user, () -> makeOwnerFilter(user)));
+        searcher.search(query, collector);
 
         ScoreDoc[] topDocs = collector.topDocs().scoreDocs;
 
         // Rescore result
 
-        if (rescorer != null) {
-            Document referenceDocument = DocumentBuilder.newInstance(direction, queryDocument);
-            rescorer.rescore(reader, this.analyzer, topDocs, referenceDocument, contentFieldName);
-        }
+        if (rescorer != null)
+            rescorer.rescore(reader, topDocs, queryDocument, contentFieldName);
 
         // Build result
 
@@ -197,8 +317,24 @@ public class ContextAnalyzerIndex implements Closeable {
         return resultBuilder.build();
     }
 
+    private static Filter makeOwnerFilter(UUID user) {
+        BooleanQuery ownerQuery = new BooleanQuery();
+
+        if (user == null) {
+            ownerQuery.add(DocumentBuilder.makePublicOwnerMatchingQuery(), BooleanClause.Occur.MUST);
+        } else {
+            ownerQuery.add(DocumentBuilder.makePublicOwnerMatchingQuery(), BooleanClause.Occur.SHOULD);
+            ownerQuery.add(DocumentBuilder.makeOwnerMatchingQuery(user), BooleanClause.Occur.SHOULD);
+            ownerQuery.setMinimumNumberShouldMatch(1);
+        }
+
+        return new QueryWrapperFilter(ownerQuery);
+    }
+
     @Override
     public void close() {
+        this.executor.shutdownNow();
+        this.ownerFilters.clear();
         IOUtils.closeQuietly(this._indexReader);
         IOUtils.closeQuietly(this.indexWriter);
         IOUtils.closeQuietly(this.indexDirectory);
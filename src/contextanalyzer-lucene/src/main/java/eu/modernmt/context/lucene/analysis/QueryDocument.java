@@ -0,0 +1,130 @@
+package eu.modernmt.context.lucene.analysis;
+
+import eu.modernmt.model.corpus.Corpus;
+import org.apache.commons.io.IOUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A context query document analyzed once: the query content is read and tokenized a single time,
+ * and then reused by the searches of every language direction with the same source language.
+ * <p>
+ * It keeps the leading tokens of the document, to be replayed to MoreLikeThis through {@link #getAnalyzer()},
+ * and the term frequencies of the whole document, used as rescoring reference.
+ */
+public class QueryDocument {
+
+    private final String[] tokens;
+    private final Map<BytesRef, Float> termFrequencies;
+    private final Analyzer analyzer;
+
+    /**
+     * Analyzes the content of the corpus.
+     *
+     * @param analyzer  the analyzer of the index
+     * @param fieldName the content field the query is for
+     * @param corpus    the query document
+     * @param maxTokens the number of leading tokens to keep for query generation
+     */
+    public static QueryDocument analyze(Analyzer analyzer, String fieldName, Corpus corpus, int maxTokens) throws IOException {
+        ArrayList<String> tokens = new ArrayList<>();
+        HashMap<BytesRef, Float> frequencies = new HashMap<>();
+
+        Reader reader = corpus.getRawContentReader();
+        TokenStream stream = null;
+
+        try {
+            stream = analyzer.tokenStream(fieldName, reader);
+            CharTermAttribute termAttribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+
+            while (stream.incrementToken()) {
+                String term = termAttribute.toString();
+
+                if (tokens.size() < maxTokens)
+                    tokens.add(term);
+                frequencies.merge(new BytesRef(term), 1.f, Float::sum);
+            }
+
+            stream.end();
+        } finally {
+            IOUtils.closeQuietly(stream);
+            IOUtils.closeQuietly(reader);
+        }
+
+        return new QueryDocument(tokens.toArray(new String[0]), frequencies);
+    }
+
+    private QueryDocument(String[] tokens, Map<BytesRef, Float> termFrequencies) {
+        this.tokens = tokens;
+        this.termFrequencies = termFrequencies;
+        this.analyzer = new Analyzer() {
+
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+                return new TokenStreamComponents(new ReplayTokenizer(reader, QueryDocument.this.tokens));
+            }
+
+        };
+    }
+
+    /**
+     * @return an analyzer that ignores its input and returns the leading tokens of this document
+     */
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    /**
+     * @return an empty reader, to be passed along with {@link #getAnalyzer()}
+     */
+    public Reader getReader() {
+        return new StringReader("");
+    }
+
+    /**
+     * @return the frequency of every term of the whole document, with terms encoded as in the index
+     */
+    public Map<BytesRef, Float> getTermFrequencies() {
+        return termFrequencies;
+    }
+
+    private static final class ReplayTokenizer extends Tokenizer {
+
+        private final CharTermAttribute termAttribute = addAttribute(CharTermAttribute.class);
+        private final String[] tokens;
+        private int index = 0;
+
+        ReplayTokenizer(Reader input, String[] tokens) {
+            super(input);
+            this.tokens = tokens;
+        }
+
+        @Override
+        public boolean incrementToken() {
+            if (index >= tokens.length)
+                return false;
+
+            clearAttributes();
+            termAttribute.setEmpty().append(tokens[index++]);
+            return true;
+        }
+
+        @Override
+        public void reset() throws IOException {
+            super.reset();
+            index = 0;
+        }
+    }
+
+}
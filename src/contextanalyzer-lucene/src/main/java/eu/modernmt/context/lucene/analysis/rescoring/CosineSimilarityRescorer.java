@@ -1,10 +1,13 @@
 package eu.modernmt.context.lucene.analysis.rescoring;
 
-import eu.modernmt.context.lucene.analysis.LuceneUtils;
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.document.Document;
+import eu.modernmt.context.lucene.analysis.QueryDocument;
+import org.apache.lucene.index.DocsEnum;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.util.BytesRef;
 
 import java.io.IOException;
 import java.util.Map;
@@ -15,16 +18,28 @@ import java.util.concurrent.*;
  */
 public class CosineSimilarityRescorer implements Rescorer {
 
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "CosineSimilarityRescorer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Override
-    public void rescore(IndexReader reader, Analyzer analyzer, ScoreDoc[] topDocs, Document reference, String fieldName) throws IOException {
+    public void rescore(IndexReader reader, ScoreDoc[] topDocs, QueryDocument reference, String fieldName) throws IOException {
         // Compute reference document stats
-        Map<String, Float> referenceTerms = LuceneUtils.getTermFrequencies(analyzer, reference, fieldName);
+        Map<BytesRef, Float> referenceTerms = reference.getTermFrequencies();
         double referenceL2Norm = getL2Norm(referenceTerms);
 
+        if (THREADS == 1 || topDocs.length < 2) {
+            for (ScoreDoc topDoc : topDocs)
+                new RescoringTask(reader, fieldName, topDoc, referenceTerms, referenceL2Norm).call();
+            return;
+        }
+
         // Calculate similarity with reference
-        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        Future<?>[] tasks = new Future<?>[topDocs.length];
         try {
-            Future<?>[] tasks = new Future<?>[topDocs.length];
             for (int i = 0; i < tasks.length; i++)
                 tasks[i] = executor.submit(new RescoringTask(reader, fieldName, topDocs[i], referenceTerms, referenceL2Norm));
 
@@ -45,11 +60,14 @@ public class CosineSimilarityRescorer implements Rescorer {
                 }
             }
         } finally {
-            executor.shutdownNow();
+            for (Future<?> task : tasks) {
+                if (task != null)
+                    task.cancel(true);
+            }
         }
     }
 
-    public static double getL2Norm(Map<String, Float> terms) throws IOException {
+    public static double getL2Norm(Map<?, Float> terms) throws IOException {
         double norm = 0;
 
         for (Float value : terms.values())
@@ -63,11 +81,11 @@ public class CosineSimilarityRescorer implements Rescorer {
         private final IndexReader reader;
         private final String fieldName;
         private final ScoreDoc target;
-        private final Map<String, Float> referenceTerms;
+        private final Map<BytesRef, Float> referenceTerms;
         private final double referenceL2Norm;
 
         public RescoringTask(IndexReader reader, String fieldName,
-                             ScoreDoc target, Map<String, Float> referenceTerms, double referenceL2Norm) {
+                             ScoreDoc target, Map<BytesRef, Float> referenceTerms, double referenceL2Norm) {
             this.reader = reader;
             this.fieldName = fieldName;
             this.target = target;
@@ -77,21 +95,35 @@ public class CosineSimilarityRescorer implements Rescorer {
 
         @Override
         public Void call() throws IOException {
-            Map<String, Float> terms = LuceneUtils.getTermFrequencies(this.reader, this.target.doc, this.fieldName);
-
             double dotProduct = 0;
             double l2Norm = 0;
 
-            for (Float value : terms.values())
-                l2Norm += value * value;
-            l2Norm = Math.sqrt(l2Norm);
+            // Single pass on the term vector, without collecting the document terms
+            Terms vector = this.reader.getTermVector(this.target.doc, this.fieldName);
+            if (vector != null) {
+                TermsEnum termsEnum = vector.iterator(null);
+                DocsEnum docsEnum = null;
 
-            for (Map.Entry<String, Float> entry : referenceTerms.entrySet()) {
-                Float otherFreq = terms.get(entry.getKey());
-                if (otherFreq != null)
-                    dotProduct += entry.getValue() * otherFreq;
+                BytesRef text;
+                while ((text = termsEnum.next()) != null) {
+                    docsEnum = termsEnum.docs(null, docsEnum);
+                    if (docsEnum.nextDoc() == DocIdSetIterator.NO_MORE_DOCS)
+                        continue;
+
+                    float frequency = docsEnum.freq();
+                    if (frequency <= 0)
+                        continue;
+
+                    l2Norm += frequency * frequency;
+
+                    Float referenceFrequency = referenceTerms.get(text);
+                    if (referenceFrequency != null)
+                        dotProduct += referenceFrequency * frequency;
+                }
             }
 
+            l2Norm = Math.sqrt(l2Norm);
+
             float similarity = (float) (dotProduct / (referenceL2Norm * l2Norm));
 
             if (Float.isInfinite(similarity) || Float.isNaN(similarity))
@@ -1,7 +1,6 @@
 package eu.modernmt.context.lucene.analysis.rescoring;
 
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.document.Document;
+import eu.modernmt.context.lucene.analysis.QueryDocument;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.ScoreDoc;
 
@@ -12,7 +11,9 @@ import java.io.IOException;
  */
 public interface Rescorer {
 
-    void rescore(IndexReader reader, Analyzer analyzer,
-                 ScoreDoc[] topDocs, Document reference, String fieldName) throws IOException;
+    /**
+     * Updates the scores of the top documents with their similarity to the reference document.
+     */
+    void rescore(IndexReader reader, ScoreDoc[] topDocs, QueryDocument reference, String fieldName) throws IOException;
 
 }
@@ -1,17 +1,28 @@
 package eu.modernmt.context.lucene.storage;
 
-import eu.modernmt.io.RuntimeIOException;
 import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
+import org.apache.commons.io.FileUtils;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.sql.*;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of the buckets of a CorporaStorage, with their sizes, analysis marks and the channel positions.
+ * <p>
+ * The whole registry is kept in concurrent maps, so that lookups never wait for updates and updates of
+ * different buckets do not contend. Durability is provided by a {@link RegistryLog}: every update is appended
+ * to a write-ahead log and forced to disk before being visible, and the log is periodically checkpointed
+ * into a snapshot. Registries created with the previous SQLite database ("index") are converted at startup.
+ */
 public class BucketRegistry implements Closeable {
 
+    private static final long DEFAULT_CHECKPOINT_SIZE = 16L * 1024L * 1024L;
+
     private static File getBucketFolder(File path, long id) {
         File parent = new File(path, Long.toString(id % 10000L));
         return new File(parent, Long.toString(id));
@@ -19,369 +30,255 @@ public class BucketRegistry implements Closeable {
 
     private final File root;
     private final boolean maskLanguageRegion;
-    private final Connection connection;
-    private final HashMap<CacheKey, Bucket> cache = new HashMap<>();
+    private final long checkpointSize;
+    private final RegistryLog log;
+
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<LanguageDirection, RegistryLog.Entry>> entries = new ConcurrentHashMap<>();
+    private final Set<RegistryLog.Entry> misaligned = ConcurrentHashMap.newKeySet();  // entries with mark != size
+    private final ConcurrentHashMap<Short, Long> channels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, Bucket> cache = new ConcurrentHashMap<>();
+    private volatile int count = 0;
 
     public BucketRegistry(File root, boolean maskLanguageRegion) throws IOException {
+        this(root, maskLanguageRegion, DEFAULT_CHECKPOINT_SIZE);
+    }
+
+    BucketRegistry(File root, boolean maskLanguageRegion, long checkpointSize) throws IOException {
         this.root = root;
         this.maskLanguageRegion = maskLanguageRegion;
+        this.checkpointSize = checkpointSize;
 
-        try {
-            File index = new File(root, "index");
-            Class.forName("org.sqlite.JDBC");
-            this.connection = DriverManager.getConnection("jdbc:sqlite:" + index.getAbsolutePath());
-
-            createDatabaseIfNotExists(connection);
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } catch (ClassNotFoundException e) {
-            throw new Error(e);
-        }
-    }
-
-    private static void createDatabaseIfNotExists(Connection connection) throws SQLException {
-        Statement statement = connection.createStatement();
+        File index = new File(root, "index");
+        if (index.exists()) {
+            if (!RegistryLog.getSnapshotFile(root).exists())
+                convertSQLiteRegistry(index, RegistryLog.getSnapshotFile(root));
 
-        try {
-            String sql = "CREATE TABLE IF NOT EXISTS buckets (" +
-                    "id INTEGER, source TEXT, target TEXT, " +
-                    "owner_lsb INTEGER, owner_msb INTEGER, " +
-                    "size INTEGER, plain_size INTEGER, gz_size INTEGER, mark INTEGER DEFAULT 0, " +
-                    "PRIMARY KEY (id, source, target))";
-            statement.executeUpdate(sql);
-        } finally {
-            statement.close();
+            FileUtils.forceDelete(index);
+            FileUtils.deleteQuietly(new File(root, "index-journal"));
         }
 
-        statement = connection.createStatement();
-
-        try {
-            String sql = "CREATE TABLE IF NOT EXISTS channels (id INTEGER PRIMARY KEY, position INTEGER)";
-            statement.executeUpdate(sql);
-        } finally {
-            statement.close();
-        }
+        this.log = new RegistryLog(root, channels, this::put);
     }
 
-    public synchronized int count() throws IOException {
-        Statement statement = null;
-        ResultSet result = null;
-
-        try {
-            statement = connection.createStatement();
-            result = statement.executeQuery("SELECT COUNT(*) FROM buckets WHERE size > 0");
+    // Entries ---------------------------------------------------------------------------------------------------------
 
-            return result.next() ? result.getInt(1) : 0;
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            close(result);
-            close(statement);
-        }
+    private RegistryLog.Entry getEntry(long id, LanguageDirection language) {
+        Map<LanguageDirection, RegistryLog.Entry> map = entries.get(id);
+        return map == null ? null : map.get(language);
     }
 
-    public synchronized Bucket get(long id, LanguageDirection language, UUID owner) throws IOException {
-        CacheKey key = new CacheKey(id, language, this.maskLanguageRegion);
+    /* must be called holding the log lock, or at startup */
+    private void put(RegistryLog.Entry entry) {
+        RegistryLog.Entry old = entries.computeIfAbsent(entry.id, k -> new ConcurrentHashMap<>())
+                .put(entry.language, entry);
 
-        try {
-            return cache.computeIfAbsent(key, arg -> {
-                try {
-                    Bucket bucket = retrieve(arg.id, arg.language);
-                    return bucket == null ? new Bucket(getBucketFolder(this.root, id), arg.id, arg.language, owner) : bucket;
-                } catch (IOException e) {
-                    throw new RuntimeIOException(e);
-                }
-            });
-        } catch (RuntimeIOException e) {
-            throw e.getCause();
+        if (old != null) {
+            misaligned.remove(old);
+            if (old.size > 0)
+                count--;
         }
+
+        if (entry.mark != entry.size)
+            misaligned.add(entry);
+        if (entry.size > 0)
+            count++;
     }
 
-    private synchronized Bucket retrieve(long id, LanguageDirection language) throws IOException {
-        PreparedStatement statement = null;
-        ResultSet result = null;
+    private Bucket toBucket(RegistryLog.Entry entry) {
+        CacheKey key = new CacheKey(entry.id, entry.language, this.maskLanguageRegion);
+        return cache.computeIfAbsent(key, arg -> new Bucket(getBucketFolder(root, arg.id), arg.id, arg.language,
+                entry.getOwner(), entry.plainSize, entry.gzSize, entry.size));
+    }
 
-        try {
-            statement = connection.prepareStatement("SELECT owner_lsb, owner_msb, size, plain_size, gz_size " +
-                    "FROM buckets WHERE id = ? AND source = ? AND target = ?");
-            statement.setLong(1, id);
-            statement.setString(2, language.source.toString());
-            statement.setString(3, language.target.toString());
-
-            result = statement.executeQuery();
-
-            if (result.next()) {
-                UUID owner = getUUID(result, 1, 2);
-                long size = result.getLong(3);
-                long plainSize = result.getLong(4);
-                long gzSize = result.getLong(5);
-
-                return new Bucket(getBucketFolder(this.root, id), id, language, owner, plainSize, gzSize, size);
-            } else {
-                return null;
-            }
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            close(result);
-            close(statement);
-        }
+    private ArrayList<RegistryLog.Entry> getAllEntries() {
+        ArrayList<RegistryLog.Entry> result = new ArrayList<>();
+        for (Map<LanguageDirection, RegistryLog.Entry> map : entries.values())
+            result.addAll(map.values());
+        return result;
     }
 
-    public synchronized Set<Bucket> getAll(long id) throws IOException {
-        Set<Bucket> set = new HashSet<>();
+    // Lookups ---------------------------------------------------------------------------------------------------------
 
-        Statement statement = null;
-        ResultSet result = null;
+    public int count() {
+        return count;
+    }
 
-        try {
-            statement = connection.createStatement();
-            result = statement.executeQuery("SELECT id, source, target, owner_lsb, owner_msb, size, plain_size, gz_size FROM buckets WHERE id = " + id);
+    public Bucket get(long id, LanguageDirection language, UUID owner) {
+        CacheKey key = new CacheKey(id, language, this.maskLanguageRegion);
 
-            while (result.next())
-                set.add(parseBucket(result));
+        return cache.computeIfAbsent(key, arg -> {
+            RegistryLog.Entry entry = getEntry(arg.id, arg.language);
 
-            return set;
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            close(result);
-            close(statement);
-        }
+            if (entry == null)
+                return new Bucket(getBucketFolder(this.root, id), arg.id, arg.language, owner);
+            else
+                return new Bucket(getBucketFolder(this.root, id), arg.id, arg.language,
+                        entry.getOwner(), entry.plainSize, entry.gzSize, entry.size);
+        });
     }
 
-    public synchronized Set<Bucket> getAll() throws IOException {
+    public Set<Bucket> getAll(long id) {
         Set<Bucket> set = new HashSet<>();
 
-        Statement statement = null;
-        ResultSet result = null;
-
-        try {
-            statement = connection.createStatement();
-            result = statement.executeQuery("SELECT id, source, target, owner_lsb, owner_msb, size, plain_size, gz_size FROM buckets");
-
-            while (result.next())
-                set.add(parseBucket(result));
-
-            return set;
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            close(result);
-            close(statement);
+        Map<LanguageDirection, RegistryLog.Entry> map = entries.get(id);
+        if (map != null) {
+            for (RegistryLog.Entry entry : map.values())
+                set.add(toBucket(entry));
         }
-    }
-
-    public synchronized Set<Bucket> getUpdated(long minMisalignment, int limit) throws IOException {
-        HashSet<Bucket> set = new HashSet<>();
 
-        Statement statement = null;
-        ResultSet result = null;
-
-        try {
-            statement = connection.createStatement();
-            result = statement.executeQuery(
-                    "SELECT id, source, target, owner_lsb, owner_msb, size, plain_size, gz_size " +
-                            "FROM buckets " +
-                            "WHERE mark > size OR (size - mark) >= " + minMisalignment + " " +
-                            "ORDER BY ABS(mark - size) DESC " +
-                            "LIMIT " + limit);
-
-            while (result.next())
-                set.add(parseBucket(result));
-
-            return set;
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } catch (RuntimeIOException e) {
-            throw e.getCause();
-        } finally {
-            close(result);
-            close(statement);
-        }
+        return set;
     }
 
-    private Bucket parseBucket(ResultSet result) throws SQLException {
-        long id = result.getLong(1);
-        final Language source = Language.fromString(result.getString(2));
-        final Language target = Language.fromString(result.getString(3));
-        final UUID owner = getUUID(result, 4, 5);
-        final long size = result.getLong(6);
-        final long plainSize = result.getLong(7);
-        final long gzSize = result.getLong(8);
+    public Set<Bucket> getAll() {
+        Set<Bucket> set = new HashSet<>();
 
-        CacheKey key = new CacheKey(id, new LanguageDirection(source, target), this.maskLanguageRegion);
-        Bucket bucket = cache.computeIfAbsent(key,
-                arg -> new Bucket(getBucketFolder(root, arg.id), arg.id, arg.language, owner, plainSize, gzSize, size));
+        for (Map<LanguageDirection, RegistryLog.Entry> map : entries.values()) {
+            for (RegistryLog.Entry entry : map.values())
+                set.add(toBucket(entry));
+        }
 
-        return bucket;
+        return set;
     }
 
-    public synchronized void mark(Bucket bucket, long mark) throws IOException {
-        PreparedStatement statement = null;
+    /**
+     * @return at most "limit" buckets whose content is not analyzed yet by at least "minMisalignment" bytes,
+     * or that shrunk since the last analysis; the most misaligned first
+     */
+    public Set<Bucket> getUpdated(long minMisalignment, int limit) {
+        Collection<RegistryLog.Entry> candidates = minMisalignment > 0 ? misaligned : getAllEntries();
+        int max = limit < 0 ? Integer.MAX_VALUE : limit;  // as SQL "LIMIT -1"
+        Comparator<RegistryLog.Entry> comparator = Comparator.comparingLong(e -> Math.abs(e.mark - e.size));
+        PriorityQueue<RegistryLog.Entry> queue = new PriorityQueue<>(comparator);
+
+        for (RegistryLog.Entry entry : candidates) {
+            if (max == 0)
+                break;
+
+            if (entry.mark > entry.size || (entry.size - entry.mark) >= minMisalignment) {
+                if (queue.size() < max) {
+                    queue.add(entry);
+                } else if (comparator.compare(entry, queue.peek()) > 0) {
+                    queue.poll();
+                    queue.add(entry);
+                }
+            }
+        }
 
-        try {
-            statement = connection.prepareStatement("UPDATE buckets SET mark = ? WHERE id = ? AND source = ? AND target = ?");
-            statement.setLong(1, mark);
-            statement.setLong(2, bucket.getId());
-            statement.setString(3, bucket.getLanguage().source.toString());
-            statement.setString(4, bucket.getLanguage().target.toString());
+        HashSet<Bucket> set = new HashSet<>();
+        for (RegistryLog.Entry entry : queue)
+            set.add(toBucket(entry));
 
-            statement.executeUpdate();
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            close(statement);
-        }
+        return set;
     }
 
-    public synchronized Map<Short, Long> getChannels() throws IOException {
-        HashMap<Short, Long> map = new HashMap<>();
-
-        Statement statement = null;
-        ResultSet result = null;
+    public Map<Short, Long> getChannels() {
+        return new HashMap<>(channels);
+    }
 
-        try {
-            statement = connection.createStatement();
-            result = statement.executeQuery("SELECT id, position FROM channels");
+    // Updates ---------------------------------------------------------------------------------------------------------
 
-            while (result.next()) {
-                Short id = result.getShort(1);
-                Long position = result.getLong(2);
+    public void mark(Bucket bucket, long mark) throws IOException {
+        synchronized (log) {
+            RegistryLog.Entry entry = getEntry(bucket.getId(), bucket.getLanguage());
+            if (entry == null)
+                return;
 
-                map.put(id, position);
-            }
+            entry = entry.withMark(mark);
+            log.append(Collections.emptyMap(), Collections.singleton(entry));
+            put(entry);
 
-            return map;
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            close(result);
-            close(statement);
+            checkpointIfNeeded();
         }
     }
 
-    public synchronized void update(Map<Short, Long> channels, Set<Bucket> buckets) throws IOException {
-        boolean success = false;
-
-        PreparedStatement channelStatement = null;
-        PreparedStatement iBucketStatement = null;
-        PreparedStatement uBucketStatement = null;
-
-        try {
-            connection.setAutoCommit(false);
-
-            channelStatement = connection.prepareStatement("INSERT OR REPLACE INTO channels(id, position) VALUES (?, ?)");
-            iBucketStatement = connection.prepareStatement("INSERT INTO buckets(id, source, target, owner_lsb, owner_msb, size, plain_size, gz_size) VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
-            uBucketStatement = connection.prepareStatement("UPDATE buckets SET size = ?, plain_size = ?, gz_size = ? WHERE id = ? AND source = ? AND target = ?");
-
-            for (Map.Entry<Short, Long> entry : channels.entrySet()) {
-                channelStatement.setShort(1, entry.getKey());
-                channelStatement.setLong(2, entry.getValue());
-                channelStatement.executeUpdate();
-            }
-
+    public void update(Map<Short, Long> channels, Set<Bucket> buckets) throws IOException {
+        synchronized (log) {
+            ArrayList<RegistryLog.Entry> updates = new ArrayList<>(buckets.size());
             for (Bucket bucket : buckets) {
-                // Create or update
-                uBucketStatement.setLong(1, bucket.virtualSize);
-                uBucketStatement.setLong(2, bucket.plainTextFileSize);
-                uBucketStatement.setLong(3, bucket.compressedFileSize);
-                uBucketStatement.setLong(4, bucket.getId());
-                uBucketStatement.setString(5, bucket.getLanguage().source.toString());
-                uBucketStatement.setString(6, bucket.getLanguage().target.toString());
-
-                if (uBucketStatement.executeUpdate() == 0) {
-                    UUID owner = bucket.getOwner();
-
-                    iBucketStatement.setLong(1, bucket.getId());
-                    iBucketStatement.setString(2, bucket.getLanguage().source.toString());
-                    iBucketStatement.setString(3, bucket.getLanguage().target.toString());
-                    iBucketStatement.setLong(4, owner == null ? 0L : owner.getLeastSignificantBits());
-                    iBucketStatement.setLong(5, owner == null ? 0L : owner.getMostSignificantBits());
-                    iBucketStatement.setLong(6, bucket.virtualSize);
-                    iBucketStatement.setLong(7, bucket.plainTextFileSize);
-                    iBucketStatement.setLong(8, bucket.compressedFileSize);
-
-                    iBucketStatement.executeUpdate();
-                }
+                RegistryLog.Entry entry = getEntry(bucket.getId(), bucket.getLanguage());
+                updates.add(entry == null ? RegistryLog.Entry.of(bucket) : entry.withSizes(bucket));
             }
 
-            connection.commit();
-            success = true;
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            finalizeTransaction(connection, success);
+            log.append(channels, updates);
+
+            this.channels.putAll(channels);
+            for (RegistryLog.Entry entry : updates)
+                put(entry);
 
-            close(channelStatement);
-            close(iBucketStatement);
-            close(uBucketStatement);
+            checkpointIfNeeded();
         }
     }
 
-    private static void finalizeTransaction(Connection connection, boolean success) throws IOException {
-        try {
-            if (!success)
-                connection.rollback();
-        } catch (SQLException e) {
-            throw new IOException(e);
-        } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                throw new IOException(e);
-            }
-        }
+    private void checkpointIfNeeded() throws IOException {
+        if (log.size() >= checkpointSize)
+            checkpoint();
     }
 
-    private static void close(Statement statement) throws IOException {
-        if (statement != null) {
-            try {
-                statement.close();
-            } catch (SQLException e) {
-                throw new IOException(e);
-            }
+    /**
+     * Writes the current state as snapshot, emptying the write-ahead log.
+     */
+    public void checkpoint() throws IOException {
+        synchronized (log) {
+            log.checkpoint(channels, getAllEntries());
         }
     }
 
-    private static void close(ResultSet result) throws IOException {
-        if (result != null) {
+    public void clearCache() {
+        this.cache.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (log) {
             try {
-                result.close();
-            } catch (SQLException e) {
-                throw new IOException(e);
+                for (Bucket bucket : cache.values())
+                    bucket.getWriter().close();
+
+                cache.clear();
+
+                if (log.size() > 0)
+                    checkpoint();
+            } finally {
+                log.close();
             }
         }
     }
 
-    private static UUID getUUID(ResultSet result, int lsbIndex, int msbIndex) throws SQLException {
-        long lsb = result.getLong(lsbIndex);
-        long msb = result.getLong(msbIndex);
-
-        UUID uuid = null;
-        if (lsb > 0 || msb > 0)
-            uuid = new UUID(msb, lsb);
-        return uuid;
-    }
+    // SQLite conversion -----------------------------------------------------------------------------------------------
 
-    public synchronized void clearCache() {
-        this.cache.clear();
-    }
+    private static void convertSQLiteRegistry(File index, File snapshot) throws IOException {
+        HashMap<Short, Long> channels = new HashMap<>();
+        ArrayList<RegistryLog.Entry> entries = new ArrayList<>();
 
-    @Override
-    public synchronized void close() throws IOException {
         try {
-            for (Bucket bucket : cache.values())
-                bucket.getWriter().close();
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new Error(e);
+        }
 
-            cache.clear();
-        } finally {
-            try {
-                this.connection.close();
-            } catch (SQLException e) {
-                // Ignore it
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + index.getAbsolutePath());
+             Statement statement = connection.createStatement()) {
+            try (ResultSet result = statement.executeQuery("SELECT id, position FROM channels")) {
+                while (result.next())
+                    channels.put(result.getShort(1), result.getLong(2));
             }
+
+            try (ResultSet result = statement.executeQuery("SELECT id, source, target, owner_lsb, owner_msb, " +
+                    "size, plain_size, gz_size, mark FROM buckets")) {
+                while (result.next()) {
+                    Language source = Language.fromString(result.getString(2));
+                    Language target = Language.fromString(result.getString(3));
+
+                    entries.add(new RegistryLog.Entry(result.getLong(1), new LanguageDirection(source, target),
+                            result.getLong(5), result.getLong(4),
+                            result.getLong(6), result.getLong(7), result.getLong(8), result.getLong(9)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("Unable to convert SQLite bucket registry " + index, e);
         }
+
+        RegistryLog.writeSnapshot(snapshot, channels, entries);
     }
 
     private static class CacheKey {
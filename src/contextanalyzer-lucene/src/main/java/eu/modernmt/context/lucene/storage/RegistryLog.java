@@ -0,0 +1,293 @@
+package eu.modernmt.context.lucene.storage;
+
+import eu.modernmt.io.FileSystemUtils;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import org.apache.commons.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable state of a {@link BucketRegistry}: a snapshot of all entries and channel positions, plus an append-only
+ * write-ahead log of the updates applied after the snapshot.
+ * <p>
+ * Every log record is a whole update (the channel positions and the new state of the updated entries)
+ * prefixed by its length and checksum: a record torn by a crash during the write is discarded at recovery,
+ * together with anything after it. Records hold absolute values, so replaying a record that is already
+ * part of the snapshot (i.e. after a crash during a checkpoint) leaves the state unchanged.
+ */
+class RegistryLog implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x4d4d4252;  // "MMBR"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int MAX_RECORD_SIZE = 256 * 1024 * 1024;
+
+    /**
+     * The persisted state of a bucket, immutable.
+     * The owner is stored as its two halves, as in the SQLite registry.
+     */
+    static final class Entry {
+
+        final long id;
+        final LanguageDirection language;
+        final long ownerMsb;
+        final long ownerLsb;
+        final long size;
+        final long plainSize;
+        final long gzSize;
+        final long mark;
+
+        Entry(long id, LanguageDirection language, long ownerMsb, long ownerLsb, long size, long plainSize, long gzSize, long mark) {
+            this.id = id;
+            this.language = language;
+            this.ownerMsb = ownerMsb;
+            this.ownerLsb = ownerLsb;
+            this.size = size;
+            this.plainSize = plainSize;
+            this.gzSize = gzSize;
+            this.mark = mark;
+        }
+
+        static Entry of(Bucket bucket) {
+            UUID owner = bucket.getOwner();
+            return new Entry(bucket.getId(), bucket.getLanguage(),
+                    owner == null ? 0L : owner.getMostSignificantBits(),
+                    owner == null ? 0L : owner.getLeastSignificantBits(),
+                    bucket.virtualSize, bucket.plainTextFileSize, bucket.compressedFileSize, 0L);
+        }
+
+        UUID getOwner() {
+            return ownerLsb > 0 || ownerMsb > 0 ? new UUID(ownerMsb, ownerLsb) : null;
+        }
+
+        Entry withSizes(Bucket bucket) {
+            return new Entry(id, language, ownerMsb, ownerLsb,
+                    bucket.virtualSize, bucket.plainTextFileSize, bucket.compressedFileSize, mark);
+        }
+
+        Entry withMark(long mark) {
+            return new Entry(id, language, ownerMsb, ownerLsb, size, plainSize, gzSize, mark);
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeLong(id);
+            output.writeUTF(language.source.toString());
+            output.writeUTF(language.target.toString());
+            output.writeLong(ownerMsb);
+            output.writeLong(ownerLsb);
+            output.writeLong(size);
+            output.writeLong(plainSize);
+            output.writeLong(gzSize);
+            output.writeLong(mark);
+        }
+
+        private static Entry read(DataInputStream input) throws IOException {
+            long id = input.readLong();
+            Language source = Language.fromString(input.readUTF());
+            Language target = Language.fromString(input.readUTF());
+
+            return new Entry(id, new LanguageDirection(source, target),
+                    input.readLong(), input.readLong(), input.readLong(), input.readLong(), input.readLong(), input.readLong());
+        }
+    }
+
+    static File getSnapshotFile(File root) {
+        return new File(root, "registry.snapshot");
+    }
+
+    static File getLogFile(File root) {
+        return new File(root, "registry.log");
+    }
+
+    private final File snapshotFile;
+    private final FileChannel log;
+
+    /**
+     * Opens the registry state in the given folder, replaying the snapshot and then the log.
+     * Channel positions are put in the given map, entries are passed to the consumer
+     * in order: later entries of the same bucket replace the earlier ones.
+     */
+    RegistryLog(File root, Map<Short, Long> channels, Consumer<Entry> entries) throws IOException {
+        this.snapshotFile = getSnapshotFile(root);
+
+        if (snapshotFile.exists())
+            readSnapshot(snapshotFile, channels, entries);
+
+        this.log = FileChannel.open(getLogFile(root).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        boolean success = false;
+        try {
+            long valid = replay(log, channels, entries);
+            if (valid < log.size()) {
+                log.truncate(valid);
+                log.force(true);
+            }
+            log.position(valid);
+
+            success = true;
+        } finally {
+            if (!success)
+                IOUtils.closeQuietly(log);
+        }
+    }
+
+    /**
+     * @return the size in bytes of the log, i.e. of the updates after the last checkpoint
+     */
+    long size() throws IOException {
+        return log.position();
+    }
+
+    /**
+     * Appends the update to the log and forces it to disk.
+     */
+    void append(Map<Short, Long> channels, Collection<Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 80 * entries.size());
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(0);  // length
+        output.writeLong(0L);  // checksum
+        writeState(output, channels, entries);
+        output.flush();
+
+        byte[] record = bytes.toByteArray();
+        int length = record.length - 12;
+
+        CRC32 crc = new CRC32();
+        crc.update(record, 12, length);
+
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.putInt(0, length);
+        buffer.putLong(4, crc.getValue());
+
+        long position = log.position();
+        try {
+            while (buffer.hasRemaining())
+                log.write(buffer);
+            log.force(false);
+        } catch (IOException e) {
+            // drop the partial record, so that the next updates are not appended after it
+            log.truncate(position);
+            log.position(position);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the given state as the new snapshot and empties the log.
+     */
+    void checkpoint(Map<Short, Long> channels, Collection<Entry> entries) throws IOException {
+        writeSnapshot(snapshotFile, channels, entries);
+
+        log.truncate(0L);
+        log.position(0L);
+        log.force(true);
+    }
+
+    static void writeSnapshot(File file, Map<Short, Long> channels, Collection<Entry> entries) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + 80 * entries.size());
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(SNAPSHOT_MAGIC);
+        output.writeInt(SNAPSHOT_VERSION);
+        writeState(output, channels, entries);
+        output.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeLong(crc.getValue());
+        output.flush();
+
+        FileSystemUtils.atomicWrite(file, bytes.toByteArray());
+    }
+
+    private static void readSnapshot(File file, Map<Short, Long> channels, Consumer<Entry> entries) throws IOException {
+        byte[] content;
+        try (InputStream stream = new FileInputStream(file)) {
+            content = IOUtils.toByteArray(stream);
+        }
+
+        if (content.length < 16)
+            throw new IOException("Corrupted bucket registry snapshot: " + file);
+
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length - 8);
+        if (crc.getValue() != ByteBuffer.wrap(content).getLong(content.length - 8))
+            throw new IOException("Corrupted bucket registry snapshot: " + file);
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(content, 0, content.length - 8));
+        if (input.readInt() != SNAPSHOT_MAGIC)
+            throw new IOException("Invalid bucket registry snapshot: " + file);
+        int version = input.readInt();
+        if (version != SNAPSHOT_VERSION)
+            throw new IOException("Unsupported bucket registry snapshot version " + version + ": " + file);
+
+        readState(input, channels, entries);
+    }
+
+    /**
+     * @return the length of the valid prefix of the log
+     */
+    private static long replay(FileChannel log, Map<Short, Long> channels, Consumer<Entry> entries) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(log.position(0L))));
+        long size = log.size();
+        long valid = 0L;
+
+        while (valid + 12 <= size) {
+            int length = input.readInt();
+            long checksum = input.readLong();
+
+            if (length < 0 || length > MAX_RECORD_SIZE || valid + 12 + length > size)
+                break;
+
+            byte[] record = new byte[length];
+            input.readFully(record);
+
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if (crc.getValue() != checksum)
+                break;
+
+            readState(new DataInputStream(new ByteArrayInputStream(record)), channels, entries);
+            valid += 12 + length;
+        }
+
+        return valid;
+    }
+
+    private static void writeState(DataOutputStream output, Map<Short, Long> channels, Collection<Entry> entries) throws IOException {
+        output.writeInt(channels.size());
+        for (Map.Entry<Short, Long> entry : channels.entrySet()) {
+            output.writeShort(entry.getKey());
+            output.writeLong(entry.getValue());
+        }
+
+        output.writeInt(entries.size());
+        for (Entry entry : entries)
+            entry.write(output);
+    }
+
+    private static void readState(DataInputStream input, Map<Short, Long> channels, Consumer<Entry> entries) throws IOException {
+        int size = input.readInt();
+        for (int i = 0; i < size; i++)
+            channels.put(input.readShort(), input.readLong());
+
+        size = input.readInt();
+        for (int i = 0; i < size; i++)
+            entries.accept(Entry.read(input));
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+}
@@ -0,0 +1,211 @@
+package eu.modernmt.lucene;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Metrics;
+import org.apache.lucene.index.AtomicReader;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.BitsFilteredDocIdSet;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.WAH8DocIdSet;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of the document sets matched by access filters (e.g. the documents visible to an owner).
+ * <p>
+ * Like Lucene's CachingWrapperFilter, sets are cached per segment core, ignoring deletions, which are applied
+ * at every search: a new reader re-evaluates the filter only on its new segments, and the entries of a
+ * segment are dropped as soon as the segment is closed (i.e. merged away). Indexes that do not close their
+ * previous readers must call {@link #retain(IndexReader)} with every new reader instead.
+ * Unlike CachingWrapperFilter, a single cache is shared by all the filters of the index, its footprint is
+ * bounded by the memory of the cached sets and the least recently used entries are evicted first.
+ *
+ * @param <K> the type of the filter key
+ */
+public class FilterCache<K> {
+
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final Cache<Key<K>, DocIdSet> cache;
+    private final Set<Object> segments = ConcurrentHashMap.newKeySet();
+    private final AtomicReader.CoreClosedListener segmentClosedListener = this::onSegmentClosed;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param maxBytes   the maximum memory of the cached document sets, 0 disables the cache
+     * @param metricName the name of the metrics of the cache, hits and misses are counted
+     *                   in "[metricName].hits" and "[metricName].misses"
+     */
+    public FilterCache(long maxBytes, String metricName) {
+        this.cache = maxBytes > 0 ? CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key<K> key, DocIdSet value) -> (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD + value.ramBytesUsed()))
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .recordStats()
+                .build() : null;
+        this.hits = Metrics.counter(metricName + ".hits");
+        this.misses = Metrics.counter(metricName + ".misses");
+    }
+
+    /**
+     * Returns a filter that matches the same documents of the source filter, reusing the document sets
+     * cached for the same key. The source filter is created only for the segments not in cache.
+     *
+     * @param key    the key of the filter, two filters with equal keys must match the same documents
+     * @param source the factory of the filter to cache
+     * @return the cached filter
+     */
+    public Filter getFilter(K key, Supplier<Filter> source) {
+        return cache == null ? source.get() : new CachedFilter(key, source);
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * @return the memory used by the cached document sets
+     */
+    public long ramBytesUsed() {
+        if (cache == null)
+            return 0;
+
+        long bytes = 0;
+        for (DocIdSet docIdSet : cache.asMap().values())
+            bytes += ENTRY_OVERHEAD + docIdSet.ramBytesUsed();
+        return bytes;
+    }
+
+    public CacheStats getStats() {
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    public void clear() {
+        if (cache != null)
+            cache.invalidateAll();
+    }
+
+    /**
+     * Drops the entries of the segments that are not part of the given reader, as if they were closed.
+     *
+     * @param reader the current reader of the index
+     */
+    public void retain(IndexReader reader) {
+        if (cache == null)
+            return;
+
+        Set<Object> current = new HashSet<>();
+        for (AtomicReaderContext leaf : reader.leaves())
+            current.add(leaf.reader().getCoreCacheKey());
+
+        segments.retainAll(current);
+        cache.asMap().keySet().removeIf(key -> !current.contains(key.segment));
+    }
+
+    private void onSegmentClosed(Object segment) {
+        segments.remove(segment);
+        cache.asMap().keySet().removeIf(key -> key.segment == segment);
+    }
+
+    private DocIdSet load(AtomicReaderContext context, Supplier<Filter> source) throws IOException {
+        AtomicReader reader = context.reader();
+        DocIdSet docIdSet = source.get().getDocIdSet(context, null);
+
+        if (segments.add(reader.getCoreCacheKey()))
+            reader.addCoreClosedListener(segmentClosedListener);
+
+        // Same conversion of CachingWrapperFilter
+        if (docIdSet == null)
+            return DocIdSet.EMPTY;
+        if (docIdSet.isCacheable())
+            return docIdSet;
+
+        DocIdSetIterator iterator = docIdSet.iterator();
+        return iterator == null ? DocIdSet.EMPTY : new WAH8DocIdSet.Builder().add(iterator).build();
+    }
+
+    private final class CachedFilter extends Filter {
+
+        private final K key;
+        private final Supplier<Filter> source;
+
+        CachedFilter(K key, Supplier<Filter> source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        @Override
+        public DocIdSet getDocIdSet(AtomicReaderContext context, Bits acceptDocs) throws IOException {
+            boolean[] loaded = new boolean[1];
+            DocIdSet docIdSet;
+
+            try {
+                docIdSet = cache.get(new Key<>(context.reader().getCoreCacheKey(), key), () -> {
+                    loaded[0] = true;
+                    return load(context, source);
+                });
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException)
+                    throw (IOException) cause;
+                else if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                else
+                    throw new Error("Unexpected exception", cause);
+            }
+
+            if (loaded[0])
+                misses.increment();
+            else
+                hits.increment();
+
+            return docIdSet == DocIdSet.EMPTY ? null : BitsFilteredDocIdSet.wrap(docIdSet, acceptDocs);
+        }
+
+        @Override
+        public String toString() {
+            return "CachedFilter(" + key + ")";
+        }
+    }
+
+    private static final class Key<K> {
+
+        private final Object segment;
+        private final K filter;
+        private final int hash;
+
+        Key(Object segment, K filter) {
+            this.segment = segment;
+            this.filter = filter;
+            this.hash = 31 * System.identityHashCode(segment) + (filter == null ? 0 : filter.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key<?> key = (Key<?>) o;
+            return segment == key.segment && (filter == null ? key.filter == null : filter.equals(key.filter));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package eu.modernmt.context.lucene.analysis;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.corpus.impl.StringCorpus;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestContextAnalyzerIndex_getContextVectors {
+
+    private static final Language EN = Language.fromString("en");
+    private static final Language IT = Language.fromString("it");
+    private static final Language EN_US = Language.fromString("en-US");
+
+    private static final List<LanguageDirection> DIRECTIONS = Arrays.asList(
+            new LanguageDirection(EN, IT),
+            new LanguageDirection(EN, Language.fromString("fr")),
+            new LanguageDirection(EN, Language.fromString("de")),
+            new LanguageDirection(EN, Language.fromString("es")),
+            new LanguageDirection(EN_US, Language.fromString("pt")),
+            new LanguageDirection(IT, EN)
+    );
+
+    private static final UUID OWNER = new UUID(1L, 2L);
+
+    private ContextAnalyzerIndex index;
+    private Random random;
+
+    static String text(Random random, int topic, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0)
+                text.append(i % 12 == 0 ? '\n' : ' ');
+
+            int word = random.nextInt(3) == 0 ? random.nextInt(500) : topic * 20 + random.nextInt(20);
+            text.append("term").append(word);
+        }
+
+        return text.toString();
+    }
+
+    static void populate(ContextAnalyzerIndex index, Random random) throws IOException {
+        for (long memory = 1; memory <= 100; memory++) {
+            UUID owner = memory % 5 == 0 ? OWNER : null;
+
+            for (LanguageDirection direction : DIRECTIONS) {
+                if (random.nextInt(4) == 0)
+                    continue;
+
+                String content = text(random, random.nextInt(20), 50 + random.nextInt(300));
+                index.update(DocumentBuilder.newInstance(owner, memory, direction, new StringReader(content)));
+            }
+        }
+
+        index.flush();
+    }
+
+    @Before
+    public void setup() throws IOException {
+        random = new Random(1);
+        index = new ContextAnalyzerIndex(new RAMDirectory());
+        populate(index, random);
+    }
+
+    @After
+    public void teardown() {
+        index.close();
+    }
+
+    @Test
+    public void sameResultsOfSingleDirectionSearches() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            UUID user = i % 2 == 0 ? null : OWNER;
+            StringCorpus query = new StringCorpus(null, EN, text(random, random.nextInt(20), 20 + random.nextInt(200)));
+
+            Map<LanguageDirection, ContextVector> result = index.getContextVectors(user, DIRECTIONS, query, 10);
+            assertEquals(DIRECTIONS.size(), result.size());
+
+            for (LanguageDirection direction : DIRECTIONS) {
+                ContextVector expected = index.getContextVector(user, direction, query, 10);
+                assertEquals(direction.toString(), expected.toString(), result.get(direction).toString());
+            }
+        }
+    }
+
+    @Test
+    public void duplicatedAndEmptyDirections() throws IOException {
+        StringCorpus query = new StringCorpus(null, EN, text(random, 3, 100));
+        LanguageDirection direction = DIRECTIONS.get(0);
+
+        Map<LanguageDirection, ContextVector> result = index.getContextVectors(null, Arrays.asList(direction, direction), query, 10);
+        assertEquals(1, result.size());
+        assertEquals(index.getContextVector(null, direction, query, 10).toString(), result.get(direction).toString());
+
+        assertTrue(index.getContextVectors(null, Collections.emptyList(), query, 10).isEmpty());
+    }
+
+}
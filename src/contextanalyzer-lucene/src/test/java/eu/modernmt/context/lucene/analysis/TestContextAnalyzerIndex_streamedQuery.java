@@ -0,0 +1,173 @@
+package eu.modernmt.context.lucene.analysis;
+
+import eu.modernmt.io.FileProxy;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.corpus.impl.StringCorpus;
+import eu.modernmt.model.corpus.impl.parallel.FileCorpus;
+import org.apache.commons.io.IOUtils;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static eu.modernmt.context.lucene.analysis.TestContextAnalyzerIndex_getContextVectors.populate;
+import static eu.modernmt.context.lucene.analysis.TestContextAnalyzerIndex_getContextVectors.text;
+import static org.junit.Assert.*;
+
+/**
+ * Query documents read from a stream, as the uploads of the context vector API:
+ * the content is analyzed while it is read, without copying it.
+ */
+public class TestContextAnalyzerIndex_streamedQuery {
+
+    private static final long LARGE_STREAM_SIZE = 64L << 20;
+    private static final String SMALL_HEAP = "-Xmx96m";
+
+    private static final LanguageDirection DIRECTION = new LanguageDirection(Language.fromString("en"), Language.fromString("it"));
+
+    private ContextAnalyzerIndex index;
+
+    @Before
+    public void setup() throws IOException {
+        index = new ContextAnalyzerIndex(new RAMDirectory(), null);
+        populate(index, new Random(1));
+    }
+
+    @After
+    public void teardown() {
+        index.close();
+    }
+
+    private static class StreamProxy implements FileProxy {
+
+        private final InputStream stream;
+        private final boolean gzipped;
+
+        StreamProxy(InputStream stream, boolean gzipped) {
+            this.stream = stream;
+            this.gzipped = gzipped;
+        }
+
+        @Override
+        public String getFilename() {
+            return "content";
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return gzipped ? new GZIPInputStream(stream) : stream;
+        }
+
+        @Override
+        public OutputStream getOutputStream(boolean append) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A stream of the given size repeating a block of text, generated while it is read
+     */
+    private static class SyntheticStream extends InputStream {
+
+        private final byte[] block;
+        private final long size;
+        private long position = 0;
+
+        SyntheticStream(String block, long size) {
+            this.block = (block + '\n').getBytes(StandardCharsets.UTF_8);
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (position >= size)
+                return -1;
+            return block[(int) (position++ % block.length)];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= size)
+                return -1;
+
+            int count = (int) Math.min(length, size - position);
+            for (int i = 0; i < count; i++)
+                buffer[offset + i] = block[(int) ((position + i) % block.length)];
+            position += count;
+
+            return count;
+        }
+    }
+
+    @Test
+    public void gzippedStreamSameOfString() throws IOException {
+        Random random = new Random(2);
+
+        for (int i = 0; i < 10; i++) {
+            String text = text(random, random.nextInt(20), 20 + random.nextInt(500));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream output = new GZIPOutputStream(bytes)) {
+                output.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+
+            FileProxy content = new StreamProxy(new ByteArrayInputStream(bytes.toByteArray()), true);
+
+            ContextVector expected = index.getContextVector(null, DIRECTION, new StringCorpus(null, DIRECTION.source, text), 10);
+            ContextVector actual = index.getContextVector(null, DIRECTION, new FileCorpus(content, null, DIRECTION.source), 10);
+
+            assertEquals(expected.toString(), actual.toString());
+        }
+    }
+
+    @Test
+    public void largeStreamUnderSmallHeap() throws Throwable {
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath();
+        Process process = new ProcessBuilder(java, SMALL_HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                TestContextAnalyzerIndex_streamedQuery.class.getName())
+                .redirectErrorStream(true)
+                .start();
+
+        String output = IOUtils.toString(process.getInputStream(), Charset.defaultCharset());
+        assertTrue("query process did not terminate", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals(output, 0, process.exitValue());
+
+        String[] lines = output.trim().split("\n");
+        String[] result = lines[lines.length - 1].trim().split(" ");
+        assertEquals(output, Long.toString(LARGE_STREAM_SIZE), result[0]);
+        assertTrue(output, Integer.parseInt(result[1]) > 0);
+    }
+
+    /**
+     * Entry point of the small-heap process: the stream is larger than the heap once decoded to text.
+     * Prints the number of bytes read and the size of the context vector.
+     */
+    public static void main(String[] args) throws Throwable {
+        ContextAnalyzerIndex index = new ContextAnalyzerIndex(new RAMDirectory(), null);
+
+        try {
+            populate(index, new Random(1));
+
+            SyntheticStream stream = new SyntheticStream(text(new Random(3), 7, 10000), LARGE_STREAM_SIZE);
+            FileProxy content = new StreamProxy(stream, false);
+
+            ContextVector vector = index.getContextVector(null, DIRECTION, new FileCorpus(content, null, DIRECTION.source), 10);
+
+            System.out.println(stream.position + " " + vector.size());
+        } finally {
+            index.close();
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package eu.modernmt.context.lucene.analysis;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.lucene.FilterCache;
+import eu.modernmt.model.corpus.impl.StringCorpus;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+import java.util.UUID;
+
+import static eu.modernmt.context.lucene.analysis.TestContextAnalyzerIndex_getContextVectors.populate;
+import static eu.modernmt.context.lucene.analysis.TestContextAnalyzerIndex_getContextVectors.text;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestFilterCache {
+
+    private static final LanguageDirection DIRECTION = new LanguageDirection(Language.fromString("en"), Language.fromString("it"));
+    private static final UUID OWNER = new UUID(1L, 2L);
+    private static final UUID[] USERS = new UUID[]{null, OWNER, new UUID(3L, 4L)};
+
+    private ContextAnalyzerIndex cached;
+    private ContextAnalyzerIndex uncached;
+
+    @After
+    public void teardown() {
+        if (cached != null)
+            cached.close();
+        if (uncached != null)
+            uncached.close();
+    }
+
+    private void setup(long cacheSize) throws IOException {
+        cached = new ContextAnalyzerIndex(new RAMDirectory(), null, cacheSize);
+        uncached = new ContextAnalyzerIndex(new RAMDirectory(), null, 0);
+
+        populate(cached, new Random(1));
+        populate(uncached, new Random(1));
+    }
+
+    private void update(long memory, UUID owner, String content) throws IOException {
+        cached.update(DocumentBuilder.newInstance(owner, memory, DIRECTION, new StringReader(content)));
+        cached.flush();
+        uncached.update(DocumentBuilder.newInstance(owner, memory, DIRECTION, new StringReader(content)));
+        uncached.flush();
+    }
+
+    private void delete(long memory) throws IOException {
+        cached.delete(memory);
+        cached.flush();
+        uncached.delete(memory);
+        uncached.flush();
+    }
+
+    private void assertSameResults(Random random) throws IOException {
+        for (int i = 0; i < 10; i++) {
+            StringCorpus query = new StringCorpus(null, DIRECTION.source, text(random, random.nextInt(20), 100));
+
+            for (UUID user : USERS) {
+                assertEquals(String.valueOf(user),
+                        uncached.getContextVector(user, DIRECTION, query, 10).toString(),
+                        cached.getContextVector(user, DIRECTION, query, 10).toString());
+            }
+        }
+    }
+
+    @Test
+    public void sameResultsOfUncachedFilters() throws IOException {
+        setup(ContextAnalyzerIndex.DEFAULT_FILTER_CACHE_SIZE);
+
+        Random random = new Random(2);
+        assertSameResults(random);
+
+        // Ownership changes and deletions on segments already in cache
+        update(5, null, text(random, 1, 200));
+        update(7, OWNER, text(random, 1, 200));
+        delete(10);
+        assertSameResults(random);
+
+        cached.forceMerge();
+        uncached.forceMerge();
+        assertSameResults(random);
+
+        assertTrue(cached.getOwnerFilterCache().getStats().hitCount() > 0);
+    }
+
+    @Test
+    public void filtersAreReusedPerSegment() throws IOException {
+        setup(ContextAnalyzerIndex.DEFAULT_FILTER_CACHE_SIZE);
+        FilterCache<UUID> cache = cached.getOwnerFilterCache();
+
+        Random random = new Random(2);
+        StringCorpus query = new StringCorpus(null, DIRECTION.source, text(random, 3, 100));
+
+        cached.getContextVector(OWNER, DIRECTION, query, 10);
+        long segments = cache.size();
+        assertEquals(segments, cache.getStats().missCount());
+
+        cached.getContextVector(OWNER, DIRECTION, query, 10);
+        assertEquals(segments, cache.getStats().missCount());
+        assertEquals(segments, cache.getStats().hitCount());
+
+        // Only the new segment is evaluated
+        update(1000, OWNER, text(random, 3, 200));
+        cached.getContextVector(OWNER, DIRECTION, query, 10);
+        assertEquals(segments + 1, cache.getStats().missCount());
+
+        // A merged segment is a new segment
+        cached.forceMerge();
+        cached.getContextVector(OWNER, DIRECTION, query, 10);
+        assertEquals(segments + 2, cache.getStats().missCount());
+    }
+
+    @Test
+    public void replacedSegmentsAreDropped() throws IOException {
+        setup(ContextAnalyzerIndex.DEFAULT_FILTER_CACHE_SIZE);
+        FilterCache<UUID> cache = cached.getOwnerFilterCache();
+
+        Random random = new Random(2);
+        StringCorpus query = new StringCorpus(null, DIRECTION.source, text(random, 3, 100));
+
+        for (int i = 0; i < 5; i++) {
+            update(2000 + i, OWNER, text(random, 3, 200));
+            cached.forceMerge();
+
+            cached.getContextVector(OWNER, DIRECTION, query, 10);
+            assertEquals(cached.getIndexReader().leaves().size(), cache.size());
+        }
+    }
+
+    @Test
+    public void boundedFootprint() throws IOException {
+        setup(1024);
+        FilterCache<UUID> cache = cached.getOwnerFilterCache();
+
+        Random random = new Random(2);
+        for (int i = 0; i < 50; i++) {
+            UUID user = new UUID(random.nextLong(), random.nextLong());
+            StringCorpus query = new StringCorpus(null, DIRECTION.source, text(random, random.nextInt(20), 50));
+
+            assertEquals(uncached.getContextVector(user, DIRECTION, query, 10).toString(),
+                    cached.getContextVector(user, DIRECTION, query, 10).toString());
+        }
+
+        assertTrue(cache.ramBytesUsed() <= 1024);
+        assertTrue(cache.getStats().evictionCount() > 0);
+    }
+
+}
@@ -0,0 +1,326 @@
+package eu.modernmt.context.lucene.storage;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestBucketRegistry {
+
+    private static final LanguageDirection[] DIRECTIONS = new LanguageDirection[]{
+            new LanguageDirection(Language.ENGLISH, Language.ITALIAN),
+            new LanguageDirection(Language.ITALIAN, Language.ENGLISH),
+            new LanguageDirection(Language.fromString("en-US"), Language.ITALIAN),
+            new LanguageDirection(Language.FRENCH, Language.GERMAN),
+    };
+
+    /**
+     * The operations of both registry implementations
+     */
+    private interface Registry extends Closeable {
+
+        Bucket get(long id, LanguageDirection language, UUID owner) throws IOException;
+
+        Set<Bucket> getAll() throws IOException;
+
+        Set<Bucket> getUpdated(long minMisalignment, int limit) throws IOException;
+
+        Map<Short, Long> getChannels() throws IOException;
+
+        int count() throws IOException;
+
+        void mark(Bucket bucket, long mark) throws IOException;
+
+        void update(Map<Short, Long> channels, Set<Bucket> buckets) throws IOException;
+
+        void clearCache();
+
+    }
+
+    private static Registry wrap(BucketRegistry registry) {
+        return new Registry() {
+            public Bucket get(long id, LanguageDirection language, UUID owner) {
+                return registry.get(id, language, owner);
+            }
+
+            public Set<Bucket> getAll() {
+                return registry.getAll();
+            }
+
+            public Set<Bucket> getUpdated(long minMisalignment, int limit) {
+                return registry.getUpdated(minMisalignment, limit);
+            }
+
+            public Map<Short, Long> getChannels() {
+                return registry.getChannels();
+            }
+
+            public int count() {
+                return registry.count();
+            }
+
+            public void mark(Bucket bucket, long mark) throws IOException {
+                registry.mark(bucket, mark);
+            }
+
+            public void update(Map<Short, Long> channels, Set<Bucket> buckets) throws IOException {
+                registry.update(channels, buckets);
+            }
+
+            public void clearCache() {
+                registry.clearCache();
+            }
+
+            public void close() throws IOException {
+                registry.close();
+            }
+        };
+    }
+
+    private static Registry wrap(SQLiteBucketRegistry registry) {
+        return new Registry() {
+            public Bucket get(long id, LanguageDirection language, UUID owner) throws IOException {
+                return registry.get(id, language, owner);
+            }
+
+            public Set<Bucket> getAll() throws IOException {
+                return registry.getAll();
+            }
+
+            public Set<Bucket> getUpdated(long minMisalignment, int limit) throws IOException {
+                return registry.getUpdated(minMisalignment, limit);
+            }
+
+            public Map<Short, Long> getChannels() throws IOException {
+                return registry.getChannels();
+            }
+
+            public int count() throws IOException {
+                return registry.count();
+            }
+
+            public void mark(Bucket bucket, long mark) throws IOException {
+                registry.mark(bucket, mark);
+            }
+
+            public void update(Map<Short, Long> channels, Set<Bucket> buckets) throws IOException {
+                registry.update(channels, buckets);
+            }
+
+            public void clearCache() {
+                registry.clearCache();
+            }
+
+            public void close() throws IOException {
+                registry.close();
+            }
+        };
+    }
+
+    private File folder;
+
+    @Before
+    public void setup() throws IOException {
+        folder = Files.createTempDirectory("TestBucketRegistry").toFile();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        FileUtils.deleteDirectory(folder);
+    }
+
+    private File path(String name) throws IOException {
+        File path = new File(folder, name);
+        FileUtils.forceMkdir(path);
+        return path;
+    }
+
+    /**
+     * Applies random operations: the operations depend only on the random generator, never on
+     * the registry state, so that every registry receives the same sequence from the same seed.
+     */
+    private static void apply(Registry registry, Random random, int steps) throws IOException {
+        for (int step = 0; step < steps; step++) {
+            int operation = random.nextInt(10);
+
+            if (operation < 6) {
+                HashMap<Short, Long> channels = new HashMap<>();
+                channels.put((short) random.nextInt(3), (long) random.nextInt(100000));
+
+                HashSet<Bucket> buckets = new HashSet<>();
+                int size = 1 + random.nextInt(4);
+                for (int i = 0; i < size; i++) {
+                    UUID owner = random.nextBoolean() ? null : new UUID(random.nextLong(), random.nextLong());
+                    Bucket bucket = registry.get(1 + random.nextInt(30), DIRECTIONS[random.nextInt(DIRECTIONS.length)], owner);
+
+                    bucket.virtualSize = random.nextInt(3) == 0 ? 0 : random.nextInt(100000);
+                    bucket.plainTextFileSize = random.nextInt(60000);
+                    bucket.compressedFileSize = random.nextInt(60000);
+                    buckets.add(bucket);
+                }
+
+                registry.update(channels, buckets);
+            } else if (operation < 9) {
+                Bucket bucket = registry.get(1 + random.nextInt(30), DIRECTIONS[random.nextInt(DIRECTIONS.length)], null);
+                registry.mark(bucket, random.nextBoolean() ? bucket.getSize() : random.nextInt(100000));
+            } else {
+                registry.clearCache();
+            }
+        }
+    }
+
+    private static String toString(Bucket bucket) {
+        return bucket.getId() + " " + bucket.getLanguage() + " " + bucket.getOwner() + " " +
+                bucket.getSize() + " " + bucket.plainTextFileSize + " " + bucket.compressedFileSize;
+    }
+
+    private static List<String> toString(Set<Bucket> buckets) {
+        ArrayList<String> result = new ArrayList<>();
+        for (Bucket bucket : buckets)
+            result.add(toString(bucket));
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * @return a description of the persisted state of the registry
+     */
+    private static String describe(Registry registry) throws IOException {
+        registry.clearCache();
+
+        StringBuilder result = new StringBuilder();
+        result.append("count: ").append(registry.count()).append('\n');
+        result.append("channels: ").append(new TreeMap<>(registry.getChannels())).append('\n');
+        result.append("buckets: ").append(toString(registry.getAll())).append('\n');
+
+        for (long minMisalignment : new long[]{0, 1, 5000, 50000})
+            result.append("updated ").append(minMisalignment).append(": ")
+                    .append(toString(registry.getUpdated(minMisalignment, 1000000))).append('\n');
+
+        return result.toString();
+    }
+
+    @Test
+    public void sameStateOfSQLiteRegistry() throws IOException {
+        try (Registry expected = wrap(new SQLiteBucketRegistry(path("sqlite"), true));
+             Registry actual = wrap(new BucketRegistry(path("registry"), true))) {
+            Random expectedRandom = new Random(1);
+            Random actualRandom = new Random(1);
+
+            for (int i = 0; i < 20; i++) {
+                apply(expected, expectedRandom, 25);
+                apply(actual, actualRandom, 25);
+
+                assertEquals(describe(expected), describe(actual));
+            }
+        }
+    }
+
+    @Test
+    public void recoveryAfterCrash() throws IOException {
+        File path = path("registry");
+
+        Registry registry = wrap(new BucketRegistry(path, true));
+        apply(registry, new Random(2), 300);
+        String expected = describe(registry);
+
+        // crash: the registry is never closed
+        assertEquals(expected, describe(wrap(new BucketRegistry(path, true))));
+    }
+
+    @Test
+    public void recoveryAfterTornWrite() throws IOException {
+        File path = path("registry");
+
+        Registry registry = wrap(new BucketRegistry(path, true));
+        apply(registry, new Random(3), 300);
+        String expected = describe(registry);
+
+        File log = RegistryLog.getLogFile(path);
+        long size = log.length();
+
+        // a crash while appending the next record: a partial record with a valid header
+        try (DataOutputStream output = new DataOutputStream(new FileOutputStream(log, true))) {
+            output.writeInt(1000);
+            output.writeLong(42L);
+            output.write(new byte[100]);
+        }
+
+        registry = wrap(new BucketRegistry(path, true));
+        assertEquals(expected, describe(registry));
+        assertEquals(size, log.length());
+
+        // the log is still usable after the torn record is discarded
+        apply(registry, new Random(4), 50);
+        expected = describe(registry);
+
+        assertEquals(expected, describe(wrap(new BucketRegistry(path, true))));
+    }
+
+    @Test
+    public void recoveryAfterCheckpoints() throws IOException {
+        File path = path("registry");
+
+        try (Registry expected = wrap(new SQLiteBucketRegistry(path("sqlite"), true))) {
+            Registry registry = wrap(new BucketRegistry(path, true, 4096));
+
+            apply(expected, new Random(5), 500);
+            apply(registry, new Random(5), 500);
+
+            assertTrue(RegistryLog.getSnapshotFile(path).exists());
+            assertTrue(RegistryLog.getLogFile(path).length() < 4096);
+
+            assertEquals(describe(expected), describe(wrap(new BucketRegistry(path, true))));
+        }
+    }
+
+    @Test
+    public void recoveryAfterInterruptedCheckpoint() throws IOException {
+        File path = path("registry");
+
+        BucketRegistry registry = new BucketRegistry(path, true);
+        apply(wrap(registry), new Random(6), 300);
+        String expected = describe(wrap(registry));
+
+        File log = RegistryLog.getLogFile(path);
+        byte[] content = FileUtils.readFileToByteArray(log);
+
+        registry.checkpoint();
+        assertEquals(0, log.length());
+
+        // crash after the snapshot is written, but before the log is emptied
+        FileUtils.writeByteArrayToFile(log, content);
+
+        assertEquals(expected, describe(wrap(new BucketRegistry(path, true))));
+    }
+
+    @Test
+    public void convertsSQLiteRegistry() throws IOException {
+        File path = path("registry");
+
+        String expected;
+        try (Registry registry = wrap(new SQLiteBucketRegistry(path, true))) {
+            apply(registry, new Random(7), 300);
+            expected = describe(registry);
+        }
+
+        try (Registry registry = wrap(new BucketRegistry(path, true))) {
+            assertEquals(expected, describe(registry));
+        }
+
+        assertFalse(new File(path, "index").exists());
+
+        try (Registry registry = wrap(new BucketRegistry(path, true))) {
+            assertEquals(expected, describe(registry));
+        }
+    }
+
+}
@@ -8,6 +8,7 @@ import eu.modernmt.api.model.TranslationResponse;
 import eu.modernmt.api.serializers.*;
 import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.metrics.MetricsSnapshot;
 import eu.modernmt.model.Alignment;
 import eu.modernmt.model.ImportJob;
 import org.apache.logging.log4j.LogManager;
@@ -41,6 +42,7 @@ public class ApiServer {
         JSONSerializer.registerCustomSerializer(Language.class, new LanguageSerializer());
         JSONSerializer.registerCustomSerializer(LanguageDirection.class, new LanguagePairSerializer());
         JSONSerializer.registerCustomSerializer(ImportJob.class, new ImportJobSerializer());
+        JSONSerializer.registerCustomSerializer(MetricsSnapshot.class, new MetricsSnapshotSerializer());
     }
 
     public static class ServerOptions {
@@ -0,0 +1,36 @@
+package eu.modernmt.api.actions;
+
+import eu.modernmt.api.framework.HttpMethod;
+import eu.modernmt.api.framework.Parameters;
+import eu.modernmt.api.framework.RESTRequest;
+import eu.modernmt.api.framework.actions.ObjectAction;
+import eu.modernmt.api.framework.routing.Route;
+import eu.modernmt.cluster.ClusterMetrics;
+import eu.modernmt.facade.ModernMT;
+
+@Route(aliases = "metrics", method = HttpMethod.GET, log = false)
+public class GetMetrics extends ObjectAction<ClusterMetrics> {
+
+    @Override
+    protected ClusterMetrics execute(RESTRequest req, Parameters _params) throws InterruptedException {
+        Params params = (Params) _params;
+        return ModernMT.metrics(params.localhost);
+    }
+
+    @Override
+    protected Parameters getParameters(RESTRequest req) throws Parameters.ParameterParsingException {
+        return new Params(req);
+    }
+
+    public static class Params extends Parameters {
+
+        public final boolean localhost;
+
+        public Params(RESTRequest req) throws ParameterParsingException {
+            super(req);
+
+            localhost = getBoolean("localhost", false);
+        }
+    }
+
+}
@@ -18,6 +18,8 @@ import eu.modernmt.model.corpus.impl.tmx.TMXCorpus;
 import eu.modernmt.persistence.PersistenceException;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Created by davide on 15/12/15.
@@ -31,6 +33,8 @@ public class AddToMemoryCorpus extends ObjectAction<ImportJob> {
 
         if (params.tu != null)
             return ModernMT.memory.add(params.memory, params.tu);
+        else if (params.streamed)
+            return ModernMT.memory.addStream(params.memory, params.corpus);
         else
             return ModernMT.memory.add(params.memory, params.corpus);
     }
@@ -53,12 +57,46 @@ public class AddToMemoryCorpus extends ObjectAction<ImportJob> {
         private final long memory;
         private final TranslationUnit tu;
         private final MultilingualCorpus corpus;
+        private final boolean streamed;
 
         public Params(RESTRequest req) throws ParameterParsingException, TemplateException {
             super(req);
 
             memory = req.getPathParameterAsLong("id");
 
+            InputStream body;
+            try {
+                body = req.getBinaryContent();
+            } catch (IOException e) {
+                throw new ParameterParsingException("Unable to read request content", e);
+            }
+
+            if (body != null) {
+                FileType fileType = getEnum("content_type", FileType.class);
+                FileCompression fileCompression = getEnum("compression", FileCompression.class, null);
+
+                // The body is a single stream: parallel content needs two files, hence a multipart request
+                FileProxy content = new RequestContentFileProxy("memory-" + memory, body,
+                        FileCompression.GZIP.equals(fileCompression));
+
+                switch (fileType) {
+                    case COMPACT:
+                        corpus = new CompactFileCorpus(content);
+                        break;
+                    case TMX:
+                        corpus = new TMXCorpus(content);
+                        break;
+                    default:
+                        throw new ParameterParsingException("content_type", fileType.name());
+                }
+
+                tu = null;
+                streamed = true;
+                return;
+            }
+
+            streamed = false;
+
             String source = getString("sentence", false, null);
             String target = getString("translation", false, null);
 
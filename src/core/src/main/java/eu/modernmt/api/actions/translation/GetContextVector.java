@@ -12,10 +12,9 @@ import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.model.ContextVector;
 import eu.modernmt.persistence.PersistenceException;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 import java.util.UUID;
 
@@ -25,54 +24,20 @@ import java.util.UUID;
 @Route(aliases = "context-vector", method = HttpMethod.GET)
 public class GetContextVector extends ObjectAction<ContextVectorResult> {
 
-    private static File copy(FileProxy source) throws IOException {
-        File destination = File.createTempFile("mmt-context", "txt");
-
-        InputStream input = null;
-        OutputStream output = null;
-
-        try {
-            input = source.getInputStream();
-            output = new FileOutputStream(destination, false);
-
-            IOUtils.copyLarge(input, output);
-        } finally {
-            IOUtils.closeQuietly(input);
-            IOUtils.closeQuietly(output);
-        }
-
-        return destination;
-    }
-
     @Override
     protected ContextVectorResult execute(RESTRequest req, Parameters _params) throws ContextAnalyzerException, PersistenceException, IOException {
         Params params = (Params) _params;
         Map<Language, ContextVector> contexts;
 
-        File temp = null;
+        if (params.text != null) {
+            contexts = ModernMT.translation.getContextVectors(params.user, params.text, params.limit, params.source, params.targets);
+        } else {
+            // The content is analyzed while it is read (and decompressed), without copying it
+            boolean gzipped = params.compression != null;
+            FileProxy content = params.localFile != null ?
+                    FileProxy.wrap(params.localFile, gzipped) : new ParameterFileProxy(params.content, gzipped);
 
-        try {
-
-            if (params.text != null) {
-                contexts = ModernMT.translation.getContextVectors(params.user, params.text, params.limit, params.source, params.targets);
-            } else {
-                boolean gzipped = params.compression != null;
-                File file;
-
-                if (params.localFile != null) {
-                    if (gzipped)
-                        temp = file = copy(FileProxy.wrap(params.localFile, true));
-                    else
-                        file = params.localFile;
-                } else {
-                    temp = file = copy(new ParameterFileProxy(params.content, gzipped));
-                }
-
-                contexts = ModernMT.translation.getContextVectors(params.user, file, params.limit, params.source, params.targets);
-            }
-        } finally {
-            if (temp != null)
-                FileUtils.deleteQuietly(temp);
+            contexts = ModernMT.translation.getContextVectors(params.user, content, params.limit, params.source, params.targets);
         }
 
         ContextUtils.resolve(contexts.values());
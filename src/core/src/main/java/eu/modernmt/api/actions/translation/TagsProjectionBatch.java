@@ -0,0 +1,86 @@
+package eu.modernmt.api.actions.translation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import eu.modernmt.aligner.Aligner;
+import eu.modernmt.api.framework.HttpMethod;
+import eu.modernmt.api.framework.Parameters;
+import eu.modernmt.api.framework.RESTRequest;
+import eu.modernmt.api.framework.actions.CollectionAction;
+import eu.modernmt.api.framework.routing.Route;
+import eu.modernmt.api.model.ProjectedTranslation;
+import eu.modernmt.facade.ModernMT;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Translation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tags projection of many sentence pairs with a single request, i.e. to re-tag a whole document.
+ * The pairs are a JSON array of objects with "text" and "translation", either as request body
+ * (content type "application/json") or as parameter "segments".
+ */
+@Route(aliases = "tags-projection/batch", method = HttpMethod.POST)
+public class TagsProjectionBatch extends CollectionAction<ProjectedTranslation> {
+
+    @Override
+    protected Collection<ProjectedTranslation> execute(RESTRequest req, Parameters _params) throws Throwable {
+        Params params = (Params) _params;
+
+        List<Translation> translations = ModernMT.tags.project(params.direction, params.sentences, params.translations,
+                params.symmetrizationStrategy);
+
+        ArrayList<ProjectedTranslation> result = new ArrayList<>(translations.size());
+        for (Translation translation : translations)
+            result.add(TagsProjection.toProjectedTranslation(translation, params.showDetails));
+
+        return result;
+    }
+
+    @Override
+    protected Parameters getParameters(RESTRequest req) throws Parameters.ParameterParsingException {
+        return new Params(req);
+    }
+
+    public static class Params extends Parameters {
+
+        public final LanguageDirection direction;
+        public final List<String> sentences;
+        public final List<String> translations;
+        public final Aligner.SymmetrizationStrategy symmetrizationStrategy;
+        public final boolean showDetails;
+
+        public Params(RESTRequest req) throws ParameterParsingException {
+            super(req);
+
+            LanguageDirection engineDirection = ModernMT.getNode().getEngine().getLanguageIndex().asSingleLanguagePair();
+            this.direction = engineDirection != null ?
+                    getLanguagePair("source", "target", engineDirection) :
+                    getLanguagePair("source", "target");
+            this.showDetails = getBoolean("verbose", false);
+            this.symmetrizationStrategy = getEnum("symmetrization", Aligner.SymmetrizationStrategy.class, null);
+
+            JsonArray segments = req.getJSONArray();
+            if (segments == null)
+                segments = getJSONArray("segments");
+
+            this.sentences = new ArrayList<>(segments.size());
+            this.translations = new ArrayList<>(segments.size());
+
+            for (JsonElement element : segments) {
+                JsonObject segment = element.isJsonObject() ? element.getAsJsonObject() : null;
+                JsonElement text = segment == null ? null : segment.get("text");
+                JsonElement translation = segment == null ? null : segment.get("translation");
+
+                if (text == null || !text.isJsonPrimitive() || translation == null || !translation.isJsonPrimitive())
+                    throw new ParameterParsingException("segments", element.toString());
+
+                this.sentences.add(text.getAsString());
+                this.translations.add(translation.getAsString());
+            }
+        }
+    }
+}
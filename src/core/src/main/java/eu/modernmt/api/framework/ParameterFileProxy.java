@@ -12,6 +12,8 @@ import java.util.zip.GZIPInputStream;
  */
 public class ParameterFileProxy implements FileProxy {
 
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final FileParameter file;
     private final boolean gzipped;
 
@@ -29,7 +31,7 @@ public class ParameterFileProxy implements FileProxy {
     public InputStream getInputStream() throws IOException {
         InputStream stream = file.getInputStream();
         if (gzipped)
-            stream = new GZIPInputStream(stream);
+            stream = new GZIPInputStream(stream, GZIP_BUFFER_SIZE);
 
         return stream;
     }
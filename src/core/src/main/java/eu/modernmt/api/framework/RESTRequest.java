@@ -14,13 +14,13 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.Part;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.Charset;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.UUID;
 
 public class RESTRequest {
@@ -32,7 +32,6 @@ public class RESTRequest {
 
     private HttpServletRequest request;
     private String path = null;
-    private List<String> pathTokens = null;
     private RouteTemplate template = null;
     private HttpMethod method = null;
     private String queryString = null;
@@ -114,6 +113,21 @@ public class RESTRequest {
         }
     }
 
+    /**
+     * Returns the raw body of the request if it has been sent as "application/octet-stream":
+     * the content is not buffered, it can be read only once while the request is served.
+     *
+     * @return the stream of the request body, or null if the request has a different content type
+     * @throws IOException if the body cannot be accessed
+     */
+    public InputStream getBinaryContent() throws IOException {
+        if (isContentType("application/octet-stream")) {
+            return request.getInputStream();
+        } else {
+            return null;
+        }
+    }
+
     public String getQueryString() {
         if (queryString == null) {
             String qs = request.getQueryString();
@@ -228,19 +242,13 @@ public class RESTRequest {
     }
 
     public String getPathParameter(String varname) throws TemplateException {
-        if (pathTokens == null) {
-            String path = getPath();
-            pathTokens = RouteTemplate.tokenize(path);
-        }
-
-        String varName = ':' + varname;
-        int i = template.indexOfToken(varName);
+        int i = template.indexOfVariable(varname);
         if (i < 0)
-            throw new TemplateException(varName);
+            throw new TemplateException(':' + varname);
 
-        String value = pathTokens.get(i).trim();
-        if (value.isEmpty())
-            throw new TemplateException(varName);
+        String value = RouteTemplate.getTokenAt(getPath(), i);
+        if (value == null)
+            throw new TemplateException(':' + varname);
 
         return value;
     }
@@ -0,0 +1,56 @@
+package eu.modernmt.api.framework;
+
+import eu.modernmt.io.FileProxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A FileProxy over the body of a request: the content is never buffered nor copied,
+ * it is read (and gunzipped if needed) while the request is served, so it can be read only once.
+ */
+public class RequestContentFileProxy implements FileProxy {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final String filename;
+    private final boolean gzipped;
+    private InputStream content;
+
+    public RequestContentFileProxy(String filename, InputStream content, boolean gzipped) {
+        this.filename = filename;
+        this.content = content;
+        this.gzipped = gzipped;
+    }
+
+    @Override
+    public String getFilename() {
+        return filename;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (content == null)
+            throw new IOException("Request content of " + filename + " has already been read");
+
+        InputStream stream = content;
+        content = null;
+
+        if (gzipped)
+            stream = new GZIPInputStream(stream, GZIP_BUFFER_SIZE);
+
+        return stream;
+    }
+
+    @Override
+    public OutputStream getOutputStream(boolean append) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return getFilename();
+    }
+}
@@ -8,11 +8,16 @@ import java.util.Collection;
 
 public abstract class CollectionAction<M> extends JSONAction {
 
-    @Override
+    private final Class<M> objectClass;
+
     @SuppressWarnings("unchecked")
+    protected CollectionAction() {
+        this.objectClass = (Class<M>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+    }
+
+    @Override
     protected final JSONActionResult getResult(RESTRequest req, Parameters params) throws Throwable {
         Collection<M> collection = execute(req, params);
-        Class<M> objectClass = (Class<M>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
         return collection == null ? null : new CollectionActionResult<>(collection, objectClass);
     }
 
@@ -7,11 +7,16 @@ import java.lang.reflect.ParameterizedType;
 
 public abstract class ObjectAction<M> extends JSONAction {
 
-    @Override
+    private final Class<M> objectClass;
+
     @SuppressWarnings("unchecked")
+    protected ObjectAction() {
+        this.objectClass = (Class<M>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+    }
+
+    @Override
     protected final ObjectActionResult getResult(RESTRequest req, Parameters params) throws Throwable {
         M object = execute(req, params);
-        Class<M> objectClass = (Class<M>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
         return object == null ? null : new ObjectActionResult<>(object, objectClass);
     }
 
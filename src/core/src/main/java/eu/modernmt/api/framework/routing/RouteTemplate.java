@@ -5,20 +5,36 @@ import eu.modernmt.api.framework.actions.Action;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class RouteTemplate {
 
     private final String template;
     private final Class<? extends Action> actionClass;
+    private final Supplier<? extends Action> actionFactory;
+    private final boolean log;
     private final List<String> tokens;
     private final HttpMethod method;
 
     public RouteTemplate(String template, Class<? extends Action> actionClass,
                          HttpMethod method) {
+        this(template, actionClass, null, method);
+    }
+
+    /**
+     * Creates a template whose requests are executed by the actions returned by the given factory,
+     * registered once when the routes are built.
+     */
+    public RouteTemplate(String template, Class<? extends Action> actionClass, Supplier<? extends Action> actionFactory,
+                         HttpMethod method) {
         this.template = template;
         this.actionClass = actionClass;
+        this.actionFactory = actionFactory;
         this.method = method;
         this.tokens = tokenize(template);
+
+        Route route = actionClass.getAnnotation(Route.class);
+        this.log = route == null || route.log();
     }
 
     public static List<String> tokenize(String path) {
@@ -32,10 +48,77 @@ public class RouteTemplate {
         return tokens;
     }
 
+    /**
+     * Finds the first token of the path starting at or after the given offset,
+     * with the same rules of {@link #tokenize(String)} but without allocations.
+     *
+     * @return the token bounds packed as (start &lt;&lt; 32 | end), or -1 if there are no more tokens
+     */
+    static long nextToken(String path, int offset) {
+        int length = path.length();
+
+        while (offset < length) {
+            int end = path.indexOf('/', offset);
+            if (end < 0)
+                end = length;
+
+            int start = offset;
+            while (start < end && path.charAt(start) <= ' ')
+                start++;
+            int last = end;
+            while (last > start && path.charAt(last - 1) <= ' ')
+                last--;
+
+            if (start < last)
+                return ((long) start << 32) | last;
+
+            offset = end + 1;
+        }
+
+        return -1L;
+    }
+
+    static int tokenStart(long token) {
+        return (int) (token >>> 32);
+    }
+
+    static int tokenEnd(long token) {
+        return (int) token;
+    }
+
+    /**
+     * Returns the token of the path at the given index, it is equal to
+     * <code>tokenize(path).get(index)</code> but it does not split the whole path.
+     *
+     * @return the token at the given index or null if the path is shorter
+     */
+    public static String getTokenAt(String path, int index) {
+        int offset = 0;
+
+        while (true) {
+            long token = nextToken(path, offset);
+            if (token < 0)
+                return null;
+
+            if (index-- == 0)
+                return path.substring(tokenStart(token), tokenEnd(token));
+
+            offset = tokenEnd(token) + 1;
+        }
+    }
+
     public Class<? extends Action> getActionClass() {
         return actionClass;
     }
 
+    public Action getAction() {
+        return actionFactory == null ? null : actionFactory.get();
+    }
+
+    public boolean isLogEnabled() {
+        return log;
+    }
+
     public HttpMethod getMethod() {
         return this.method;
     }
@@ -44,6 +127,20 @@ public class RouteTemplate {
         return tokens.indexOf(token);
     }
 
+    /**
+     * Returns the index of the token of the variable with the given name (without the leading ':'),
+     * it is equal to <code>indexOfToken(':' + name)</code>.
+     */
+    public int indexOfVariable(String name) {
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.length() == name.length() + 1 && isTokenVariable(token) && token.startsWith(name, 1))
+                return i;
+        }
+
+        return -1;
+    }
+
     public String getTokenAt(int index) {
         if (index < tokens.size())
             return tokens.get(index);
@@ -4,87 +4,126 @@ import eu.modernmt.api.framework.HttpMethod;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-
+import java.util.Map;
+
+/**
+ * Immutable matching structure for the route templates, compiled once with a {@link Builder}.
+ * <p>
+ * Every node has the array of its constant children and a precomputed slot for the variable child:
+ * matching a path walks the path string in place, without tokenizing it and without collections.
+ * If more templates match the path, the one with the leftmost constant tokens wins,
+ * regardless of the HTTP method.
+ */
 public class RouteTree {
 
-    private Node root = new Node();
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private final Node root;
 
-    public RouteTree() {
-        root = new Node();
+    private RouteTree(Node root) {
+        this.root = root;
     }
 
-    public void add(RouteTemplate route) {
-        this.add(root, route, 0);
+    public RouteTemplate get(HttpMethod method, String path) {
+        Node node = match(root, path, 0);
+        return node == null ? null : node.values[method.ordinal()];
     }
 
-    private void add(Node parent, RouteTemplate template, int depth) {
-        String token = template.getTokenAt(depth);
+    private static Node match(Node node, String path, int offset) {
+        long token = RouteTemplate.nextToken(path, offset);
+        if (token < 0)
+            return node;
 
-        if (token == null) {
-            parent.setValue(template);
-            return;
+        int start = RouteTemplate.tokenStart(token);
+        int end = RouteTemplate.tokenEnd(token);
+
+        Node child = node.getChild(path, start, end);
+        if (child != null) {
+            Node result = match(child, path, end + 1);
+            if (result != null)
+                return result;
         }
 
-        boolean isVar = template.isTokenVariable(token);
+        return node.variable == null ? null : match(node.variable, path, end + 1);
+    }
 
-        String key = isVar ? "*" : token;
+    private static final class Node {
 
-        Node child = parent.childs.computeIfAbsent(key, k -> new Node());
+        private final String[] tokens;
+        private final Node[] children;
+        private final Node variable;
+        private final RouteTemplate[] values;
 
-        if (template.size() - 1 == depth)
-            child.setValue(template);
-        else
-            this.add(child, template, depth + 1);
-    }
+        private Node(Builder.Node node) {
+            int size = node.children.size();
+            this.tokens = new String[size];
+            this.children = new Node[size];
 
-    public RouteTemplate get(HttpMethod method, String path) {
-        ArrayList<Node> nodes = new ArrayList<>();
-        ArrayList<Node> newNodes = new ArrayList<>();
-        nodes.add(root);
-
-        for (String token : RouteTemplate.tokenize(path)) {
-            newNodes.clear();
-            for (Node node : nodes) {
-                Node child = node.childs.get(token);
-                if (child != null)
-                    newNodes.add(child);
-                child = node.childs.get("*");
-                if (child != null)
-                    newNodes.add(child);
+            int i = 0;
+            for (Map.Entry<String, Builder.Node> entry : node.children.entrySet()) {
+                tokens[i] = entry.getKey();
+                children[i] = new Node(entry.getValue());
+                i++;
             }
 
-            nodes.clear();
-            nodes.addAll(newNodes);
+            this.variable = node.variable == null ? null : new Node(node.variable);
+
+            this.values = new RouteTemplate[METHODS.length];
+            for (RouteTemplate template : node.values)
+                values[template.getMethod().ordinal()] = template;
         }
 
-        if (nodes.isEmpty())
+        private Node getChild(String path, int start, int end) {
+            int length = end - start;
+
+            for (int i = 0; i < tokens.length; i++) {
+                String token = tokens[i];
+                if (token.length() == length && path.regionMatches(start, token, 0, length))
+                    return children[i];
+            }
+
             return null;
-        else
-            return nodes.get(0).getValue(method);
+        }
+
     }
 
-    protected static class Node {
+    public static class Builder {
 
-        public final HashMap<String, Node> childs = new HashMap<>();
-        private HashMap<HttpMethod, RouteTemplate> values = new HashMap<>();
+        private final Node root = new Node();
 
-        public void setValue(RouteTemplate value) {
-            this.values.put(value.getMethod(), value);
-        }
+        public Builder add(RouteTemplate template) {
+            Node node = root;
+
+            for (int i = 0; i < template.size(); i++) {
+                String token = template.getTokenAt(i);
+
+                if (template.isTokenVariable(token)) {
+                    if (node.variable == null)
+                        node.variable = new Node();
+                    node = node.variable;
+                } else {
+                    node = node.children.computeIfAbsent(token, k -> new Node());
+                }
+            }
 
-        public boolean hasValue(HttpMethod method) {
-            return values.containsKey(method);
+            node.values.removeIf(value -> value.getMethod() == template.getMethod());
+            node.values.add(template);
+
+            return this;
         }
 
-        public RouteTemplate getValue(HttpMethod method) {
-            return values.get(method);
+        public RouteTree build() {
+            return new RouteTree(new RouteTree.Node(root));
         }
 
-    }
+        private static final class Node {
+
+            private final HashMap<String, Node> children = new HashMap<>();
+            private final ArrayList<RouteTemplate> values = new ArrayList<>();
+            private Node variable = null;
+
+        }
 
-    @Override
-    public String toString() {
-        return this.root.toString();
     }
 
 }
@@ -15,6 +15,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.UnsupportedEncodingException;
 import java.util.Collection;
+import java.util.function.Supplier;
 
 public abstract class RouterServlet extends HttpServlet {
 
@@ -27,7 +28,7 @@ public abstract class RouterServlet extends HttpServlet {
     public void init(ServletConfig config) throws ServletException {
         super.init(config);
 
-        routes = new RouteTree();
+        RouteTree.Builder builder = new RouteTree.Builder();
 
         for (Class<?> clazz : getDeclaredActions()) {
             if (!Action.class.isAssignableFrom(clazz))
@@ -38,20 +39,40 @@ public abstract class RouterServlet extends HttpServlet {
             Route route = actionClass.getAnnotation(Route.class);
             if (route != null) {
                 HttpMethod method = route.method();
+                Supplier<? extends Action> factory = newActionFactory(actionClass);
 
                 for (String path : route.aliases()) {
-                    RouteTemplate template = new RouteTemplate('/' + path, actionClass, method);
-                    routes.add(template);
+                    RouteTemplate template = new RouteTemplate('/' + path, actionClass, factory, method);
+                    builder.add(template);
 
                     if (logger.isDebugEnabled())
                         logger.debug("REST API registered: " + template);
                 }
             }
         }
+
+        routes = builder.build();
     }
 
     protected abstract Collection<Class<?>> getDeclaredActions() throws ServletException;
 
+    /**
+     * Creates the factory of the actions of a class, called once per action class when the servlet starts
+     * and invoked for every request. Actions are stateless: the default factory returns a single instance,
+     * created here, to all the requests.
+     */
+    protected Supplier<? extends Action> newActionFactory(Class<? extends Action> actionClass) throws ServletException {
+        Action action;
+
+        try {
+            action = actionClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new ServletException("Unable to create action " + actionClass.getName(), e);
+        }
+
+        return () -> action;
+    }
+
     private RESTRequest wrapRequest(HttpServletRequest req) {
         // Character Encoding
         String encoding = req.getCharacterEncoding();
@@ -72,17 +93,13 @@ public abstract class RouterServlet extends HttpServlet {
         RESTRequest restRequest = wrapRequest(req);
         RESTResponse restResponse = new RESTResponse(resp);
 
-        Route route = null;
+        RouteTemplate template = restRequest.getTemplate();
 
         try {
-            Class<? extends Action> actionClass = restRequest.getActionClass();
-            if (actionClass == null) {
+            if (template == null) {
                 restResponse.apiNotFound();
             } else {
-                route = actionClass.getAnnotation(Route.class);
-
-                Action action = actionClass.newInstance();
-                action.execute(restRequest, restResponse);
+                template.getAction().execute(restRequest, restResponse);
             }
         } catch (Throwable e) {
             logger.error("Unexpected exceptions", e);
@@ -90,7 +107,7 @@ public abstract class RouterServlet extends HttpServlet {
         } finally {
             long elapsedTime = System.currentTimeMillis() - start;
 
-            if (logger.isInfoEnabled() && route != null && route.log()) {
+            if (logger.isInfoEnabled() && template != null && template.isLogEnabled()) {
                 StringBuilder log = new StringBuilder();
                 log.append('"');
                 log.append(restRequest);
@@ -0,0 +1,49 @@
+package eu.modernmt.api.serializers;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.MetricsSnapshot;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+public class MetricsSnapshotSerializer implements JsonSerializer<MetricsSnapshot> {
+
+    @Override
+    public JsonElement serialize(MetricsSnapshot src, Type typeOfSrc, JsonSerializationContext context) {
+        JsonObject counters = new JsonObject();
+        for (Map.Entry<String, Long> entry : src.getCounters().entrySet())
+            counters.addProperty(entry.getKey(), entry.getValue());
+
+        JsonObject gauges = new JsonObject();
+        for (Map.Entry<String, Long> entry : src.getGauges().entrySet())
+            gauges.addProperty(entry.getKey(), entry.getValue());
+
+        JsonObject histograms = new JsonObject();
+        for (Map.Entry<String, Histogram.Snapshot> entry : src.getHistograms().entrySet())
+            histograms.add(entry.getKey(), serialize(entry.getValue()));
+
+        JsonObject json = new JsonObject();
+        json.add("counters", counters);
+        json.add("gauges", gauges);
+        json.add("histograms", histograms);
+
+        return json;
+    }
+
+    private static JsonObject serialize(Histogram.Snapshot snapshot) {
+        JsonObject json = new JsonObject();
+        json.addProperty("count", snapshot.getCount());
+        json.addProperty("mean", snapshot.getMean());
+        json.addProperty("p50", snapshot.getPercentile(50));
+        json.addProperty("p90", snapshot.getPercentile(90));
+        json.addProperty("p99", snapshot.getPercentile(99));
+        json.addProperty("p999", snapshot.getPercentile(99.9));
+        json.addProperty("max", snapshot.getMax());
+        return json;
+    }
+
+}
@@ -0,0 +1,21 @@
+package eu.modernmt.cluster;
+
+import eu.modernmt.metrics.MetricsSnapshot;
+
+import java.util.Map;
+
+/**
+ * Metrics collected from the members of the cluster: the snapshot of every node
+ * (by node uuid) and the aggregation of all of them.
+ */
+public class ClusterMetrics {
+
+    public final MetricsSnapshot cluster;
+    public final Map<String, MetricsSnapshot> nodes;
+
+    public ClusterMetrics(MetricsSnapshot cluster, Map<String, MetricsSnapshot> nodes) {
+        this.cluster = cluster;
+        this.nodes = nodes;
+    }
+
+}
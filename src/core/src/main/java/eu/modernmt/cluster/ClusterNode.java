@@ -6,6 +6,7 @@ import com.hazelcast.config.TcpIpConfig;
 import com.hazelcast.config.XmlConfigBuilder;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IExecutorService;
 import com.hazelcast.core.Member;
 import eu.modernmt.api.ApiServer;
 import eu.modernmt.cluster.cassandra.EmbeddedCassandra;
@@ -19,14 +20,20 @@ import eu.modernmt.data.BinaryLog;
 import eu.modernmt.data.DataListenerProvider;
 import eu.modernmt.data.HostUnreachableException;
 import eu.modernmt.data.LogDataListener;
+import eu.modernmt.decoder.Decoder;
+import eu.modernmt.decoder.DecoderException;
 import eu.modernmt.decoder.DecoderListener;
 import eu.modernmt.decoder.DecoderUnavailableException;
+import eu.modernmt.decoder.TranslationTimeoutException;
 import eu.modernmt.engine.BootstrapException;
 import eu.modernmt.engine.Engine;
 import eu.modernmt.hw.NetworkUtils;
 import eu.modernmt.lang.LanguageBridge;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.lang.UnsupportedLanguageException;
+import eu.modernmt.metrics.Metrics;
+import eu.modernmt.metrics.MetricsSnapshot;
+import eu.modernmt.model.Priority;
 import eu.modernmt.model.Translation;
 import eu.modernmt.persistence.Database;
 import eu.modernmt.persistence.PersistenceException;
@@ -36,8 +43,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  * Created by davide on 18/04/16.
@@ -81,6 +87,7 @@ public class ClusterNode {
     ApiServer api;
     TranslationServiceProxy translationService;
     ArrayList<EmbeddedService> services = new ArrayList<>(2);
+    ScheduledExecutorService queueTimePublisher;
 
     private final ShutdownThread shutdownThread = new ShutdownThread(this);
     private boolean loadBalancing = true;
@@ -407,6 +414,19 @@ public class ClusterNode {
 
         translationService = hazelcast.getDistributedObject(TranslationService.SERVICE_NAME, "TranslationService");
 
+        try {
+            Decoder decoder = this.engine.getDecoder();
+
+            queueTimePublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "QueueTimePublisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            queueTimePublisher.scheduleWithFixedDelay(() -> updateDecoderQueueTime(decoder), 0, 1, TimeUnit.SECONDS);
+        } catch (UnsupportedOperationException e) {
+            // Ignore, decoder not available
+        }
+
         setStatus(Status.RUNNING);
         logger.info("Node started in " + (globalTimer.time() / 1000.) + "s");
     }
@@ -436,6 +456,20 @@ public class ClusterNode {
         NodeInfo.updateTranslationDirections(localMember, directions);
     }
 
+    private void updateDecoderQueueTime(Decoder decoder) {
+        Priority[] priorities = Priority.values();
+        long[] queueTimes = new long[priorities.length];
+        for (Priority priority : priorities)
+            queueTimes[priority.ordinal()] = decoder.estimateQueueTime(priority);
+
+        try {
+            Member localMember = hazelcast.getCluster().getLocalMember();
+            NodeInfo.updateQueueTimeInMember(localMember, queueTimes);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to publish decoder queue time", e);
+        }
+    }
+
     private void updateDecoderAvailability(int currentAvailability, int maxAvailability) {
         if (currentAvailability == 0)
             setStatus(Status.UNAVAILABLE, Status.RUNNING, Status.DEGRADED);
@@ -461,13 +495,46 @@ public class ClusterNode {
         return NodeInfo.fromMember(member);
     }
 
-    public Future<Translation> submit(TranslationTask task) throws DecoderUnavailableException {
+    public ClusterMetrics getMetrics(boolean localhostOnly) throws InterruptedException {
+        Member localMember = hazelcast.getCluster().getLocalMember();
+        MetricsSnapshot local = Metrics.snapshot();
+
+        HashMap<String, MetricsSnapshot> nodes = new HashMap<>();
+        nodes.put(localMember.getUuid(), local);
+
+        if (!localhostOnly) {
+            IExecutorService executor = hazelcast.getExecutorService("mmt:cluster:MetricsService");
+
+            HashSet<Member> members = new HashSet<>(hazelcast.getCluster().getMembers());
+            members.remove(localMember);
+
+            if (!members.isEmpty()) {
+                Map<Member, Future<MetricsSnapshot>> futures = executor.submitToMembers(new MetricsCollectTask(), members);
+
+                for (Map.Entry<Member, Future<MetricsSnapshot>> entry : futures.entrySet()) {
+                    try {
+                        nodes.put(entry.getKey().getUuid(), entry.getValue().get(5, TimeUnit.SECONDS));
+                    } catch (ExecutionException | TimeoutException e) {
+                        logger.warn("Unable to collect metrics from node " + entry.getKey().getUuid(), e);
+                    }
+                }
+            }
+        }
+
+        MetricsSnapshot cluster = new MetricsSnapshot();
+        for (MetricsSnapshot snapshot : nodes.values())
+            cluster = cluster.merge(snapshot);
+
+        return new ClusterMetrics(cluster, nodes);
+    }
+
+    public Future<Translation> submit(TranslationTask task) throws DecoderException {
         LanguageDirection language = task.getLanguageDirection();
         LanguageBridge bridge = engine.getLanguageIndex().getLanguageBridge(language);
 
         Member member;
         if (this.loadBalancing) {
-            member = getRandomMember(language, bridge);
+            member = getRandomMember(language, bridge, task.getPriority(), task.getExpirationTimestamp());
         } else {
             member = hazelcast.getCluster().getLocalMember();
             if (!NodeInfo.statusIs(member, Status.RUNNING, Status.DEGRADED))
@@ -479,7 +546,7 @@ public class ClusterNode {
         return translationService.submit(task, member.getAddress());
     }
 
-    private Member getRandomMember(LanguageDirection language, LanguageBridge bridge) throws DecoderUnavailableException {
+    private Member getRandomMember(LanguageDirection language, LanguageBridge bridge, Priority priority, long expiration) throws DecoderException {
         Set<Member> members = hazelcast.getCluster().getMembers();
 
         ArrayList<Member> candidates = new ArrayList<>(members.size());
@@ -502,6 +569,15 @@ public class ClusterNode {
                 throw new DecoderUnavailableException("Could not find active node in the cluster");
         }
 
+        if (expiration > 0) {
+            // Discard nodes whose queue is too long to meet the deadline
+            long now = System.currentTimeMillis();
+            candidates.removeIf(member -> now + NodeInfo.getQueueTime(member, priority) > expiration);
+
+            if (candidates.isEmpty())
+                throw new TranslationTimeoutException();
+        }
+
         if (candidates.size() == 1) {
             return candidates.get(0);
         } else {
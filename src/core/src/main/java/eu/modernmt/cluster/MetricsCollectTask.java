@@ -0,0 +1,19 @@
+package eu.modernmt.cluster;
+
+import eu.modernmt.metrics.Metrics;
+import eu.modernmt.metrics.MetricsSnapshot;
+
+import java.io.Serializable;
+import java.util.concurrent.Callable;
+
+/**
+ * Task executed on every member of the cluster in order to collect its local metrics.
+ */
+class MetricsCollectTask implements Callable<MetricsSnapshot>, Serializable {
+
+    @Override
+    public MetricsSnapshot call() {
+        return Metrics.snapshot();
+    }
+
+}
@@ -3,6 +3,7 @@ package eu.modernmt.cluster;
 import com.hazelcast.core.Member;
 import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Priority;
 
 import java.util.*;
 
@@ -14,6 +15,7 @@ public class NodeInfo {
     private static final String STATUS_ATTRIBUTE = "NodeInfo.STATUS_ATTRIBUTE";
     private static final String DATA_CHANNELS_ATTRIBUTE = "NodeInfo.DATA_CHANNELS_ATTRIBUTE";
     private static final String TRANSLATION_DIRECTIONS_ATTRIBUTE = "NodeInfo.TRANSLATION_DIRECTIONS_ATTRIBUTE";
+    private static final String QUEUE_TIME_ATTRIBUTE = "NodeInfo.QUEUE_TIME_ATTRIBUTE";
 
     public final String uuid;
     public final ClusterNode.Status status;
@@ -58,6 +60,34 @@ public class NodeInfo {
         return encoded.contains(search);
     }
 
+    /**
+     * Returns the estimated time (in millis) a translation with the given priority
+     * would wait in the member's decoder queue, 0 if the member does not publish estimates.
+     */
+    static long getQueueTime(Member member, Priority priority) {
+        String encoded = member.getStringAttribute(QUEUE_TIME_ATTRIBUTE);
+        if (encoded == null || encoded.isEmpty())
+            return 0L;
+
+        String[] elements = encoded.split(",");
+        int index = priority.ordinal();
+
+        return index < elements.length ? Long.parseLong(elements[index]) : 0L;
+    }
+
+    static void updateQueueTimeInMember(Member member, long[] queueTimes) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < queueTimes.length; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(queueTimes[i]);
+        }
+
+        String encoded = builder.toString();
+        if (!encoded.equals(member.getStringAttribute(QUEUE_TIME_ATTRIBUTE)))
+            member.setStringAttribute(QUEUE_TIME_ATTRIBUTE, encoded);
+    }
+
     static void updateStatusInMember(Member member, ClusterNode.Status status) {
         member.setStringAttribute(STATUS_ATTRIBUTE, status.name());
     }
@@ -27,6 +27,9 @@ class ShutdownThread extends Thread {
         // Prevent new API requests
         halt(this.node.api);
 
+        if (this.node.queueTimePublisher != null)
+            this.node.queueTimePublisher.shutdownNow();
+
         // Close internal services
         halt(this.node.translationService); // wait for all translations to be fulfilled
         halt(this.node.database);
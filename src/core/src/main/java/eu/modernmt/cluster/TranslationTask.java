@@ -1,6 +1,7 @@
 package eu.modernmt.cluster;
 
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Priority;
 import eu.modernmt.model.Translation;
 
 import java.io.Serializable;
@@ -10,4 +11,11 @@ public interface TranslationTask extends Callable<Translation>, Serializable {
 
     LanguageDirection getLanguageDirection();
 
+    Priority getPriority();
+
+    /**
+     * @return the timestamp (in millis) after which the translation is not needed anymore, 0 if it never expires
+     */
+    long getExpirationTimestamp();
+
 }
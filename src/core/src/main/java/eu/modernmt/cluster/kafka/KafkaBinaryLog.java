@@ -6,6 +6,8 @@ import eu.modernmt.data.*;
 import eu.modernmt.engine.Engine;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.lang.LanguageIndex;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.model.ImportJob;
 import eu.modernmt.model.Memory;
 import eu.modernmt.model.corpus.MultilingualCorpus;
@@ -16,6 +18,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.TopicPartition;
@@ -45,6 +48,8 @@ import java.util.concurrent.TimeUnit;
 public class KafkaBinaryLog implements BinaryLog {
 
     private static final Logger logger = LogManager.getLogger(KafkaBinaryLog.class);
+    private static final Counter uploadedUnits = Metrics.counter("binlog.upload.units");
+    private static final int UPLOAD_PROGRESS_INTERVAL = 100000;
 
     private final String[] hosts;
     private final int port;
@@ -53,7 +58,7 @@ public class KafkaBinaryLog implements BinaryLog {
     private final String uuid;
     private final LogDataPollingThread pollingThread;
 
-    private KafkaProducer<Integer, KafkaPacket> producer;
+    private Producer<Integer, KafkaPacket> producer;
 
     private KafkaChannel[] channels;
     private ArrayList<TopicPartition> partitions;
@@ -257,6 +262,16 @@ public class KafkaBinaryLog implements BinaryLog {
         return null;
     }
 
+    /**
+     * Connects this KafkaBinaryLog to the given producer only, without a consumer:
+     * used to write to a log that is not reachable through the configured hosts.
+     *
+     * @param producer the producer to send the packets with
+     */
+    void connect(Producer<Integer, KafkaPacket> producer) {
+        this.producer = producer;
+    }
+
     @Override
     public void setBinaryLogListener(Listener listener) {
         pollingThread.setBinaryLogListener(listener);
@@ -294,6 +309,7 @@ public class KafkaBinaryLog implements BinaryLog {
 
             importEnd = importBegin = sendElement(KafkaPacket.createAddition(memory.getOwner(), memory.getId(), tu), true, channel);
             size++;
+            uploadedUnits.increment();
 
             tu = reader.read();
 
@@ -307,6 +323,10 @@ public class KafkaBinaryLog implements BinaryLog {
                     sendElement(KafkaPacket.createAddition(memory.getOwner(), memory.getId(), current), false, channel);
 
                 size++;
+                uploadedUnits.increment();
+
+                if (size % UPLOAD_PROGRESS_INTERVAL == 0)
+                    logger.info("Uploading memory " + memory + ": " + size + " pairs sent");
             }
         } catch (IOException e) {
             throw new BinaryLogException("Failed to read corpus for memory " + memory, e);
@@ -421,30 +441,12 @@ public class KafkaBinaryLog implements BinaryLog {
 
     @Override
     public void waitChannelPositions(Map<Short, Long> positions) throws InterruptedException {
-        while (true) {
-            Map<Short, Long> current = this.pollingThread.getCurrentPositions();
-            boolean wait = false;
-
-            for (Map.Entry<Short, Long> entry : positions.entrySet()) {
-                Short channel = entry.getKey();
-                Long targetPosition = entry.getValue();
-
-                if (targetPosition == 0L)
-                    continue;
-
-                Long position = current.get(channel);
-
-                if (position == null || position < targetPosition) {
-                    wait = true;
-                    break;
-                }
-            }
-
-            if (!wait)
-                break;
+        pollingThread.getPositionTracker().await(positions);
+    }
 
-            Thread.sleep(500);
-        }
+    @Override
+    public boolean waitChannelPositions(Map<Short, Long> positions, long timeout, TimeUnit unit) throws InterruptedException {
+        return pollingThread.getPositionTracker().await(positions, timeout, unit);
     }
 
     @Override
@@ -5,7 +5,11 @@ import eu.modernmt.aligner.AlignerException;
 import eu.modernmt.data.LogDataListener;
 import eu.modernmt.data.BinaryLog;
 import eu.modernmt.data.BinaryLogException;
+import eu.modernmt.data.ChannelPositionTracker;
 import eu.modernmt.lang.LanguageIndex;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.processing.Preprocessor;
 import eu.modernmt.processing.ProcessingException;
 import org.apache.commons.io.IOUtils;
@@ -26,9 +30,13 @@ import java.util.concurrent.*;
  */
 class LogDataPollingThread extends Thread {
 
+    private static final Histogram deliveryTime = Metrics.histogram("binlog.delivery");
+    private static final Counter deliveredUpdates = Metrics.counter("binlog.updates");
+
     private final Logger logger = LogManager.getLogger(KafkaBinaryLog.class);
 
     private final KafkaDataBatch batch;
+    private final ChannelPositionTracker positionTracker = new ChannelPositionTracker();
 
     private BinaryLogException exception;
     private KafkaConsumer<Integer, KafkaPacket> consumer;
@@ -63,6 +71,7 @@ class LogDataPollingThread extends Thread {
     public void start(KafkaConsumer<Integer, KafkaPacket> consumer) {
         this.consumer = consumer;
         this.interrupted = false;
+        this.positionTracker.update(getCurrentPositions());
 
         super.start();
     }
@@ -82,6 +91,10 @@ class LogDataPollingThread extends Thread {
         return !this.isAlive();
     }
 
+    public ChannelPositionTracker getPositionTracker() {
+        return positionTracker;
+    }
+
     public Map<Short, Long> getCurrentPositions() {
         KafkaChannel[] channels = this.manager.getChannels();
 
@@ -154,12 +167,18 @@ class LogDataPollingThread extends Thread {
                 if (logger.isDebugEnabled())
                     logger.debug("Delivering batch of " + batch.size() + " updates");
 
+                long begin = System.nanoTime();
                 try {
                     deliverBatch(batch);
                 } catch (Throwable e) {
                     logger.error("Failed to delivery updates", e);
+                } finally {
+                    deliveryTime.updateSince(begin);
+                    deliveredUpdates.increment(batch.size());
                 }
 
+                positionTracker.update(getCurrentPositions());
+
                 if (binaryLogListener != null)
                     binaryLogListener.onLogDataBatchProcessed(batch.getChannelPositions());
 
@@ -1,28 +1,17 @@
 package eu.modernmt.engine;
 
 import eu.modernmt.aligner.Aligner;
-import eu.modernmt.aligner.fastalign.FastAlign;
-import eu.modernmt.config.AlignerConfig;
-import eu.modernmt.config.AnalyzerConfig;
-import eu.modernmt.config.DecoderConfig;
 import eu.modernmt.config.EngineConfig;
 import eu.modernmt.context.ContextAnalyzer;
-import eu.modernmt.context.lucene.LuceneAnalyzer;
 import eu.modernmt.data.LogDataListener;
 import eu.modernmt.data.DataListenerProvider;
 import eu.modernmt.decoder.Decoder;
-import eu.modernmt.decoder.DecoderException;
-import eu.modernmt.decoder.neural.NeuralDecoder;
 import eu.modernmt.io.FileConst;
 import eu.modernmt.io.Paths;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.lang.LanguageIndex;
-import eu.modernmt.model.Sentence;
-import eu.modernmt.model.Translation;
 import eu.modernmt.processing.Postprocessor;
 import eu.modernmt.processing.Preprocessor;
-import eu.modernmt.processing.ProcessingException;
-import eu.modernmt.processing.builder.XMLPipelineBuilder;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
@@ -31,8 +20,6 @@ import org.apache.logging.log4j.Logger;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Set;
@@ -60,98 +47,7 @@ public class Engine implements Closeable, DataListenerProvider {
     private final Decoder decoder;
 
     public static Engine load(EngineConfig config) throws BootstrapException {
-        Logger logger = LogManager.getLogger(Engine.class);
-
-        String name = config.getName();
-        LanguageIndex languageIndex = config.getLanguageIndex();
-
-        File root = FileConst.getEngineRoot(name);
-        File models = Paths.join(root, "models");
-
-        Preprocessor preprocessor;
-        try {
-            File configFile = new File(root, "preprocessor.xml");
-            if (configFile.isFile()) {
-                logger.info("Loading pre-processing from custom file: " + configFile);
-                XMLPipelineBuilder<String, Sentence> builder = XMLPipelineBuilder.loadFromXML(configFile);
-                preprocessor = new Preprocessor(builder);
-            } else {
-                logger.info("Loading default pre-processing configuration");
-                preprocessor = new Preprocessor();
-            }
-        } catch (IOException e) {
-            throw new BootstrapException("Failed to load pre-processor", e);
-        }
-
-        Postprocessor postprocessor;
-        try {
-            File configFile = new File(root, "postprocessor.xml");
-            if (configFile.isFile()) {
-                logger.info("Loading post-processing from custom file: " + configFile);
-                XMLPipelineBuilder<Translation, Void> builder = XMLPipelineBuilder.loadFromXML(configFile);
-                postprocessor = new Postprocessor(builder);
-            } else {
-                logger.info("Loading default post-processing configuration");
-                postprocessor = new Postprocessor();
-            }
-        } catch (IOException e) {
-            throw new BootstrapException("Failed to load post-processor", e);
-        }
-
-        AlignerConfig alignerConfig = config.getAlignerConfig();
-        Aligner aligner = null;
-        if (alignerConfig.isEnabled()) {
-            try {
-                aligner = new FastAlign(Paths.join(models, "aligner"));
-            } catch (IOException e) {
-                throw new BootstrapException("Failed to instantiate aligner", e);
-            }
-        }
-
-        AnalyzerConfig analyzerConfig = config.getAnalyzerConfig();
-        ContextAnalyzer contextAnalyzer = null;
-        if (analyzerConfig.isEnabled()) {
-            try {
-                contextAnalyzer = new LuceneAnalyzer(Paths.join(models, "context"), analyzerConfig);
-            } catch (IOException e) {
-                throw new BootstrapException("Failed to instantiate context analyzer", e);
-            }
-        }
-
-        DecoderConfig decoderConfig = config.getDecoderConfig();
-        Decoder decoder = null;
-        if (decoderConfig.isEnabled()) {
-            try {
-                File decoderModel = new File(models, "decoder");
-                String decoderClass = decoderConfig.getDecoderClass();
-
-                if (decoderClass == null) {
-                    decoder = new NeuralDecoder(decoderModel, decoderConfig);
-                } else {
-                    ClassLoader classLoader = ClassLoader.getSystemClassLoader();
-                    Class<?> decoderCls = classLoader.loadClass(decoderClass);
-                    Constructor<?> constructor = decoderCls.getConstructor(File.class, DecoderConfig.class);
-                    decoder = (Decoder) constructor.newInstance(decoderModel, decoderConfig);
-                }
-            } catch (ClassNotFoundException e) {
-                throw new BootstrapException("Decoder class not found", e);
-            } catch (NoSuchMethodException | IllegalAccessException e) {
-                throw new BootstrapException("Invalid decoder class specified: missing constructor", e);
-            } catch (DecoderException e) {
-                throw new BootstrapException("Failed to instantiate decoder", e);
-            } catch (InstantiationException e) {
-                throw new BootstrapException("Invalid decoder class specified: class is abstract", e);
-            } catch (InvocationTargetException e) {
-                Throwable cause = e.getCause();
-                if (cause instanceof RuntimeException) {
-                    throw (RuntimeException) cause;
-                } else if (cause instanceof DecoderException) {
-                    throw new BootstrapException("Failed to instantiate decoder", cause);
-                }
-            }
-        }
-
-        return new Engine(name, languageIndex, aligner, preprocessor, postprocessor, contextAnalyzer, decoder);
+        return new EngineLoader(config, FileConst.getEngineRoot(config.getName())).load();
     }
 
     protected Engine(String name, LanguageIndex languageIndex,
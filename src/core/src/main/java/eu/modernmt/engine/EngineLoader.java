@@ -0,0 +1,316 @@
+package eu.modernmt.engine;
+
+import eu.modernmt.aligner.Aligner;
+import eu.modernmt.aligner.fastalign.FastAlign;
+import eu.modernmt.config.AnalyzerConfig;
+import eu.modernmt.config.DecoderConfig;
+import eu.modernmt.config.EngineConfig;
+import eu.modernmt.context.ContextAnalyzer;
+import eu.modernmt.context.lucene.LuceneAnalyzer;
+import eu.modernmt.decoder.Decoder;
+import eu.modernmt.decoder.DecoderException;
+import eu.modernmt.decoder.neural.NeuralDecoder;
+import eu.modernmt.io.Paths;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Translation;
+import eu.modernmt.processing.Postprocessor;
+import eu.modernmt.processing.Preprocessor;
+import eu.modernmt.processing.builder.XMLPipelineBuilder;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads the components of an Engine. Components are the nodes of a small dependency graph:
+ * each one is loaded in its own thread as soon as the components it depends on are available,
+ * so that the engine bootstrap takes as long as the slowest chain of components instead of their sum.
+ * <p>
+ * Language specific resources of the processing pipelines are not part of the graph: pipelines
+ * are created on first use for every language direction, so rarely used languages cost nothing at startup.
+ */
+class EngineLoader {
+
+    interface Factory<T> {
+
+        T create() throws BootstrapException;
+
+    }
+
+    static final class Component<T> {
+
+        private final String name;
+        private final Factory<T> factory;
+        private final Component<?>[] dependencies;
+
+        private CompletableFuture<T> future = null;
+        private volatile long loadTime = -1;
+
+        private Component(String name, Factory<T> factory, Component<?>[] dependencies) {
+            this.name = name;
+            this.factory = factory;
+            this.dependencies = dependencies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the loaded component, available after a successful {@link EngineLoader#load()}
+         */
+        public T get() {
+            if (future == null || !future.isDone() || future.isCompletedExceptionally())
+                throw new IllegalStateException("Component not loaded: " + name);
+            return future.join();
+        }
+
+        /**
+         * @return the time in milliseconds spent loading the component, -1 if not loaded
+         */
+        public long getLoadTime() {
+            return loadTime;
+        }
+
+        private T create() {
+            long begin = System.currentTimeMillis();
+
+            try {
+                return factory.create();
+            } catch (BootstrapException e) {
+                throw new CompletionException(e);
+            } finally {
+                loadTime = System.currentTimeMillis() - begin;
+            }
+        }
+    }
+
+    private final Logger logger = LogManager.getLogger(Engine.class);
+
+    protected final EngineConfig config;
+    protected final File root;
+    protected final File models;
+    private final int threads;
+    private final ArrayList<Component<?>> components = new ArrayList<>();
+
+    EngineLoader(EngineConfig config, File root) {
+        this(config, root, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param threads the maximum number of components loaded at the same time
+     */
+    EngineLoader(EngineConfig config, File root, int threads) {
+        this.config = config;
+        this.root = root;
+        this.models = Paths.join(root, "models");
+        this.threads = threads;
+    }
+
+    /**
+     * Adds a component to the graph; dependencies must be already part of the graph,
+     * hence the graph is always acyclic.
+     */
+    <T> Component<T> add(String name, Factory<T> factory, Component<?>... dependencies) {
+        for (Component<?> dependency : dependencies) {
+            if (!components.contains(dependency))
+                throw new IllegalArgumentException("Unknown dependency of " + name + ": " + dependency.name);
+        }
+
+        Component<T> component = new Component<>(name, factory, dependencies);
+        components.add(component);
+        return component;
+    }
+
+    public Engine load() throws BootstrapException {
+        Component<Preprocessor> preprocessor = add("pre-processor", this::loadPreprocessor);
+        Component<Postprocessor> postprocessor = add("post-processor", this::loadPostprocessor);
+        Component<Aligner> aligner = config.getAlignerConfig().isEnabled() ?
+                add("aligner", this::loadAligner) : null;
+        Component<ContextAnalyzer> contextAnalyzer = config.getAnalyzerConfig().isEnabled() ?
+                add("context analyzer", this::loadContextAnalyzer) : null;
+        Component<Decoder> decoder = config.getDecoderConfig().isEnabled() ?
+                add("decoder", this::loadDecoder) : null;
+
+        loadComponents();
+
+        return new Engine(config.getName(), config.getLanguageIndex(),
+                aligner == null ? null : aligner.get(), preprocessor.get(), postprocessor.get(),
+                contextAnalyzer == null ? null : contextAnalyzer.get(), decoder == null ? null : decoder.get());
+    }
+
+    /**
+     * Loads all the components of the graph. If any of them fails, the ones already loaded are closed
+     * and the error of the first failed component is thrown.
+     */
+    void loadComponents() throws BootstrapException {
+        if (components.isEmpty())
+            return;
+
+        long begin = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, components.size()), runnable -> {
+            Thread thread = new Thread(runnable, "EngineLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (Component<?> component : components)
+                schedule(component, executor);
+
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[components.size()];
+            for (int i = 0; i < futures.length; i++)
+                futures[i] = components.get(i).future;
+
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                // handled below, component by component
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Throwable error = null;
+        for (Component<?> component : components) {
+            if (component.future.isCompletedExceptionally()) {
+                if (error == null) {
+                    try {
+                        component.future.join();
+                    } catch (CompletionException e) {
+                        error = e.getCause();
+                    }
+                }
+            } else {
+                logger.info("Component " + component.name + " loaded in " + (component.loadTime / 1000.) + "s");
+            }
+        }
+
+        if (error == null) {
+            logger.info("Engine components loaded in " + ((System.currentTimeMillis() - begin) / 1000.) + "s");
+            return;
+        }
+
+        for (Component<?> component : components) {
+            if (!component.future.isCompletedExceptionally()) {
+                Object value = component.future.join();
+                if (value instanceof Closeable)
+                    IOUtils.closeQuietly((Closeable) value);
+            }
+        }
+
+        if (error instanceof BootstrapException)
+            throw (BootstrapException) error;
+        else if (error instanceof RuntimeException)
+            throw (RuntimeException) error;
+        else if (error instanceof Error)
+            throw (Error) error;
+        else
+            throw new Error("Unexpected exception", error);
+    }
+
+    private static <T> void schedule(Component<T> component, ExecutorService executor) {
+        CompletableFuture<?>[] dependencies = new CompletableFuture<?>[component.dependencies.length];
+        for (int i = 0; i < dependencies.length; i++)
+            dependencies[i] = component.dependencies[i].future;
+
+        component.future = CompletableFuture.allOf(dependencies).thenApplyAsync(v -> component.create(), executor);
+    }
+
+    // Components ------------------------------------------------------------------------------------------------------
+
+    protected Preprocessor loadPreprocessor() throws BootstrapException {
+        try {
+            int cacheSize = config.getPreprocessingCacheSize();
+
+            File configFile = new File(root, "preprocessor.xml");
+            if (configFile.isFile()) {
+                logger.info("Loading pre-processing from custom file: " + configFile);
+                XMLPipelineBuilder<String, Sentence> builder = XMLPipelineBuilder.loadFromXML(configFile);
+                return new Preprocessor(builder, cacheSize);
+            } else {
+                logger.info("Loading default pre-processing configuration");
+                return new Preprocessor(Preprocessor.getDefaultBuilder(), cacheSize);
+            }
+        } catch (IOException e) {
+            throw new BootstrapException("Failed to load pre-processor", e);
+        }
+    }
+
+    protected Postprocessor loadPostprocessor() throws BootstrapException {
+        try {
+            File configFile = new File(root, "postprocessor.xml");
+            if (configFile.isFile()) {
+                logger.info("Loading post-processing from custom file: " + configFile);
+                XMLPipelineBuilder<Translation, Void> builder = XMLPipelineBuilder.loadFromXML(configFile);
+                return new Postprocessor(builder);
+            } else {
+                logger.info("Loading default post-processing configuration");
+                return new Postprocessor();
+            }
+        } catch (IOException e) {
+            throw new BootstrapException("Failed to load post-processor", e);
+        }
+    }
+
+    protected Aligner loadAligner() throws BootstrapException {
+        try {
+            return new FastAlign(Paths.join(models, "aligner"));
+        } catch (IOException e) {
+            throw new BootstrapException("Failed to instantiate aligner", e);
+        }
+    }
+
+    protected ContextAnalyzer loadContextAnalyzer() throws BootstrapException {
+        AnalyzerConfig analyzerConfig = config.getAnalyzerConfig();
+
+        try {
+            return new LuceneAnalyzer(Paths.join(models, "context"), analyzerConfig);
+        } catch (IOException e) {
+            throw new BootstrapException("Failed to instantiate context analyzer", e);
+        }
+    }
+
+    protected Decoder loadDecoder() throws BootstrapException {
+        DecoderConfig decoderConfig = config.getDecoderConfig();
+
+        try {
+            File decoderModel = new File(models, "decoder");
+            String decoderClass = decoderConfig.getDecoderClass();
+
+            if (decoderClass == null) {
+                return new NeuralDecoder(decoderModel, decoderConfig);
+            } else {
+                ClassLoader classLoader = ClassLoader.getSystemClassLoader();
+                Class<?> decoderCls = classLoader.loadClass(decoderClass);
+                Constructor<?> constructor = decoderCls.getConstructor(File.class, DecoderConfig.class);
+                return (Decoder) constructor.newInstance(decoderModel, decoderConfig);
+            }
+        } catch (ClassNotFoundException e) {
+            throw new BootstrapException("Decoder class not found", e);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new BootstrapException("Invalid decoder class specified: missing constructor", e);
+        } catch (DecoderException e) {
+            throw new BootstrapException("Failed to instantiate decoder", e);
+        } catch (InstantiationException e) {
+            throw new BootstrapException("Invalid decoder class specified: class is abstract", e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else
+                throw new BootstrapException("Failed to instantiate decoder", cause);
+        }
+    }
+
+}
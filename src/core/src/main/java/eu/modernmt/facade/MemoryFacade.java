@@ -63,6 +63,9 @@ public class MemoryFacade {
     }
 
     public Map<Long, Memory> get(Collection<Long> ids) throws PersistenceException {
+        if (ids.isEmpty())
+            return new HashMap<>();
+
         Connection connection = null;
         Database db = ModernMT.getNode().getDatabase();
 
@@ -122,6 +125,36 @@ public class MemoryFacade {
         return true;
     }
 
+    public Collection<Memory> delete(Collection<Long> ids) throws PersistenceException, BinaryLogException {
+        if (ids.isEmpty())
+            return Collections.emptyList();
+
+        Connection connection = null;
+        Database db = ModernMT.getNode().getDatabase();
+
+        ArrayList<Memory> deleted;
+        try {
+            connection = db.getConnection();
+
+            MemoryDAO memoryDAO = db.getMemoryDAO(connection);
+            Map<Long, Memory> memories = memoryDAO.retrieve(ids);
+
+            Set<Long> deletedIds = memoryDAO.delete(memories.keySet());
+
+            deleted = new ArrayList<>(deletedIds.size());
+            for (Long id : deletedIds)
+                deleted.add(memories.get(id));
+        } finally {
+            IOUtils.closeQuietly(connection);
+        }
+
+        BinaryLog binlog = ModernMT.getNode().getBinaryLog();
+        for (Memory memory : deleted)
+            binlog.delete(memory);
+
+        return deleted;
+    }
+
     public ImportJob add(long memoryId, TranslationUnit tu) throws BinaryLogException, PersistenceException {
         if (tu.timestamp == null)
             tu.timestamp = new Date();
@@ -214,6 +247,18 @@ public class MemoryFacade {
     }
 
     public ImportJob add(long memoryId, MultilingualCorpus corpus) throws PersistenceException, BinaryLogException {
+        return add(memoryId, corpus, CorporaCleaning.Options.defaultOptionsForMemoryImport());
+    }
+
+    /**
+     * Imports a corpus that can be read only once, like the body of a request: the content is
+     * cleaned with single-pass filters and sent to the binary log while it is read.
+     */
+    public ImportJob addStream(long memoryId, MultilingualCorpus corpus) throws PersistenceException, BinaryLogException {
+        return add(memoryId, corpus, CorporaCleaning.Options.defaultOptionsForStreamedMemoryImport());
+    }
+
+    private ImportJob add(long memoryId, MultilingualCorpus corpus, CorporaCleaning.Options options) throws PersistenceException, BinaryLogException {
         Connection connection = null;
         Database db = ModernMT.getNode().getDatabase();
 
@@ -226,7 +271,7 @@ public class MemoryFacade {
             if (memory == null)
                 return null;
 
-            corpus = CorporaCleaning.wrap(corpus, CorporaCleaning.Options.defaultOptionsForMemoryImport());
+            corpus = CorporaCleaning.wrap(corpus, options);
 
             BinaryLog binlog = ModernMT.getNode().getBinaryLog();
             ImportJob job = binlog.upload(memory, corpus, BinaryLog.MEMORY_UPLOAD_CHANNEL_ID);
@@ -257,6 +302,23 @@ public class MemoryFacade {
         }
     }
 
+    public Collection<Memory> update(Collection<Memory> memories) throws PersistenceException {
+        if (memories.isEmpty())
+            return Collections.emptyList();
+
+        Connection connection = null;
+        Database db = ModernMT.getNode().getDatabase();
+
+        try {
+            connection = db.getConnection();
+            MemoryDAO memoryDAO = db.getMemoryDAO(connection);
+
+            return memoryDAO.update(memories);
+        } finally {
+            IOUtils.closeQuietly(connection);
+        }
+    }
+
     public ImportJob getImportJob(UUID id) throws PersistenceException {
         ImportJob job = ImportJob.fromEphemeralUUID(id);
 
@@ -1,6 +1,7 @@
 package eu.modernmt.facade;
 
 import eu.modernmt.Pom;
+import eu.modernmt.cluster.ClusterMetrics;
 import eu.modernmt.cluster.ClusterNode;
 import eu.modernmt.cluster.NodeInfo;
 import eu.modernmt.cluster.ServerInfo;
@@ -83,6 +84,10 @@ public class ModernMT {
         return new ServerInfo(new ServerInfo.ClusterInfo(nodes), new ServerInfo.BuildInfo(BUILD_VERSION, BUILD_NUMBER), memorySize);
     }
 
+    public static ClusterMetrics metrics(boolean localhostOnly) throws InterruptedException {
+        return getNode().getMetrics(localhostOnly);
+    }
+
     public static void test(boolean strict) throws TestFailedException {
         ClusterNode node = getNode();
 
@@ -13,12 +13,28 @@ import eu.modernmt.processing.Preprocessor;
 import eu.modernmt.processing.ProcessingException;
 import eu.modernmt.processing.tags.projection.TagProjector;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 /**
  * Created by davide on 20/04/16.
  */
 public class TagFacade {
 
     private static final TagProjector tagProjector = new TagProjector();
+    private static final int MIN_SLICE_SIZE = 16;
+
+    private final int threads = Runtime.getRuntime().availableProcessors();
+    private final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+        Thread thread = new Thread(runnable, "TagProjector");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     public Translation project(LanguageDirection direction, String sentence, String translation) throws AlignerException, ProcessingException {
         return project(direction, sentence, translation, null);
@@ -47,4 +63,88 @@ public class TagFacade {
         return tagProjector.project(new Translation(translation.getWords(), sentence, alignment));
     }
 
+    public List<Translation> project(LanguageDirection direction, List<String> sentences, List<String> translations)
+            throws AlignerException, ProcessingException, InterruptedException {
+        return project(direction, sentences, translations, null);
+    }
+
+    /**
+     * Projects the tags of many sentence pairs at once: sentences and translations are pre-processed as two batches,
+     * aligned with a single aligner call and then projected in parallel.
+     *
+     * @return the tagged translations, in the same order of the input pairs
+     */
+    public List<Translation> project(LanguageDirection direction, List<String> sentences, List<String> translations,
+                                     Aligner.SymmetrizationStrategy strategy) throws AlignerException, ProcessingException, InterruptedException {
+        ClusterNode node = ModernMT.getNode();
+        Engine engine = node.getEngine();
+
+        return project(engine.getPreprocessor(), engine.getAligner(), direction, sentences, translations, strategy);
+    }
+
+    List<Translation> project(Preprocessor preprocessor, Aligner aligner, LanguageDirection direction,
+                              List<String> sentenceStrings, List<String> translationStrings,
+                              Aligner.SymmetrizationStrategy strategy) throws AlignerException, ProcessingException, InterruptedException {
+        if (sentenceStrings.size() != translationStrings.size())
+            throw new IllegalArgumentException("Sentences and translations have different sizes: " +
+                    sentenceStrings.size() + " != " + translationStrings.size());
+
+        if (!aligner.isSupported(direction))
+            throw new UnsupportedLanguageException(direction);
+
+        if (sentenceStrings.isEmpty())
+            return new ArrayList<>(0);
+
+        List<Sentence> sentences = preprocessor.process(direction, sentenceStrings);
+        List<Sentence> translations = preprocessor.process(direction.reversed(), translationStrings);
+
+        Alignment[] alignments;
+
+        if (strategy != null)
+            alignments = aligner.getAlignments(direction, sentences, translations, strategy);
+        else
+            alignments = aligner.getAlignments(direction, sentences, translations);
+
+        Translation[] result = new Translation[sentences.size()];
+
+        int slices = Math.min(threads, (result.length + MIN_SLICE_SIZE - 1) / MIN_SLICE_SIZE);
+        if (slices <= 1) {
+            project(sentences, translations, alignments, result, 0, result.length);
+        } else {
+            ArrayList<Future<?>> futures = new ArrayList<>(slices);
+            for (int i = 0; i < slices; i++) {
+                int begin = (int) ((long) result.length * i / slices);
+                int end = (int) ((long) result.length * (i + 1) / slices);
+
+                futures.add(executor.submit(() -> project(sentences, translations, alignments, result, begin, end)));
+            }
+
+            try {
+                for (Future<?> future : futures)
+                    future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                else if (cause instanceof Error)
+                    throw (Error) cause;
+                else
+                    throw new Error("Unexpected exception", cause);
+            } finally {
+                for (Future<?> future : futures)
+                    future.cancel(true);
+            }
+        }
+
+        return Arrays.asList(result);
+    }
+
+    private static void project(List<Sentence> sentences, List<Sentence> translations, Alignment[] alignments,
+                                Translation[] result, int begin, int end) {
+        for (int i = begin; i < end; i++) {
+            Translation translation = new Translation(translations.get(i).getWords(), sentences.get(i), alignments[i]);
+            result[i] = tagProjector.project(translation);
+        }
+    }
+
 }
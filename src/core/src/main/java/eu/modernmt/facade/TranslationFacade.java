@@ -11,6 +11,7 @@ import eu.modernmt.decoder.DecoderException;
 import eu.modernmt.decoder.DecoderWithNBest;
 import eu.modernmt.decoder.TranslationTimeoutException;
 import eu.modernmt.engine.Engine;
+import eu.modernmt.io.FileProxy;
 import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.lang.LanguageIndex;
@@ -171,6 +172,10 @@ public class TranslationFacade {
         return getContextVectors(user, new FileCorpus(context, null, source), limit, source, targets);
     }
 
+    public Map<Language, ContextVector> getContextVectors(UUID user, FileProxy context, int limit, Language source, Language... targets) throws ContextAnalyzerException {
+        return getContextVectors(user, new FileCorpus(context, null, source), limit, source, targets);
+    }
+
     public Map<Language, ContextVector> getContextVectors(UUID user, String context, int limit, Language source, Language... targets) throws ContextAnalyzerException {
         return getContextVectors(user, new StringCorpus(null, source, context), limit, source, targets);
     }
@@ -179,17 +184,22 @@ public class TranslationFacade {
         Engine engine = ModernMT.getNode().getEngine();
         ContextAnalyzer analyzer = engine.getContextAnalyzer();
 
-        HashMap<Language, ContextVector> result = new HashMap<>(targets.length);
+        HashMap<Language, LanguageDirection> directions = new HashMap<>(targets.length);
         for (Language target : targets) {
             try {
-                LanguageDirection direction = mapLanguage(new LanguageDirection(source, target));
-                ContextVector contextVector = analyzer.getContextVector(user, direction, context, limit);
-                result.put(target, contextVector);
+                directions.put(target, mapLanguage(new LanguageDirection(source, target)));
             } catch (UnsupportedLanguageException e) {
                 // ignore it
             }
         }
 
+        Map<LanguageDirection, ContextVector> contextVectors =
+                analyzer.getContextVectors(user, new HashSet<>(directions.values()), context, limit);
+
+        HashMap<Language, ContextVector> result = new HashMap<>(directions.size());
+        for (Map.Entry<Language, LanguageDirection> entry : directions.entrySet())
+            result.put(entry.getKey(), contextVectors.get(entry.getValue()));
+
         return result;
     }
 
@@ -233,6 +243,16 @@ public class TranslationFacade {
             return direction;
         }
 
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public long getExpirationTimestamp() {
+            return expirationTimestamp;
+        }
+
         @Override
         public Translation call() throws DecoderException {
             if (expirationTimestamp > 0 && expirationTimestamp < System.currentTimeMillis())
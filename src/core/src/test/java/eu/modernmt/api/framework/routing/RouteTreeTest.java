@@ -0,0 +1,165 @@
+package eu.modernmt.api.framework.routing;
+
+import eu.modernmt.api.framework.HttpMethod;
+import eu.modernmt.api.framework.actions.Action;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reflections.Reflections;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the compiled route tree with the legacy one over all the routes and aliases of the REST API.
+ */
+public class RouteTreeTest {
+
+    private static final String[] DECORATIONS = {"%s", "/%s", "%s/", "//%s", " %s "};
+
+    private static List<RouteTemplate> templates;
+    private static Set<String> tokens;
+    private static RouteTree tree;
+    private static eu.modernmt.api.framework.routing.legacy.RouteTree legacy;
+
+    @BeforeClass
+    public static void setup() throws Exception {
+        templates = new ArrayList<>();
+        tokens = new TreeSet<>();
+
+        Reflections reflections = new Reflections("eu.modernmt.api.actions");
+        for (Class<?> clazz : reflections.getTypesAnnotatedWith(Route.class)) {
+            Class<? extends Action> actionClass = clazz.asSubclass(Action.class);
+            Route route = actionClass.getAnnotation(Route.class);
+            Action action = actionClass.newInstance();
+
+            for (String path : route.aliases()) {
+                RouteTemplate template = new RouteTemplate('/' + path, actionClass, () -> action, route.method());
+                templates.add(template);
+
+                for (int i = 0; i < template.size(); i++) {
+                    String token = template.getTokenAt(i);
+                    if (!template.isTokenVariable(token))
+                        tokens.add(token);
+                }
+            }
+        }
+
+        RouteTree.Builder builder = new RouteTree.Builder();
+        legacy = new eu.modernmt.api.framework.routing.legacy.RouteTree();
+
+        for (RouteTemplate template : templates) {
+            builder.add(template);
+            legacy.add(template);
+        }
+
+        tree = builder.build();
+    }
+
+    private static List<String> expand(RouteTemplate template) {
+        List<String> paths = Collections.singletonList("");
+
+        for (int i = 0; i < template.size(); i++) {
+            String token = template.getTokenAt(i);
+            Collection<String> values = template.isTokenVariable(token) ? variableValues() : Collections.singleton(token);
+
+            List<String> extended = new ArrayList<>();
+            for (String path : paths)
+                for (String value : values)
+                    extended.add(path.isEmpty() ? value : path + '/' + value);
+            paths = extended;
+        }
+
+        return paths;
+    }
+
+    private static Collection<String> variableValues() {
+        List<String> values = new ArrayList<>(tokens);
+        values.add("42");
+        values.add(UUID.randomUUID().toString());
+        return values;
+    }
+
+    private static void assertSameRoute(String path) {
+        for (HttpMethod method : HttpMethod.values())
+            assertSame(method + " " + path, legacy.get(method, path), tree.get(method, path));
+    }
+
+    @Test
+    public void allRoutesAreRegistered() {
+        assertFalse(templates.isEmpty());
+
+        for (RouteTemplate template : templates) {
+            StringBuilder path = new StringBuilder();
+            for (int i = 0; i < template.size(); i++) {
+                String token = template.getTokenAt(i);
+                path.append(template.isTokenVariable(token) ? "42" : token).append('/');
+            }
+
+            assertSame(template.toString(), template, tree.get(template.getMethod(), path.toString()));
+            assertTrue(template.toString(), template.getActionClass().isInstance(template.getAction()));
+        }
+    }
+
+    @Test
+    public void sameRoutingOfLegacyTree() {
+        for (RouteTemplate template : templates) {
+            for (String path : expand(template)) {
+                for (String decoration : DECORATIONS)
+                    assertSameRoute(String.format(decoration, path));
+
+                // Prefixes and extensions
+                int slash = path.lastIndexOf('/');
+                if (slash > 0)
+                    assertSameRoute(path.substring(0, slash));
+                assertSameRoute(path + "/42");
+                assertSameRoute(path + "/corpus");
+            }
+        }
+    }
+
+    @Test
+    public void sameRoutingOfLegacyTreeOnRandomPaths() {
+        List<String> vocabulary = new ArrayList<>(tokens);
+        vocabulary.addAll(Arrays.asList("42", "", " ", "*", ":id", "unknown"));
+
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder path = new StringBuilder();
+            int size = random.nextInt(6);
+            for (int j = 0; j < size; j++) {
+                if (j > 0 || random.nextBoolean())
+                    path.append('/');
+                path.append(vocabulary.get(random.nextInt(vocabulary.size())));
+            }
+
+            assertSameRoute(path.toString());
+        }
+    }
+
+    @Test
+    public void pathTokens() {
+        String[] paths = {"", "/", "memories", "memories/42/corpus", "//memories// 42 /corpus/", " / a/b/ c "};
+
+        for (String path : paths) {
+            List<String> tokens = RouteTemplate.tokenize(path);
+            for (int i = 0; i < tokens.size(); i++)
+                assertEquals(path, tokens.get(i), RouteTemplate.getTokenAt(path, i));
+            assertNull(path, RouteTemplate.getTokenAt(path, tokens.size()));
+        }
+    }
+
+    @Test
+    public void variableIndexes() {
+        for (RouteTemplate template : templates) {
+            for (int i = 0; i < template.size(); i++) {
+                String token = template.getTokenAt(i);
+                String name = token.substring(1);
+                assertEquals(template.indexOfToken(':' + name), template.indexOfVariable(name));
+            }
+
+            assertEquals(-1, template.indexOfVariable("missing"));
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+package eu.modernmt.cluster.kafka;
+
+import eu.modernmt.api.framework.RequestContentFileProxy;
+import eu.modernmt.cleaning.CorporaCleaning;
+import eu.modernmt.config.BinaryLogConfig;
+import eu.modernmt.data.BinaryLog;
+import eu.modernmt.data.BinaryLogException;
+import eu.modernmt.io.FileProxy;
+import eu.modernmt.model.ImportJob;
+import eu.modernmt.model.Memory;
+import eu.modernmt.model.corpus.impl.parallel.CompactFileCorpus;
+import org.apache.commons.io.IOUtils;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.IntegerSerializer;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Memory uploads streamed from the body of a request into the binary log:
+ * the content is parsed and sent while it is read, gunzipped on the fly.
+ * <p>
+ * The log is a producer that keeps no history of the sent packets, like a
+ * broker that receives them, so the memory of the upload is bounded by the reader only.
+ */
+public class KafkaBinaryLogStreamedUploadTest {
+
+    private static final long LARGE_STREAM_SIZE = 2L << 30;
+    private static final String SMALL_HEAP = "-Xmx64m";
+
+    private static final Memory MEMORY = new Memory(42L, new UUID(1L, 2L), "streamed");
+
+    private static String source(long index) {
+        return "This is the source sentence number " + index + " of the synthetic memory";
+    }
+
+    private static String target(long index) {
+        return "Questa è la frase numero " + index + " della memoria sintetica";
+    }
+
+    /**
+     * A compact corpus of the given size, generated while it is read
+     */
+    private static class SyntheticCompactStream extends InputStream {
+
+        private final long size;
+        private long position = 0;
+        private long units = 0;
+        private byte[] block = new byte[0];
+        private int offset = 0;
+
+        SyntheticCompactStream(long size) {
+            this.size = size;
+        }
+
+        private boolean next() {
+            if (offset < block.length)
+                return true;
+            if (position >= size)
+                return false;
+
+            String tu = source(units) + '\n' + target(units) + '\n' + "0,en it," + units + '\n';
+            block = tu.getBytes(StandardCharsets.UTF_8);
+            offset = 0;
+            units++;
+
+            return true;
+        }
+
+        @Override
+        public int read() {
+            if (!next())
+                return -1;
+
+            position++;
+            return block[offset++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int length) {
+            if (!next())
+                return -1;
+
+            int count = Math.min(length, block.length - offset);
+            System.arraycopy(block, offset, buffer, off, count);
+            offset += count;
+            position += count;
+
+            return count;
+        }
+    }
+
+    /**
+     * A producer that checks the sent packets and then discards them
+     */
+    private static class CheckingProducer extends MockProducer<Integer, KafkaPacket> {
+
+        private long count = 0;
+        private long bytes = 0;
+
+        CheckingProducer() {
+            super(true, new IntegerSerializer(), new KafkaPacketSerializer());
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<Integer, KafkaPacket> record, Callback callback) {
+            KafkaPacket packet = record.value();
+
+            if (packet.getType() != KafkaPacket.TYPE_ADDITION || packet.getMemory() != MEMORY.getId())
+                throw new IllegalStateException("Unexpected packet " + packet);
+            if (!source(count).equals(packet.getSentence()) || !target(count).equals(packet.getTranslation()))
+                throw new IllegalStateException("Unexpected packet at " + count + ": " + packet);
+
+            count++;
+            bytes += packet.toBytes().length;
+
+            Future<RecordMetadata> future = super.send(record, callback);
+            clear();
+
+            return future;
+        }
+    }
+
+    private static KafkaBinaryLog connect(CheckingProducer producer) {
+        KafkaBinaryLog binlog = new KafkaBinaryLog(null, null, null, "test", new BinaryLogConfig(null));
+        binlog.connect(producer);
+        return binlog;
+    }
+
+    private static InputStream gzip(InputStream input) throws IOException {
+        PipedInputStream output = new PipedInputStream(64 * 1024);
+        PipedOutputStream pipe = new PipedOutputStream(output);
+
+        Thread compressor = new Thread(() -> {
+            try (OutputStream stream = new GZIPOutputStream(pipe, 64 * 1024) {{
+                def.setLevel(Deflater.BEST_SPEED);
+            }}) {
+                IOUtils.copyLarge(input, stream, new byte[64 * 1024]);
+            } catch (IOException e) {
+                IOUtils.closeQuietly(pipe);
+            }
+        }, "GzipCompressor");
+        compressor.setDaemon(true);
+        compressor.start();
+
+        return output;
+    }
+
+    private static ImportJob upload(CheckingProducer producer, InputStream body, boolean gzipped) throws BinaryLogException {
+        FileProxy content = new RequestContentFileProxy("memory-" + MEMORY.getId(), body, gzipped);
+
+        KafkaBinaryLog binlog = connect(producer);
+        return binlog.upload(MEMORY, new CompactFileCorpus(content), BinaryLog.MEMORY_UPLOAD_CHANNEL_ID);
+    }
+
+    @Test
+    public void streamedImportCleaningIsSinglePass() {
+        CorporaCleaning.Options options = CorporaCleaning.Options.defaultOptionsForStreamedMemoryImport();
+        assertNull(CorporaCleaning.makeMultilingualFilter(options).getInitializer());
+    }
+
+    @Test
+    public void requestContentIsReadOnce() throws IOException {
+        FileProxy content = new RequestContentFileProxy("memory", new ByteArrayInputStream(new byte[0]), false);
+        content.getInputStream().close();
+
+        try {
+            content.getInputStream();
+            fail("request content read twice");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void uploadStreamedContent() throws Exception {
+        for (boolean gzipped : new boolean[]{false, true}) {
+            SyntheticCompactStream stream = new SyntheticCompactStream(1 << 20);
+            CheckingProducer producer = new CheckingProducer();
+
+            ImportJob job = upload(producer, gzipped ? gzip(stream) : stream, gzipped);
+
+            assertEquals(stream.units, producer.count);
+            assertEquals(stream.units, job.getSize());
+            assertEquals(MEMORY.getId(), job.getMemory());
+            assertEquals(BinaryLog.MEMORY_UPLOAD_CHANNEL_ID, job.getDataChannel());
+            assertEquals(0L, job.getBegin());
+            assertEquals(stream.units - 1, job.getEnd());
+        }
+    }
+
+    @Test
+    public void emptyStreamedContent() throws Exception {
+        CheckingProducer producer = new CheckingProducer();
+
+        assertNull(upload(producer, new ByteArrayInputStream(new byte[0]), false));
+        assertEquals(0, producer.count);
+    }
+
+    @Test
+    public void largeStreamUnderSmallHeap() throws Throwable {
+        String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath();
+        Process process = new ProcessBuilder(java, SMALL_HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                KafkaBinaryLogStreamedUploadTest.class.getName())
+                .redirectErrorStream(true)
+                .start();
+
+        String output = IOUtils.toString(process.getInputStream(), Charset.defaultCharset());
+        assertTrue("upload process did not terminate", process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals(output, 0, process.exitValue());
+
+        String[] lines = output.trim().split("\n");
+        String[] result = lines[lines.length - 1].trim().split(" ");
+        long units = Long.parseLong(result[1]);
+
+        assertTrue(output, Long.parseLong(result[0]) >= LARGE_STREAM_SIZE);
+        assertEquals(output, units, Long.parseLong(result[2]));
+        assertEquals(output, units, Long.parseLong(result[3]));
+        assertEquals(output, units - 1, Long.parseLong(result[4]));
+        assertTrue(output, Long.parseLong(result[5]) > 0);
+    }
+
+    /**
+     * Entry point of the small-heap process: uploads a gzipped corpus many times larger than the heap.
+     * Prints the bytes and the units of the corpus, the packets sent, the size and the end of the job,
+     * and the bytes of the serialized packets.
+     */
+    public static void main(String[] args) throws Throwable {
+        SyntheticCompactStream stream = new SyntheticCompactStream(LARGE_STREAM_SIZE);
+        CheckingProducer producer = new CheckingProducer();
+
+        ImportJob job = upload(producer, gzip(stream), true);
+
+        System.out.println(stream.position + " " + stream.units + " " + producer.count + " " + job.getSize() + " " + job.getEnd() + " " + producer.bytes);
+    }
+
+}
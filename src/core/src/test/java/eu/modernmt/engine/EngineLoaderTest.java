@@ -0,0 +1,219 @@
+package eu.modernmt.engine;
+
+import eu.modernmt.aligner.Aligner;
+import eu.modernmt.config.DecoderConfig;
+import eu.modernmt.config.EngineConfig;
+import eu.modernmt.context.ContextAnalyzer;
+import eu.modernmt.decoder.Decoder;
+import eu.modernmt.decoder.DecoderException;
+import eu.modernmt.decoder.DecoderListener;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.lang.LanguageIndex;
+import eu.modernmt.memory.TranslationMemory;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Priority;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Translation;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class EngineLoaderTest {
+
+    private static final long LOAD_TIME = 300L;
+    private static final File ROOT = new File("engines", "test");
+
+    private static void sleep() {
+        try {
+            Thread.sleep(LOAD_TIME);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stand-in for the neural decoder: takes LOAD_TIME to start
+     */
+    public static class StubDecoder extends Decoder {
+
+        private final File model;
+
+        public StubDecoder(File model, DecoderConfig config) throws DecoderException {
+            super(model, config);
+            this.model = model;
+            sleep();
+        }
+
+        @Override
+        public TranslationMemory getTranslationMemory() {
+            return null;
+        }
+
+        @Override
+        public void setListener(DecoderListener listener) {
+        }
+
+        @Override
+        public boolean isLanguageSupported(LanguageDirection language) {
+            return true;
+        }
+
+        @Override
+        public Translation translate(Priority priority, UUID user, LanguageDirection direction, Sentence text, long expiration) {
+            return Translation.emptyTranslation(text);
+        }
+
+        @Override
+        public Translation translate(Priority priority, UUID user, LanguageDirection direction, Sentence text, ContextVector contextVector, long expiration) {
+            return Translation.emptyTranslation(text);
+        }
+
+        @Override
+        public void test() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Loads stubs in place of the aligner and the context analyzer, each one taking LOAD_TIME to start
+     */
+    private static class StubEngineLoader extends EngineLoader {
+
+        private final AtomicInteger closed = new AtomicInteger();
+
+        StubEngineLoader(EngineConfig config, int threads) {
+            super(config, ROOT, threads);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T stub(Class<T> cls) {
+            sleep();
+
+            return (T) Proxy.newProxyInstance(cls.getClassLoader(), new Class[]{cls}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        closed.incrementAndGet();
+                        return null;
+                    case "toString":
+                        return cls.getSimpleName();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        @Override
+        protected Aligner loadAligner() {
+            return stub(Aligner.class);
+        }
+
+        @Override
+        protected ContextAnalyzer loadContextAnalyzer() {
+            return stub(ContextAnalyzer.class);
+        }
+    }
+
+    private static EngineConfig config() {
+        EngineConfig config = new EngineConfig(null);
+        config.setName("test");
+        config.setLanguageIndex(new LanguageIndex.Builder()
+                .add(new LanguageDirection(Language.ENGLISH, Language.ITALIAN))
+                .add(new LanguageDirection(Language.ITALIAN, Language.ENGLISH))
+                .build());
+        config.getAlignerConfig().setEnabled(true);
+        config.getAnalyzerConfig().setEnabled(true);
+        config.getDecoderConfig().setDecoderClass(StubDecoder.class.getName());
+
+        return config;
+    }
+
+    private static String describe(Engine engine) {
+        return engine.getName() + " " + new TreeSet<>(engine.getAvailableLanguagePairs().stream()
+                .map(LanguageDirection::toString).collect(Collectors.toList())) +
+                " aligner=" + engine.getAligner() +
+                " analyzer=" + engine.getContextAnalyzer() +
+                " decoder=" + engine.getDecoder().getClass().getSimpleName() + ":" + ((StubDecoder) engine.getDecoder()).model +
+                " preprocessor=" + (engine.getPreprocessor() != null) +
+                " postprocessor=" + (engine.getPostprocessor() != null);
+    }
+
+    @Test
+    public void parallelLoadingGivesTheSameEngine() throws Throwable {
+        long begin = System.currentTimeMillis();
+        String sequential;
+        try (Engine engine = new StubEngineLoader(config(), 1).load()) {
+            sequential = describe(engine);
+        }
+        long sequentialTime = System.currentTimeMillis() - begin;
+
+        begin = System.currentTimeMillis();
+        String parallel;
+        try (Engine engine = new StubEngineLoader(config(), Integer.MAX_VALUE).load()) {
+            parallel = describe(engine);
+        }
+        long parallelTime = System.currentTimeMillis() - begin;
+
+        assertEquals(sequential, parallel);
+        assertTrue("sequential: " + sequentialTime + "ms", sequentialTime >= 3 * LOAD_TIME);
+        assertTrue("parallel: " + parallelTime + "ms, sequential: " + sequentialTime + "ms",
+                parallelTime < sequentialTime - LOAD_TIME);
+    }
+
+    @Test
+    public void failureClosesLoadedComponents() {
+        EngineConfig config = config();
+        config.getDecoderConfig().setDecoderClass("eu.modernmt.engine.MissingDecoder");
+
+        StubEngineLoader loader = new StubEngineLoader(config, Integer.MAX_VALUE);
+
+        try {
+            loader.load();
+            fail("BootstrapException expected");
+        } catch (BootstrapException e) {
+            assertEquals("Decoder class not found", e.getMessage());
+        }
+
+        assertEquals(2, loader.closed.get());
+    }
+
+    @Test
+    public void componentsWaitForTheirDependencies() throws Throwable {
+        EngineLoader loader = new EngineLoader(config(), ROOT);
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+        EngineLoader.Component<String> a = loader.add("a", () -> {
+            sleep();
+            events.add("a");
+            return "a";
+        });
+        EngineLoader.Component<String> b = loader.add("b", () -> {
+            events.add("b");
+            return "b";
+        });
+        EngineLoader.Component<String> c = loader.add("c", () -> {
+            events.add("c");
+            return a.get() + b.get() + "c";
+        }, a, b);
+
+        loader.loadComponents();
+
+        assertEquals(Arrays.asList("b", "a", "c"), events);
+        assertEquals("abc", c.get());
+        assertTrue(a.getLoadTime() >= LOAD_TIME);
+    }
+
+}
@@ -0,0 +1,155 @@
+package eu.modernmt.facade;
+
+import eu.modernmt.aligner.Aligner;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Alignment;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Translation;
+import eu.modernmt.processing.Preprocessor;
+import eu.modernmt.processing.tags.projection.TagProjector;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class TagFacadeTest {
+
+    private static final LanguageDirection DIRECTION = new LanguageDirection(Language.ENGLISH, Language.ITALIAN);
+    private static final String[] WORDS = new String[]{"the", "cat", "is", "on", "table", "red", "very", "house", "and", "big"};
+    private static final String[] TAGS = new String[]{"b", "i", "span"};
+
+    /**
+     * Stand-in for a local aligner: aligns every source word to the target word with the same index
+     * and counts the calls it receives.
+     */
+    private static class DiagonalAligner implements Aligner {
+
+        private final AtomicInteger singleCalls = new AtomicInteger();
+        private final AtomicInteger batchCalls = new AtomicInteger();
+
+        private static Alignment align(Sentence source, Sentence target) {
+            int length = Math.min(source.getWords().length, target.getWords().length);
+
+            int[] indexes = new int[length];
+            for (int i = 0; i < length; i++)
+                indexes[i] = i;
+
+            return new Alignment(indexes, indexes.clone());
+        }
+
+        @Override
+        public void setDefaultSymmetrizationStrategy(SymmetrizationStrategy strategy) {
+        }
+
+        @Override
+        public SymmetrizationStrategy getDefaultSymmetrizationStrategy() {
+            return SymmetrizationStrategy.GROW_DIAGONAL_FINAL_AND;
+        }
+
+        @Override
+        public Alignment getAlignment(LanguageDirection direction, Sentence source, Sentence target) {
+            singleCalls.incrementAndGet();
+            return align(source, target);
+        }
+
+        @Override
+        public Alignment[] getAlignments(LanguageDirection direction, List<? extends Sentence> sources, List<? extends Sentence> targets) {
+            batchCalls.incrementAndGet();
+
+            Alignment[] result = new Alignment[sources.size()];
+            for (int i = 0; i < result.length; i++)
+                result[i] = align(sources.get(i), targets.get(i));
+            return result;
+        }
+
+        @Override
+        public Alignment getAlignment(LanguageDirection direction, Sentence source, Sentence target, SymmetrizationStrategy strategy) {
+            return getAlignment(direction, source, target);
+        }
+
+        @Override
+        public Alignment[] getAlignments(LanguageDirection direction, List<? extends Sentence> sources, List<? extends Sentence> targets, SymmetrizationStrategy strategy) {
+            return getAlignments(direction, sources, targets);
+        }
+
+        @Override
+        public boolean isSupported(LanguageDirection direction) {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static String randomSentence(Random random, boolean tagged) {
+        StringBuilder text = new StringBuilder();
+        String open = null;
+
+        int length = 3 + random.nextInt(20);
+        for (int i = 0; i < length; i++) {
+            if (i > 0)
+                text.append(' ');
+
+            if (tagged && open == null && random.nextInt(4) == 0) {
+                open = TAGS[random.nextInt(TAGS.length)];
+                text.append('<').append(open).append('>');
+            }
+
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+
+            if (open != null && random.nextInt(3) == 0) {
+                text.append("</").append(open).append('>');
+                open = null;
+            }
+        }
+
+        if (open != null)
+            text.append("</").append(open).append('>');
+
+        return text.toString();
+    }
+
+    @Test
+    public void batchProjectionMatchesSingleProjections() throws Throwable {
+        Random random = new Random(1);
+
+        List<String> sentences = new ArrayList<>();
+        List<String> translations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sentences.add(randomSentence(random, true));
+            translations.add(randomSentence(random, false));
+        }
+
+        try (Preprocessor preprocessor = new Preprocessor()) {
+            DiagonalAligner aligner = new DiagonalAligner();
+            TagProjector projector = new TagProjector();
+
+            List<String> expected = new ArrayList<>(sentences.size());
+            for (int i = 0; i < sentences.size(); i++) {
+                Sentence sentence = preprocessor.process(DIRECTION, sentences.get(i));
+                Sentence translation = preprocessor.process(DIRECTION.reversed(), translations.get(i));
+                Alignment alignment = aligner.getAlignment(DIRECTION, sentence, translation);
+
+                expected.add(projector.project(new Translation(translation.getWords(), sentence, alignment)).toString());
+            }
+
+            aligner.singleCalls.set(0);
+
+            List<Translation> result = new TagFacade().project(preprocessor, aligner, DIRECTION, sentences, translations, null);
+
+            assertEquals(0, aligner.singleCalls.get());
+            assertEquals(1, aligner.batchCalls.get());
+            assertEquals(expected.size(), result.size());
+
+            for (int i = 0; i < expected.size(); i++)
+                assertEquals(sentences.get(i), expected.get(i), result.get(i).toString());
+        }
+    }
+
+}
@@ -37,6 +37,8 @@ public class DecoderExecutorThread extends Thread {
 
         while ((job = take()) != null) {
             List<TranslationSplit> splits = filter(job.getTranslationSplits());
+            int decodedSentences = 0;
+            long begin = System.nanoTime();
 
             if (!splits.isEmpty()) {
                 PythonDecoder decoder = null;
@@ -53,6 +55,8 @@ public class DecoderExecutorThread extends Thread {
                         executor.align(decoder, language, splits);
                     else
                         executor.translate(decoder, language, splits, job.getSuggestions());
+
+                    decodedSentences = splits.size();
                 } catch (Throwable e) {
                     for (TranslationSplit split : job.getTranslationSplits())
                         split.setException(e);
@@ -61,6 +65,8 @@ public class DecoderExecutorThread extends Thread {
                         queue.release(decoder);
                 }
             }
+
+            scheduler.onJobCompleted(job, decodedSentences, System.nanoTime() - begin);
         }
     }
 
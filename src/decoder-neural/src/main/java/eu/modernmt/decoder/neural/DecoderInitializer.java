@@ -17,7 +17,7 @@ public interface DecoderInitializer {
 
     DecoderQueue createDecoderQueue(DecoderConfig config, ModelConfig modelConfig, File model) throws DecoderException;
 
-    Scheduler createScheduler(DecoderConfig config, ModelConfig modelConfig, int queueSize) throws DecoderException;
+    Scheduler createScheduler(DecoderConfig config, ModelConfig modelConfig, DecoderQueue decoderQueue, int queueSize) throws DecoderException;
 
     DecoderExecutor createDecoderExecutor(DecoderConfig config, ModelConfig modelConfig) throws DecoderException;
 
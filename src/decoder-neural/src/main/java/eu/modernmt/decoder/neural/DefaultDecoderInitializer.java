@@ -4,6 +4,7 @@ import eu.modernmt.config.DecoderConfig;
 import eu.modernmt.decoder.Decoder;
 import eu.modernmt.decoder.DecoderException;
 import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.ShardedTranslationMemory;
 import eu.modernmt.decoder.neural.queue.DecoderQueue;
 import eu.modernmt.decoder.neural.queue.DecoderQueueImpl;
 import eu.modernmt.decoder.neural.queue.PythonDecoder;
@@ -35,7 +36,18 @@ public class DefaultDecoderInitializer implements DecoderInitializer {
 
     @Override
     public TranslationMemory createTranslationMemory(DecoderConfig config, ModelConfig modelConfig, File model) throws IOException {
-        return new LuceneTranslationMemory(model, modelConfig.getQueryMinimumResults());
+        // once sharded, a memory keeps the sharded layout
+        if (modelConfig.isMemorySharded() || ShardedTranslationMemory.isShardedLayout(model)) {
+            ShardedTranslationMemory memory = new ShardedTranslationMemory(model, modelConfig.getQueryMinimumResults());
+            memory.setCommitPolicy(modelConfig.getMemoryCommitInterval(), modelConfig.getMemoryCommitMaxUpdates());
+            memory.setMergePolicy(modelConfig.getMemoryMergeInterval(), modelConfig.getMemoryMergeDeletesPct(), modelConfig.getMemoryMergeMaxMBPerSec());
+            return memory;
+        } else {
+            LuceneTranslationMemory memory = new LuceneTranslationMemory(model, modelConfig.getQueryMinimumResults());
+            memory.setCommitPolicy(modelConfig.getMemoryCommitInterval(), modelConfig.getMemoryCommitMaxUpdates());
+            memory.setMergePolicy(modelConfig.getMemoryMergeInterval(), modelConfig.getMemoryMergeDeletesPct(), modelConfig.getMemoryMergeMaxMBPerSec());
+            return memory;
+        }
     }
 
     @Override
@@ -49,8 +61,8 @@ public class DefaultDecoderInitializer implements DecoderInitializer {
     }
 
     @Override
-    public Scheduler createScheduler(DecoderConfig config, ModelConfig modelConfig, int queueSize) {
-        return new SentenceBatchScheduler(queueSize);
+    public Scheduler createScheduler(DecoderConfig config, ModelConfig modelConfig, DecoderQueue decoderQueue, int queueSize) {
+        return new SentenceBatchScheduler(queueSize, decoderQueue::availability);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package eu.modernmt.decoder.neural;
 
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
 import eu.modernmt.lang.Language;
 import eu.modernmt.lang.LanguageDirection;
 import org.apache.commons.configuration.ConfigurationException;
@@ -83,4 +84,58 @@ public class ModelConfig {
         }
     }
 
+    public long getMemoryCommitInterval() {
+        try {
+            SubnodeConfiguration settings = config.configurationAt("settings");
+            return settings.getLong("memory_commit_interval", LuceneTranslationMemory.DEFAULT_COMMIT_INTERVAL);
+        } catch (IllegalArgumentException iex) {
+            return LuceneTranslationMemory.DEFAULT_COMMIT_INTERVAL;
+        }
+    }
+
+    public int getMemoryCommitMaxUpdates() {
+        try {
+            SubnodeConfiguration settings = config.configurationAt("settings");
+            return settings.getInt("memory_commit_max_updates", LuceneTranslationMemory.DEFAULT_COMMIT_MAX_UPDATES);
+        } catch (IllegalArgumentException iex) {
+            return LuceneTranslationMemory.DEFAULT_COMMIT_MAX_UPDATES;
+        }
+    }
+
+    public long getMemoryMergeInterval() {
+        try {
+            SubnodeConfiguration settings = config.configurationAt("settings");
+            return settings.getLong("memory_merge_interval", LuceneTranslationMemory.DEFAULT_MERGE_INTERVAL);
+        } catch (IllegalArgumentException iex) {
+            return LuceneTranslationMemory.DEFAULT_MERGE_INTERVAL;
+        }
+    }
+
+    public double getMemoryMergeDeletesPct() {
+        try {
+            SubnodeConfiguration settings = config.configurationAt("settings");
+            return settings.getDouble("memory_merge_deletes_pct", LuceneTranslationMemory.DEFAULT_MERGE_DELETES_PCT);
+        } catch (IllegalArgumentException iex) {
+            return LuceneTranslationMemory.DEFAULT_MERGE_DELETES_PCT;
+        }
+    }
+
+    public double getMemoryMergeMaxMBPerSec() {
+        try {
+            SubnodeConfiguration settings = config.configurationAt("settings");
+            return settings.getDouble("memory_merge_max_mb_per_sec", LuceneTranslationMemory.DEFAULT_MERGE_MAX_MB_PER_SEC);
+        } catch (IllegalArgumentException iex) {
+            return LuceneTranslationMemory.DEFAULT_MERGE_MAX_MB_PER_SEC;
+        }
+    }
+
+    public boolean isMemorySharded() {
+        try {
+            SubnodeConfiguration settings = config.configurationAt("settings");
+            return settings.getBoolean("memory_sharding", false);
+        } catch (IllegalArgumentException iex) {
+            return false;
+        }
+    }
+
 }
@@ -14,6 +14,8 @@ import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.lang.UnsupportedLanguageException;
 import eu.modernmt.memory.ScoreEntry;
 import eu.modernmt.memory.TranslationMemory;
+import eu.modernmt.metrics.Gauge;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.model.ContextVector;
 import eu.modernmt.model.Priority;
 import eu.modernmt.model.Sentence;
@@ -26,7 +28,7 @@ import org.apache.logging.log4j.Logger;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  * Created by davide on 22/05/17.
@@ -42,6 +44,7 @@ public class NeuralDecoder extends Decoder implements DataListenerProvider {
     private final Scheduler scheduler;
     private final DecoderExecutorThread[] executors;
     private final DecoderQueue decoderQueue;
+    private final Gauge availabilityGauge;
 
     private volatile long lastSuccessfulTranslation = 0L;
 
@@ -64,18 +67,38 @@ public class NeuralDecoder extends Decoder implements DataListenerProvider {
         this.directions = new HashSet<>(modelConfig.getAvailableModels().keySet());
         this.echoServer = config.isEchoServer();
 
-        // Translation Memory
+        // Translation Memory, opened while the decoder processes start
+        ExecutorService memoryLoader = Executors.newSingleThreadExecutor();
+        Future<TranslationMemory> pendingMemory;
         try {
-            this.memory = init.createTranslationMemory(config, modelConfig, new File(model, "memory"));
-        } catch (IOException e) {
-            throw new DecoderException("Failed to initialize memory", e);
+            pendingMemory = memoryLoader.submit(() -> init.createTranslationMemory(config, modelConfig, new File(model, "memory")));
+        } finally {
+            memoryLoader.shutdown();
         }
 
         // Decoder Queue
-        this.decoderQueue = this.echoServer ? new EchoServerDecoderQueue() : init.createDecoderQueue(config, modelConfig, model);
+        DecoderQueue decoderQueue = null;
+        try {
+            decoderQueue = this.echoServer ? new EchoServerDecoderQueue() : init.createDecoderQueue(config, modelConfig, model);
+        } finally {
+            if (decoderQueue == null)
+                closeQuietly(pendingMemory);
+        }
+
+        try {
+            this.memory = getTranslationMemory(pendingMemory);
+        } catch (DecoderException | RuntimeException | Error e) {
+            IOUtils.closeQuietly(decoderQueue);
+            throw e;
+        }
+
+        this.decoderQueue = decoderQueue;
+
+        this.availabilityGauge = this.decoderQueue::availability;
+        Metrics.gauge("decoder.availability", this.availabilityGauge);
 
         // Scheduler
-        this.scheduler = init.createScheduler(config, modelConfig, config.getQueueSize());
+        this.scheduler = init.createScheduler(config, modelConfig, this.decoderQueue, config.getQueueSize());
 
         // Executors
         DecoderExecutor executor = init.createDecoderExecutor(config, modelConfig);
@@ -86,6 +109,36 @@ public class NeuralDecoder extends Decoder implements DataListenerProvider {
         }
     }
 
+    private static TranslationMemory getTranslationMemory(Future<TranslationMemory> memory) throws DecoderException {
+        try {
+            return memory.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecoderException("Interrupted while initializing memory", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException)
+                throw new DecoderException("Failed to initialize memory", cause);
+            else if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            else if (cause instanceof Error)
+                throw (Error) cause;
+            else
+                throw new Error("Unexpected exception", cause);
+        }
+    }
+
+    private static void closeQuietly(Future<TranslationMemory> memory) {
+        try {
+            IOUtils.closeQuietly(memory.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Ignore it
+        }
+    }
+
     // Decoder
 
     @Override
@@ -105,6 +158,11 @@ public class NeuralDecoder extends Decoder implements DataListenerProvider {
         return this.directions.contains(language);
     }
 
+    @Override
+    public long estimateQueueTime(Priority priority) {
+        return scheduler.estimateQueueTime(priority);
+    }
+
     @Override
     public Translation translate(Priority priority, UUID user, LanguageDirection direction, Sentence text, long timeout) throws DecoderException {
         return translate(priority, user, direction, text, null, timeout);
@@ -184,7 +242,10 @@ public class NeuralDecoder extends Decoder implements DataListenerProvider {
 
         if (text.hasWords() && contextVector != null && !contextVector.isEmpty()) {
             try {
-                entries = memory.search(user, direction, text, contextVector, suggestionsLimit);
+                // an exact match makes the other suggestions useless (see translate())
+                ScoreEntry exactMatch = memory.searchExactMatch(user, direction, text, contextVector);
+                entries = exactMatch == null ?
+                        memory.search(user, direction, text, contextVector, suggestionsLimit) : new ScoreEntry[]{exactMatch};
             } catch (IOException e) {
                 throw new DecoderException("Failed to retrieve suggestions from memory", e);
             }
@@ -237,6 +298,7 @@ public class NeuralDecoder extends Decoder implements DataListenerProvider {
 
     @Override
     public void close() {
+        Metrics.removeGauge("decoder.availability", this.availabilityGauge);
         IOUtils.closeQuietly(this.scheduler);
 
         for (Thread executor : executors) {
@@ -16,8 +16,7 @@ import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.NumericUtils;
 
 import java.nio.ByteBuffer;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Created by davide on 23/05/17.
@@ -29,6 +28,7 @@ public class DefaultDocumentBuilder implements DocumentBuilder {
     private static final String MEMORY_FIELD = "memory";
     private static final String HASH_FIELD = "hash";
     private static final String TUID_HASH_FIELD = "hash_tuid";
+    private static final String EXACT_MATCH_FIELD = "exact";
     private static final String LANGUAGE_PREFIX_FIELD = "lang_";
     private static final String CONTENT_PREFIX_FIELD = "content_";
 
@@ -37,6 +37,9 @@ public class DefaultDocumentBuilder implements DocumentBuilder {
     private static final String SENTENCE_FIELD = "sentence";
     private static final String TRANSLATION_FIELD = "translation";
 
+    private static final Set<String> ENTRY_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            MEMORY_FIELD, TUID_FIELD, SOURCE_LANGUAGE_FIELD, TARGET_LANGUAGE_FIELD, SENTENCE_FIELD, TRANSLATION_FIELD)));
+
     // Factory methods
 
     @Override
@@ -65,6 +68,8 @@ public class DefaultDocumentBuilder implements DocumentBuilder {
         document.add(new StringField(makeLanguageFieldName(language.target), language.target.toLanguageTag(), Field.Store.YES));
         document.add(new TextField(makeContentFieldName(language), sentence, Field.Store.YES));
         document.add(new TextField(makeContentFieldName(language.reversed()), translation, Field.Store.YES));
+        document.add(new StringField(EXACT_MATCH_FIELD, makeExactMatchValue(memory, language, sentence), Field.Store.NO));
+        document.add(new StringField(EXACT_MATCH_FIELD, makeExactMatchValue(memory, language.reversed(), translation), Field.Store.NO));
 
         document.add(new StoredField(SOURCE_LANGUAGE_FIELD, rawLanguage.source.toLanguageTag()));
         document.add(new StoredField(TARGET_LANGUAGE_FIELD, rawLanguage.target.toLanguageTag()));
@@ -195,6 +200,11 @@ public class DefaultDocumentBuilder implements DocumentBuilder {
         return new TranslationMemory.Entry(tuid, memory, new LanguageDirection(source, target), sentence, translation);
     }
 
+    @Override
+    public Set<String> getEntryFields() {
+        return ENTRY_FIELDS;
+    }
+
     @Override
     public Map<Short, Long> asChannels(Document self) {
         HashMap<Short, Long> result = new HashMap<>();
@@ -238,6 +248,11 @@ public class DefaultDocumentBuilder implements DocumentBuilder {
         return new Term(makeLanguageFieldName(language), language.toLanguageTag());
     }
 
+    @Override
+    public Term makeExactMatchTerm(long memory, LanguageDirection direction, String sentence) {
+        return new Term(EXACT_MATCH_FIELD, makeExactMatchValue(memory, direction, sentence));
+    }
+
     // Fields builders
 
     @Override
@@ -255,8 +270,65 @@ public class DefaultDocumentBuilder implements DocumentBuilder {
         return CONTENT_PREFIX_FIELD + direction.source.getLanguage() + '_' + direction.target.getLanguage();
     }
 
+    // Sharding
+
+    /**
+     * Entries are indexed (and searched) in both directions: the shard of a direction is
+     * the unordered pair of its languages, e.g. "en__it" for both en > it and it > en.
+     */
+    @Override
+    public String getShard(LanguageDirection direction) {
+        return makeShardName(direction.source.getLanguage(), direction.target.getLanguage());
+    }
+
+    @Override
+    public String getShard(Document self) {
+        String source = null;
+        String target = null;
+
+        for (IndexableField field : self.getFields()) {
+            String name = field.name();
+
+            if (name.startsWith(LANGUAGE_PREFIX_FIELD)) {
+                String language = name.substring(LANGUAGE_PREFIX_FIELD.length());
+
+                if (source == null) {
+                    source = language;
+                } else {
+                    target = language;
+                    break;
+                }
+            }
+        }
+
+        if (source == null)
+            throw new IllegalArgumentException("Invalid document: missing language info.");
+
+        return makeShardName(source, target == null ? source : target);
+    }
+
+    private static String makeShardName(String language1, String language2) {
+        return language1.compareTo(language2) < 0 ? language1 + "__" + language2 : language2 + "__" + language1;
+    }
+
     // Utils
 
+    /**
+     * Exact match key: the memory and the language pair (as in content field names) followed by a 64-bit
+     * FNV-1a hash and the length of the serialized sentence. Collisions are possible, entries returned
+     * by an exact match query must still be compared with the query sentence.
+     */
+    private static String makeExactMatchValue(long memory, LanguageDirection direction, String sentence) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sentence.length(); i++) {
+            hash ^= sentence.charAt(i);
+            hash *= 1099511628211L;
+        }
+
+        return Long.toHexString(memory) + ':' + direction.source.getLanguage() + '_' + direction.target.getLanguage() + ':' +
+                Long.toHexString(hash) + ':' + Integer.toHexString(sentence.length());
+    }
+
     private static Term makeLongTerm(long value, String field) {
         BytesRefBuilder builder = new BytesRefBuilder();
         NumericUtils.longToPrefixCoded(value, 0, builder);
@@ -9,6 +9,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.Term;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by davide on 23/05/17.
@@ -39,6 +40,8 @@ public interface DocumentBuilder {
 
     TranslationMemory.Entry asEntry(Document self);
 
+    Set<String> getEntryFields();
+
     Map<Short, Long> asChannels(Document self);
 
     // Term constructors
@@ -53,6 +56,8 @@ public interface DocumentBuilder {
 
     Term makeLanguageTerm(Language language);
 
+    Term makeExactMatchTerm(long memory, LanguageDirection direction, String sentence);
+
     // Fields builders
 
     boolean isHashField(String field);
@@ -61,4 +66,10 @@ public interface DocumentBuilder {
 
     String makeContentFieldName(LanguageDirection direction);
 
+    // Sharding
+
+    String getShard(LanguageDirection direction);
+
+    String getShard(Document self);
+
 }
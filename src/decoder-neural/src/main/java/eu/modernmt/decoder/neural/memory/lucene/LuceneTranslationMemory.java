@@ -13,6 +13,9 @@ import eu.modernmt.decoder.neural.memory.lucene.query.QueryBuilder;
 import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.F1BleuRescorer;
 import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.Rescorer;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.model.ContextVector;
 import eu.modernmt.model.Sentence;
 import org.apache.commons.io.FileUtils;
@@ -21,13 +24,14 @@ import org.apache.logging.log4j.Logger;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.DelegatingAnalyzerWrapper;
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.IndexWriter;
-import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.NRTCachingDirectory;
+import org.apache.lucene.store.RateLimitedDirectoryWrapper;
+import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.Version;
 
 import java.io.File;
@@ -35,7 +39,12 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static org.apache.lucene.analysis.Analyzer.PER_FIELD_REUSE_STRATEGY;
@@ -45,6 +54,18 @@ import static org.apache.lucene.analysis.Analyzer.PER_FIELD_REUSE_STRATEGY;
  */
 public class LuceneTranslationMemory implements TranslationMemory {
 
+    public static final long DEFAULT_COMMIT_INTERVAL = 5000L;
+    public static final int DEFAULT_COMMIT_MAX_UPDATES = 10000;
+    public static final long DEFAULT_MERGE_INTERVAL = 60000L;
+    public static final double DEFAULT_MERGE_DELETES_PCT = 20.;
+    public static final double DEFAULT_MERGE_MAX_MB_PER_SEC = 50.;
+
+    private static final Histogram searchTime = Metrics.histogram("memory.search");
+    private static final Histogram commitTime = Metrics.histogram("memory.commit");
+    private static final Histogram mergeTime = Metrics.histogram("memory.merge");
+    private static final Histogram exactSearchTime = Metrics.histogram("memory.search.exact");
+    private static final Counter exactMatches = Metrics.counter("memory.search.exact.hits");
+
     protected final Logger logger = LogManager.getLogger(LuceneTranslationMemory.class);
 
     protected final int minQuerySize;
@@ -57,11 +78,19 @@ public class LuceneTranslationMemory implements TranslationMemory {
     protected final Analyzer longQueryAnalyzer;
     protected final IndexWriter indexWriter;
 
-    private DirectoryReader _indexReader;
-    private IndexSearcher _indexSearcher;
+    private final RateLimitedDirectoryWrapper mergeDirectory;
+    private final TieredMergePolicy mergePolicy;
+    private final SearcherManager searcherManager;
+    private final ScheduledExecutorService committer;
+    private ScheduledFuture<?> commitTask;
+    private ScheduledFuture<?> mergeTask;
+    private int commitMaxUpdates = DEFAULT_COMMIT_MAX_UPDATES;
+    private int pendingUpdates = 0;
+
     private final Map<Short, Long> channels;
+    private Map<Short, Long> committedChannels;
 
-    private boolean closed = false;
+    private volatile boolean closed = false;
 
     protected static File forceMkdir(File directory) throws IOException {
         if (!directory.isDirectory())
@@ -69,6 +98,14 @@ public class LuceneTranslationMemory implements TranslationMemory {
         return directory;
     }
 
+    /**
+     * Opens the index directory caching in RAM the small segments flushed by near-real-time
+     * reopens, so that frequent refreshes do not produce a burst of tiny files on disk.
+     */
+    protected static Directory openDirectory(File indexPath) throws IOException {
+        return new NRTCachingDirectory(FSDirectory.open(forceMkdir(indexPath)), 5., 60.);
+    }
+
     public LuceneTranslationMemory(File indexPath, int minQuerySize) throws IOException {
         this(indexPath, new F1BleuRescorer(), minQuerySize);
     }
@@ -78,7 +115,7 @@ public class LuceneTranslationMemory implements TranslationMemory {
     }
 
     public LuceneTranslationMemory(File indexPath, Rescorer rescorer, int minQuerySize) throws IOException {
-        this(FSDirectory.open(forceMkdir(indexPath)), rescorer, minQuerySize);
+        this(openDirectory(indexPath), rescorer, minQuerySize);
     }
 
     public LuceneTranslationMemory(Directory directory, Rescorer rescorer, int minQuerySize) throws IOException {
@@ -86,7 +123,7 @@ public class LuceneTranslationMemory implements TranslationMemory {
     }
 
     public LuceneTranslationMemory(File indexPath, DocumentBuilder documentBuilder, QueryBuilder queryBuilder, Rescorer rescorer, AnalyzerFactory analyzerFactory, int minQuerySize) throws IOException {
-        this(FSDirectory.open(forceMkdir(indexPath)), documentBuilder, queryBuilder, rescorer, analyzerFactory, minQuerySize);
+        this(openDirectory(indexPath), documentBuilder, queryBuilder, rescorer, analyzerFactory, minQuerySize);
     }
 
     public LuceneTranslationMemory(Directory directory, DocumentBuilder documentBuilder, QueryBuilder queryBuilder, Rescorer rescorer, AnalyzerFactory analyzerFactory, int minQuerySize) throws IOException {
@@ -113,50 +150,127 @@ public class LuceneTranslationMemory implements TranslationMemory {
         indexConfig.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
         indexConfig.setSimilarity(analyzerFactory.createSimilarity());
 
-        this.indexWriter = new IndexWriter(this.indexDirectory, indexConfig);
+        // Every update is a deletion plus an insertion and memories are deleted as a whole: segments
+        // with many deleted documents are merged first, and merges run in background threads
+        // writing at a limited rate, in order not to starve searches of I/O
+        this.mergePolicy = new TieredMergePolicy();
+        this.mergePolicy.setReclaimDeletesWeight(3.0);
+        indexConfig.setMergePolicy(this.mergePolicy);
+        indexConfig.setMergeScheduler(new ConcurrentMergeScheduler());
+
+        this.mergeDirectory = new RateLimitedDirectoryWrapper(this.indexDirectory);
+        this.indexWriter = new IndexWriter(this.mergeDirectory, indexConfig);
 
         // Ensure index exists
         if (!DirectoryReader.indexExists(directory))
             this.indexWriter.commit();
 
-        // Read channels status
-        IndexSearcher searcher = this.getIndexSearcher();
+        // Near-real-time searcher
+        this.searcherManager = new SearcherManager(this.indexWriter, true, new SearcherFactory() {
+            @Override
+            public IndexSearcher newSearcher(IndexReader reader) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+                searcher.setSimilarity(analyzerFactory.createSimilarity());
+                return searcher;
+            }
+        });
 
-        Query query = this.queryBuilder.getChannels(this.documentBuilder);
-        TopDocs docs = searcher.search(query, 1);
+        // Read channels status
+        IndexSearcher searcher = this.acquireSearcher();
 
-        if (docs.scoreDocs.length > 0) {
-            Document channelsDocument = searcher.doc(docs.scoreDocs[0].doc);
-            this.channels = this.documentBuilder.asChannels(channelsDocument);
-        } else {
-            this.channels = new HashMap<>();
+        try {
+            Query query = this.queryBuilder.getChannels(this.documentBuilder);
+            TopDocs docs = searcher.search(query, 1);
+
+            if (docs.scoreDocs.length > 0) {
+                Document channelsDocument = searcher.doc(docs.scoreDocs[0].doc);
+                this.channels = this.documentBuilder.asChannels(channelsDocument);
+            } else {
+                this.channels = new HashMap<>();
+            }
+        } finally {
+            this.releaseSearcher(searcher);
         }
-    }
 
-    protected synchronized IndexReader getIndexReader() throws IOException {
-        if (this._indexReader == null) {
-            this._indexReader = DirectoryReader.open(this.indexDirectory);
-            this._indexReader.incRef();
-            this._indexSearcher = new IndexSearcher(this._indexReader);
-        } else {
-            DirectoryReader reader = DirectoryReader.openIfChanged(this._indexReader);
+        this.committedChannels = new HashMap<>(this.channels);
 
-            if (reader != null) {
-                this._indexReader.close();
-                this._indexReader = reader;
-                this._indexReader.incRef();
+        // Durable commits
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "TranslationMemoryCommitter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.setCommitPolicy(DEFAULT_COMMIT_INTERVAL, DEFAULT_COMMIT_MAX_UPDATES);
+        this.setMergePolicy(DEFAULT_MERGE_INTERVAL, DEFAULT_MERGE_DELETES_PCT, DEFAULT_MERGE_MAX_MB_PER_SEC);
+    }
 
-                this._indexSearcher = new IndexSearcher(this._indexReader);
-                this._indexSearcher.setSimilarity(analyzerFactory.createSimilarity());
+    /**
+     * Updates are visible to searches as soon as onDataReceived() returns, while the durable commit
+     * of the index (and of the channel positions) is performed every "interval" milliseconds or as soon as
+     * "maxUpdates" updates are pending, whichever comes first. Updates not yet committed at crash time
+     * are replayed from the binary log, starting from the last committed channel positions.
+     *
+     * @param interval   the maximum time in milliseconds between two durable commits
+     * @param maxUpdates the maximum number of updates pending commit
+     */
+    public synchronized void setCommitPolicy(long interval, int maxUpdates) {
+        if (commitTask != null)
+            commitTask.cancel(false);
+
+        this.commitMaxUpdates = maxUpdates;
+        this.commitTask = committer.scheduleWithFixedDelay(() -> {
+            try {
+                commitIfPending();
+            } catch (Throwable e) {
+                logger.error("Failed to commit translation memory", e);
             }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Every "interval" milliseconds the segments with more than "deletesPct" percent of deleted documents
+     * are merged in background, reclaiming the space of updated and deleted entries without rewriting
+     * the rest of the index. Merges run concurrently with updates and searches, writing at most
+     * "maxMBPerSec" megabytes per second; merged segments become durable with the next commit.
+     *
+     * @param interval   the time in milliseconds between two checks of the deleted documents, 0 to disable
+     * @param deletesPct the percentage of deleted documents above which a segment is merged
+     * @param maxMBPerSec the maximum write rate of merges in MB/s, 0 for no limit
+     */
+    public synchronized void setMergePolicy(long interval, double deletesPct, double maxMBPerSec) {
+        if (mergeTask != null)
+            mergeTask.cancel(false);
+
+        this.mergePolicy.setForceMergeDeletesPctAllowed(deletesPct);
+        this.mergeDirectory.setMaxWriteMBPerSec(maxMBPerSec > 0 ? maxMBPerSec : null, IOContext.Context.MERGE);
+
+        if (interval > 0) {
+            this.mergeTask = committer.scheduleWithFixedDelay(() -> {
+                try {
+                    mergeDeletesIfNeeded();
+                } catch (Throwable e) {
+                    logger.error("Failed to merge translation memory", e);
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.mergeTask = null;
         }
+    }
 
-        return this._indexReader;
+    /**
+     * Returns a searcher on the latest version of the index, including uncommitted updates.
+     * The searcher must be released with releaseSearcher() after use.
+     *
+     * @return a searcher on the latest version of the index
+     * @throws IOException if an I/O error occurs while refreshing the searcher
+     */
+    public IndexSearcher acquireSearcher() throws IOException {
+        this.searcherManager.maybeRefresh();
+        return this.searcherManager.acquire();
     }
 
-    public IndexSearcher getIndexSearcher() throws IOException {
-        getIndexReader();
-        return this._indexSearcher;
+    public void releaseSearcher(IndexSearcher searcher) throws IOException {
+        this.searcherManager.release(searcher);
     }
 
     public IndexWriter getIndexWriter() {
@@ -170,55 +284,76 @@ public class LuceneTranslationMemory implements TranslationMemory {
     @Override
     public long size() {
         try {
-            IndexReader reader = getIndexReader();
-            return Math.max(reader.numDocs(), reader.maxDoc() - 1);
+            IndexSearcher searcher = acquireSearcher();
+
+            try {
+                IndexReader reader = searcher.getIndexReader();
+                return Math.max(reader.numDocs(), reader.maxDoc() - 1);
+            } finally {
+                releaseSearcher(searcher);
+            }
         } catch (IOException e) {
-            logger.warn("Error while invoking getIndexReader()", e);
+            logger.warn("Error while invoking acquireSearcher()", e);
             return 0;
         }
     }
 
     @Override
     public void dump(UUID owner, long memory, Consumer<Entry> consumer) throws IOException {
-        IndexSearcher searcher = getIndexSearcher();
-        IndexReader reader = getIndexReader();
-
-        int size = reader.numDocs();
-        if (size == 0)
-            return;
-
-        Query memoryQuery = new TermQuery(documentBuilder.makeMemoryTerm(memory));
-        TopDocs docs = searcher.search(memoryQuery, size);
-
-        for (ScoreDoc scoreDoc : docs.scoreDocs) {
-            Document document = reader.document(scoreDoc.doc);
-            if (documentBuilder.getMemory(document) > 0) {
-                TranslationMemory.Entry entry = documentBuilder.asEntry(document);
-                consumer.accept(entry);
-            }
-        }
+        dump(documentBuilder.makeMemoryTerm(memory), consumer);
     }
 
     @Override
     public void dumpAll(Consumer<Entry> consumer) throws IOException {
-        IndexSearcher searcher = getIndexSearcher();
-        IndexReader reader = getIndexReader();
-
-        int size = reader.numDocs();
-        if (size == 0)
-            return;
+        dump(null, consumer);
+    }
 
-        TopDocs docs = searcher.search(new MatchAllDocsQuery(), size);
+    /**
+     * Streams the entries of the index segment by segment, loading one document at a time
+     * and only the stored fields required to build the entry: memory usage does not depend on the
+     * size of the index.
+     *
+     * @param term     if not null, only documents containing this term are visited
+     * @param consumer the entries consumer
+     * @throws IOException if an I/O error occurs while reading the index
+     */
+    private void dump(Term term, Consumer<Entry> consumer) throws IOException {
+        IndexSearcher searcher = acquireSearcher();
+        Set<String> fields = documentBuilder.getEntryFields();
 
-        for (ScoreDoc scoreDoc : docs.scoreDocs) {
-            Document document = reader.document(scoreDoc.doc);
-            if (documentBuilder.getMemory(document) > 0) {
-                TranslationMemory.Entry entry = documentBuilder.asEntry(document);
-                consumer.accept(entry);
+        try {
+            for (AtomicReaderContext leaf : searcher.getIndexReader().leaves()) {
+                AtomicReader segment = leaf.reader();
+
+                if (term == null) {
+                    Bits liveDocs = segment.getLiveDocs();
+                    int maxDoc = segment.maxDoc();
+
+                    for (int doc = 0; doc < maxDoc; doc++) {
+                        if (liveDocs == null || liveDocs.get(doc))
+                            dump(segment, doc, fields, consumer);
+                    }
+                } else {
+                    DocsEnum docs = segment.termDocsEnum(term);
+                    if (docs == null)
+                        continue;
+
+                    int doc;
+                    while ((doc = docs.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS)
+                        dump(segment, doc, fields, consumer);
+                }
             }
+        } finally {
+            releaseSearcher(searcher);
         }
     }
 
+    private void dump(AtomicReader segment, int doc, Set<String> fields, Consumer<Entry> consumer) throws IOException {
+        Document document = segment.document(doc, fields);
+        if (documentBuilder.getMemory(document) > 0)
+            consumer.accept(documentBuilder.asEntry(document));
+    }
+
     // TranslationMemory
 
     @Override
@@ -227,18 +362,47 @@ public class LuceneTranslationMemory implements TranslationMemory {
     }
 
     public ScoreEntry[] search(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector, Rescorer rescorer, int limit) throws IOException {
+        long begin = System.nanoTime();
+
+        try {
+            return doSearch(user, direction, source, contextVector, rescorer, limit);
+        } finally {
+            searchTime.updateSince(begin);
+        }
+    }
+
+    @Override
+    public ScoreEntry searchExactMatch(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector) throws IOException {
+        long begin = System.nanoTime();
+
+        try {
+            ScoreEntry entry = doSearchExactMatch(direction, source, contextVector);
+            if (entry != null)
+                exactMatches.increment();
+            return entry;
+        } finally {
+            exactSearchTime.updateSince(begin);
+        }
+    }
+
+    private ScoreEntry[] doSearch(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector, Rescorer rescorer, int limit) throws IOException {
         Analyzer analyzer = this.queryBuilder.isLongQuery(source.getWords().length) ? longQueryAnalyzer : shortQueryAnalyzer;
         Query query = this.queryBuilder.bestMatchingSuggestion(documentBuilder, analyzer, user, direction, source, contextVector);
 
-        IndexSearcher searcher = getIndexSearcher();
-
         int queryLimit = Math.max(this.minQuerySize, limit * 2);
-        ScoreDoc[] docs = searcher.search(query, queryLimit).scoreDocs;
+        ScoreEntry[] entries;
 
-        ScoreEntry[] entries = new ScoreEntry[docs.length];
-        for (int i = 0; i < docs.length; i++) {
-            entries[i] = documentBuilder.asScoreEntry(searcher.doc(docs[i].doc), direction);
-            entries[i].score = docs[i].score;
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            ScoreDoc[] docs = searcher.search(query, queryLimit).scoreDocs;
+
+            entries = new ScoreEntry[docs.length];
+            for (int i = 0; i < docs.length; i++) {
+                entries[i] = documentBuilder.asScoreEntry(searcher.doc(docs[i].doc), direction);
+                entries[i].score = docs[i].score;
+            }
+        } finally {
+            releaseSearcher(searcher);
         }
 
         if (rescorer != null)
@@ -253,20 +417,130 @@ public class LuceneTranslationMemory implements TranslationMemory {
         return entries;
     }
 
+    /**
+     * Looks up the entries whose sentence is identical to the query, in the memories of the context vector.
+     * Since no entry can score more than an identical one with full context score (1.0), if such an entry
+     * exists it is the best suggestion the fuzzy search would return.
+     *
+     * @return the best exact match, or null if no entry scores 1.0
+     */
+    private ScoreEntry doSearchExactMatch(LanguageDirection direction, Sentence source, ContextVector contextVector) throws IOException {
+        if (this.rescorer == null || contextVector == null || contextVector.isEmpty())
+            return null;
+
+        Query query = this.queryBuilder.exactMatch(documentBuilder, direction, source, contextVector);
+        ScoreEntry[] entries;
+
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            ScoreDoc[] docs = searcher.search(query, this.minQuerySize).scoreDocs;
+            if (docs.length == 0)
+                return null;
+
+            entries = new ScoreEntry[docs.length];
+            for (int i = 0; i < docs.length; i++)
+                entries[i] = documentBuilder.asScoreEntry(searcher.doc(docs[i].doc), direction);
+        } finally {
+            releaseSearcher(searcher);
+        }
+
+        entries = this.rescorer.rescore(direction, source, entries, contextVector);
+        return entries[0].score < 1.f ? null : entries[0];
+    }
+
+    /**
+     * Merges the segments with more deleted documents than the merge policy allows and waits for the merges
+     * to complete. Updates and searches are not blocked while merging.
+     */
     @Override
-    public synchronized void optimize() throws IOException {
-        IndexReader reader = getIndexReader();
-        logger.info("Starting memory forced merge " +
-                "(deleted-docs = " + reader.numDeletedDocs() + ", size = " + reader.numDocs() + ", max-doc = " + reader.maxDoc());
+    public void optimize() throws IOException {
+        logger.info("Starting memory merge of deleted documents " + getIndexStats());
+
+        long begin = System.nanoTime();
+        this.indexWriter.forceMergeDeletes(true);
+        this.commit();
+        this.searcherManager.maybeRefreshBlocking();
+        mergeTime.updateSince(begin);
+
+        long elapsed = (System.nanoTime() - begin) / 1000000L;
+        logger.info("Memory merge of deleted documents completed in " + (elapsed / 1000.) + "s " + getIndexStats());
+    }
 
-        long begin = System.currentTimeMillis();
-        this.indexWriter.forceMerge(1);
+    /**
+     * Schedules the merge of the segments with more deleted documents than the merge policy allows,
+     * if any: merges are executed by the merge scheduler threads.
+     */
+    private void mergeDeletesIfNeeded() throws IOException {
+        if (closed)
+            return;
+
+        double maxDeletesPct = mergePolicy.getForceMergeDeletesPctAllowed();
+        boolean needsMerge = false;
+
+        IndexSearcher searcher = acquireSearcher();
+        try {
+            for (AtomicReaderContext leaf : searcher.getIndexReader().leaves()) {
+                AtomicReader segment = leaf.reader();
+
+                if (100. * segment.numDeletedDocs() / segment.maxDoc() > maxDeletesPct) {
+                    needsMerge = true;
+                    break;
+                }
+            }
+        } finally {
+            releaseSearcher(searcher);
+        }
+
+        if (needsMerge) {
+            logger.info("Merging memory segments with deleted documents " + getIndexStats());
+            this.indexWriter.forceMergeDeletes(false);
+        }
+    }
+
+    private String getIndexStats() throws IOException {
+        IndexSearcher searcher = acquireSearcher();
+
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            return "(deleted-docs = " + reader.numDeletedDocs() + ", size = " + reader.numDocs() + ", max-doc = " + reader.maxDoc() + ")";
+        } finally {
+            releaseSearcher(searcher);
+        }
+    }
+
+    // Durable commit
+
+    private synchronized void commitIfPending() throws IOException {
+        if (!closed && isCommitPending())
+            commit();
+    }
+
+    /**
+     * A commit is pending if there are uncommitted updates or if the channel positions moved, e.g. because
+     * of batches with no updates for this index: persisting them reduces the replay after a restart.
+     */
+    private boolean isCommitPending() {
+        return pendingUpdates > 0 || !channels.equals(committedChannels);
+    }
+
+    /**
+     * Writes the channels document with the positions of the updates applied so far and
+     * commits the index: channel positions are persisted only together with the data they refer to.
+     *
+     * @throws IOException if an I/O error occurs while committing the index
+     */
+    public synchronized void commit() throws IOException {
+        long begin = System.nanoTime();
+
+        HashMap<Short, Long> positions = new HashMap<>(this.channels);
+        Document channelsDocument = documentBuilder.create(positions);
+        this.indexWriter.updateDocument(documentBuilder.makeChannelsTerm(), channelsDocument);
         this.indexWriter.commit();
-        long elapsed = System.currentTimeMillis() - begin;
 
-        reader = getIndexReader();
-        logger.info("Memory forced merge completed in " + (elapsed / 1000.) + "s " +
-                "(deleted-docs = " + reader.numDeletedDocs() + ", size = " + reader.numDocs() + ", max-doc = " + reader.maxDoc());
+        this.committedChannels = positions;
+        this.pendingUpdates = 0;
+
+        commitTime.updateSince(begin);
     }
 
     // DataListener
@@ -282,7 +556,7 @@ public class LuceneTranslationMemory implements TranslationMemory {
             this.onTranslationUnitsReceived(batch.getTranslationUnits());
             this.onDeletionsReceived(batch.getDeletions());
 
-            // Writing channels
+            // Updating channels, they will be persisted with the next commit
             HashMap<Short, Long> newChannels = new HashMap<>(this.channels);
             for (Map.Entry<Short, Long> entry : batch.getChannelPositions().entrySet()) {
                 Long position = entry.getValue();
@@ -292,16 +566,22 @@ public class LuceneTranslationMemory implements TranslationMemory {
                     newChannels.put(entry.getKey(), position);
             }
 
-            Document channelsDocument = documentBuilder.create(newChannels);
-            this.indexWriter.updateDocument(documentBuilder.makeChannelsTerm(), channelsDocument);
-            this.indexWriter.commit();
-
+            this.pendingUpdates += batch.getTranslationUnits().size() + batch.getDeletions().size();
+            this.searcherManager.maybeRefreshBlocking();
             this.channels.putAll(newChannels);
 
+            if (this.pendingUpdates >= this.commitMaxUpdates)
+                this.commit();
+
             success = true;
         } finally {
-            if (!success)
+            if (!success) {
                 this.indexWriter.rollback();
+
+                this.channels.clear();
+                this.channels.putAll(this.committedChannels);
+                this.pendingUpdates = 0;
+            }
         }
     }
 
@@ -355,17 +635,28 @@ public class LuceneTranslationMemory implements TranslationMemory {
 
     @Override
     public synchronized void close() throws IOException {
+        if (this.closed)
+            return;
+
         this.closed = true;
+        this.committer.shutdownNow();
 
         IOException error = null;
 
         try {
-            if (this._indexReader != null)
-                this._indexReader.close();
+            if (isCommitPending())
+                this.commit();
         } catch (IOException e) {
             error = e;
         }
 
+        try {
+            this.searcherManager.close();
+        } catch (IOException e) {
+            if (error == null)
+                error = e;
+        }
+
         try {
             if (this.indexWriter != null)
                 this.indexWriter.close();
@@ -0,0 +1,422 @@
+package eu.modernmt.decoder.neural.memory.lucene;
+
+import eu.modernmt.data.DataBatch;
+import eu.modernmt.data.DeletionMessage;
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.analysis.AnalyzerFactory;
+import eu.modernmt.decoder.neural.memory.lucene.analysis.DefaultAnalyzerFactory;
+import eu.modernmt.decoder.neural.memory.lucene.query.DefaultQueryBuilder;
+import eu.modernmt.decoder.neural.memory.lucene.query.QueryBuilder;
+import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.F1BleuRescorer;
+import eu.modernmt.decoder.neural.memory.lucene.query.rescoring.Rescorer;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.memory.TranslationMemory;
+import eu.modernmt.model.ContextVector;
+import eu.modernmt.model.Sentence;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.FixedBitSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * A translation memory made of one LuceneTranslationMemory per shard, the shard of an entry
+ * being decided by {@link DocumentBuilder#getShard(LanguageDirection)} (by default its language pair).
+ * Searches go to the shard of the requested direction only; every shard has its own term dictionaries,
+ * commits and merges, and tracks its own channel positions.
+ * <p>
+ * Shards are stored in the "shards" folder of the memory path. A memory path containing a single
+ * index (the layout of LuceneTranslationMemory) is split into shards the first time it is opened.
+ */
+public class ShardedTranslationMemory implements TranslationMemory {
+
+    private static final String SHARDS_FOLDER = "shards";
+
+    private final Logger logger = LogManager.getLogger(ShardedTranslationMemory.class);
+
+    private final File shardsPath;
+    private final DocumentBuilder documentBuilder;
+    private final QueryBuilder queryBuilder;
+    private final Rescorer rescorer;
+    private final AnalyzerFactory analyzerFactory;
+    private final int minQuerySize;
+
+    private final ConcurrentHashMap<String, LuceneTranslationMemory> shards = new ConcurrentHashMap<>();
+    private long commitInterval = LuceneTranslationMemory.DEFAULT_COMMIT_INTERVAL;
+    private int commitMaxUpdates = LuceneTranslationMemory.DEFAULT_COMMIT_MAX_UPDATES;
+    private long mergeInterval = LuceneTranslationMemory.DEFAULT_MERGE_INTERVAL;
+    private double mergeDeletesPct = LuceneTranslationMemory.DEFAULT_MERGE_DELETES_PCT;
+    private double mergeMaxMBPerSec = LuceneTranslationMemory.DEFAULT_MERGE_MAX_MB_PER_SEC;
+
+    private boolean closed = false;
+
+    public static boolean isShardedLayout(File path) {
+        return new File(path, SHARDS_FOLDER).isDirectory();
+    }
+
+    public ShardedTranslationMemory(File path, int minQuerySize) throws IOException {
+        this(path, new DefaultDocumentBuilder(), new DefaultQueryBuilder(), new F1BleuRescorer(), new DefaultAnalyzerFactory(), minQuerySize);
+    }
+
+    public ShardedTranslationMemory(File path, DocumentBuilder documentBuilder, QueryBuilder queryBuilder, Rescorer rescorer, AnalyzerFactory analyzerFactory, int minQuerySize) throws IOException {
+        this.shardsPath = new File(path, SHARDS_FOLDER);
+        this.documentBuilder = documentBuilder;
+        this.queryBuilder = queryBuilder;
+        this.rescorer = rescorer;
+        this.analyzerFactory = analyzerFactory;
+        this.minQuerySize = minQuerySize;
+
+        if (!isShardedLayout(path)) {
+            File temp = new File(path, SHARDS_FOLDER + ".tmp");
+            FileUtils.deleteDirectory(temp);
+
+            boolean migrate = hasIndex(path);
+            if (migrate)
+                split(path, temp);
+
+            FileUtils.forceMkdir(temp);
+            Files.move(temp.toPath(), shardsPath.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            // Remove the single index: it has been split into shards
+            if (migrate)
+                deleteIndexFiles(path);
+        }
+
+        File[] folders = shardsPath.listFiles(File::isDirectory);
+        if (folders != null) {
+            for (File folder : folders)
+                shards.put(folder.getName(), openShard(folder));
+        }
+    }
+
+    private LuceneTranslationMemory openShard(File folder) throws IOException {
+        LuceneTranslationMemory shard = new LuceneTranslationMemory(folder, documentBuilder, queryBuilder, rescorer, analyzerFactory, minQuerySize);
+        shard.setCommitPolicy(commitInterval, commitMaxUpdates);
+        shard.setMergePolicy(mergeInterval, mergeDeletesPct, mergeMaxMBPerSec);
+        return shard;
+    }
+
+    /**
+     * Returns the shard with the given name, creating it if needed. A new shard starts from the
+     * current channel positions: all the updates it missed were about other shards.
+     */
+    private LuceneTranslationMemory getOrCreateShard(String name) throws IOException {
+        LuceneTranslationMemory shard = shards.get(name);
+
+        if (shard == null) {
+            Map<Short, Long> positions = getLatestChannelPositions();
+
+            shard = openShard(new File(shardsPath, name));
+            shard.onDataReceived(new ShardBatch(positions));
+            shard.commit();
+
+            shards.put(name, shard);
+        }
+
+        return shard;
+    }
+
+    public synchronized void setCommitPolicy(long interval, int maxUpdates) {
+        this.commitInterval = interval;
+        this.commitMaxUpdates = maxUpdates;
+
+        for (LuceneTranslationMemory shard : shards.values())
+            shard.setCommitPolicy(interval, maxUpdates);
+    }
+
+    public synchronized void setMergePolicy(long interval, double deletesPct, double maxMBPerSec) {
+        this.mergeInterval = interval;
+        this.mergeDeletesPct = deletesPct;
+        this.mergeMaxMBPerSec = maxMBPerSec;
+
+        for (LuceneTranslationMemory shard : shards.values())
+            shard.setMergePolicy(interval, deletesPct, maxMBPerSec);
+    }
+
+    public Map<String, LuceneTranslationMemory> getShards() {
+        return Collections.unmodifiableMap(shards);
+    }
+
+    // Migration
+
+    private static boolean hasIndex(File path) throws IOException {
+        try (Directory directory = FSDirectory.open(path)) {
+            return DirectoryReader.indexExists(directory);
+        }
+    }
+
+    private static boolean isIndexFile(File file) {
+        String name = file.getName();
+        return name.startsWith(IndexFileNames.SEGMENTS) || IndexWriter.WRITE_LOCK_NAME.equals(name) ||
+                IndexFileNames.CODEC_FILE_PATTERN.matcher(name).matches();
+    }
+
+    private static void deleteIndexFiles(File path) throws IOException {
+        File[] files = path.listFiles(file -> file.isFile() && isIndexFile(file));
+        if (files == null)
+            return;
+
+        // segments files first: an index without them does not exist anymore
+        Arrays.sort(files, Comparator.comparing(file -> !file.getName().startsWith(IndexFileNames.SEGMENTS)));
+
+        for (File file : files)
+            FileUtils.forceDelete(file);
+    }
+
+    /**
+     * Copies the documents of the single index in "path" to one new index per shard in "destination".
+     * Documents are copied with addIndexes(), including the fields that are indexed but not stored.
+     */
+    private void split(File path, File destination) throws IOException {
+        logger.info("Splitting translation memory " + path + " into shards");
+        long begin = System.currentTimeMillis();
+
+        try (Directory directory = FSDirectory.open(path);
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            Map<Short, Long> channels = readChannels(reader);
+
+            // Shard of every live document
+            HashMap<String, FixedBitSet[]> shardDocs = new HashMap<>();
+            List<AtomicReaderContext> leaves = reader.leaves();
+
+            for (AtomicReaderContext leaf : leaves) {
+                AtomicReader segment = leaf.reader();
+                Bits liveDocs = segment.getLiveDocs();
+
+                for (int doc = 0; doc < segment.maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc))
+                        continue;
+
+                    Document document = segment.document(doc);
+                    if (documentBuilder.getMemory(document) == 0)  // channels document
+                        continue;
+
+                    String shard = documentBuilder.getShard(document);
+                    FixedBitSet[] docs = shardDocs.computeIfAbsent(shard, key -> new FixedBitSet[leaves.size()]);
+                    if (docs[leaf.ord] == null)
+                        docs[leaf.ord] = new FixedBitSet(segment.maxDoc());
+                    docs[leaf.ord].set(doc);
+                }
+            }
+
+            for (Map.Entry<String, FixedBitSet[]> entry : shardDocs.entrySet()) {
+                ArrayList<IndexReader> segments = new ArrayList<>(leaves.size());
+
+                for (AtomicReaderContext leaf : leaves) {
+                    FixedBitSet docs = entry.getValue()[leaf.ord];
+                    if (docs != null)
+                        segments.add(new FilteredSegmentReader(leaf.reader(), docs));
+                }
+
+                try (LuceneTranslationMemory shard = new LuceneTranslationMemory(new File(destination, entry.getKey()),
+                        documentBuilder, queryBuilder, rescorer, analyzerFactory, minQuerySize)) {
+                    shard.getIndexWriter().addIndexes(segments.toArray(new IndexReader[0]));
+                    shard.onDataReceived(new ShardBatch(channels));
+                    shard.commit();
+                }
+            }
+
+            logger.info("Translation memory split into " + shardDocs.size() + " shards in " +
+                    ((System.currentTimeMillis() - begin) / 1000.) + "s");
+        }
+    }
+
+    private Map<Short, Long> readChannels(DirectoryReader reader) throws IOException {
+        IndexSearcher searcher = new IndexSearcher(reader);
+        TopDocs docs = searcher.search(queryBuilder.getChannels(documentBuilder), 1);
+
+        if (docs.scoreDocs.length > 0)
+            return documentBuilder.asChannels(searcher.doc(docs.scoreDocs[0].doc));
+        else
+            return Collections.emptyMap();
+    }
+
+    private static final class FilteredSegmentReader extends FilterAtomicReader {
+
+        private final FixedBitSet liveDocs;
+        private final int numDocs;
+
+        FilteredSegmentReader(AtomicReader in, FixedBitSet liveDocs) {
+            super(in);
+            this.liveDocs = liveDocs;
+            this.numDocs = liveDocs.cardinality();
+        }
+
+        @Override
+        public Bits getLiveDocs() {
+            return liveDocs;
+        }
+
+        @Override
+        public int numDocs() {
+            return numDocs;
+        }
+
+    }
+
+    // TranslationMemory
+
+    @Override
+    public ScoreEntry[] search(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector, int limit) throws IOException {
+        LuceneTranslationMemory shard = shards.get(documentBuilder.getShard(direction));
+        return shard == null ? new ScoreEntry[0] : shard.search(user, direction, source, contextVector, limit);
+    }
+
+    @Override
+    public ScoreEntry searchExactMatch(UUID user, LanguageDirection direction, Sentence source, ContextVector contextVector) throws IOException {
+        LuceneTranslationMemory shard = shards.get(documentBuilder.getShard(direction));
+        return shard == null ? null : shard.searchExactMatch(user, direction, source, contextVector);
+    }
+
+    @Override
+    public void optimize() throws IOException {
+        for (LuceneTranslationMemory shard : shards.values())
+            shard.optimize();
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (LuceneTranslationMemory shard : shards.values())
+            size += shard.size();
+        return size;
+    }
+
+    @Override
+    public void dumpAll(Consumer<Entry> consumer) throws IOException {
+        for (LuceneTranslationMemory shard : shards.values())
+            shard.dumpAll(consumer);
+    }
+
+    @Override
+    public void dump(UUID owner, long memory, Consumer<Entry> consumer) throws IOException {
+        for (LuceneTranslationMemory shard : shards.values())
+            shard.dump(owner, memory, consumer);
+    }
+
+    // DataListener
+
+    @Override
+    public synchronized void onDataReceived(DataBatch batch) throws IOException {
+        if (closed)
+            return;
+
+        HashMap<String, ShardBatch> batches = new HashMap<>();
+        for (String name : shards.keySet())
+            batches.put(name, new ShardBatch(batch.getChannelPositions()));
+
+        for (TranslationUnitMessage unit : batch.getTranslationUnits()) {
+            String name = documentBuilder.getShard(unit.language);
+            getOrCreateShard(name);
+
+            batches.computeIfAbsent(name, key -> new ShardBatch(batch.getChannelPositions())).units.add(unit);
+        }
+
+        // Deletions are about memories, that can span every shard
+        for (ShardBatch shardBatch : batches.values())
+            shardBatch.deletions.addAll(batch.getDeletions());
+
+        for (Map.Entry<String, ShardBatch> entry : batches.entrySet())
+            shards.get(entry.getKey()).onDataReceived(entry.getValue());
+    }
+
+    @Override
+    public boolean needsProcessing() {
+        return true;
+    }
+
+    @Override
+    public boolean needsAlignment() {
+        return false;
+    }
+
+    /**
+     * Returns, for every channel, the minimum position among the shards: all the shards have applied
+     * the updates up to that position. If a shard never received a channel, the channel is omitted,
+     * in order to be replayed from the beginning.
+     */
+    @Override
+    public synchronized Map<Short, Long> getLatestChannelPositions() {
+        HashMap<Short, Long> result = null;
+
+        for (LuceneTranslationMemory shard : shards.values()) {
+            Map<Short, Long> positions = shard.getLatestChannelPositions();
+
+            if (result == null) {
+                result = new HashMap<>(positions);
+            } else {
+                result.keySet().retainAll(positions.keySet());
+                for (Map.Entry<Short, Long> entry : result.entrySet())
+                    entry.setValue(Math.min(entry.getValue(), positions.get(entry.getKey())));
+            }
+        }
+
+        return result == null ? new HashMap<>() : result;
+    }
+
+    // Closeable
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+
+        IOException error = null;
+        for (LuceneTranslationMemory shard : shards.values()) {
+            try {
+                shard.close();
+            } catch (IOException e) {
+                if (error == null)
+                    error = e;
+            }
+        }
+
+        if (error != null)
+            throw error;
+    }
+
+    private static final class ShardBatch implements DataBatch {
+
+        private final ArrayList<TranslationUnitMessage> units = new ArrayList<>();
+        private final ArrayList<DeletionMessage> deletions = new ArrayList<>();
+        private final Map<Short, Long> positions;
+
+        ShardBatch(Map<Short, Long> positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public Collection<TranslationUnitMessage> getTranslationUnits() {
+            return units;
+        }
+
+        @Override
+        public Collection<DeletionMessage> getDeletions() {
+            return deletions;
+        }
+
+        @Override
+        public Map<Short, Long> getChannelPositions() {
+            return positions;
+        }
+
+    }
+
+}
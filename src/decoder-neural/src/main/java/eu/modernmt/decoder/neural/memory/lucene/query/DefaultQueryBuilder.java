@@ -4,6 +4,7 @@ import eu.modernmt.data.HashGenerator;
 import eu.modernmt.decoder.neural.memory.lucene.DocumentBuilder;
 import eu.modernmt.io.TokensOutputStream;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.lucene.FilterCache;
 import eu.modernmt.model.ContextVector;
 import eu.modernmt.model.Sentence;
 import org.apache.lucene.analysis.Analyzer;
@@ -15,6 +16,8 @@ import org.apache.lucene.search.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -23,6 +26,24 @@ import java.util.UUID;
 public class DefaultQueryBuilder implements QueryBuilder {
 
     public static final int SHORT_QUERY_SIZE = 4;
+    public static final long DEFAULT_FILTER_CACHE_SIZE = 64L * 1024 * 1024;
+
+    private final FilterCache<Set<Long>> contextFilters;
+
+    public DefaultQueryBuilder() {
+        this(DEFAULT_FILTER_CACHE_SIZE);
+    }
+
+    /**
+     * @param filterCacheSize the maximum memory (in bytes) of the cached context filters, 0 to disable the cache
+     */
+    public DefaultQueryBuilder(long filterCacheSize) {
+        this.contextFilters = new FilterCache<>(filterCacheSize, "memory.filters");
+    }
+
+    public FilterCache<Set<Long>> getContextFilterCache() {
+        return contextFilters;
+    }
 
     @Override
     public boolean isLongQuery(int queryLength) {
@@ -72,6 +93,18 @@ public class DefaultQueryBuilder implements QueryBuilder {
         return new TermQuery(builder.makeChannelsTerm());
     }
 
+    @Override
+    public Query exactMatch(DocumentBuilder builder, LanguageDirection direction, Sentence sentence, ContextVector context) {
+        String text = TokensOutputStream.serialize(sentence, false, true);
+
+        // One term per memory in context: a handful of term lookups, no posting list to intersect
+        ArrayList<Term> terms = new ArrayList<>(context.size());
+        for (ContextVector.Entry entry : context)
+            terms.add(builder.makeExactMatchTerm(entry.memory.getId(), direction, text));
+
+        return new ConstantScoreQuery(new TermsFilter(terms));
+    }
+
     @Override
     public Query bestMatchingSuggestion(DocumentBuilder builder, Analyzer analyzer, UUID user, LanguageDirection direction, Sentence sentence, ContextVector context) {
         int length = sentence.getWords().length;
@@ -82,7 +115,11 @@ public class DefaultQueryBuilder implements QueryBuilder {
         termsQuery.setMinimumNumberShouldMatch(minMatches);
 
         // Context filter
-        TermsFilter contextFilter = makeContextFilter(builder, context);
+        HashSet<Long> memories = new HashSet<>(context.size());
+        for (ContextVector.Entry entry : context)
+            memories.add(entry.memory.getId());
+
+        Filter contextFilter = contextFilters.getFilter(memories, () -> makeContextFilter(builder, context));
 
         // Result
         return new FilteredQuery(termsQuery, contextFilter);
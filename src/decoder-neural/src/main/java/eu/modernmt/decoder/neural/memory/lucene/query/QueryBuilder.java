@@ -22,6 +22,8 @@ public interface QueryBuilder {
 
     Query getChannels(DocumentBuilder builder);
 
+    Query exactMatch(DocumentBuilder builder, LanguageDirection direction, Sentence sentence, ContextVector context);
+
     Query bestMatchingSuggestion(DocumentBuilder builder, Analyzer analyzer, UUID user, LanguageDirection direction, Sentence sentence, ContextVector context);
 
 }
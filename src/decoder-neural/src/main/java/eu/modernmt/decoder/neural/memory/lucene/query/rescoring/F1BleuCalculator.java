@@ -1,53 +1,110 @@
 package eu.modernmt.decoder.neural.memory.lucene.query.rescoring;
 
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Map;
 
+/**
+ * Computes the F1-BLEU score of hypotheses against a fixed reference.
+ * <p>
+ * The reference n-grams are indexed once, in the constructor: every distinct word gets an id and every
+ * distinct n-gram gets an index, the key of an n-gram being the pair (index of its prefix, id of its last word)
+ * packed in a long. Hypotheses are then matched word by word against this index, without allocating
+ * any n-gram object: n-grams containing a word that is not in the reference are skipped, as they cannot match.
+ * <p>
+ * Instances are not thread-safe: the hypothesis counts are reused across calls to {@link #calc(String[])}.
+ */
 public class F1BleuCalculator {
 
     private static final int N = 4;
     private static final double EPSILON = 0.1;
-    private final String[] reference;
-    private final HashMap<NGram, Counter> referenceNGrams;
 
-    public F1BleuCalculator(String[] reference) {
-        this.reference = reference;
-        this.referenceNGrams = split(this.reference, N);
-    }
+    private final int referenceLength;
+    private final long radix;
+    private final HashMap<String, Integer> vocabulary;
+    private final NGramIndex ngrams;
 
-    public float calc(String[] hyp) {
-        HashMap<NGram, Counter> hypNGrams = split(hyp, N);
-        return getF1BleuScore(this.referenceNGrams, this.reference.length, hypNGrams, hyp.length);
-    }
+    private final int[] orders;
+    private final int[] referenceCounts;
+    private final int[] hypothesisCounts;
+    private final int[] numerators = new int[N];
 
-    private static HashMap<NGram, Counter> split(String[] sentence, int order) {
-        HashMap<NGram, Counter> counts = new HashMap<>(sentence.length * order);
+    public F1BleuCalculator(String[] reference) {
+        this.referenceLength = reference.length;
+        this.radix = reference.length + 1L;  // greater than any word id
+        this.vocabulary = new HashMap<>(reference.length * 2);
+
+        int capacity = reference.length * N;
+        this.ngrams = new NGramIndex(capacity);
+        this.orders = new int[capacity];
+        this.referenceCounts = new int[capacity];
+
+        int size = 0;
+
+        for (int offset = 0; offset < reference.length; offset++) {
+            int maxOrder = Math.min(N, reference.length - offset);
+            int prefix = -1;
+
+            for (int o = 1; o <= maxOrder; o++) {
+                String word = reference[offset + o - 1];
+                if (word == null)  // null words never match, as in the reference n-grams equality
+                    break;
+
+                Integer id = vocabulary.get(word);
+                if (id == null) {
+                    id = vocabulary.size();
+                    vocabulary.put(word, id);
+                }
 
-        for (int offset = 0; offset < sentence.length; offset++) {
-            int maxOrder = sentence.length - offset;
+                long key = key(prefix, id);
+                int index = ngrams.get(key);
+                if (index < 0) {
+                    index = size++;
+                    ngrams.put(key, index);
+                    orders[index] = o;
+                }
 
-            for (int o = 1; o <= Math.min(order, maxOrder); o++) {
-                NGram ngram = new NGram(sentence, offset, o);
-                counts.computeIfAbsent(ngram, key -> new Counter()).value++;
+                referenceCounts[index]++;
+                prefix = index;
             }
         }
 
-        return counts;
+        this.hypothesisCounts = new int[size];
     }
 
-    private static float getF1BleuScore(HashMap<NGram, Counter> sentence, int sentenceLength, HashMap<NGram, Counter> suggestion, int suggestionLength) {
-        int numerators[] = new int[N];
+    public float calc(String[] hyp) {
+        Arrays.fill(numerators, 0);
+        Arrays.fill(hypothesisCounts, 0);
+
+        for (int offset = 0; offset < hyp.length; offset++) {
+            int maxOrder = Math.min(N, hyp.length - offset);
+            int prefix = -1;
+
+            for (int o = 1; o <= maxOrder; o++) {
+                String word = hyp[offset + o - 1];
+                Integer id = word == null ? null : vocabulary.get(word);
+                if (id == null)
+                    break;
 
-        for (Map.Entry<NGram, Counter> entry : sentence.entrySet()) {
-            NGram ngram = entry.getKey();
+                int index = ngrams.get(key(prefix, id));
+                if (index < 0)  // if a n-gram is not in the reference, neither are its extensions
+                    break;
 
-            int order = ngram.getOrder();
-            int count = entry.getValue().value;
-            int suggestionCount = suggestion.getOrDefault(ngram, Counter.ZERO).value;
+                // clipped count: min(reference count, hypothesis count)
+                if (hypothesisCounts[index]++ < referenceCounts[index])
+                    numerators[orders[index] - 1]++;
 
-            numerators[order - 1] += Math.min(count, suggestionCount);
+                prefix = index;
+            }
         }
 
+        return getF1BleuScore(numerators, referenceLength, hyp.length);
+    }
+
+    private long key(int prefix, int id) {
+        return (prefix + 1L) * radix + id;  // unigrams have prefix -1
+    }
+
+    private static float getF1BleuScore(int[] numerators, int sentenceLength, int suggestionLength) {
         double precision = 0;
         double recall = 0;
 
@@ -67,78 +124,44 @@ public class F1BleuCalculator {
         return (num + EPSILON) / (den + count * EPSILON);
     }
 
-    private static final class Counter {
+    /**
+     * Open-addressing map from n-gram keys (non-negative longs) to n-gram indexes
+     */
+    private static final class NGramIndex {
 
-        public static final Counter ZERO = new Counter();
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
 
-        public int value = 0;
-    }
+        NGramIndex(int expectedSize) {
+            int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
 
-    private static final class NGram {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
 
-        private final String[] sentence;
-        private final int offset;
-        private final int order;
-
-        private int hash = 0;
-
-        public NGram(String[] sentence, int offset, int order) {
-            this.sentence = sentence;
-            this.offset = offset;
-            this.order = order;
-        }
-
-        public int getOrder() {
-            return order;
+            Arrays.fill(keys, -1L);
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int i = (int) (hash ^ (hash >>> 32)) & mask;
 
-            NGram ngram = (NGram) o;
-
-            if (order != ngram.order) return false;
-
-            for (int i = 0; i < order; i++) {
-                String a = sentence[i + offset];
-                String b = ngram.sentence[i + ngram.offset];
-
-                if (!(a != null && b != null && a.equals(b)))
-                    return false;
-            }
+            while (keys[i] != -1L && keys[i] != key)
+                i = (i + 1) & mask;
 
-            return true;
+            return i;
         }
 
-        @Override
-        public int hashCode() {
-            if (hash == 0) {
-                int result = 1;
-
-                for (int i = 0; i < order; i++) {
-                    String element = sentence[i + offset];
-                    result = 31 * result + (element == null ? 0 : element.hashCode());
-                }
-
-                hash = result;
-            }
-
-            return hash;
+        int get(long key) {
+            int i = slot(key);
+            return keys[i] == key ? values[i] : -1;
         }
 
-        @Override
-        public String toString() {
-            StringBuilder string = new StringBuilder("(");
-            for (int i = 0; i < order; i++) {
-                if (i > 0)
-                    string.append(' ');
-                string.append(sentence[i + offset]);
-            }
-            string.append(')');
-
-            return string.toString();
+        void put(long key, int value) {
+            int i = slot(key);
+            keys[i] = key;
+            values[i] = value;
         }
 
     }
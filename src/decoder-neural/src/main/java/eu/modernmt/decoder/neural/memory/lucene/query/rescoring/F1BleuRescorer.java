@@ -8,7 +8,6 @@ import eu.modernmt.model.Sentence;
 import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.Arrays;
-import java.util.HashMap;
 
 /**
  * Created by davide on 06/08/17.
@@ -40,17 +39,23 @@ public class F1BleuRescorer implements Rescorer {
         }
 
         // Apply context scores
-        HashMap<Long, Float> contextScores = new HashMap<>();
-
-        if (context != null && context.size() > 0) {
-            for (ContextVector.Entry ce : context)
-                contextScores.put(ce.memory.getId(), ce.score);
+        int contextSize = context == null ? 0 : context.size();
+        long[] contextMemories = new long[contextSize];
+        float[] contextScores = new float[contextSize];
+
+        if (contextSize > 0) {
+            int i = 0;
+            for (ContextVector.Entry ce : context) {
+                contextMemories[i] = ce.memory.getId();
+                contextScores[i] = ce.score;
+                i++;
+            }
         }
 
         for (ScoreEntry entry : entries) {
             if (entry.score >= 0) {
-                Float contextScore = contextScores.get(entry.memory);
-                entry.score = entry.score * .5f + (contextScore == null ? 0.f : contextScore) * .5f;
+                float contextScore = getContextScore(contextMemories, contextScores, entry.memory);
+                entry.score = entry.score * .5f + contextScore * .5f;
             }
         }
 
@@ -65,4 +70,13 @@ public class F1BleuRescorer implements Rescorer {
         return entries;
     }
 
+    private static float getContextScore(long[] memories, float[] scores, long memory) {
+        for (int i = 0; i < memories.length; i++) {
+            if (memories[i] == memory)
+                return scores[i];
+        }
+
+        return 0.f;
+    }
+
 }
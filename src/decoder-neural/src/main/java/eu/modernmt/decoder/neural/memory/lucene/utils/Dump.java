@@ -1,6 +1,8 @@
 package eu.modernmt.decoder.neural.memory.lucene.utils;
 
 import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.ShardedTranslationMemory;
+import eu.modernmt.memory.TranslationMemory;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.File;
@@ -15,7 +17,9 @@ public class Dump {
         if (args.length != 1)
             throw new IllegalArgumentException("Wrong number of arguments, usage: <model-path>");
 
-        LuceneTranslationMemory memory = new LuceneTranslationMemory(new File(args[0]), 1);
+        File path = new File(args[0]);
+        TranslationMemory memory = ShardedTranslationMemory.isShardedLayout(path) ?
+                new ShardedTranslationMemory(path, 1) : new LuceneTranslationMemory(path, 1);
         memory.dumpAll(entry -> {
             String str = StringUtils.join(new String[]{
                     Objects.toString(entry.tuid),
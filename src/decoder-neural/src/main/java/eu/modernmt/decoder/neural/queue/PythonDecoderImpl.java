@@ -5,6 +5,8 @@ import eu.modernmt.decoder.DecoderException;
 import eu.modernmt.decoder.DecoderUnavailableException;
 import eu.modernmt.io.TokensOutputStream;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.memory.ScoreEntry;
 import eu.modernmt.model.Alignment;
 import eu.modernmt.model.Sentence;
@@ -102,6 +104,7 @@ public class PythonDecoderImpl extends PythonProcess implements PythonDecoder {
     }
 
     private static final JsonParser parser = new JsonParser();
+    private static final Histogram roundTripTime = Metrics.histogram("decoder.roundtrip");
 
     private final int gpu;
     private boolean alive;
@@ -177,12 +180,16 @@ public class PythonDecoderImpl extends PythonProcess implements PythonDecoder {
         boolean success = false;
 
         try {
+            long begin = System.nanoTime();
+
             super.send(payload);
 
             String response = super.recv(30, TimeUnit.SECONDS);
             if (response == null)
                 throw new DecoderUnavailableException("Neural decoder process not responding (timeout)");
 
+            roundTripTime.updateSince(begin);
+
             Translation[] translations = deserialize(response, sentences);
 
             success = true;
@@ -1,6 +1,11 @@
 package eu.modernmt.decoder.neural.scheduler;
 
+import eu.modernmt.decoder.DecoderException;
 import eu.modernmt.decoder.DecoderUnavailableException;
+import eu.modernmt.decoder.TranslationTimeoutException;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Metrics;
+import eu.modernmt.model.Priority;
 
 import java.util.Queue;
 import java.util.concurrent.locks.Condition;
@@ -8,6 +13,8 @@ import java.util.concurrent.locks.ReentrantLock;
 
 public abstract class AbstractScheduler<T extends Scheduler.Job> implements Scheduler {
 
+    private static final Counter expiredJobs = Metrics.counter("decoder.queue.expired");
+
     private final Queue<T> queue;
 
     private final ReentrantLock lock = new ReentrantLock();
@@ -18,16 +25,20 @@ public abstract class AbstractScheduler<T extends Scheduler.Job> implements Sche
         this.queue = queue;
     }
 
-    protected final void schedule(T job) throws DecoderUnavailableException {
+    protected final void schedule(T job) throws DecoderException {
         try {
             lock.lock();
 
             if (!active)
                 throw new DecoderUnavailableException("Decoder has been shut down");
 
-            int qSize = queue.size();
+            admit(job);
+
+            // arrival time must be set before the job enters the queue, as it is used for sorting
+            job.onStartWaitingInQueue(queue.size());
+
             if (queue.offer(job)) {
-                job.onStartWaitingInQueue(qSize);
+                onJobQueued(job);
                 notEmpty.signal();
             } else {
                 throw new DecoderUnavailableException("Decoder unavailable due to a temporary overloading");
@@ -41,20 +52,78 @@ public abstract class AbstractScheduler<T extends Scheduler.Job> implements Sche
     public final Job take() throws InterruptedException {
         try {
             lock.lock();
-            while (queue.isEmpty() && active)
-                notEmpty.await();
 
-            if (!queue.isEmpty())
-                return queue.poll();
+            while (true) {
+                while (queue.isEmpty() && active)
+                    notEmpty.await();
+
+                if (queue.isEmpty()) {
+                    // scheduler is not active anymore
+                    notEmpty.signal();  // pass the signal to next thread in queue
+                    throw new InterruptedException();
+                }
+
+                T job = queue.poll();
+                onJobTaken(job);
 
-            // scheduler is not active anymore
-            notEmpty.signal();  // pass the signal to next thread in queue
-            throw new InterruptedException();
+                long expiration = job.getExpiration();
+                if (expiration > 0 && expiration < System.currentTimeMillis()) {
+                    // Nobody is waiting for this job anymore: drop it before it reaches the decoder
+                    expiredJobs.increment();
+                    for (TranslationSplit split : job.getTranslationSplits())
+                        split.setException(new TranslationTimeoutException());
+
+                    // The job will never reach a decoder thread: complete it here
+                    onJobCompleted(job, 0, 0L);
+                    continue;
+                }
+
+                return job;
+            }
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Invoked (while holding the scheduler lock) before a job enters the queue.
+     * Implementations can reject the job by throwing an exception.
+     *
+     * @param job the job to be scheduled
+     * @throws DecoderException if the job must be rejected
+     */
+    protected void admit(T job) throws DecoderException {
+        // Default implementation accepts every job
+    }
+
+    /**
+     * Invoked (while holding the scheduler lock) every time a job enters the queue.
+     *
+     * @param job the job that has been added to the queue
+     */
+    protected void onJobQueued(T job) {
+        // Default implementation does nothing
+    }
+
+    /**
+     * Invoked (while holding the scheduler lock) every time a job leaves the queue.
+     *
+     * @param job the job that has been taken from the queue
+     */
+    protected void onJobTaken(T job) {
+        // Default implementation does nothing
+    }
+
+    @Override
+    public void onJobCompleted(Job job, int decodedSentences, long elapsedNanos) {
+        // Default implementation does nothing
+    }
+
+    @Override
+    public long estimateQueueTime(Priority priority) {
+        return 0L;
+    }
+
     @Override
     public final void close() {
         try {
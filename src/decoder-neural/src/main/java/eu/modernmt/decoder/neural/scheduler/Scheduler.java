@@ -1,8 +1,11 @@
 package eu.modernmt.decoder.neural.scheduler;
 
+import eu.modernmt.decoder.DecoderException;
 import eu.modernmt.decoder.DecoderUnavailableException;
+import eu.modernmt.decoder.TranslationTimeoutException;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.Priority;
 
 import java.io.Closeable;
 import java.util.Collection;
@@ -31,6 +34,11 @@ public interface Scheduler extends Closeable {
 
         Collection<ScoreEntry> getSuggestions();
 
+        /**
+         * @return the timestamp (in millis) after which nobody is waiting for the job anymore, 0 if the job never expires
+         */
+        long getExpiration();
+
         void onStartWaitingInQueue(int queueSize);
     }
 
@@ -42,8 +50,9 @@ public interface Scheduler extends Closeable {
      * @param suggestions the suggestions to use to tune the engine
      * @return a {@link TranslationLock} that will unlock when all the translation splits have completed
      * @throws DecoderUnavailableException if there are too many pending translation jobs or the Scheduler has been closed
+     * @throws TranslationTimeoutException if the translation splits cannot be completed before their expiration
      */
-    TranslationLock schedule(LanguageDirection direction, TranslationSplit[] splits, ScoreEntry[] suggestions) throws DecoderUnavailableException;
+    TranslationLock schedule(LanguageDirection direction, TranslationSplit[] splits, ScoreEntry[] suggestions) throws DecoderException;
 
     /**
      * Schedule a a single translation split to be aligned with the given translation at some point in the future.
@@ -52,8 +61,9 @@ public interface Scheduler extends Closeable {
      * @param split       the translation split to be aligned
      * @return a {@link TranslationLock} that will unlock when alignment is completed
      * @throws DecoderUnavailableException if there are too many pending translation jobs or the Scheduler has been closed
+     * @throws TranslationTimeoutException if the translation split cannot be completed before its expiration
      */
-    TranslationLock schedule(LanguageDirection direction, TranslationSplit split) throws DecoderUnavailableException;
+    TranslationLock schedule(LanguageDirection direction, TranslationSplit split) throws DecoderException;
 
     /**
      * Take the next {@link Job} available for queue, waiting if necessary for one to be available.
@@ -63,4 +73,21 @@ public interface Scheduler extends Closeable {
      */
     Job take() throws InterruptedException;
 
+    /**
+     * Notify the scheduler that a {@link Job} previously returned by {@link #take()} has been processed.
+     *
+     * @param job              the completed job
+     * @param decodedSentences the number of sentences actually sent to the decoder (0 if the job failed)
+     * @param elapsedNanos     the time spent by the decoder on the job
+     */
+    void onJobCompleted(Job job, int decodedSentences, long elapsedNanos);
+
+    /**
+     * Estimates how long a new job with the given priority would wait before being decoded.
+     *
+     * @param priority the priority of the job
+     * @return the estimated waiting time in milliseconds, 0 if no estimate is available
+     */
+    long estimateQueueTime(Priority priority);
+
 }
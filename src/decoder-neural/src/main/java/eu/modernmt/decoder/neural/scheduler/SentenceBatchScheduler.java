@@ -1,15 +1,50 @@
 package eu.modernmt.decoder.neural.scheduler;
 
-import eu.modernmt.decoder.DecoderUnavailableException;
+import eu.modernmt.decoder.DecoderException;
+import eu.modernmt.decoder.TranslationTimeoutException;
 import eu.modernmt.lang.LanguageDirection;
 import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.model.Priority;
 
 import java.util.*;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntSupplier;
+
+/**
+ * A {@link Scheduler} that sorts jobs by priority and arrival time.
+ * <p>
+ * When a decoders capacity supplier is provided, the scheduler also performs admission control:
+ * it keeps a moving average of the time spent by the decoder on a single sentence and uses it,
+ * together with the number of sentences queued ahead and the number of live decoders, to estimate
+ * when a new job will complete. Jobs that cannot meet their expiration are rejected immediately
+ * with a {@link TranslationTimeoutException} instead of wasting a queue slot and decoder time.
+ */
 public class SentenceBatchScheduler extends AbstractScheduler<SentenceBatchScheduler.JobImpl> {
 
+    private static final Histogram waitTime = Metrics.histogram("decoder.queue.wait");
+    private static final Counter rejectedJobs = Metrics.counter("decoder.queue.rejected");
+
+    private static final double SMOOTHING_FACTOR = .2;
+
+    private final IntSupplier capacity;
+    private final AtomicLongArray queuedSentences = new AtomicLongArray(Priority.values().length);
+    private final AtomicLong runningSentences = new AtomicLong();
+    private volatile double sentenceTime = 0.;  // nanoseconds
+
     public SentenceBatchScheduler(final int queueSize) {
+        this(queueSize, null);
+    }
+
+    /**
+     * @param queueSize the maximum number of jobs in queue
+     * @param capacity  supplier of the number of decoders currently available,
+     *                  if null admission control is disabled
+     */
+    public SentenceBatchScheduler(final int queueSize, IntSupplier capacity) {
         super(new PriorityQueue<JobImpl>(queueSize) {
 
             @Override
@@ -29,10 +64,76 @@ public class SentenceBatchScheduler extends AbstractScheduler<SentenceBatchSched
             }
 
         });
+
+        this.capacity = capacity;
+    }
+
+    private long sentencesAhead(Priority priority) {
+        long count = runningSentences.get();
+        for (int i = 0; i <= priority.ordinal(); i++)
+            count += queuedSentences.get(i);
+        return count;
+    }
+
+    private double estimateQueueNanos(Priority priority) {
+        double sentenceTime = this.sentenceTime;
+        if (capacity == null || sentenceTime == 0.)
+            return 0.;
+
+        int decoders = capacity.getAsInt();
+        if (decoders < 1)
+            return 0.;  // decoders are restarting: the decoder queue will report the failure
+
+        return sentencesAhead(priority) * sentenceTime / decoders;
+    }
+
+    @Override
+    protected void admit(JobImpl job) throws DecoderException {
+        long expiration = job.getExpiration();
+        if (expiration == 0 || capacity == null)
+            return;
+
+        double queueTime = estimateQueueNanos(job.priority);
+        double completionTime = queueTime + job.splits.size() * sentenceTime;
+
+        if (System.currentTimeMillis() + (long) (completionTime / 1e6) > expiration) {
+            rejectedJobs.increment();
+            throw new TranslationTimeoutException();
+        }
+    }
+
+    @Override
+    protected void onJobQueued(JobImpl job) {
+        queuedSentences.addAndGet(job.priority.ordinal(), job.splits.size());
+    }
+
+    @Override
+    protected void onJobTaken(JobImpl job) {
+        waitTime.updateSince(job.queueBegin);
+        queuedSentences.addAndGet(job.priority.ordinal(), -job.splits.size());
+        runningSentences.addAndGet(job.splits.size());
+    }
+
+    @Override
+    public void onJobCompleted(Job job, int decodedSentences, long elapsedNanos) {
+        runningSentences.addAndGet(-job.getTranslationSplits().size());
+
+        if (decodedSentences > 0) {
+            double sample = ((double) elapsedNanos) / decodedSentences;
+
+            synchronized (this) {
+                sentenceTime = sentenceTime == 0. ? sample : (SMOOTHING_FACTOR * sample + (1. - SMOOTHING_FACTOR) * sentenceTime);
+            }
+        }
     }
 
     @Override
-    public TranslationLock schedule(LanguageDirection direction, TranslationSplit[] splits, ScoreEntry[] suggestions) throws DecoderUnavailableException {
+    public long estimateQueueTime(Priority priority) {
+        return (long) (estimateQueueNanos(priority) / 1e6);
+    }
+
+    @Override
+    public TranslationLock schedule(LanguageDirection direction, TranslationSplit[] splits, ScoreEntry[] suggestions) throws DecoderException {
         CountDownTranslationLock lock = new CountDownTranslationLock(splits.length);
         for (TranslationSplit split : splits)
             split.setLock(lock);
@@ -43,7 +144,7 @@ public class SentenceBatchScheduler extends AbstractScheduler<SentenceBatchSched
     }
 
     @Override
-    public TranslationLock schedule(LanguageDirection direction, TranslationSplit split) throws DecoderUnavailableException {
+    public TranslationLock schedule(LanguageDirection direction, TranslationSplit split) throws DecoderException {
         CountDownTranslationLock lock = new CountDownTranslationLock(1);
         split.setLock(lock);
 
@@ -58,7 +159,9 @@ public class SentenceBatchScheduler extends AbstractScheduler<SentenceBatchSched
         private final List<TranslationSplit> splits;
         private final List<ScoreEntry> suggestions;
         private final Priority priority;
+        private final long expiration;
         private long timestamp;
+        private long queueBegin;
 
         JobImpl(LanguageDirection direction, TranslationSplit split) {
             this(direction, Collections.singletonList(split), null);
@@ -82,11 +185,23 @@ public class SentenceBatchScheduler extends AbstractScheduler<SentenceBatchSched
                     priority = split.priority;
             }
             this.priority = priority;
+
+            long expiration = 0;
+            for (TranslationSplit split : splits) {
+                if (split.getExpiration() == 0) {
+                    expiration = 0;
+                    break;
+                }
+
+                expiration = Math.max(expiration, split.getExpiration());
+            }
+            this.expiration = expiration;
         }
 
         @Override
         public void onStartWaitingInQueue(int queueSize) {
             this.timestamp = System.currentTimeMillis();
+            this.queueBegin = System.nanoTime();
             for (TranslationSplit split : splits)
                 split.onStartWaitingInQueue(queueSize, this.timestamp);
         }
@@ -116,6 +231,11 @@ public class SentenceBatchScheduler extends AbstractScheduler<SentenceBatchSched
             return suggestions;
         }
 
+        @Override
+        public long getExpiration() {
+            return expiration;
+        }
+
         @Override
         public int compareTo(JobImpl o) {
             if (priority == o.priority)
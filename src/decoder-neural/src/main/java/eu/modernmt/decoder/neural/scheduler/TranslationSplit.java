@@ -38,6 +38,10 @@ public class TranslationSplit {
         this.lock = lock;
     }
 
+    public long getExpiration() {
+        return expiration;
+    }
+
     public void ensureValid() throws TranslationTimeoutException {
         if (expiration > 0 && expiration < System.currentTimeMillis())
             throw new TranslationTimeoutException();
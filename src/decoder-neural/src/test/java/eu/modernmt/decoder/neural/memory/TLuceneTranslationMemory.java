@@ -5,9 +5,11 @@ import eu.modernmt.data.DeletionMessage;
 import eu.modernmt.data.TranslationUnitMessage;
 import eu.modernmt.decoder.neural.memory.lucene.DocumentBuilder;
 import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.ShardedTranslationMemory;
 import eu.modernmt.decoder.neural.memory.lucene.query.QueryBuilder;
 import eu.modernmt.io.RuntimeIOException;
 import eu.modernmt.memory.TranslationMemory;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.store.RAMDirectory;
 
 import java.io.IOException;
@@ -30,10 +32,20 @@ public class TLuceneTranslationMemory extends LuceneTranslationMemory {
         return super.queryBuilder;
     }
 
+    /**
+     * Commits pending updates and returns the number of documents in the index, channels document included
+     */
     @Override
     public long size() {
         try {
-            return getIndexReader().numDocs();
+            commit();
+            IndexSearcher searcher = acquireSearcher();
+
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                releaseSearcher(searcher);
+            }
         } catch (IOException e) {
             throw new RuntimeIOException(e);
         }
@@ -64,7 +76,19 @@ public class TLuceneTranslationMemory extends LuceneTranslationMemory {
     // DataListener utils
 
     public void onDelete(final DeletionMessage deletion) throws IOException {
-        super.onDataReceived(new DataBatch() {
+        super.onDataReceived(asDataBatch(deletion));
+    }
+
+    public static void onDelete(LuceneTranslationMemory memory, final DeletionMessage deletion) throws IOException {
+        memory.onDataReceived(asDataBatch(deletion));
+    }
+
+    public static void onDelete(ShardedTranslationMemory memory, final DeletionMessage deletion) throws IOException {
+        memory.onDataReceived(asDataBatch(deletion));
+    }
+
+    private static DataBatch asDataBatch(final DeletionMessage deletion) {
+        return new DataBatch() {
 
             @Override
             public Collection<TranslationUnitMessage> getTranslationUnits() {
@@ -81,7 +105,7 @@ public class TLuceneTranslationMemory extends LuceneTranslationMemory {
                 return Collections.singletonMap(deletion.channel, deletion.channelPosition);
             }
 
-        });
+        };
     }
 
     public void onDataReceived(TranslationUnitMessage... units) throws IOException {
@@ -93,6 +117,18 @@ public class TLuceneTranslationMemory extends LuceneTranslationMemory {
     }
 
     public void onDataReceived(Collection<TranslationUnitMessage> units) throws IOException {
+        onDataReceived(this, units);
+    }
+
+    public static void onDataReceived(LuceneTranslationMemory memory, Collection<TranslationUnitMessage> units) throws IOException {
+        memory.onDataReceived(asDataBatch(units));
+    }
+
+    public static void onDataReceived(ShardedTranslationMemory memory, Collection<TranslationUnitMessage> units) throws IOException {
+        memory.onDataReceived(asDataBatch(units));
+    }
+
+    private static DataBatch asDataBatch(final Collection<TranslationUnitMessage> units) {
         final HashMap<Short, Long> positions = new HashMap<>();
         for (TranslationUnitMessage unit : units) {
             Long existingPosition = positions.get(unit.channel);
@@ -101,7 +137,7 @@ public class TLuceneTranslationMemory extends LuceneTranslationMemory {
                 positions.put(unit.channel, unit.channelPosition);
         }
 
-        super.onDataReceived(new DataBatch() {
+        return new DataBatch() {
 
             @Override
             public Collection<TranslationUnitMessage> getTranslationUnits() {
@@ -117,6 +153,6 @@ public class TLuceneTranslationMemory extends LuceneTranslationMemory {
             public Map<Short, Long> getChannelPositions() {
                 return positions;
             }
-        });
+        };
     }
 }
@@ -0,0 +1,142 @@
+package eu.modernmt.decoder.neural.memory;
+
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.memory.TranslationMemory;
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static eu.modernmt.decoder.neural.memory.TestData.*;
+import static org.junit.Assert.*;
+
+public class TestLuceneTranslationMemory_commit {
+
+    private File path;
+    private LuceneTranslationMemory memory;
+
+    @Before
+    public void setup() throws Throwable {
+        this.path = Files.createTempDirectory("mmt-commit-test").toFile();
+        this.memory = new LuceneTranslationMemory(new File(path, "live"), 10);
+    }
+
+    @After
+    public void teardown() throws Throwable {
+        this.memory.close();
+        this.memory = null;
+
+        FileUtils.deleteDirectory(path);
+    }
+
+    private static Set<TranslationMemory.Entry> entries(LuceneTranslationMemory memory) throws IOException {
+        HashSet<TranslationMemory.Entry> result = new HashSet<>();
+        memory.dumpAll(result::add);
+        return result;
+    }
+
+    private void onDataReceived(List<TranslationUnitMessage> units) throws IOException {
+        TLuceneTranslationMemory.onDataReceived(memory, units);
+    }
+
+    private int committedDocs() throws IOException {
+        try (Directory directory = FSDirectory.open(new File(path, "live"));
+             DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.numDocs();
+        }
+    }
+
+    /**
+     * Copies the files currently on disk: the result is the index a node would find after a crash
+     */
+    private LuceneTranslationMemory crash() throws IOException {
+        File copy = new File(path, "crash");
+        FileUtils.copyDirectory(new File(path, "live"), copy);
+        FileUtils.deleteQuietly(new File(copy, "write.lock"));
+
+        return new LuceneTranslationMemory(copy, 10);
+    }
+
+    @Test
+    public void updatesVisibleBeforeCommit() throws Throwable {
+        memory.setCommitPolicy(60000L, 1000);
+
+        List<TranslationUnitMessage> units = additions(1, 0, 1, EN__IT, 10);
+        onDataReceived(units);
+
+        assertEquals(TLuceneTranslationMemory.asEntrySet(units), entries(memory));
+        assertEquals(channels(1, 9), memory.getLatestChannelPositions());
+        assertEquals(0, committedDocs());
+    }
+
+    @Test
+    public void commitWhenMaxUpdatesReached() throws Throwable {
+        memory.setCommitPolicy(60000L, 10);
+
+        onDataReceived(additions(1, 0, 1, EN__IT, 5));
+        assertEquals(0, committedDocs());
+
+        onDataReceived(additions(1, 5, 1, EN__IT, 5));
+        assertEquals(10 + 1, committedDocs());
+    }
+
+    @Test
+    public void commitWhenIntervalExpires() throws Throwable {
+        memory.setCommitPolicy(50L, 1000);
+
+        onDataReceived(additions(1, 0, 1, EN__IT, 5));
+
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (committedDocs() == 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+
+        assertEquals(5 + 1, committedDocs());
+    }
+
+    @Test
+    public void closeCommitsPendingUpdates() throws Throwable {
+        memory.setCommitPolicy(60000L, 1000);
+
+        List<TranslationUnitMessage> units = additions(1, 0, 1, EN__IT, 5);
+        onDataReceived(units);
+        memory.close();
+
+        memory = new LuceneTranslationMemory(new File(path, "live"), 10);
+        assertEquals(TLuceneTranslationMemory.asEntrySet(units), entries(memory));
+        assertEquals(channels(1, 4), memory.getLatestChannelPositions());
+    }
+
+    @Test
+    public void uncommittedUpdatesAreReplayedAfterCrash() throws Throwable {
+        memory.setCommitPolicy(60000L, 1000);
+
+        List<TranslationUnitMessage> committed = additions(1, 0, 1, EN__IT, 10);
+        List<TranslationUnitMessage> uncommitted = additions(1, 10, 1, EN__FR, 10);
+
+        onDataReceived(committed);
+        memory.commit();
+        onDataReceived(uncommitted);
+
+        try (LuceneTranslationMemory recovered = crash()) {
+            assertEquals(channels(1, 9), recovered.getLatestChannelPositions());
+            assertEquals(TLuceneTranslationMemory.asEntrySet(committed), entries(recovered));
+
+            // the binary log replays from the committed positions, possibly re-sending committed data
+            TLuceneTranslationMemory.onDataReceived(recovered, committed);
+            TLuceneTranslationMemory.onDataReceived(recovered, uncommitted);
+
+            assertEquals(channels(1, 19), recovered.getLatestChannelPositions());
+            assertEquals(entries(memory), entries(recovered));
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package eu.modernmt.decoder.neural.memory;
+
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.DocumentBuilder;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.memory.TranslationMemory;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.lucene.index.IndexWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static eu.modernmt.decoder.neural.memory.TestData.*;
+import static org.junit.Assert.*;
+
+public class TestLuceneTranslationMemory_dump {
+
+    private static final int LARGE_INDEX_SIZE = 100000;
+    private static final String SMALL_HEAP = "-Xmx8m";
+
+    private TLuceneTranslationMemory memory;
+
+    @Before
+    public void setup() throws Throwable {
+        this.memory = new TLuceneTranslationMemory();
+    }
+
+    @After
+    public void teardown() throws Throwable {
+        this.memory.close();
+        this.memory = null;
+    }
+
+    private static Set<TranslationMemory.Entry> dump(LuceneTranslationMemory memory, long id) throws IOException {
+        HashSet<TranslationMemory.Entry> result = new HashSet<>();
+        memory.dump(null, id, result::add);
+        return result;
+    }
+
+    @Test
+    public void emptyIndex() throws Throwable {
+        assertTrue(memory.entrySet().isEmpty());
+        assertTrue(dump(memory, 1L).isEmpty());
+    }
+
+    @Test
+    public void dumpAcrossSegments() throws Throwable {
+        List<TranslationUnitMessage> units1 = additions(0, 0, 1, EN__IT, 10);
+        List<TranslationUnitMessage> units2 = additions(0, 10, 2, EN__FR, 10);
+        List<TranslationUnitMessage> units3 = additions(0, 20, 1, FR__ES, 10);
+        List<TranslationUnitMessage> units4 = additions(0, 30, 3, EN__IT, 10);
+
+        memory.onDataReceived(units1);
+        memory.onDataReceived(units2);
+        memory.onDataReceived(units3);
+        memory.onDataReceived(units4);
+        memory.onDelete(TestData.deletion(3, null));
+
+        Set<TranslationMemory.Entry> memory1 = TLuceneTranslationMemory.asEntrySet(units1);
+        memory1.addAll(TLuceneTranslationMemory.asEntrySet(units3));
+        Set<TranslationMemory.Entry> memory2 = TLuceneTranslationMemory.asEntrySet(units2);
+
+        Set<TranslationMemory.Entry> all = new HashSet<>(memory1);
+        all.addAll(memory2);
+
+        assertEquals(memory1, dump(memory, 1L));
+        assertEquals(memory2, dump(memory, 2L));
+        assertTrue(dump(memory, 3L).isEmpty());
+        assertTrue(dump(memory, 4L).isEmpty());
+        assertEquals(all, memory.entrySet());
+    }
+
+    @Test
+    public void largeIndexUnderSmallHeap() throws Throwable {
+        File path = Files.createTempDirectory("mmt-dump-test").toFile();
+
+        try {
+            try (LuceneTranslationMemory memory = new LuceneTranslationMemory(path, 10)) {
+                IndexWriter writer = memory.getIndexWriter();
+                DocumentBuilder builder = memory.getDocumentBuilder();
+
+                for (int i = 0; i < LARGE_INDEX_SIZE; i++) {
+                    String source = "Hello world number " + i + " from a large translation memory";
+                    String target = "Ciao mondo numero " + i + " da una grande memoria di traduzione";
+
+                    TranslationUnitMessage unit = addition(0, i, 1 + (i % 4), tu(EN__IT, source, target));
+                    writer.addDocument(builder.create(unit));
+                }
+
+                writer.commit();
+            }
+
+            String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getAbsolutePath();
+            Process process = new ProcessBuilder(java, SMALL_HEAP,
+                    "-cp", System.getProperty("java.class.path"),
+                    TestLuceneTranslationMemory_dump.class.getName(), path.getAbsolutePath())
+                    .redirectErrorStream(true)
+                    .start();
+
+            String output = IOUtils.toString(process.getInputStream(), Charset.defaultCharset());
+            assertTrue("dump process did not terminate", process.waitFor(5, TimeUnit.MINUTES));
+            assertEquals(output, 0, process.exitValue());
+
+            String[] lines = output.trim().split("\n");
+            assertEquals(output, LARGE_INDEX_SIZE + " " + (LARGE_INDEX_SIZE / 4), lines[lines.length - 1].trim());
+        } finally {
+            FileUtils.deleteDirectory(path);
+        }
+    }
+
+    /**
+     * Entry point of the small-heap process: prints the number of entries returned
+     * by dumpAll() and by dump() of memory 1
+     */
+    public static void main(String[] args) throws Throwable {
+        try (LuceneTranslationMemory memory = new LuceneTranslationMemory(new File(args[0]), 10)) {
+            AtomicLong all = new AtomicLong();
+            AtomicLong single = new AtomicLong();
+
+            memory.dumpAll(entry -> all.incrementAndGet());
+            memory.dump(null, 1L, entry -> single.incrementAndGet());
+
+            System.out.println(all.get() + " " + single.get());
+        }
+    }
+
+}
@@ -0,0 +1,104 @@
+package eu.modernmt.decoder.neural.memory;
+
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.metrics.Counter;
+import eu.modernmt.metrics.Metrics;
+import eu.modernmt.model.ContextVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static eu.modernmt.decoder.neural.memory.TestData.*;
+import static org.junit.Assert.*;
+
+public class TestLuceneTranslationMemory_exactMatch {
+
+    private final Counter exactMatches = Metrics.counter("memory.search.exact.hits");
+
+    private TLuceneTranslationMemory memory;
+
+    @Before
+    public void setup() throws Throwable {
+        this.memory = new TLuceneTranslationMemory();
+        this.memory.onDataReceived(Arrays.asList(
+                addition(0, 0, 1, tu(EN__IT, "Hello world", "Ciao mondo")),
+                addition(0, 1, 1, tu(EN__IT, "Hello world again", "Ciao ancora mondo")),
+                addition(0, 2, 2, tu(EN__IT, "Hello world", "Salve mondo")),
+                addition(0, 3, 3, tu(EN__FR, "Hello world", "Bonjour monde"))
+        ));
+    }
+
+    @After
+    public void teardown() throws Throwable {
+        this.memory.close();
+        this.memory = null;
+    }
+
+    private ScoreEntry search(LanguageDirection direction, String sentence, String context) throws Throwable {
+        return memory.searchExactMatch(null, direction, sentence(sentence), ContextVector.fromString(context));
+    }
+
+    private static void assertEntry(ScoreEntry entry, long memory, String sentence, String translation) {
+        assertNotNull(entry);
+        assertEquals(memory, entry.memory);
+        assertArrayEquals(sentence.split(" "), entry.sentenceTokens);
+        assertArrayEquals(translation.split(" "), entry.translationTokens);
+        assertEquals(1.f, entry.score, 0.0001f);
+    }
+
+    @Test
+    public void exactMatchInContext() throws Throwable {
+        long hits = exactMatches.getCount();
+
+        assertEntry(search(EN__IT, "Hello world", "1:1"), 1, "Hello world", "Ciao mondo");
+        assertEquals(hits + 1, exactMatches.getCount());
+    }
+
+    @Test
+    public void exactMatchOfReversedEntry() throws Throwable {
+        assertEntry(search(IT__EN, "Salve mondo", "2:1"), 2, "Salve mondo", "Hello world");
+    }
+
+    @Test
+    public void exactMatchOfBestMemory() throws Throwable {
+        assertEntry(search(EN__IT, "Hello world", "1:0.5,2:1"), 2, "Hello world", "Salve mondo");
+    }
+
+    @Test
+    public void noExactMatchOutsideContext() throws Throwable {
+        assertNull(search(EN__IT, "Hello world", "3:1"));
+        assertNull(search(EN__IT, "Hello world", "4:1"));
+    }
+
+    @Test
+    public void noExactMatchForDifferentSentence() throws Throwable {
+        assertNull(search(EN__IT, "Hello", "1:1"));
+        assertNull(search(EN__IT, "Hello world again and again", "1:1"));
+    }
+
+    @Test
+    public void noExactMatchWithPartialContextScore() throws Throwable {
+        long hits = exactMatches.getCount();
+
+        assertNull(search(EN__IT, "Hello world", "1:0.5"));
+        assertEquals(hits, exactMatches.getCount());
+
+        // the fuzzy search is still able to find it
+        ScoreEntry[] result = memory.search(null, EN__IT, sentence("Hello world"), ContextVector.fromString("1:0.5"), 1);
+        assertEquals(1, result.length);
+        assertEquals(.75f, result[0].score, 0.0001f);
+    }
+
+    @Test
+    public void exactMatchUpdatedWithMemory() throws Throwable {
+        memory.onDataReceived(overwrite(0, 4, 1, tu(EN__IT, "Hello world", "Ciao a tutti"), "Hello world", "Ciao mondo"));
+        assertEntry(search(EN__IT, "Hello world", "1:1"), 1, "Hello world", "Ciao a tutti");
+
+        memory.onDelete(deletion(5, 1, null));
+        assertNull(search(EN__IT, "Hello world", "1:1"));
+    }
+
+}
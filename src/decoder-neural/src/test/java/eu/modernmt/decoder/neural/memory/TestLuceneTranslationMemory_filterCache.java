@@ -0,0 +1,99 @@
+package eu.modernmt.decoder.neural.memory;
+
+import eu.modernmt.decoder.neural.memory.lucene.query.DefaultQueryBuilder;
+import eu.modernmt.lucene.FilterCache;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.ContextVector;
+import org.apache.lucene.search.IndexSearcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+import static eu.modernmt.decoder.neural.memory.TestData.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLuceneTranslationMemory_filterCache {
+
+    private TLuceneTranslationMemory memory;
+    private FilterCache<Set<Long>> cache;
+
+    @Before
+    public void setup() throws Throwable {
+        this.memory = new TLuceneTranslationMemory();
+        this.cache = ((DefaultQueryBuilder) memory.getQueryBuilder()).getContextFilterCache();
+
+        memory.onDataReceived(addition(0, 0L, 1L, tu(EN__IT, "Hello world 1", "Ciao mondo 1")));
+        memory.onDataReceived(addition(0, 1L, 2L, tu(EN__IT, "Hello world 2", "Ciao mondo 2")));
+        memory.onDataReceived(addition(0, 2L, 3L, tu(EN__IT, "Hello world 3", "Ciao mondo 3")));
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.memory.close();
+        this.memory = null;
+    }
+
+    private long[] search(String context) throws IOException {
+        ScoreEntry[] entries = memory.search(null, EN__IT, sentence("Hello world"), ContextVector.fromString(context), 100);
+
+        long[] memories = new long[entries.length];
+        for (int i = 0; i < memories.length; i++)
+            memories[i] = entries[i].memory;
+        Arrays.sort(memories);
+
+        return memories;
+    }
+
+    @Test
+    public void sameMemoriesSameFilter() throws Throwable {
+        assertEquals("[1, 3]", Arrays.toString(search("1:0.5,3:1")));
+        long misses = cache.getStats().missCount();
+
+        // Scores do not matter, neither does the order of the memories
+        assertEquals("[1, 3]", Arrays.toString(search("3:0.2,1:1")));
+        assertEquals(misses, cache.getStats().missCount());
+        assertEquals(misses, cache.getStats().hitCount());
+
+        assertEquals("[2]", Arrays.toString(search("2:1")));
+        assertEquals(2 * misses, cache.getStats().missCount());
+    }
+
+    @Test
+    public void updatesAndDeletionsAreVisible() throws Throwable {
+        assertEquals("[1, 3]", Arrays.toString(search("1:1,3:1")));
+
+        memory.onDataReceived(addition(0, 3L, 1L, tu(EN__IT, "Hello world 4", "Ciao mondo 4")));
+        assertEquals("[1, 1, 3]", Arrays.toString(search("1:1,3:1")));
+
+        memory.onDelete(deletion(4L, 3L, null));
+        assertEquals("[1, 1]", Arrays.toString(search("1:1,3:1")));
+    }
+
+    @Test
+    public void mergedSegmentsAreDropped() throws Throwable {
+        // One new segment at every search
+        for (int i = 0; i < 3; i++) {
+            memory.onDataReceived(addition(0, 3L + i, 1L, tu(EN__IT, "Hello world " + i, "Ciao mondo " + i)));
+            search("1:1,3:1");
+        }
+
+        assertEquals(cache.getStats().missCount(), cache.size());
+        assertTrue(cache.size() > 1);
+
+        memory.optimize();
+        search("1:1,3:1");
+
+        IndexSearcher searcher = memory.acquireSearcher();
+        try {
+            assertEquals(searcher.getIndexReader().leaves().size(), cache.size());
+        } finally {
+            memory.releaseSearcher(searcher);
+        }
+    }
+
+}
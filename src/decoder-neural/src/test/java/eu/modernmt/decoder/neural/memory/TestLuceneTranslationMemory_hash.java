@@ -67,13 +67,19 @@ public class TestLuceneTranslationMemory_hash {
 
         Query query = queryBuilder.getByMatchHash(documentBuilder, 1, "A B C D");
 
-        IndexSearcher searcher = memory.getIndexSearcher();
-        ScoreDoc[] result = searcher.search(query, 10).scoreDocs;
+        IndexSearcher searcher = memory.acquireSearcher();
+        ScoreEntry e1, e2;
 
-        assertEquals(2, result.length);
+        try {
+            ScoreDoc[] result = searcher.search(query, 10).scoreDocs;
 
-        ScoreEntry e1 = documentBuilder.asScoreEntry(searcher.doc(result[0].doc));
-        ScoreEntry e2 = documentBuilder.asScoreEntry(searcher.doc(result[1].doc));
+            assertEquals(2, result.length);
+
+            e1 = documentBuilder.asScoreEntry(searcher.doc(result[0].doc));
+            e2 = documentBuilder.asScoreEntry(searcher.doc(result[1].doc));
+        } finally {
+            memory.releaseSearcher(searcher);
+        }
 
         if ("fr".equals(e1.language.target.getLanguage())) {
             assertArrayEquals(new String[]{"1-1F"}, e1.sentenceTokens);
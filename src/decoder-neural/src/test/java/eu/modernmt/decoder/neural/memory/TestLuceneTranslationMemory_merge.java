@@ -0,0 +1,124 @@
+package eu.modernmt.decoder.neural.memory;
+
+import eu.modernmt.data.TranslationUnitMessage;
+import org.apache.lucene.index.AtomicReaderContext;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static eu.modernmt.decoder.neural.memory.TestData.*;
+import static org.junit.Assert.*;
+
+public class TestLuceneTranslationMemory_merge {
+
+    private TLuceneTranslationMemory memory;
+
+    @Before
+    public void setup() throws Throwable {
+        this.memory = new TLuceneTranslationMemory();
+        this.memory.setMergePolicy(0, 20., 0);
+
+        // Memory 1 in a segment with no deletions, memories 2 and 3 in a segment half deleted
+        memory.onDataReceived(additions(0, 0L, 1L, EN__IT, 100));
+        memory.commit();
+
+        List<TranslationUnitMessage> units = new ArrayList<>();
+        units.addAll(additions(0, 100L, 2L, EN__IT, 10));
+        units.addAll(additions(0, 110L, 3L, EN__IT, 10));
+        memory.onDataReceived(units);
+        memory.onDelete(deletion(0, 120L, 2L, null));
+        memory.commit();
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.memory.close();
+        this.memory = null;
+    }
+
+    /**
+     * @return the number of documents and of deleted documents of every segment
+     */
+    private Map<String, int[]> segments() throws IOException {
+        HashMap<String, int[]> segments = new HashMap<>();
+
+        IndexSearcher searcher = memory.acquireSearcher();
+        try {
+            for (AtomicReaderContext leaf : searcher.getIndexReader().leaves()) {
+                SegmentReader segment = (SegmentReader) leaf.reader();
+                segments.put(segment.getSegmentName(), new int[]{segment.maxDoc(), segment.numDeletedDocs()});
+            }
+        } finally {
+            memory.releaseSearcher(searcher);
+        }
+
+        return segments;
+    }
+
+    private static boolean isAboveThreshold(int[] segment) {
+        return 100. * segment[1] / segment[0] > 20.;
+    }
+
+    private int numDeletedDocs() throws IOException {
+        IndexSearcher searcher = memory.acquireSearcher();
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            return reader.numDeletedDocs();
+        } finally {
+            memory.releaseSearcher(searcher);
+        }
+    }
+
+    @Test
+    public void optimizeMergesOnlySegmentsWithDeletions() throws Throwable {
+        Map<String, int[]> before = segments();
+        assertTrue(numDeletedDocs() >= 10);
+
+        memory.optimize();
+        Map<String, int[]> after = segments();
+
+        for (Map.Entry<String, int[]> segment : before.entrySet()) {
+            String name = segment.getKey();
+
+            if (isAboveThreshold(segment.getValue()))
+                assertFalse(name, after.containsKey(name));
+            else if (segment.getValue()[0] >= 100)  // the segment of memory 1 is not rewritten
+                assertTrue(name, after.containsKey(name));
+        }
+
+        for (int[] segment : after.values())
+            assertFalse(isAboveThreshold(segment));
+
+        List<TranslationUnitMessage> expected = new ArrayList<>();
+        expected.addAll(additions(0, 0L, 1L, EN__IT, 100));
+        expected.addAll(additions(0, 110L, 3L, EN__IT, 10));
+        assertEquals(TLuceneTranslationMemory.asEntrySet(expected), memory.entrySet());
+    }
+
+    @Test
+    public void backgroundMergeOfDeletions() throws Throwable {
+        memory.setMergePolicy(50, 20., 10.);
+
+        long timeout = System.currentTimeMillis() + 10000L;
+        while (numDeletedDocs() >= 10 && System.currentTimeMillis() < timeout)
+            Thread.sleep(50);
+
+        assertTrue(numDeletedDocs() < 10);
+        for (int[] segment : segments().values())
+            assertFalse(isAboveThreshold(segment));
+
+        // Updates keep working while merging
+        memory.onDataReceived(additions(0, 121L, 4L, EN__IT, 10));
+        assertEquals(120, memory.entrySet().size());
+    }
+
+}
@@ -0,0 +1,184 @@
+package eu.modernmt.decoder.neural.memory;
+
+import eu.modernmt.data.TranslationUnitMessage;
+import eu.modernmt.decoder.neural.memory.lucene.LuceneTranslationMemory;
+import eu.modernmt.decoder.neural.memory.lucene.ShardedTranslationMemory;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.memory.TranslationMemory;
+import eu.modernmt.model.ContextVector;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static eu.modernmt.decoder.neural.memory.TestData.*;
+import static org.junit.Assert.*;
+
+public class TestShardedTranslationMemory {
+
+    private File path;
+
+    @Before
+    public void setup() throws Throwable {
+        this.path = Files.createTempDirectory("mmt-sharded-test").toFile();
+    }
+
+    @After
+    public void teardown() throws Throwable {
+        FileUtils.deleteDirectory(path);
+    }
+
+    private static Set<TranslationMemory.Entry> entries(TranslationMemory memory) throws IOException {
+        HashSet<TranslationMemory.Entry> result = new HashSet<>();
+        memory.dumpAll(result::add);
+        return result;
+    }
+
+    private static List<TranslationUnitMessage> concat(List<TranslationUnitMessage> a, List<TranslationUnitMessage> b) {
+        ArrayList<TranslationUnitMessage> result = new ArrayList<>(a);
+        result.addAll(b);
+        return result;
+    }
+
+    private static ScoreEntry[] search(TranslationMemory memory, String context) throws IOException {
+        return memory.search(null, EN__IT, sentence("Hello world"), ContextVector.fromString(context), 10);
+    }
+
+    @Test
+    public void unitsRoutedByLanguagePair() throws Throwable {
+        List<TranslationUnitMessage> enIt = additions(0, 0, 1, EN__IT, 5);
+        List<TranslationUnitMessage> enFr = additions(0, 5, 1, EN__FR, 5);
+        List<TranslationUnitMessage> itEn = additions(0, 10, 2, IT__EN, 5);
+
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            TLuceneTranslationMemory.onDataReceived(memory, concat(concat(enIt, enFr), itEn));
+
+            assertEquals(new HashSet<>(Arrays.asList("en__it", "en__fr")), memory.getShards().keySet());
+            assertEquals(TLuceneTranslationMemory.asEntrySet(concat(enIt, itEn)), entries(memory.getShards().get("en__it")));
+            assertEquals(TLuceneTranslationMemory.asEntrySet(enFr), entries(memory.getShards().get("en__fr")));
+            assertEquals(channels(0, 14), memory.getLatestChannelPositions());
+
+            // memory 1 has en-fr entries too, they are in another shard
+            ScoreEntry[] result = search(memory, "1:1,2:1");
+            assertEquals(10, result.length);
+            for (ScoreEntry entry : result)
+                assertEquals("it", entry.language.target.getLanguage());
+
+            assertEquals(0, memory.search(null, FR__ES, sentence("Hello"), ContextVector.fromString("1:1"), 10).length);
+        }
+    }
+
+    @Test
+    public void deletionsSpanAllShards() throws Throwable {
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            TLuceneTranslationMemory.onDataReceived(memory, concat(additions(0, 0, 1, EN__IT, 5), additions(0, 5, 1, EN__FR, 5)));
+            TLuceneTranslationMemory.onDataReceived(memory, additions(0, 10, 2, EN__IT, 5));
+            TLuceneTranslationMemory.onDelete(memory, deletion(0, 15, 1, null));
+
+            assertEquals(TLuceneTranslationMemory.asEntrySet(additions(0, 10, 2, EN__IT, 5)), entries(memory));
+            assertEquals(channels(0, 15), memory.getLatestChannelPositions());
+        }
+    }
+
+    @Test
+    public void newShardStartsFromCurrentPositions() throws Throwable {
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            TLuceneTranslationMemory.onDataReceived(memory, additions(0, 0, 1, EN__IT, 5));
+            TLuceneTranslationMemory.onDataReceived(memory, additions(1, 0, 1, EN__FR, 5));
+
+            assertEquals(channels(4L, 4L), memory.getLatestChannelPositions());
+            assertEquals(channels(4L, 4L), memory.getShards().get("en__fr").getLatestChannelPositions());
+        }
+
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            assertEquals(channels(4L, 4L), memory.getLatestChannelPositions());
+            assertEquals(10, entries(memory).size());
+        }
+    }
+
+    @Test
+    public void migrationFromSingleIndex() throws Throwable {
+        List<TranslationUnitMessage> units = concat(concat(
+                additions(0, 0, 1, EN__IT, 10),
+                additions(0, 10, 2, EN__FR, 10)),
+                additions(0, 20, 3, FR__ES, 10));
+
+        Set<TranslationMemory.Entry> expectedEntries;
+        ScoreEntry[] expectedResult;
+
+        try (LuceneTranslationMemory memory = new LuceneTranslationMemory(path, 10)) {
+            TLuceneTranslationMemory.onDataReceived(memory, units);
+            TLuceneTranslationMemory.onDelete(memory, deletion(0, 30, 3, null));
+
+            expectedEntries = entries(memory);
+            expectedResult = search(memory, "1:1,2:1");
+        }
+
+        assertFalse(ShardedTranslationMemory.isShardedLayout(path));
+
+        // not part of the index
+        File other = new File(path, "model.conf");
+        FileUtils.write(other, "other", "UTF-8");
+
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            assertTrue(ShardedTranslationMemory.isShardedLayout(path));
+            assertEquals(new HashSet<>(Arrays.asList("en__it", "en__fr")), memory.getShards().keySet());
+
+            assertEquals(expectedEntries, entries(memory));
+            assertEquals(channels(0, 30), memory.getLatestChannelPositions());
+            assertArrayEquals(expectedResult, search(memory, "1:1,2:1"));
+
+            // exact match terms are indexed but not stored, they are copied as well
+            assertNotNull(memory.searchExactMatch(null, EN__IT, sentence("Hello world"), ContextVector.fromString("1:1")));
+        }
+
+        // single index files have been removed, other files are untouched
+        File[] files = path.listFiles(File::isFile);
+        assertNotNull(files);
+        assertArrayEquals(new File[]{other}, files);
+
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            assertEquals(expectedEntries, entries(memory));
+        }
+
+        assertTrue(other.isFile());
+    }
+
+    @Test
+    public void interruptedMigrationIsRestarted() throws Throwable {
+        List<TranslationUnitMessage> units = additions(0, 0, 1, EN__IT, 10);
+
+        try (LuceneTranslationMemory memory = new LuceneTranslationMemory(path, 10)) {
+            TLuceneTranslationMemory.onDataReceived(memory, units);
+        }
+
+        // leftovers of a previous attempt
+        File leftover = new File(path, "shards.tmp" + File.separatorChar + "en__it");
+        FileUtils.forceMkdir(leftover);
+        FileUtils.write(new File(leftover, "garbage"), "garbage", "UTF-8");
+
+        try (ShardedTranslationMemory memory = new ShardedTranslationMemory(path, 10)) {
+            assertEquals(TLuceneTranslationMemory.asEntrySet(units), entries(memory));
+        }
+
+        assertFalse(new File(path, "shards.tmp").exists());
+    }
+
+    @Test
+    public void filesOfShardedLayoutAreNotDeleted() throws Throwable {
+        new ShardedTranslationMemory(path, 10).close();
+
+        File file = new File(path, "segments_1");
+        FileUtils.write(file, "not an index", "UTF-8");
+
+        new ShardedTranslationMemory(path, 10).close();
+
+        assertTrue(file.isFile());
+    }
+
+}
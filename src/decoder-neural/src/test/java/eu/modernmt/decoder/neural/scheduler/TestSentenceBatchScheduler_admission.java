@@ -0,0 +1,232 @@
+package eu.modernmt.decoder.neural.scheduler;
+
+import eu.modernmt.decoder.DecoderException;
+import eu.modernmt.decoder.DecoderUnavailableException;
+import eu.modernmt.decoder.TranslationTimeoutException;
+import eu.modernmt.decoder.neural.DecoderExecutor;
+import eu.modernmt.decoder.neural.DecoderExecutorImpl;
+import eu.modernmt.decoder.neural.DecoderExecutorThread;
+import eu.modernmt.decoder.neural.queue.DecoderQueue;
+import eu.modernmt.decoder.neural.queue.EchoServerDecoderQueue;
+import eu.modernmt.decoder.neural.queue.PythonDecoder;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.memory.ScoreEntry;
+import eu.modernmt.model.Priority;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Word;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Simulates an overloaded decoder (echo decoder with artificial latency) and verifies that
+ * admission control keeps the goodput (translations completed before their expiration) close
+ * to the decoder capacity.
+ */
+public class TestSentenceBatchScheduler_admission {
+
+    private static final LanguageDirection language = new LanguageDirection(Language.ENGLISH, Language.ITALIAN);
+
+    private static final long SENTENCE_LATENCY = 20;  // ms
+    private static final long TIMEOUT = 500;  // ms
+    private static final long DURATION = 2000;  // ms
+
+    private static class SlowDecoderExecutor implements DecoderExecutor {
+
+        private final DecoderExecutorImpl delegate = new DecoderExecutorImpl();
+
+        private static void sleep(int sentences) {
+            try {
+                Thread.sleep(SENTENCE_LATENCY * sentences);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void align(PythonDecoder decoder, LanguageDirection language, List<TranslationSplit> splits) throws DecoderException {
+            sleep(splits.size());
+            delegate.align(decoder, language, splits);
+        }
+
+        @Override
+        public void translate(PythonDecoder decoder, LanguageDirection language, List<TranslationSplit> splits, Collection<ScoreEntry> suggestions) throws DecoderException {
+            sleep(splits.size());
+            delegate.translate(decoder, language, splits, suggestions);
+        }
+    }
+
+    private static class Result {
+
+        int rejected = 0;
+        int onTime = 0;
+        int late = 0;
+
+    }
+
+    private static Result simulate(double overload) throws InterruptedException, DecoderException {
+        DecoderQueue queue = new EchoServerDecoderQueue();
+        SentenceBatchScheduler scheduler = new SentenceBatchScheduler(100000, queue::availability);
+
+        DecoderExecutorThread[] threads = new DecoderExecutorThread[queue.size()];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new DecoderExecutorThread(scheduler, queue, new SlowDecoderExecutor());
+            threads[i].start();
+        }
+
+        Result result = new Result();
+        ArrayList<TranslationSplit> accepted = new ArrayList<>();
+        ArrayList<Scheduler.TranslationLock> locks = new ArrayList<>();
+
+        try {
+            double capacity = queue.availability() * 1000. / SENTENCE_LATENCY;  // sentences per second
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / (capacity * overload));
+
+            long begin = System.nanoTime();
+            long end = begin + TimeUnit.MILLISECONDS.toNanos(DURATION);
+
+            for (long next = begin; next < end; next += interval) {
+                long delay = next - System.nanoTime();
+                if (delay > 0)
+                    LockSupport.parkNanos(delay);
+
+                Sentence sentence = new Sentence(new Word[]{new Word("hello", " ", " "), new Word("world", " ", null)});
+                TranslationSplit split = new TranslationSplit(Priority.NORMAL, sentence, System.currentTimeMillis() + TIMEOUT);
+
+                try {
+                    locks.add(scheduler.schedule(language, new TranslationSplit[]{split}, null));
+                    accepted.add(split);
+                } catch (TranslationTimeoutException e) {
+                    result.rejected++;
+                }
+            }
+
+            for (Scheduler.TranslationLock lock : locks)
+                lock.await();
+
+            for (TranslationSplit split : accepted) {
+                if (split.getTranslationEnd() > 0) {
+                    if (split.getTranslationEnd() <= split.getExpiration())
+                        result.onTime++;
+                    else
+                        result.late++;
+                }
+            }
+        } finally {
+            scheduler.close();
+            for (Thread thread : threads)
+                thread.join();
+        }
+
+        return result;
+    }
+
+    private static void assertGoodput(double overload) throws InterruptedException, DecoderException {
+        Result result = simulate(overload);
+
+        double capacity = 2 * DURATION / (double) SENTENCE_LATENCY;
+        double goodput = result.onTime / capacity;
+
+        assertTrue("No job rejected under overload", result.rejected > 0);
+        assertTrue("Goodput collapsed: " + goodput, goodput > .6);
+        assertTrue("Too much decoder time wasted on late jobs: " + result.late, result.late < result.onTime / 5);
+    }
+
+    @Test
+    public void goodputUnderDoubleLoad() throws InterruptedException, DecoderException {
+        assertGoodput(2.);
+    }
+
+    @Test
+    public void goodputUnderFiveTimesLoad() throws InterruptedException, DecoderException {
+        assertGoodput(5.);
+    }
+
+    @Test
+    public void admissionUsesQueueEstimate() throws DecoderException, InterruptedException {
+        SentenceBatchScheduler scheduler = new SentenceBatchScheduler(10, () -> 1);
+
+        scheduler.schedule(language, split(0));
+        scheduler.onJobCompleted(scheduler.take(), 1, TimeUnit.SECONDS.toNanos(10));
+
+        for (int i = 0; i < 10; i++)
+            scheduler.schedule(language, split(0));
+
+        assertEquals(100000L, scheduler.estimateQueueTime(Priority.NORMAL));
+
+        try {
+            scheduler.schedule(language, split(0));
+            throw new AssertionError("Queue overflow expected");
+        } catch (DecoderUnavailableException e) {
+            // expected
+        }
+
+        try {
+            scheduler.schedule(language, split(System.currentTimeMillis() + 1000));
+            throw new AssertionError("Rejection expected");
+        } catch (TranslationTimeoutException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void expiredJobsAreDropped() throws DecoderException, InterruptedException {
+        SentenceBatchScheduler scheduler = new SentenceBatchScheduler(10);
+
+        TranslationSplit expired = split(System.currentTimeMillis() - 1);
+        TranslationSplit valid = split(0);
+
+        scheduler.schedule(language, expired);
+        Thread.sleep(5);  // jobs with same priority are sorted by arrival time
+        scheduler.schedule(language, valid);
+
+        Scheduler.Job job = scheduler.take();
+        assertEquals(valid, job.getTranslationSplits().get(0));
+
+        try {
+            expired.getTranslation();
+            throw new AssertionError("Timeout expected");
+        } catch (TranslationTimeoutException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void expiredJobsDoNotCountAsRunning() throws DecoderException, InterruptedException {
+        SentenceBatchScheduler scheduler = new SentenceBatchScheduler(10, () -> 1);
+
+        // 10ms per sentence
+        scheduler.schedule(language, split(0));
+        scheduler.onJobCompleted(scheduler.take(), 1, TimeUnit.MILLISECONDS.toNanos(10));
+
+        for (int i = 0; i < 5; i++)
+            scheduler.schedule(language, split(System.currentTimeMillis() + 100));
+        Thread.sleep(150);
+
+        TranslationSplit valid = split(0);
+        scheduler.schedule(language, valid);
+
+        Scheduler.Job job = scheduler.take();
+        assertEquals(valid, job.getTranslationSplits().get(0));
+        scheduler.onJobCompleted(job, 1, TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(0L, scheduler.estimateQueueTime(Priority.NORMAL));
+
+        // Nothing is ahead of this job: it must be admitted
+        scheduler.schedule(language, split(System.currentTimeMillis() + 30));
+    }
+
+    private static TranslationSplit split(long expiration) {
+        Sentence sentence = new Sentence(new Word[]{new Word("hello", " ", null)});
+        return new TranslationSplit(Priority.NORMAL, sentence, new String[]{"ciao"}, expiration);
+    }
+
+}
@@ -1,6 +1,7 @@
 package eu.modernmt.persistence.cassandra;
 
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.exceptions.AuthenticationException;
 import com.datastax.driver.core.exceptions.InvalidQueryException;
@@ -9,6 +10,7 @@ import eu.modernmt.persistence.Connection;
 import eu.modernmt.persistence.PersistenceException;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by andrea on 09/03/17.
@@ -17,6 +19,8 @@ import java.io.IOException;
  */
 public class CassandraConnection implements Connection {
     final Session session;
+    final ConcurrentHashMap<String, PreparedStatement> statements;
+    private final boolean shared;
 
     /**
      * This constructor builds a CassandraConnection object
@@ -30,6 +34,8 @@ public class CassandraConnection implements Connection {
      *                 If is allowed to be null too.
      */
     public CassandraConnection(Cluster cluster, String keyspace) throws PersistenceException {
+        this.statements = new ConcurrentHashMap<>();
+        this.shared = false;
 
         try {
             if (keyspace == null) {
@@ -55,11 +61,42 @@ public class CassandraConnection implements Connection {
     }
 
     /**
-     * This method closes the session with the current DB
+     * This constructor builds a CassandraConnection object
+     * that owns an already opened session
+     *
+     * @param session the session to use and to close with this connection
+     */
+    CassandraConnection(Session session) {
+        this.session = session;
+        this.statements = new ConcurrentHashMap<>();
+        this.shared = false;
+    }
+
+    private CassandraConnection(CassandraConnection owner) {
+        this.session = owner.session;
+        this.statements = owner.statements;
+        this.shared = true;
+    }
+
+    /**
+     * This method returns a view of this connection
+     * that uses the same session and the same prepared statements:
+     * closing the returned connection does not close the session.
+     *
+     * @return a new connection sharing the session of this one
+     */
+    CassandraConnection share() {
+        return new CassandraConnection(this);
+    }
+
+    /**
+     * This method closes the session with the current DB,
+     * unless the session is shared with other connections
      */
     @Override
     public void close() throws IOException {
-        this.session.close();
+        if (!this.shared)
+            this.session.close();
     }
 
 }
@@ -32,6 +32,9 @@ public class CassandraDatabase extends Database {
     private final int port;
 
     private Cluster cluster;
+    private CassandraConnection sharedConnection;
+    private CassandraIdGenerator memoryIds;
+    private CassandraIdGenerator importJobIds;
 
     /**
      * This method returns the default keyspace name
@@ -69,23 +72,38 @@ public class CassandraDatabase extends Database {
      * If the current cluster objec is already initialized,
      * the method closes it and rebuilds it from scratch.
      */
-    private void initCluster() {
+    private synchronized void initCluster() {
+        this.sharedConnection = null;
         if (this.cluster != null)
             this.cluster.close();
         this.cluster = Cluster.builder().withPort(port).addContactPoint(host).build();
+
+        /*IDs reserved by this node are valid only as long as the counters table exists*/
+        this.memoryIds = new CassandraIdGenerator(MEMORIES_TABLE_ID, CassandraIdGenerator.DEFAULT_BLOCK_SIZE);
+        this.importJobIds = new CassandraIdGenerator(IMPORT_JOBS_TABLE_ID, CassandraIdGenerator.DEFAULT_BLOCK_SIZE);
     }
 
     /**
      * This method provides a connection to a Cassandra DB
      *
-     * @param cached
+     * @param cached if true, the connection uses the Session shared by all the cached connections
+     *               of this database, and the statements already prepared on it;
+     *               else, the connection opens a new Session
      * @return A CassandraConnection object, that
      * can be used to establish a communication Session with the DB
      * @throws PersistenceException
      */
     @Override
     public CassandraConnection getConnection(boolean cached) throws PersistenceException {
-        return new CassandraConnection(this.cluster, this.keyspace);
+        if (!cached)
+            return new CassandraConnection(this.cluster, this.keyspace);
+
+        synchronized (this) {
+            if (this.sharedConnection == null || this.sharedConnection.session.isClosed())
+                this.sharedConnection = new CassandraConnection(this.cluster, this.keyspace);
+
+            return this.sharedConnection.share();
+        }
     }
 
     /**
@@ -96,7 +114,7 @@ public class CassandraDatabase extends Database {
      */
     @Override
     public MemoryDAO getMemoryDAO(Connection connection) {
-        return new CassandraMemoryDAO((CassandraConnection) connection);
+        return new CassandraMemoryDAO((CassandraConnection) connection, memoryIds);
     }
 
     /**
@@ -107,7 +125,7 @@ public class CassandraDatabase extends Database {
      */
     @Override
     public ImportJobDAO getImportJobDAO(Connection connection) {
-        return new CassandraImportJobDAO((CassandraConnection) connection);
+        return new CassandraImportJobDAO((CassandraConnection) connection, importJobIds);
     }
 
     /**
@@ -118,6 +136,11 @@ public class CassandraDatabase extends Database {
      * @throws PersistenceException
      */
     public void drop() throws PersistenceException {
+        synchronized (this) {
+            IOUtils.closeQuietly(this.sharedConnection);
+            this.sharedConnection = null;
+        }
+
         CassandraConnection connection = null;
 
         try {
@@ -1,63 +1,176 @@
 package eu.modernmt.persistence.cassandra;
 
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
 import com.datastax.driver.core.querybuilder.BuiltStatement;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import eu.modernmt.persistence.PersistenceException;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * This class provides static methods
- * that generate sequential integer IDs
+ * This class generates sequential integer IDs
  * for objects to store in our Cassandra DB.
+ * <p>
+ * IDs are allocated with a hi/lo strategy: every node reserves a block of IDs
+ * with a single lightweight transaction on the counters table,
+ * then it hands them out locally without contacting the DB.
+ * IDs are unique across the cluster and increasing on every node,
+ * but IDs of different nodes are interleaved
+ * and the IDs left in a block are lost when the node stops.
  */
 public class CassandraIdGenerator {
 
+    public static final int DEFAULT_BLOCK_SIZE = 100;
+
+    private static final Block EMPTY_BLOCK = new Block(1, 0);
+
+    private final int tableId;
+    private final int blockSize;
+
+    private volatile Block block = EMPTY_BLOCK;
+    private long lastCounter = -1L;
+
+    /**
+     * @param tableId   the ID of the table the IDs are generated for
+     * @param blockSize the number of IDs reserved at once, 1 to reserve every ID on the DB
+     */
+    public CassandraIdGenerator(int tableId, int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Invalid block size: " + blockSize);
+
+        this.tableId = tableId;
+        this.blockSize = blockSize;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
     /**
      * This method generates a new ID for a new object
-     * that must be stored in a certain table.
-     * The new IDs are long and are generated in a sequential way.
+     * that must be stored in the table of this generator.
      * <p>
-     * This method is thread-safe.
+     * This method is thread-safe: IDs of the current block are handed out without locks,
+     * only the reservation of a new block is serialized.
+     *
+     * @param connection the current connection with the database
+     * @return the newly generated ID
+     * @throws PersistenceException
+     */
+    public long generate(CassandraConnection connection) throws PersistenceException {
+        while (true) {
+            Block current = this.block;
+
+            long id = current.next();
+            if (id > 0)
+                return id;
+
+            synchronized (this) {
+                if (this.block == current)
+                    this.block = reserve(connection);
+            }
+        }
+    }
+
+    /**
+     * This method updates the counter of the table to a given value
+     * if it is greater than the current one (see {@link #advanceCounter(CassandraConnection, int, long)}).
+     * The IDs of the current block not greater than the new counter are discarded.
      *
      * @param connection the current connection with the database
-     * @param tableId    the ID of the table in which we want to store a new
-     * @return the newly generated ID,
+     * @param newCounter the new counter (if it is greater than the current one)
+     * @return true if the counter has been advanced
      * @throws PersistenceException
      */
-    public static long generate(CassandraConnection connection, int tableId) throws PersistenceException {
-        /*the table COUNTERS_TABLE has a row for each other table in our cassandra;
-        each row holds the table id and a counter marking the last ID
-        that has been employed when storing an object in that table.*/
+    public boolean advanceCounter(CassandraConnection connection, long newCounter) throws PersistenceException {
+        boolean advanced = advance(connection, newCounter);
+
+        synchronized (this) {
+            if (this.block.peek() <= newCounter)
+                this.block = EMPTY_BLOCK;
+        }
+
+        return advanced;
+    }
+
+    /**
+     * This method discards the IDs left in the current block. It is useful when a generated ID
+     * is found to be already in use, i.e. it has been restored by another node after this node
+     * reserved its block: the next ID will come from a new block, after the restored ones.
+     */
+    public synchronized void discardBlock() {
+        this.block = EMPTY_BLOCK;
+    }
+
+    private Block reserve(CassandraConnection connection) throws PersistenceException {
+        long expected = lastCounter < 0 ? readCounter(connection) : lastCounter;
+
+        while (true) {
+            long counter = expected + blockSize;
+            long current = compareAndSet(connection, expected, counter);
 
-        /*statement for getting the last ID used in the table under analysis
-         * from the Counters_table*/
+            if (current == expected) {
+                lastCounter = counter;
+                return new Block(expected + 1, counter);
+            }
+
+            expected = current;
+        }
+    }
+
+    /**
+     * Reads the counter of the table.
+     *
+     * @param connection the current connection with the database
+     * @return the last ID reserved in the table
+     * @throws PersistenceException
+     */
+    protected long readCounter(CassandraConnection connection) throws PersistenceException {
         BuiltStatement get = QueryBuilder.select("table_counter").
                 from(CassandraDatabase.COUNTERS_TABLE).
                 where(QueryBuilder.eq("table_id", tableId));
 
+        Row row = CassandraUtils.checkedExecute(connection, get).one();
+        if (row == null)
+            throw new PersistenceException("Missing counter for table " + tableId);
 
-        /*Read the last ID used in the table under analysis.
-         If it is still the same, increment it and
-         return the new incremented ID.
-         Otherwise, read again.
-         This technique lets us read and update the ID atomically,
-          so it is thread-safe (even it may be if a bit slow).*/
-        while (true) {
+        return row.getLong("table_counter");
+    }
 
-            /* Get the the last ID used in the table under analysis*/
-            long oldCount = CassandraUtils.checkedExecute(connection, get).one().getLong("table_counter");
+    /**
+     * Updates the counter of the table only if it is still the expected one,
+     * with a single lightweight transaction.
+     *
+     * @param connection the current connection with the database
+     * @param expected   the expected value of the counter
+     * @param value      the new value of the counter
+     * @return the value of the counter before the update: it is equal to expected if the counter was updated
+     * @throws PersistenceException
+     */
+    protected long compareAndSet(CassandraConnection connection, long expected, long value) throws PersistenceException {
+        BuiltStatement set = QueryBuilder.update(CassandraDatabase.COUNTERS_TABLE).
+                with(QueryBuilder.set("table_counter", value)).
+                where(QueryBuilder.eq("table_id", tableId)).
+                onlyIf(QueryBuilder.eq("table_counter", expected));
 
-            /* Statement for updating the last ID only if it is still the same*/
-            BuiltStatement set = QueryBuilder.update(CassandraDatabase.COUNTERS_TABLE).
-                    with(QueryBuilder.set("table_counter", (oldCount + 1L))).
-                    where(QueryBuilder.eq("table_id", tableId)).
-                    onlyIf(QueryBuilder.eq("table_counter", oldCount));
+        ResultSet result = CassandraUtils.checkedExecute(connection, set);
+        if (result.wasApplied())
+            return expected;
 
-            /* Try to execute the statement; if it succeeded,
-             * then it means that no-one has updated the last ID
-             * after this thread has read it, so it can use it*/
-            if (CassandraUtils.checkedExecute(connection, set).wasApplied())
-                return oldCount + 1L;
-        }
+        /* A failed conditional update returns the current value of the counter*/
+        Row row = result.one();
+        if (row == null || !row.getColumnDefinitions().contains("table_counter"))
+            throw new PersistenceException("Missing counter for table " + tableId);
+
+        return row.getLong("table_counter");
+    }
+
+    /**
+     * Advances the counter of the table, see {@link #advanceCounter(CassandraConnection, int, long)}.
+     */
+    protected boolean advance(CassandraConnection connection, long newCounter) throws PersistenceException {
+        return advanceCounter(connection, tableId, newCounter);
     }
 
     /**
@@ -115,4 +228,37 @@ public class CassandraIdGenerator {
             CassandraUtils.checkedExecute(connection, built);
         }
     }
+
+    /**
+     * A range of reserved IDs, from first to last (included)
+     */
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        /**
+         * @return the next ID of the block, or -1 if the block is exhausted
+         */
+        long next() {
+            if (next.get() > last)
+                return -1L;
+
+            long id = next.getAndIncrement();
+            return id > last ? -1L : id;
+        }
+
+        /**
+         * @return the next ID of the block, without taking it
+         */
+        long peek() {
+            long id = next.get();
+            return id > last ? Long.MAX_VALUE : id;
+        }
+    }
 }
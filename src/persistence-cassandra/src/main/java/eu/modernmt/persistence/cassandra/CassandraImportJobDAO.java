@@ -19,18 +19,23 @@ import java.util.UUID;
  */
 public class CassandraImportJobDAO implements ImportJobDAO {
 
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
     private CassandraConnection connection;
+    private CassandraIdGenerator idGenerator;
 
     /**
      * This method creates a CassandraImportJobDao
      * that will communicate with the Cassandra DB under analysis
      * using a specific connection
      *
-     * @param connection the Cassandra Connection that the DAO will employ
-     *                   to deal with the ImportJob CRUD operations.
+     * @param connection  the Cassandra Connection that the DAO will employ
+     *                    to deal with the ImportJob CRUD operations.
+     * @param idGenerator the generator of the import job IDs
      */
-    public CassandraImportJobDAO(CassandraConnection connection) {
+    public CassandraImportJobDAO(CassandraConnection connection, CassandraIdGenerator idGenerator) {
         this.connection = connection;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -43,8 +48,31 @@ public class CassandraImportJobDAO implements ImportJobDAO {
      */
     @Override
     public ImportJob store(ImportJob job) throws PersistenceException {
-        long id = CassandraIdGenerator.generate(connection, CassandraDatabase.IMPORT_JOBS_TABLE_ID);
+        long id = idGenerator.generate(connection);
+
+        /* A generated ID is already in use only if it was restored by another node
+         * after this node reserved it: discard the reserved IDs and try again*/
+        for (int attempt = 1; !insert(id, job); attempt++) {
+            if (attempt == MAX_INSERT_ATTEMPTS)
+                throw new PersistenceException("Unable to insert import job into Cassandra Database: " + job);
+
+            idGenerator.discardBlock();
+            id = idGenerator.generate(connection);
+        }
+
+        job.setId(id);
+        return job;
+    }
 
+    /**
+     * This method inserts a ImportJob object in the DB with the given ID
+     *
+     * @param id  the ID of the new row
+     * @param job the ImportJob object to store in the DB
+     * @return true if the import job was inserted, false if the ID is already in use
+     * @throws PersistenceException
+     */
+    private boolean insert(long id, ImportJob job) throws PersistenceException {
         String[] columns = {"id", "memory", "\"begin\"", "end", "data_channel", "size"};
         Object[] values = {id, job.getMemory(), job.getBegin(), job.getEnd(), job.getDataChannel(), job.getSize()};
         BuiltStatement statement = QueryBuilder
@@ -52,13 +80,7 @@ public class CassandraImportJobDAO implements ImportJobDAO {
                 .values(columns, values)
                 .ifNotExists();
 
-        boolean success = CassandraUtils.checkedExecute(connection, statement).wasApplied();
-
-        if (!success)
-            throw new PersistenceException("Unable to insert import job into Cassandra Database: " + job);
-
-        job.setId(id);
-        return job;
+        return CassandraUtils.checkedExecute(connection, statement).wasApplied();
     }
 
     /**
@@ -1,5 +1,7 @@
 package eu.modernmt.persistence.cassandra;
 
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.exceptions.CodecNotFoundException;
@@ -20,18 +22,37 @@ import java.util.*;
  */
 public class CassandraMemoryDAO implements MemoryDAO {
 
+    private static final int MAX_INSERT_ATTEMPTS = 3;
+
+    /**
+     * Maximum number of IDs in the IN clause of a single query:
+     * larger collections are split in multiple queries, executed together.
+     */
+    private static final int MAX_IN_SIZE = 100;
+
+    private static final String SELECT_IN_QUERY = "SELECT * FROM " + CassandraDatabase.MEMORIES_TABLE + " WHERE id IN ?";
+    private static final String INSERT_QUERY = "INSERT INTO " + CassandraDatabase.MEMORIES_TABLE +
+            " (id, owner_msb, owner_lsb, name) VALUES (?, ?, ?, ?) IF NOT EXISTS";
+    private static final String UPDATE_QUERY = "UPDATE " + CassandraDatabase.MEMORIES_TABLE +
+            " SET name = ? WHERE id = ? IF EXISTS";
+    private static final String DELETE_QUERY = "DELETE FROM " + CassandraDatabase.MEMORIES_TABLE +
+            " WHERE id = ? IF EXISTS";
+
     private CassandraConnection connection;
+    private CassandraIdGenerator idGenerator;
 
     /**
      * This method creates a CassandraMemoryDAO
      * that will communicate with the Cassandra DB under analysis
      * using a specific connection
      *
-     * @param connection the Cassandra Connection that the DAO will employ
-     *                   to deal with the Memory CRUD operations.
+     * @param connection  the Cassandra Connection that the DAO will employ
+     *                    to deal with the Memory CRUD operations.
+     * @param idGenerator the generator of the memory IDs
      */
-    public CassandraMemoryDAO(CassandraConnection connection) {
+    public CassandraMemoryDAO(CassandraConnection connection, CassandraIdGenerator idGenerator) {
         this.connection = connection;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -85,7 +106,9 @@ public class CassandraMemoryDAO implements MemoryDAO {
     /**
      * This method retrieves from the Cassandra DB
      * all the Memory objects the ids of which
-     * are contained in a given collection
+     * are contained in a given collection.
+     * The ids are queried with a single prepared statement,
+     * in chunks of at most MAX_IN_SIZE ids that are executed together.
      *
      * @param ids the collection of ids of the Memories to retrieve
      * @return the Memory objects the ids of which are contained in the passed id collection
@@ -99,20 +122,27 @@ public class CassandraMemoryDAO implements MemoryDAO {
         if (ids.isEmpty())
             return map;
 
-        ArrayList<Long> list = new ArrayList<>(ids.size());
-        list.addAll(ids);
-        BuiltStatement statement = QueryBuilder.
-                select().
-                from(CassandraDatabase.MEMORIES_TABLE).
-                where(QueryBuilder.in("id", list));
+        PreparedStatement query = CassandraUtils.checkedPrepare(connection, SELECT_IN_QUERY);
 
-        /*execute the query*/
-        ResultSet result = CassandraUtils.checkedExecute(connection, statement);
+        ArrayList<BoundStatement> statements = new ArrayList<>(1 + ids.size() / MAX_IN_SIZE);
+        ArrayList<Long> chunk = new ArrayList<>(Math.min(ids.size(), MAX_IN_SIZE));
+        for (Long id : ids) {
+            chunk.add(id);
 
-        /*create the Memory objects from the rows*/
-        while (!result.isExhausted()) {
-            Memory memory = read(result.one());
-            map.put(memory.getId(), memory);
+            if (chunk.size() == MAX_IN_SIZE) {
+                statements.add(query.bind(chunk));
+                chunk = new ArrayList<>(MAX_IN_SIZE);
+            }
+        }
+        if (!chunk.isEmpty())
+            statements.add(query.bind(chunk));
+
+        /*execute the queries and create the Memory objects from the rows*/
+        for (ResultSet result : CassandraUtils.checkedExecute(connection, statements)) {
+            for (Row row : result) {
+                Memory memory = read(row);
+                map.put(memory.getId(), memory);
+            }
         }
 
         return map;
@@ -168,13 +198,40 @@ public class CassandraMemoryDAO implements MemoryDAO {
     public Memory store(Memory memory, boolean forceId) throws PersistenceException {
         long id;
 
-        if (!forceId) {
-            id = CassandraIdGenerator.generate(connection, CassandraDatabase.MEMORIES_TABLE_ID);
-        } else {
+        if (forceId) {
             id = memory.getId();
-            CassandraIdGenerator.advanceCounter(connection, CassandraDatabase.MEMORIES_TABLE_ID, id);
+            idGenerator.advanceCounter(connection, id);
+
+            if (!insert(id, memory))
+                throw new PersistenceException("Unable to insert memory into Cassandra Database: " + memory);
+        } else {
+            id = idGenerator.generate(connection);
+
+            /* A generated ID is already in use only if it was restored by another node
+             * after this node reserved it: discard the reserved IDs and try again*/
+            for (int attempt = 1; !insert(id, memory); attempt++) {
+                if (attempt == MAX_INSERT_ATTEMPTS)
+                    throw new PersistenceException("Unable to insert memory into Cassandra Database: " + memory);
+
+                idGenerator.discardBlock();
+                id = idGenerator.generate(connection);
+            }
         }
 
+        memory.setId(id);
+
+        return memory;
+    }
+
+    /**
+     * This method inserts a Memory object in the DB with the given ID
+     *
+     * @param id     the ID of the new row
+     * @param memory the Memory object to store in the DB
+     * @return true if the memory was inserted, false if the ID is already in use
+     * @throws PersistenceException
+     */
+    private boolean insert(long id, Memory memory) throws PersistenceException {
         UUID owner = memory.getOwner();
 
         String[] columns = {"id", "owner_msb", "owner_lsb", "name"};
@@ -189,14 +246,54 @@ public class CassandraMemoryDAO implements MemoryDAO {
                 .values(columns, values)
                 .ifNotExists();
 
-        boolean success = CassandraUtils.checkedExecute(connection, statement).wasApplied();
+        return CassandraUtils.checkedExecute(connection, statement).wasApplied();
+    }
 
-        if (!success)
-            throw new PersistenceException("Unable to insert memory into Cassandra Database: " + memory);
+    /**
+     * This method stores a collection of Memory objects in the DB
+     * with new, sequentially generated IDs.
+     * The insertions are executed together; only the memories
+     * whose generated ID turns out to be already in use are stored again one by one.
+     *
+     * @param memories the Memory objects to store in the DB
+     * @return the same Memory objects received as a parameter, updated with their new IDs
+     * @throws PersistenceException if couldn't insert a memory in the DB
+     */
+    @Override
+    public Collection<Memory> store(Collection<Memory> memories) throws PersistenceException {
+        if (memories.isEmpty())
+            return memories;
+
+        PreparedStatement query = CassandraUtils.checkedPrepare(connection, INSERT_QUERY);
+
+        long[] ids = new long[memories.size()];
+        ArrayList<BoundStatement> statements = new ArrayList<>(memories.size());
+
+        int i = 0;
+        for (Memory memory : memories) {
+            UUID owner = memory.getOwner();
+            ids[i] = idGenerator.generate(connection);
+
+            statements.add(query.bind(
+                    ids[i],
+                    owner == null ? 0L : owner.getMostSignificantBits(),
+                    owner == null ? 0L : owner.getLeastSignificantBits(),
+                    memory.getName()));
+            i++;
+        }
 
-        memory.setId(id);
+        List<ResultSet> results = CassandraUtils.checkedExecute(connection, statements);
 
-        return memory;
+        i = 0;
+        for (Memory memory : memories) {
+            if (results.get(i).wasApplied())
+                memory.setId(ids[i]);
+            else
+                store(memory, false);
+            i++;
+        }
+
+        return memories;
     }
 
     /**
@@ -227,6 +324,39 @@ public class CassandraMemoryDAO implements MemoryDAO {
             return null;
     }
 
+    /**
+     * This method overwrites the names of a collection of Memory objects,
+     * executing all the updates together.
+     * Memories with no corresponding row in the DB are ignored.
+     *
+     * @param memories the Memory objects to store in the DB
+     *                 in place of the already existing ones
+     * @return the Memory objects that were successfully overwritten
+     * @throws PersistenceException
+     */
+    @Override
+    public Collection<Memory> update(Collection<Memory> memories) throws PersistenceException {
+        if (memories.isEmpty())
+            return Collections.emptyList();
+
+        PreparedStatement query = CassandraUtils.checkedPrepare(connection, UPDATE_QUERY);
+
+        ArrayList<BoundStatement> statements = new ArrayList<>(memories.size());
+        for (Memory memory : memories)
+            statements.add(query.bind(memory.getName(), memory.getId()));
+
+        List<ResultSet> results = CassandraUtils.checkedExecute(connection, statements);
+
+        ArrayList<Memory> updated = new ArrayList<>(memories.size());
+        int i = 0;
+        for (Memory memory : memories) {
+            if (results.get(i++).wasApplied())
+                updated.add(memory);
+        }
+
+        return updated;
+    }
+
     /**
      * This method deletes a Memory object from the DB
      *
@@ -246,4 +376,35 @@ public class CassandraMemoryDAO implements MemoryDAO {
 
         return result.wasApplied();
     }
+
+    /**
+     * This method deletes a collection of Memory objects from the DB,
+     * executing all the deletions together
+     *
+     * @param ids the ids of the Memory objects to delete
+     * @return the ids of the Memory objects that were successfully deleted
+     * @throws PersistenceException
+     */
+    @Override
+    public Set<Long> delete(Collection<Long> ids) throws PersistenceException {
+        if (ids.isEmpty())
+            return Collections.emptySet();
+
+        PreparedStatement query = CassandraUtils.checkedPrepare(connection, DELETE_QUERY);
+
+        ArrayList<BoundStatement> statements = new ArrayList<>(ids.size());
+        for (Long id : ids)
+            statements.add(query.bind(id));
+
+        List<ResultSet> results = CassandraUtils.checkedExecute(connection, statements);
+
+        HashSet<Long> deleted = new HashSet<>(ids.size());
+        int i = 0;
+        for (Long id : ids) {
+            if (results.get(i++).wasApplied())
+                deleted.add(id);
+        }
+
+        return deleted;
+    }
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package eu.modernmt.persistence.cassandra;
 
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.exceptions.*;
 import eu.modernmt.persistence.PersistenceException;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * CassandraUtils offers a series of static methods
  * for the queue of queries and statements,
@@ -14,6 +19,11 @@ import eu.modernmt.persistence.PersistenceException;
  */
 public class CassandraUtils {
 
+    /**
+     * Maximum number of statements of a batch that are waiting for a response at the same time
+     */
+    private static final int MAX_CONCURRENT_STATEMENTS = 128;
+
     /**
      * This method performs the queue of a statement
      * and checks for all the possible exceptions that it may throw
@@ -48,6 +58,66 @@ public class CassandraUtils {
         }
     }
 
+    /**
+     * This method performs the queue of a list of statements:
+     * the statements are sent together, without waiting for the response of the previous ones,
+     * so that the whole list costs about one round trip to the DB
+     *
+     * @param connection the current connection with the DB
+     * @param statements the statements to execute
+     * @return the ResultSets obtained from the queue of the statements, in the same order
+     * @throws PersistenceException
+     */
+    public static List<ResultSet> checkedExecute(CassandraConnection connection, List<? extends Statement> statements) throws PersistenceException {
+        ArrayList<ResultSetFuture> futures = new ArrayList<>(statements.size());
+        ArrayList<ResultSet> results = new ArrayList<>(statements.size());
+
+        try {
+            for (Statement statement : statements) {
+                if (futures.size() - results.size() >= MAX_CONCURRENT_STATEMENTS)
+                    results.add(futures.get(results.size()).getUninterruptibly());
+
+                futures.add(connection.session.executeAsync(statement));
+            }
+
+            while (results.size() < futures.size())
+                results.add(futures.get(results.size()).getUninterruptibly());
+
+            return results;
+        } catch (DriverException e) {
+            for (int i = results.size(); i < futures.size(); i++)
+                futures.get(i).cancel(true);
+
+            throw unwrap(e);
+        }
+    }
+
+    /**
+     * This method prepares a query string, or returns the statement
+     * already prepared for the same query on the session of the connection
+     *
+     * @param connection the current connection with the DB
+     * @param query      the string with the query to prepare
+     * @return the PreparedStatement for the query
+     * @throws PersistenceException
+     */
+    public static PreparedStatement checkedPrepare(CassandraConnection connection, String query) throws PersistenceException {
+        PreparedStatement statement = connection.statements.get(query);
+
+        if (statement == null) {
+            try {
+                statement = connection.session.prepare(query);
+            } catch (DriverException e) {
+                throw unwrap(e);
+            }
+
+            PreparedStatement existing = connection.statements.putIfAbsent(query, statement);
+            if (existing != null)
+                statement = existing;
+        }
+
+        return statement;
+    }
 
     private static PersistenceException unwrap(DriverException cause) throws PersistenceException {
 
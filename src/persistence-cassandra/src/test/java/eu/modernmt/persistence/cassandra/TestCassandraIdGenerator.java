@@ -0,0 +1,155 @@
+package eu.modernmt.persistence.cassandra;
+
+import eu.modernmt.persistence.PersistenceException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * Concurrent nodes allocating IDs from the same counter. The counters table is simulated
+ * with the same semantics of the Cassandra lightweight transactions used by the generator.
+ */
+public class TestCassandraIdGenerator {
+
+    private static class SimulatedNode extends CassandraIdGenerator {
+
+        private final AtomicLong table;
+        private final AtomicLong transactions = new AtomicLong();
+
+        SimulatedNode(AtomicLong table, int blockSize) {
+            super(CassandraDatabase.MEMORIES_TABLE_ID, blockSize);
+            this.table = table;
+        }
+
+        @Override
+        protected long readCounter(CassandraConnection connection) {
+            return table.get();
+        }
+
+        @Override
+        protected long compareAndSet(CassandraConnection connection, long expected, long value) {
+            transactions.incrementAndGet();
+            Thread.yield();
+
+            if (table.compareAndSet(expected, value))
+                return expected;
+            else
+                return table.get();
+        }
+
+        @Override
+        protected boolean advance(CassandraConnection connection, long newCounter) {
+            while (true) {
+                long counter = table.get();
+                if (counter >= newCounter)
+                    return false;
+                if (table.compareAndSet(counter, newCounter))
+                    return true;
+            }
+        }
+    }
+
+    private static List<List<Long>> generate(SimulatedNode[] nodes, int threadsPerNode, int idsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.length * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            ArrayList<Future<List<Long>>> futures = new ArrayList<>();
+            for (SimulatedNode node : nodes) {
+                for (int i = 0; i < threadsPerNode; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+
+                        ArrayList<Long> ids = new ArrayList<>(idsPerThread);
+                        for (int j = 0; j < idsPerThread; j++)
+                            ids.add(node.generate(null));
+                        return ids;
+                    }));
+                }
+            }
+
+            start.countDown();
+
+            ArrayList<List<Long>> result = new ArrayList<>(futures.size());
+            for (Future<List<Long>> future : futures)
+                result.add(future.get());
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void uniqueAndIncreasingAcrossNodes() throws Exception {
+        AtomicLong table = new AtomicLong(0);
+        SimulatedNode[] nodes = new SimulatedNode[4];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = new SimulatedNode(table, 10);
+
+        List<List<Long>> result = generate(nodes, 4, 1000);
+
+        HashSet<Long> all = new HashSet<>();
+        for (List<Long> ids : result) {
+            for (int i = 1; i < ids.size(); i++)
+                assertTrue(ids.get(i - 1) < ids.get(i));
+            all.addAll(ids);
+        }
+
+        assertEquals(16 * 1000, all.size());
+        assertTrue(Collections.min(all) > 0);
+        assertTrue(Collections.max(all) <= table.get());
+
+        // At most one partially used block per node
+        long blocks = table.get() / 10;
+        assertTrue(blocks <= 16 * 1000 / 10 + nodes.length);
+
+        // One transaction per block, a failed one for every concurrent reservation of the other nodes
+        long transactions = 0;
+        for (SimulatedNode node : nodes)
+            transactions += node.transactions.get();
+        assertTrue(transactions <= blocks * nodes.length);
+    }
+
+    @Test
+    public void blockOfOneIsSequential() throws Exception {
+        AtomicLong table = new AtomicLong(0);
+        SimulatedNode node = new SimulatedNode(table, 1);
+
+        for (long i = 1; i <= 100; i++)
+            assertEquals(i, node.generate(null));
+        assertEquals(100, table.get());
+    }
+
+    @Test
+    public void advanceCounterForRestores() throws PersistenceException {
+        AtomicLong table = new AtomicLong(0);
+        SimulatedNode node = new SimulatedNode(table, 10);
+        SimulatedNode other = new SimulatedNode(table, 10);
+
+        assertEquals(1, node.generate(null));
+        assertEquals(11, other.generate(null));
+
+        // A restored ID in the block of the node: the block is discarded
+        assertTrue(node.advanceCounter(null, 50));
+        assertEquals(51, node.generate(null));
+
+        // A restored ID below the counter
+        assertFalse(node.advanceCounter(null, 5));
+        assertEquals(52, node.generate(null));
+
+        // Another node restored an ID after this node reserved its block
+        assertEquals(12, other.generate(null));
+        other.discardBlock();
+        assertEquals(61, other.generate(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBlockSize() {
+        new CassandraIdGenerator(CassandraDatabase.MEMORIES_TABLE_ID, 0);
+    }
+
+}
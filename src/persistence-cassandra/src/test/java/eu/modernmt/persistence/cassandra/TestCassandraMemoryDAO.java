@@ -0,0 +1,309 @@
+package eu.modernmt.persistence.cassandra;
+
+import com.datastax.driver.core.*;
+import eu.modernmt.model.Memory;
+import eu.modernmt.persistence.PersistenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batch operations of the DAO on a simulated memories table: the session is a proxy
+ * that executes the prepared statements used by the DAO on an in-memory map,
+ * with the same semantics of the lightweight transactions of Cassandra.
+ */
+public class TestCassandraMemoryDAO {
+
+    private static class SimulatedSession {
+
+        private final ConcurrentHashMap<Long, Memory> rows = new ConcurrentHashMap<>();
+        private final Map<Statement, Object[]> values = Collections.synchronizedMap(new IdentityHashMap<>());
+        private final Map<String, Set<PreparedStatement>> executedStatements = new ConcurrentHashMap<>();
+        private final List<Integer> selectSizes = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private volatile boolean closed = false;
+
+        private final ColumnDefinitions variables;
+        private final Object preparedId;
+
+        SimulatedSession() throws ReflectiveOperationException {
+            // A BoundStatement needs the metadata of its prepared statement, that the driver does not expose
+            Constructor<ColumnDefinitions> definitions = ColumnDefinitions.class
+                    .getDeclaredConstructor(ColumnDefinitions.Definition[].class, CodecRegistry.class);
+            definitions.setAccessible(true);
+            this.variables = definitions.newInstance(new ColumnDefinitions.Definition[0], CodecRegistry.DEFAULT_INSTANCE);
+
+            Constructor<?> id = PreparedId.class.getDeclaredConstructors()[0];
+            id.setAccessible(true);
+            this.preparedId = id.newInstance(null, variables, variables, null, ProtocolVersion.NEWEST_SUPPORTED);
+        }
+
+        Session open() {
+            return proxy(Session.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepare":
+                        return prepare((String) args[0]);
+                    case "executeAsync":
+                        return execute((BoundStatement) args[0]);
+                    case "isClosed":
+                        return closed;
+                    case "close":
+                        closed = true;
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private PreparedStatement prepare(String query) {
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getQueryString":
+                        return query;
+                    case "getVariables":
+                        return variables;
+                    case "getPreparedId":
+                        return preparedId;
+                    case "bind":
+                        BoundStatement statement = new BoundStatement((PreparedStatement) proxy);
+                        values.put(statement, (Object[]) args[0]);
+                        return statement;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "isTracing":
+                        return false;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        private ResultSetFuture execute(BoundStatement statement) {
+            PreparedStatement prepared = statement.preparedStatement();
+            String query = prepared.getQueryString();
+            Object[] parameters = values.remove(statement);
+
+            executedStatements.computeIfAbsent(query, key -> ConcurrentHashMap.newKeySet()).add(prepared);
+
+            List<Memory> result = new ArrayList<>();
+            boolean applied = true;
+
+            if (query.startsWith("SELECT")) {
+                @SuppressWarnings("unchecked")
+                List<Long> ids = (List<Long>) parameters[0];
+                selectSizes.add(ids.size());
+
+                for (Long id : ids) {
+                    Memory memory = rows.get(id);
+                    if (memory != null)
+                        result.add(memory);
+                }
+            } else if (query.startsWith("UPDATE")) {
+                String name = (String) parameters[0];
+                applied = rows.computeIfPresent((Long) parameters[1], (id, memory) -> new Memory(id, memory.getOwner(), name)) != null;
+            } else if (query.startsWith("DELETE")) {
+                applied = rows.remove((Long) parameters[0]) != null;
+            } else {
+                throw new UnsupportedOperationException(query);
+            }
+
+            int pending = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(pending, Math::max);
+
+            ResultSet resultSet = resultSet(result, applied);
+            return proxy(ResultSetFuture.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getUninterruptibly":
+                        inFlight.decrementAndGet();
+                        return resultSet;
+                    case "cancel":
+                        return true;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        private static ResultSet resultSet(List<Memory> memories, boolean applied) {
+            ArrayList<Row> rows = new ArrayList<>(memories.size());
+            for (Memory memory : memories) {
+                rows.add(proxy(Row.class, (proxy, method, args) -> {
+                    switch ((String) args[0]) {
+                        case "id":
+                            return memory.getId();
+                        case "owner_msb":
+                            return memory.getOwner() == null ? 0L : memory.getOwner().getMostSignificantBits();
+                        case "owner_lsb":
+                            return memory.getOwner() == null ? 0L : memory.getOwner().getLeastSignificantBits();
+                        case "name":
+                            return memory.getName();
+                        default:
+                            throw new UnsupportedOperationException((String) args[0]);
+                    }
+                }));
+            }
+
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "iterator":
+                        return rows.iterator();
+                    case "wasApplied":
+                        return applied;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+
+    private SimulatedSession session;
+    private CassandraConnection connection;
+    private List<Long> ids;
+
+    @Before
+    public void setup() throws ReflectiveOperationException {
+        session = new SimulatedSession();
+        connection = new CassandraConnection(session.open());
+
+        ids = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            session.rows.put(id, new Memory(id, new UUID(id, id), "memory-" + id));
+            ids.add(id);
+        }
+    }
+
+    @Test
+    public void retrieveChunkBoundaries() throws PersistenceException {
+        CassandraMemoryDAO dao = new CassandraMemoryDAO(connection, null);
+
+        Object[][] cases = {
+                {0, Collections.emptyList()},
+                {1, Collections.singletonList(1)},
+                {100, Collections.singletonList(100)},
+                {101, Arrays.asList(100, 1)},
+                {250, Arrays.asList(100, 100, 50)},
+        };
+
+        for (Object[] c : cases) {
+            int size = (Integer) c[0];
+            session.selectSizes.clear();
+
+            Map<Long, Memory> result = dao.retrieve(ids.subList(0, size));
+
+            assertEquals(size + " ids", c[1], session.selectSizes);
+            assertEquals(size, result.size());
+            for (Long id : ids.subList(0, size)) {
+                assertEquals("memory-" + id, result.get(id).getName());
+                assertEquals(new UUID(id, id), result.get(id).getOwner());
+            }
+        }
+    }
+
+    @Test
+    public void updateBatch() throws PersistenceException {
+        CassandraMemoryDAO dao = new CassandraMemoryDAO(connection, null);
+
+        assertTrue(dao.update(Collections.emptyList()).isEmpty());
+
+        for (int size : new int[]{1, 100, 101}) {
+            ArrayList<Memory> changes = new ArrayList<>();
+            for (Long id : ids.subList(0, size))
+                changes.add(new Memory(id, "renamed-" + size));
+            changes.add(new Memory(1000L, "missing"));
+
+            Collection<Memory> updated = dao.update(changes);
+
+            assertEquals(changes.subList(0, size), new ArrayList<>(updated));
+            for (Long id : ids.subList(0, size))
+                assertEquals("renamed-" + size, session.rows.get(id).getName());
+            assertFalse(session.rows.containsKey(1000L));
+        }
+    }
+
+    @Test
+    public void deleteBatchLimitsPendingStatements() throws PersistenceException {
+        CassandraMemoryDAO dao = new CassandraMemoryDAO(connection, null);
+
+        assertTrue(dao.delete(Collections.emptyList()).isEmpty());
+
+        ArrayList<Long> batch = new ArrayList<>(ids);
+        batch.add(1000L);
+
+        assertEquals(new HashSet<>(ids), dao.delete(batch));
+        assertTrue(session.rows.isEmpty());
+        assertEquals(128, session.maxInFlight.get());
+        assertEquals(0, session.inFlight.get());
+    }
+
+    @Test
+    public void concurrentUseOfSharedSession() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            ArrayList<Future<Map<Long, Memory>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<Long> owned = ids.subList(t * 30, (t + 1) * 30);
+
+                futures.add(executor.submit(() -> {
+                    start.await();
+
+                    CassandraConnection shared = connection.share();
+                    try {
+                        CassandraMemoryDAO dao = new CassandraMemoryDAO(shared, null);
+
+                        ArrayList<Memory> changes = new ArrayList<>();
+                        for (Long id : owned)
+                            changes.add(new Memory(id, "updated-" + id));
+
+                        assertEquals(owned.size(), dao.update(changes).size());
+                        return dao.retrieve(owned);
+                    } finally {
+                        shared.close();
+                    }
+                }));
+            }
+
+            start.countDown();
+
+            for (int t = 0; t < threads; t++) {
+                Map<Long, Memory> result = futures.get(t).get();
+
+                assertEquals(30, result.size());
+                for (Memory memory : result.values())
+                    assertEquals("updated-" + memory.getId(), memory.getName());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // all the connections used the statements prepared once on the session
+        assertEquals(2, connection.statements.size());
+        for (Map.Entry<String, Set<PreparedStatement>> entry : session.executedStatements.entrySet())
+            assertEquals(Collections.singleton(connection.statements.get(entry.getKey())), entry.getValue());
+
+        // closing the shared connections does not close the session, closing its owner does
+        assertFalse(session.closed);
+        connection.close();
+        assertTrue(session.closed);
+    }
+
+}
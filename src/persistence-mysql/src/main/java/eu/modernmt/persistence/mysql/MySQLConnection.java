@@ -1,5 +1,7 @@
 package eu.modernmt.persistence.mysql;
 
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.persistence.Connection;
 import eu.modernmt.persistence.PersistenceException;
 
@@ -11,7 +13,11 @@ import java.sql.SQLException;
  * A MySQLConnection object represents a connection with a MySQLConnection dataBase.
  */
 public class MySQLConnection implements Connection {
+
+    private static final Histogram sessionTime = Metrics.histogram("database.session");
+
     private java.sql.Connection dataSourceconnection;
+    private final long openTime = System.nanoTime();
 
     public MySQLConnection(java.sql.Connection connection) throws PersistenceException {
         this.dataSourceconnection = connection;
@@ -30,6 +36,8 @@ public class MySQLConnection implements Connection {
             this.dataSourceconnection.close();
         } catch (SQLException e) {
             throw new IOException("Error while closing DB connection");
+        } finally {
+            sessionTime.updateSince(openTime);
         }
     }
 
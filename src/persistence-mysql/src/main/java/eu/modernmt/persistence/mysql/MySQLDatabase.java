@@ -2,6 +2,8 @@ package eu.modernmt.persistence.mysql;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
 import eu.modernmt.config.DatabaseConfig;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.persistence.*;
 import eu.modernmt.persistence.mysql.utils.SQLUtils;
 import org.apache.commons.io.IOUtils;
@@ -16,6 +18,8 @@ import java.sql.Statement;
  */
 public class MySQLDatabase extends Database {
 
+    private static final Histogram connectionTime = Metrics.histogram("database.connect");
+
     private String name;
     private DataSource dataSource;
 
@@ -49,10 +53,14 @@ public class MySQLDatabase extends Database {
      */
     @Override
     public MySQLConnection getConnection(boolean cached) throws PersistenceException {
+        long begin = System.nanoTime();
+
         try {
             return new MySQLConnection(dataSource.getConnection());
         } catch (SQLException e) {
             throw new PersistenceException("SQLException: unable to connect" + e);
+        } finally {
+            connectionTime.updateSince(begin);
         }
     }
 
@@ -4,7 +4,6 @@ import eu.modernmt.model.Memory;
 import eu.modernmt.persistence.MemoryDAO;
 import eu.modernmt.persistence.PersistenceException;
 import eu.modernmt.persistence.mysql.utils.SQLUtils;
-import org.apache.commons.lang3.StringUtils;
 
 import java.sql.*;
 import java.util.*;
@@ -16,6 +15,19 @@ import java.util.*;
  */
 public class MySQLMemoryDAO implements MemoryDAO {
 
+    /**
+     * The number of parameters of the "IN (?, ...)" queries: the ids are queried in chunks
+     * of the smallest of these sizes that can contain them (or of the largest one), padded by repeating the last id.
+     * In this way the DB receives only a few distinct queries, whatever the number of the ids.
+     */
+    private static final int[] IN_QUERY_SIZES = {1, 8, 64};
+    private static final String[] IN_QUERIES = new String[IN_QUERY_SIZES.length];
+
+    static {
+        for (int i = 0; i < IN_QUERY_SIZES.length; i++)
+            IN_QUERIES[i] = "SELECT * FROM mmt_memories WHERE id IN (" + SQLUtils.parameters(IN_QUERY_SIZES[i]) + ")";
+    }
+
     private Connection connection;
 
     /**
@@ -71,19 +83,39 @@ public class MySQLMemoryDAO implements MemoryDAO {
         if (ids.isEmpty())
             return memories;
 
-        String query = "SELECT * FROM mmt_memories "
-                + "WHERE id IN (" + StringUtils.join(ids.toArray(new Long[ids.size()]), ',') + ") ";
+        Long[] array = ids.toArray(new Long[ids.size()]);
 
-        /*execute query and read resources from its result*/
-        Statement statement = null;
+        /*execute one query for every chunk of ids and read resources from its result*/
+        PreparedStatement statement = null;
         ResultSet result = null;
+        int querySize = 0;
+
         try {
-            statement = this.connection.createStatement();
-            result = statement.executeQuery(query);
+            for (int offset = 0; offset < array.length; offset += querySize) {
+                int q = 0;
+                while (q < IN_QUERY_SIZES.length - 1 && IN_QUERY_SIZES[q] < array.length - offset)
+                    q++;
+
+                if (IN_QUERY_SIZES[q] != querySize) {
+                    SQLUtils.closeQuietly(statement);
+                    statement = null;
 
-            while (result.next()) {
-                Memory memory = read(result);
-                memories.put(memory.getId(), memory);
+                    querySize = IN_QUERY_SIZES[q];
+                    statement = this.connection.prepareStatement(IN_QUERIES[q]);
+                }
+
+                for (int i = 0; i < querySize; i++)
+                    statement.setLong(i + 1, array[Math.min(offset + i, array.length - 1)]);
+
+                result = statement.executeQuery();
+
+                while (result.next()) {
+                    Memory memory = read(result);
+                    memories.put(memory.getId(), memory);
+                }
+
+                SQLUtils.closeQuietly(result);
+                result = null;
             }
 
             return memories;
@@ -188,6 +220,53 @@ public class MySQLMemoryDAO implements MemoryDAO {
     }
 
 
+    /**
+     * This method stores a collection of Memory objects in the DB with a single batch of insertions
+     *
+     * @param memories the Memory objects to store in the DB
+     * @return the stored Memory objects themselves, with the IDs they were stored with in the DB
+     * @throws PersistenceException if could not insert the Memories in the DB
+     */
+    @Override
+    public Collection<Memory> store(Collection<Memory> memories) throws PersistenceException {
+        if (memories.isEmpty())
+            return memories;
+
+        String query = "INSERT INTO mmt_memories (owner_msb, owner_lsb, name) values (?, ?, ?)";
+
+        PreparedStatement statement = null;
+        ResultSet generatedKeys = null;
+        try {
+            statement = this.connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+
+            for (Memory memory : memories) {
+                UUID owner = memory.getOwner();
+
+                statement.setLong(1, owner == null ? 0L : owner.getMostSignificantBits());
+                statement.setLong(2, owner == null ? 0L : owner.getLeastSignificantBits());
+                statement.setString(3, memory.getName());
+                statement.addBatch();
+            }
+
+            statement.executeBatch();
+            generatedKeys = statement.getGeneratedKeys();
+
+            for (Memory memory : memories) {
+                if (generatedKeys.next())
+                    memory.setId(generatedKeys.getLong(1));
+                else
+                    throw new PersistenceException("Memory store failed, no ID obtained.");
+            }
+
+            return memories;
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        } finally {
+            SQLUtils.closeQuietly(statement);
+            SQLUtils.closeQuietly(generatedKeys);
+        }
+    }
+
     /**
      * This method updates the Memory with the same ID as the passed one, overwriting its name
      * If in the DB there is no row with that ID nothing happens.
@@ -198,7 +277,7 @@ public class MySQLMemoryDAO implements MemoryDAO {
      */
     @Override
     public Memory update(Memory memory) throws PersistenceException {
-        String query = "UPDATE TABLE mmt_memories SET name = ? WHERE id = ? ";
+        String query = "UPDATE mmt_memories SET name = ? WHERE id = ? ";
 
         /*execute query and read resources from its result*/
         PreparedStatement statement = null;
@@ -219,6 +298,48 @@ public class MySQLMemoryDAO implements MemoryDAO {
         }
     }
 
+    /**
+     * This method overwrites the names of a collection of Memories with a single batch of updates.
+     * Memories with no corresponding row in the DB are ignored.
+     *
+     * @param memories the Memories to overwrite
+     * @return the Memories that were successfully overwritten
+     * @throws PersistenceException if a DB error occurs
+     */
+    @Override
+    public Collection<Memory> update(Collection<Memory> memories) throws PersistenceException {
+        if (memories.isEmpty())
+            return Collections.emptyList();
+
+        String query = "UPDATE mmt_memories SET name = ? WHERE id = ? ";
+
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(query);
+
+            for (Memory memory : memories) {
+                statement.setString(1, memory.getName());
+                statement.setLong(2, memory.getId());
+                statement.addBatch();
+            }
+
+            int[] affectedRows = statement.executeBatch();
+
+            ArrayList<Memory> updated = new ArrayList<>(memories.size());
+            int i = 0;
+            for (Memory memory : memories) {
+                if (affectedRows[i++] != 0)
+                    updated.add(memory);
+            }
+
+            return updated;
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        } finally {
+            SQLUtils.closeQuietly(statement);
+        }
+    }
+
     /**
      * This method deletes a Memory object from the DB
      *
@@ -241,6 +362,45 @@ public class MySQLMemoryDAO implements MemoryDAO {
         }
     }
 
+    /**
+     * This method deletes a collection of Memory objects from the DB with a single batch of deletions
+     *
+     * @param ids the ids of the Memory objects to delete
+     * @return the ids of the Memory objects that were successfully deleted
+     * @throws PersistenceException
+     */
+    @Override
+    public Set<Long> delete(Collection<Long> ids) throws PersistenceException {
+        if (ids.isEmpty())
+            return Collections.emptySet();
+
+        String query = "DELETE FROM mmt_memories WHERE id = ? ";
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(query);
+
+            for (Long id : ids) {
+                statement.setLong(1, id);
+                statement.addBatch();
+            }
+
+            int[] affectedRows = statement.executeBatch();
+
+            HashSet<Long> deleted = new HashSet<>(ids.size());
+            int i = 0;
+            for (Long id : ids) {
+                if (affectedRows[i++] != 0)
+                    deleted.add(id);
+            }
+
+            return deleted;
+        } catch (SQLException e) {
+            throw new PersistenceException(e);
+        } finally {
+            SQLUtils.closeQuietly(statement);
+        }
+    }
+
     private static Memory read(ResultSet result) throws PersistenceException {
         if (result == null)
             return null;
@@ -42,6 +42,20 @@ public class SQLUtils {
     }
 
 
+    /**
+     * @param count the number of parameters
+     * @return the comma separated list of "count" parameter markers ("?, ?, ...")
+     */
+    public static String parameters(int count) {
+        StringBuilder builder = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('?');
+        }
+        return builder.toString();
+    }
+
     public static void tryCommit(Connection connection) {
         try {
             connection.commit();
@@ -0,0 +1,294 @@
+package eu.modernmt.persistence.mysql;
+
+import eu.modernmt.model.Memory;
+import eu.modernmt.persistence.PersistenceException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Batch operations of the DAO on a simulated table: the JDBC connection is a proxy
+ * that executes the few statements used by the DAO on an in-memory map.
+ */
+public class TestMySQLMemoryDAO {
+
+    private static final UUID OWNER = new UUID(1L, 2L);
+
+    private static class SimulatedTable {
+
+        private final TreeMap<Long, Memory> rows = new TreeMap<>();
+        private final List<String> preparedQueries = new ArrayList<>();
+        private long nextId = 1L;
+        private int roundTrips = 0;
+
+        Connection connect() {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "prepareStatement":
+                        preparedQueries.add((String) args[0]);
+                        return proxy(PreparedStatement.class, new Statement((String) args[0]));
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        void reset() {
+            preparedQueries.clear();
+            roundTrips = 0;
+        }
+
+        private class Statement implements InvocationHandler {
+
+            private final String query;
+            private final HashMap<Integer, Object> parameters = new HashMap<>();
+            private final ArrayList<HashMap<Integer, Object>> batch = new ArrayList<>();
+            private final ArrayList<Long> generatedKeys = new ArrayList<>();
+
+            Statement(String query) {
+                this.query = query;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "setLong":
+                    case "setString":
+                        parameters.put((Integer) args[0], args[1]);
+                        return null;
+                    case "addBatch":
+                        batch.add(new HashMap<>(parameters));
+                        return null;
+                    case "executeQuery":
+                        roundTrips++;
+                        return select();
+                    case "executeUpdate":
+                        roundTrips++;
+                        return apply(parameters);
+                    case "executeBatch":
+                        roundTrips++;
+                        int[] counts = new int[batch.size()];
+                        for (int i = 0; i < counts.length; i++)
+                            counts[i] = apply(batch.get(i));
+                        batch.clear();
+                        return counts;
+                    case "getGeneratedKeys":
+                        ArrayList<Object[]> keys = new ArrayList<>();
+                        for (Long id : generatedKeys)
+                            keys.add(new Object[]{id});
+                        return resultSet(keys);
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+
+            private ResultSet select() {
+                ArrayList<Object[]> result = new ArrayList<>();
+                for (Object id : new HashSet<>(parameters.values())) {
+                    Memory memory = rows.get((Long) id);
+                    if (memory != null) {
+                        UUID owner = memory.getOwner();
+                        result.add(new Object[]{memory.getId(),
+                                owner == null ? 0L : owner.getMostSignificantBits(),
+                                owner == null ? 0L : owner.getLeastSignificantBits(),
+                                memory.getName()});
+                    }
+                }
+                return resultSet(result);
+            }
+
+            private int apply(Map<Integer, Object> values) {
+                if (query.startsWith("INSERT")) {
+                    long id = nextId++;
+                    rows.put(id, new Memory(id, new UUID((Long) values.get(1), (Long) values.get(2)), (String) values.get(3)));
+                    generatedKeys.add(id);
+                    return 1;
+                } else if (query.startsWith("UPDATE")) {
+                    Memory memory = rows.get((Long) values.get(2));
+                    if (memory == null)
+                        return 0;
+                    memory.setName((String) values.get(1));
+                    return 1;
+                } else if (query.startsWith("DELETE")) {
+                    return rows.remove((Long) values.get(1)) == null ? 0 : 1;
+                } else {
+                    throw new UnsupportedOperationException(query);
+                }
+            }
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows) {
+            List<String> columns = Arrays.asList("id", "owner_msb", "owner_lsb", "name");
+            Iterator<Object[]> iterator = rows.iterator();
+            Object[][] current = new Object[1][];
+
+            return proxy(ResultSet.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        current[0] = iterator.hasNext() ? iterator.next() : null;
+                        return current[0] != null;
+                    case "getLong":
+                    case "getString":
+                        int index = args[0] instanceof String ? columns.indexOf(args[0]) : (Integer) args[0] - 1;
+                        return current[0][index];
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+
+    private SimulatedTable table;
+    private MySQLMemoryDAO dao;
+
+    @Before
+    public void setup() throws PersistenceException {
+        table = new SimulatedTable();
+        dao = new MySQLMemoryDAO(new MySQLConnection(table.connect()));
+    }
+
+    private List<Memory> store(int count) throws PersistenceException {
+        ArrayList<Memory> memories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            memories.add(new Memory(0L, OWNER, "memory-" + i));
+
+        dao.store(memories);
+        table.reset();
+
+        return memories;
+    }
+
+    private static List<Long> ids(List<Memory> memories) {
+        ArrayList<Long> ids = new ArrayList<>(memories.size());
+        for (Memory memory : memories)
+            ids.add(memory.getId());
+        return ids;
+    }
+
+    private static int parameters(String query) {
+        int count = 0;
+        for (int i = 0; i < query.length(); i++) {
+            if (query.charAt(i) == '?')
+                count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void retrieveChunkBoundaries() throws PersistenceException {
+        List<Long> ids = ids(store(200));
+
+        // number of ids -> number of queries: chunks of 64 ids, the last one in the smallest of 1, 8, 64
+        int[][] cases = {{0, 0}, {1, 1}, {8, 1}, {9, 1}, {64, 1}, {65, 2}, {128, 2}, {129, 3}, {200, 4}};
+
+        for (int[] c : cases) {
+            table.reset();
+
+            Map<Long, Memory> result = dao.retrieve(ids.subList(0, c[0]));
+
+            assertEquals(c[0] + " ids", c[0], result.size());
+            for (Long id : ids.subList(0, c[0]))
+                assertEquals("memory-" + (id - 1), result.get(id).getName());
+
+            assertEquals(c[0] + " ids", c[1], table.roundTrips);
+            for (String query : table.preparedQueries)
+                assertTrue(query, Arrays.asList(1, 8, 64).contains(parameters(query)));
+        }
+    }
+
+    @Test
+    public void retrieveIgnoresMissingIds() throws PersistenceException {
+        List<Long> ids = new ArrayList<>(ids(store(10)));
+        ids.add(1000L);
+        ids.add(1001L);
+
+        Map<Long, Memory> result = dao.retrieve(ids);
+
+        assertEquals(10, result.size());
+        assertFalse(result.containsKey(1000L));
+        assertEquals(1, table.roundTrips);
+    }
+
+    @Test
+    public void storeBatch() throws PersistenceException {
+        assertTrue(dao.store(Collections.emptyList()).isEmpty());
+        assertEquals(0, table.roundTrips);
+
+        List<Memory> memories = store(65);
+
+        assertEquals(65, new HashSet<>(ids(memories)).size());
+        for (Memory memory : memories) {
+            assertEquals(memory.getName(), table.rows.get(memory.getId()).getName());
+            assertEquals(OWNER, table.rows.get(memory.getId()).getOwner());
+        }
+    }
+
+    @Test
+    public void updateBatch() throws PersistenceException {
+        List<Memory> memories = store(65);
+
+        assertTrue(dao.update(Collections.emptyList()).isEmpty());
+        assertEquals(0, table.roundTrips);
+
+        for (int size : new int[]{1, 64, 65}) {
+            table.reset();
+
+            ArrayList<Memory> changes = new ArrayList<>();
+            for (Memory memory : memories.subList(0, size))
+                changes.add(new Memory(memory.getId(), "renamed-" + size));
+            changes.add(new Memory(1000L, "missing"));
+
+            Collection<Memory> updated = dao.update(changes);
+
+            assertEquals(changes.subList(0, size), new ArrayList<>(updated));
+            assertEquals(1, table.roundTrips);
+            for (Memory memory : memories.subList(0, size))
+                assertEquals("renamed-" + size, table.rows.get(memory.getId()).getName());
+            assertFalse(table.rows.containsKey(1000L));
+        }
+    }
+
+    @Test
+    public void deleteBatch() throws PersistenceException {
+        List<Long> ids = ids(store(130));
+
+        assertTrue(dao.delete(Collections.emptyList()).isEmpty());
+        assertEquals(0, table.roundTrips);
+
+        int offset = 0;
+        for (int size : new int[]{1, 64, 65}) {
+            table.reset();
+
+            ArrayList<Long> batch = new ArrayList<>(ids.subList(offset, offset + size));
+            batch.add(1000L);
+
+            assertEquals(new HashSet<>(ids.subList(offset, offset + size)), dao.delete(batch));
+            assertEquals(1, table.roundTrips);
+
+            offset += size;
+        }
+
+        assertTrue(table.rows.isEmpty());
+    }
+
+}
@@ -48,6 +48,28 @@ public class CorporaCleaning {
             return options;
         }
 
+        /**
+         * Options for a memory import whose content can be read only once (e.g. the body of a request):
+         * the filters that need a first pass over the whole corpus are replaced by their inline
+         * equivalent, if any, or disabled.
+         *
+         * @return the options for a single-pass memory import
+         */
+        public static Options defaultOptionsForStreamedMemoryImport() {
+            Options options = new Options();
+            options.eraseXml = false;
+            options.filterBrokenUTF8 = true;
+            options.filterByPunctuation = true;
+            options.filterOddSentences = false;
+            options.filterDrafts = false;
+            options.filterBySentenceLength = false;
+            options.filterNumericSentences = true;
+            options.filterVerbatimTranslations = false;
+            options.filterByLanguageBatch = false;
+            options.filterByLanguageInline = true;
+            return options;
+        }
+
         public static Options defaultOptionsForStringPairs() {
             Options options = new Options();
             options.eraseXml = false;
@@ -1,50 +1,52 @@
 package eu.modernmt.cleaning.dedup;
 
 import com.google.common.hash.BloomFilter;
-import com.google.common.hash.Funnel;
-import com.google.common.hash.PrimitiveSink;
-import eu.modernmt.io.UTF8Charset;
+import com.google.common.hash.Funnels;
+import eu.modernmt.data.HashGenerator;
 import eu.modernmt.model.corpus.Corpus;
 import eu.modernmt.model.corpus.MultilingualCorpus;
 import eu.modernmt.model.corpus.TranslationUnit;
 
 public class CorporaBloomFilter {
 
-    private final BloomFilter<String> bloomFilter;
+    // Entries are 64-bit hashes of the content, with new lines equivalent to spaces:
+    // the chance of a collision is negligible
+    // compared to the false positive probability of the filter
+    private final BloomFilter<Long> bloomFilter;
 
     public CorporaBloomFilter(long expectedEntries) {
         this(expectedEntries, 1. / 1000000.);
     }
 
     public CorporaBloomFilter(long expectedEntries, double fpp) {
-        this.bloomFilter = BloomFilter.create(new StringFunnel(), expectedEntries, fpp);
+        this.bloomFilter = BloomFilter.create(Funnels.longFunnel(), expectedEntries, fpp);
     }
 
     public boolean put(TranslationUnit tu) {
         synchronized (bloomFilter) {
             // This is not thread safe, even in v24
-            return bloomFilter.put(CorporaBloomFilter.StringFunnel.toString(tu));
+            return bloomFilter.put(HashGenerator.dedupHash64(tu));
         }
     }
 
     public boolean put(String line) {
         synchronized (bloomFilter) {
             // This is not thread safe, even in v24
-            return bloomFilter.put(line);
+            return bloomFilter.put(HashGenerator.dedupHash64(line));
         }
     }
 
     public boolean contains(TranslationUnit tu) {
         synchronized (bloomFilter) {
             // This is not thread safe, even in v24
-            return bloomFilter.mightContain(CorporaBloomFilter.StringFunnel.toString(tu));
+            return bloomFilter.mightContain(HashGenerator.dedupHash64(tu));
         }
     }
 
     public boolean contains(String line) {
         synchronized (bloomFilter) {
             // This is not thread safe, even in v24
-            return bloomFilter.mightContain(line);
+            return bloomFilter.mightContain(HashGenerator.dedupHash64(line));
         }
     }
 
@@ -72,19 +74,4 @@ public class CorporaBloomFilter {
     public Corpus wrap(final Corpus corpus, final int lengthThreshold) {
         return new BloomFilterCorpus(this, corpus, lengthThreshold);
     }
-
-    static final class StringFunnel implements Funnel<String> {
-
-        public static String toString(TranslationUnit tu) {
-            return tu.language.toString() + '\n' +
-                    tu.source.replace('\n', ' ') + '\n' +
-                    tu.target.replace('\n', ' ');
-        }
-
-        @Override
-        public void funnel(String from, PrimitiveSink into) {
-            into.putString(from, UTF8Charset.get());
-        }
-
-    }
 }
@@ -1,8 +1,12 @@
 package eu.modernmt.processing;
 
+import com.google.common.cache.CacheStats;
 import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.metrics.Histogram;
+import eu.modernmt.metrics.Metrics;
 import eu.modernmt.model.Sentence;
 import eu.modernmt.processing.builder.XMLPipelineBuilder;
+import eu.modernmt.processing.cache.SentenceCache;
 import eu.modernmt.processing.concurrent.PipelineExecutor;
 import eu.modernmt.processing.splitter.SentenceBreakProcessor;
 import eu.modernmt.processing.string.SentenceCompiler;
@@ -41,8 +45,12 @@ public class Preprocessor implements Closeable {
 
     private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
 
+    private static final Histogram processTime = Metrics.histogram("preprocessor.process");
+    private static final Histogram batchTime = Metrics.histogram("preprocessor.batch");
+
     private final int threads;
     private final PipelineExecutor<String, Sentence> executor;
+    private final SentenceCache cache;
 
     public Preprocessor() throws IOException {
         this(DEFAULT_THREADS, getDefaultBuilder());
@@ -57,8 +65,25 @@ public class Preprocessor implements Closeable {
     }
 
     public Preprocessor(int threads, XMLPipelineBuilder<String, Sentence> builder) {
+        this(threads, builder, 0);
+    }
+
+    public Preprocessor(XMLPipelineBuilder<String, Sentence> builder, int cacheSize) {
+        this(DEFAULT_THREADS, builder, cacheSize);
+    }
+
+    /**
+     * Creates a new Preprocessor
+     *
+     * @param threads   number of threads used to process batches
+     * @param builder   the pipeline definition
+     * @param cacheSize maximum number of pre-processed sentences to keep in memory
+     *                  in order to skip the pipeline for repeated inputs; 0 disables the cache
+     */
+    public Preprocessor(int threads, XMLPipelineBuilder<String, Sentence> builder, int cacheSize) {
         this.executor = new PipelineExecutor<>(builder, threads);
         this.threads = threads;
+        this.cache = cacheSize > 0 ? new SentenceCache(cacheSize) : null;
     }
 
     public Sentence[] process(LanguageDirection language, String[] batch) throws ProcessingException, InterruptedException {
@@ -74,19 +99,76 @@ public class Preprocessor implements Closeable {
     }
 
     public Sentence[] process(LanguageDirection language, String[] batch, Options options) throws ProcessingException, InterruptedException {
+        long begin = System.nanoTime();
+
+        try {
+            return processBatch(language, batch, options);
+        } finally {
+            batchTime.updateSince(begin);
+        }
+    }
+
+    private Sentence[] processBatch(LanguageDirection language, String[] batch, Options options) throws ProcessingException, InterruptedException {
         Map<String, Object> metadata = getMetadata(options);
-        return this.executor.processBatch(metadata, language, batch, new Sentence[batch.length]);
+
+        if (cache == null)
+            return this.executor.processBatch(metadata, language, batch, new Sentence[batch.length]);
+
+        Sentence[] result = new Sentence[batch.length];
+
+        int[] missingIndexes = new int[batch.length];
+        int missingCount = 0;
+
+        for (int i = 0; i < batch.length; i++) {
+            result[i] = cache.get(language, batch[i], options);
+            if (result[i] == null)
+                missingIndexes[missingCount++] = i;
+        }
+
+        if (missingCount > 0) {
+            String[] missing = new String[missingCount];
+            for (int i = 0; i < missingCount; i++)
+                missing[i] = batch[missingIndexes[i]];
+
+            Sentence[] processed = this.executor.processBatch(metadata, language, missing, new Sentence[missingCount]);
+
+            for (int i = 0; i < missingCount; i++) {
+                int index = missingIndexes[i];
+                cache.put(language, batch[index], options, processed[i]);
+                result[index] = processed[i];
+            }
+        }
+
+        return result;
     }
 
     public List<Sentence> process(LanguageDirection language, List<String> batch, Options options) throws ProcessingException, InterruptedException {
-        Map<String, Object> metadata = getMetadata(options);
-        Sentence[] result = this.executor.processBatch(metadata, language, batch.toArray(new String[0]), new Sentence[batch.size()]);
+        Sentence[] result = process(language, batch.toArray(new String[0]), options);
         return Arrays.asList(result);
     }
 
     public Sentence process(LanguageDirection language, String text, Options options) throws ProcessingException {
-        Map<String, Object> metadata = getMetadata(options);
-        return this.executor.process(metadata, language, text);
+        long begin = System.nanoTime();
+
+        try {
+            return processSingle(language, text, options);
+        } finally {
+            processTime.updateSince(begin);
+        }
+    }
+
+    private Sentence processSingle(LanguageDirection language, String text, Options options) throws ProcessingException {
+        Sentence sentence = cache == null ? null : cache.get(language, text, options);
+
+        if (sentence == null) {
+            Map<String, Object> metadata = getMetadata(options);
+            sentence = this.executor.process(metadata, language, text);
+
+            if (cache != null)
+                cache.put(language, text, options, sentence);
+        }
+
+        return sentence;
     }
 
     private static Map<String, Object> getMetadata(Options options) {
@@ -97,6 +179,13 @@ public class Preprocessor implements Closeable {
         return threads;
     }
 
+    /**
+     * @return the statistics of the pre-processing cache, or null if the cache is disabled
+     */
+    public CacheStats getCacheStats() {
+        return cache == null ? null : cache.getStats();
+    }
+
     @Override
     public void close() {
         this.executor.shutdown();
@@ -109,7 +198,7 @@ public class Preprocessor implements Closeable {
         }
     }
 
-    private static XMLPipelineBuilder<String, Sentence> getDefaultBuilder() throws IOException {
+    public static XMLPipelineBuilder<String, Sentence> getDefaultBuilder() throws IOException {
         String xmlPath = Preprocessor.class.getPackage().getName().replace('.', '/');
         xmlPath = xmlPath + "/preprocessor-default.xml";
 
@@ -0,0 +1,95 @@
+package eu.modernmt.processing.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.SentenceUtils;
+import eu.modernmt.processing.Preprocessor;
+import eu.modernmt.processing.tags.format.InputFormat;
+
+/**
+ * A bounded, thread-safe cache of pre-processed sentences.
+ * <p>
+ * Entries are keyed by language direction, input string and processing options; the pipeline
+ * definition is implicit because every {@link Preprocessor} owns its own cache instance.
+ * Since downstream components modify the tokens of a sentence (i.e. during tag projection), the cache
+ * never exposes the stored instances: it keeps a private copy of every sentence and returns a new
+ * copy at each hit.
+ */
+public class SentenceCache {
+
+    private final Cache<Key, Sentence> cache;
+
+    public SentenceCache(int size) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                .recordStats()
+                .build();
+    }
+
+    public Sentence get(LanguageDirection direction, String text, Preprocessor.Options options) {
+        Sentence sentence = cache.getIfPresent(new Key(direction, text, options));
+        return sentence == null ? null : SentenceUtils.copy(sentence);
+    }
+
+    public void put(LanguageDirection direction, String text, Preprocessor.Options options, Sentence sentence) {
+        cache.put(new Key(direction, text, options), SentenceUtils.copy(sentence));
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private static final class Key {
+
+        private final LanguageDirection direction;
+        private final String text;
+        private final InputFormat.Type format;
+        private final boolean splitByNewline;
+        private final int hash;
+
+        Key(LanguageDirection direction, String text, Preprocessor.Options options) {
+            this.direction = direction;
+            this.text = text;
+            this.format = options == null ? null : options.format;
+            this.splitByNewline = options != null && options.splitByNewline;
+
+            int hash = direction.hashCode();
+            hash = 31 * hash + text.hashCode();
+            hash = 31 * hash + (format != null ? format.hashCode() : 0);
+            hash = 31 * hash + (splitByNewline ? 1 : 0);
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            if (hash != key.hash) return false;
+            if (splitByNewline != key.splitByNewline) return false;
+            if (format != key.format) return false;
+            if (!direction.equals(key.direction)) return false;
+            return text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -2,51 +2,113 @@ package eu.modernmt.processing.tags.projection;
 
 import org.jetbrains.annotations.NotNull;
 
-import java.util.*;
-
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of word positions that remembers the insertion order.
+ * Membership, min and max are answered by a bit set; the positions array keeps the order
+ * and is compacted lazily after removals, so that removing a position costs O(1).
+ */
 public class Coverage implements Iterable<Integer> {
 
-    private ArrayList<Integer> positions;
+    private final BitSet members;
+    private int[] positions;
+    private int length;  // used slots of positions, including removed positions not yet compacted
+    private int size;
 
     Coverage() {
-        this.positions = new ArrayList<>();
+        this(0);
     }
 
     Coverage(int size) {
-        this.positions = new ArrayList<>(size);
+        this.members = new BitSet();
+        this.positions = new int[Math.max(4, size)];
+        this.length = 0;
+        this.size = 0;
     }
 
     Coverage(Coverage c) {
-        this.positions = new ArrayList<>(c.size());
-        this.positions.addAll(c.getPositions());
+        c.compact();
+        this.members = (BitSet) c.members.clone();
+        this.positions = Arrays.copyOf(c.positions, Math.max(4, c.size));
+        this.length = c.size;
+        this.size = c.size;
+    }
+
+    /**
+     * Creates the coverage of the positions in range [from, to), in ascending order
+     */
+    static Coverage range(int from, int to) {
+        Coverage coverage = new Coverage(to - from);
+        if (from < to) {
+            coverage.members.set(from, to);
+            for (int i = from; i < to; i++)
+                coverage.positions[i - from] = i;
+            coverage.length = coverage.size = to - from;
+        }
+        return coverage;
+    }
+
+    private void compact() {
+        if (length == size)
+            return;
+
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            int pos = positions[i];
+            if (members.get(pos))
+                positions[j++] = pos;
+        }
+        length = j;
     }
 
     protected boolean isEmpty() {
-        return this.positions.isEmpty();
+        return size == 0;
     }
 
     protected int get(int i) {
-        return this.positions.get(i);
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+
+        compact();
+        return positions[i];
     }
 
     protected boolean add(int pos) {
-        if (!this.positions.contains(pos)) {
-            return this.positions.add(pos);
-        } else {
+        if (members.get(pos))
             return false;
-        }
+
+        compact();  // a removed copy of pos may still be in the array
+        if (length == positions.length)
+            positions = Arrays.copyOf(positions, length * 2);
+
+        positions[length++] = pos;
+        members.set(pos);
+        size++;
+        return true;
     }
 
     boolean remove(Integer chosenP) {
-        return this.positions.remove(chosenP);
+        if (!contains(chosenP))
+            return false;
+
+        members.clear(chosenP);
+        size--;
+        return true;
     }
 
     void clear() {
-        this.positions.clear();
+        members.clear();
+        length = size = 0;
     }
 
     void addAll(Coverage c) {
-        this.positions.addAll(c.getPositions());
+        c.compact();
+        for (int i = 0; i < c.length; i++)
+            add(c.positions[i]);
     }
 
     static Coverage intersection(Coverage c1, Coverage c2) {
@@ -75,37 +137,42 @@ public class Coverage implements Iterable<Integer> {
 
     boolean contains(Integer pos) {
         if (pos < 0) return false;
-        return this.positions.contains(pos);
+        return members.get(pos);
     }
 
-    static Coverage contiguous(Coverage c) {
-        Coverage contiguous = new Coverage(c.size());
-        if (c.size() > 0) {
-            for (int i = c.getMin(); i <= c.getMax(); i++) {
-                contiguous.add(i);
-            }
-        }
-        return contiguous;
+    /**
+     * @return true if the ranges [min, max] of c1 and c2 overlap,
+     * i.e. the contiguous coverages of c1 and c2 have a non-empty intersection
+     */
+    static boolean overlaps(Coverage c1, Coverage c2) {
+        if (c1.isEmpty() || c2.isEmpty())
+            return false;
+
+        return Math.max(c1.getMin(), c2.getMin()) <= Math.min(c1.getMax(), c2.getMax());
     }
 
     void sort() {
-        Collections.sort(this.positions);
-    }
+        compact();
 
-    ArrayList<Integer> getPositions() {
-        return this.positions;
+        int i = 0;
+        for (int pos = members.nextSetBit(0); pos >= 0; pos = members.nextSetBit(pos + 1))
+            positions[i++] = pos;
     }
 
     int size() {
-        return positions.size();
+        return size;
     }
 
     int getMin() {
-        return Collections.min(this.positions);
+        if (size == 0)
+            throw new NoSuchElementException();
+        return members.nextSetBit(0);
     }
 
     int getMax() {
-        return Collections.max(this.positions);
+        if (size == 0)
+            throw new NoSuchElementException();
+        return members.length() - 1;
     }
 
     public static int choosePosition(Coverage c1, Coverage c2) {
@@ -135,47 +202,36 @@ public class Coverage implements Iterable<Integer> {
     @NotNull
     @Override
     public Iterator<Integer> iterator() {
+        compact();
+
         return new Iterator<Integer>() {
             private int index = 0;
 
             @Override
             public boolean hasNext() {
-                return index < positions.size();
+                return index < length;
             }
 
             @Override
             public Integer next() {
-                int pos = positions.get(index);
-                index++;
-                return pos;
+                if (index >= length)
+                    throw new NoSuchElementException();
+                return positions[index++];
             }
         };
     }
 
     public String toString() {
-        return this.positions.toString();
+        compact();
+        return Arrays.toString(Arrays.copyOf(positions, length));
     }
 
     public int first() {
-        return this.positions.get(0);
+        return get(0);
     }
 
     public int last() {
-        return this.positions.get(size() - 1);
+        return get(size - 1);
     }
 
-    void uniq() {
-        Set<Integer> set = new LinkedHashSet<>(this.positions);
-
-        // Clear the list
-        this.positions.clear();
-
-        // add the elements of set
-        // with no duplicates to the list
-        this.positions.addAll(set);
-    }
-
-    void retainAll(Coverage targetRightToken) {
-        this.positions.retainAll(targetRightToken.getPositions());
-    }
 }
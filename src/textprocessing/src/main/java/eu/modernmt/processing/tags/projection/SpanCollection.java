@@ -20,28 +20,6 @@ class SpanCollection implements Iterable<Span> {
     SpanCollection(List<Tag> tags, int words) {
         list = new ArrayList<>(tags.size());
 
-        Map<String, List<Integer>> openingTagSet = new HashMap<>();
-        Map<String, List<Integer>> closingTagSet = new HashMap<>();
-        Map<String, List<Integer>> emptyTagSet = new HashMap<>();
-
-        for (int tagIndex = 0; tagIndex < tags.size(); tagIndex++) {
-            Tag tag = tags.get(tagIndex);
-            String name = tag.getName();
-            if (tag.getType() == Tag.Type.OPENING_TAG) {
-                openingTagSet.computeIfAbsent(name, k -> new ArrayList<>());
-                openingTagSet.get(name).add(tagIndex);
-            }
-            if (tag.getType() == Tag.Type.CLOSING_TAG) {
-                closingTagSet.computeIfAbsent(name, k -> new ArrayList<>());
-                closingTagSet.get(tag.getName()).add(tagIndex);
-            }
-            if (tag.getType() == Tag.Type.EMPTY_TAG) {
-                emptyTagSet.computeIfAbsent(name, k -> new ArrayList<>());
-                emptyTagSet.get(name).add(tagIndex);
-            }
-
-        }
-
         int[] tagLevel = new int[tags.size()];
 
         int level = ROOT_LEVEL;
@@ -67,102 +45,34 @@ class SpanCollection implements Iterable<Span> {
             tagLevel[t] = tagLevel[t] - minLevel;
         }
 
+        // Pairs every opening tag with the first following closing tag with the same name that is not paired yet,
+        // considering the opening tags from right to left: while scanning the tags backwards, the unpaired
+        // closing tags of each name are a stack, the top being the closest to the current position.
+        // Unpaired tags are linked to -1, empty tags to themselves.
         int[] tagLink = new int[tags.size()];
-        boolean[] tagVisit = new boolean[tags.size()];
-
-        for (String name : openingTagSet.keySet()) {
-            List<Integer> openingTags = openingTagSet.get(name);
-            List<Integer> closingTags = closingTagSet.get(name);
-            if (closingTags == null) {
-                // there are no closing tags for this name; hence all opening tags for this name are spurious
-                for (Integer beginTagIdx : openingTags) {
-                    tagVisit[beginTagIdx] = true;
-                    tagLink[beginTagIdx] = -1;
-                }
-            } else {
-                for (int bt = openingTags.size() - 1; bt >= 0; bt--) {
-                    int beginTagIdx = openingTags.get(bt);
-
-                    if (tagVisit[beginTagIdx]) {
-                        continue;
-                    }
+        Map<String, Deque<Integer>> closingTags = new HashMap<>();
 
-                    int endTagIdx = -1;
-                    for (int idx : closingTags) {
-                        if (!tagVisit[idx] && idx > beginTagIdx) {
-                            endTagIdx = idx;
-                            break;
-                        }
-                    }
-                    tagVisit[beginTagIdx] = true;
-                    if (endTagIdx != -1) {
-                        //found opening/closing pair
-                        //create the corresponding span opening/closing span
-                        //visit both
-                        tagVisit[endTagIdx] = true;
-                        tagLink[beginTagIdx] = endTagIdx;
-                        tagLink[endTagIdx] = beginTagIdx;
-                    } else {
-                        //found opening tag without closing
-                        //create the corresponding span opening span without closing
-                        //visit opening tag
-                        tagLink[beginTagIdx] = -1;
-                    }
-                }
-            }
-        }
+        for (int t = tags.size() - 1; t >= 0; t--) {
+            Tag tag = tags.get(t);
+            Tag.Type type = tag.getType();
 
-        for (String name : closingTagSet.keySet()) {
-            List<Integer> openingTags = openingTagSet.get(name);
-            List<Integer> closingTags = closingTagSet.get(name);
-            if (openingTags == null) {
-                // there are no opening tags for this name; hence all closing tags for this name are spurious
-                for (Integer endTagIdx : closingTags) {
-                    tagVisit[endTagIdx] = true;
-                    tagLink[endTagIdx] = -1;
-                }
+            if (type == Tag.Type.EMPTY_TAG) {
+                tagLink[t] = t;
+            } else if (type == Tag.Type.CLOSING_TAG) {
+                tagLink[t] = -1;
+                closingTags.computeIfAbsent(tag.getName(), k -> new ArrayDeque<>()).push(t);
             } else {
-                for (int endTagIdx : closingTags) {
-                    if (tagVisit[endTagIdx]) {
-                        continue;
-                    }
-
-                    int beginTagIdx = -1;
-                    for (int bt = openingTags.size() - 1; bt >= 0; bt--) {
-                        int idx = openingTags.get(bt);
-                        if (!tagVisit[idx] && idx > endTagIdx) {
-                            beginTagIdx = idx;
-                            break;
-                        }
-                    }
-
-                    if (beginTagIdx != -1) {
-                        //found opening/closing pair
-                        //create the corresponding span opening/closing span
-                        //visit both
-                        tagVisit[beginTagIdx] = true;
-                        tagVisit[endTagIdx] = true;
-                        tagLink[beginTagIdx] = endTagIdx;
-                        tagLink[endTagIdx] = beginTagIdx;
-                    } else {
-                        //found closing tag without opening
-                        //create the corresponding span closing span without opening
-                        //visit closing tag
-                        tagVisit[endTagIdx] = true;
-                        tagLink[endTagIdx] = -1;
-                    }
+                Deque<Integer> stack = closingTags.get(tag.getName());
+                if (stack == null || stack.isEmpty()) {
+                    tagLink[t] = -1;
+                } else {
+                    int endTagIdx = stack.pop();
+                    tagLink[t] = endTagIdx;
+                    tagLink[endTagIdx] = t;
                 }
             }
         }
 
-        for (String name : emptyTagSet.keySet()) {
-            for (Integer emptyTagIdx : emptyTagSet.get(name)) {
-                tagVisit[emptyTagIdx] = true;
-                tagLink[emptyTagIdx] = emptyTagIdx;
-            }
-        }
-
-
         int spanIdx = ROOT_INDEX;
         Span span = new Span(spanIdx, 0, null, null, words);
         span.setAnchor(0);
@@ -212,7 +122,6 @@ class SpanCollection implements Iterable<Span> {
                 for (int pos : sourceSpan.getPositions()) {
                     newPositions.addAll(alignment.get(pos));
                 }
-                newPositions.uniq();
                 newPositions.sort();
 
 
@@ -231,7 +140,6 @@ class SpanCollection implements Iterable<Span> {
                         }
                     }
                 }
-                newPositions.uniq();
                 newPositions.sort();
 
                 targetSpan.clearPositions();
@@ -112,71 +112,134 @@ class SpanTree {
         node.getChildren().forEach(SpanTree::sort);
     }
 
+    /**
+     * The visit state of create(): which spans are visited, with a pointer-jumping "next unvisited span"
+     * so that visited spans are skipped in O(1) amortized, and the indexes of the spans of each level
+     * to find the next and previous spans with a given level by binary search.
+     */
+    private static class SpanVisit {
+
+        private final int size;
+        private final int[] nextUnvisited;
+        private final int[][] levelIndexes;
+
+        SpanVisit(SpanCollection spans) {
+            this.size = spans.size();
+            this.nextUnvisited = new int[size + 1];
+            for (int i = 0; i <= size; i++)
+                nextUnvisited[i] = i;
+
+            int maxLevel = 0;
+            for (Span span : spans)
+                maxLevel = Math.max(maxLevel, span.getLevel());
+
+            int[] counts = new int[maxLevel + 2];
+            for (Span span : spans)
+                counts[span.getLevel()]++;
+
+            this.levelIndexes = new int[maxLevel + 2][];
+            for (int level = 0; level < levelIndexes.length; level++)
+                levelIndexes[level] = new int[counts[level]];
+
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                int level = spans.get(i).getLevel();
+                levelIndexes[level][counts[level]++] = i;
+            }
+        }
+
+        void visit(int idx) {
+            nextUnvisited[idx] = idx + 1;
+        }
+
+        /**
+         * @return the first unvisited span at or after idx, or size if there is none
+         */
+        int nextUnvisited(int idx) {
+            int result = idx;
+            while (nextUnvisited[result] != result)
+                result = nextUnvisited[result];
+
+            while (nextUnvisited[idx] != result) {
+                int next = nextUnvisited[idx];
+                nextUnvisited[idx] = result;
+                idx = next;
+            }
+
+            return result;
+        }
+
+        /**
+         * @return the first span after idx with level or level+1, or size if there is none
+         */
+        int next(int idx, int level) {
+            return Math.min(next(levelIndexes[level], idx), next(levelIndexes[level + 1], idx));
+        }
+
+        /**
+         * @return the last span before idx with level or level+1, or -1 if there is none
+         */
+        int previous(int idx, int level) {
+            return Math.max(previous(levelIndexes[level], idx), previous(levelIndexes[level + 1], idx));
+        }
+
+        private int next(int[] indexes, int idx) {
+            int i = Arrays.binarySearch(indexes, idx);
+            i = i >= 0 ? i + 1 : -i - 1;
+            return i < indexes.length ? indexes[i] : size;
+        }
+
+        private int previous(int[] indexes, int idx) {
+            int i = Arrays.binarySearch(indexes, idx);
+            i = i >= 0 ? i - 1 : -i - 2;
+            return i >= 0 ? indexes[i] : -1;
+        }
+    }
+
     protected void create() {
-        List<Integer> spanVisit = new ArrayList<>();
+        SpanVisit spanVisit = new SpanVisit(spans);
         this.root = create(ROOT_INDEX, spanVisit);
         this.sort();
     }
 
-    protected Node create(int spanIdx, List<Integer> spanVisit) {
+    protected Node create(int spanIdx, SpanVisit spanVisit) {
         Node root = new Node(spans.get(spanIdx));
         int rootLevel = root.getData().getLevel();
 
-        spanVisit.add(spanIdx);
+        spanVisit.visit(spanIdx);
 
-        int firstChildIdx = spanIdx + 1;
         //search for the first span on the right which has level = root.getLevel()+1, but is not child of a sibling
-        while (firstChildIdx < spans.size()) {
-            if ((spans.get(firstChildIdx).getLevel() == rootLevel) || (spans.get(firstChildIdx).getLevel() == rootLevel + 1)) {
+        int firstChildIdx = spanVisit.next(spanIdx, rootLevel);
+
+        // consider all unvisited spans from firstChildIdx to the last span
+        for (int idx = spanVisit.nextUnvisited(firstChildIdx); idx < spans.size(); idx = spanVisit.nextUnvisited(idx + 1)) {
+            Span span = spans.get(idx);
+            assert (span.getLevel() >= root.getData().getLevel());
+            if (span.getLevel() <= root.getData().getLevel()) {
                 break;
             }
-            firstChildIdx++;
-        }
-
-        // consider all spans from firstChildIdx to the last span
-        int idx = firstChildIdx;
-        while (idx < spans.size()) {
-            if (!spanVisit.contains(idx)) {
-                Span span = spans.get(idx);
-                assert (span.getLevel() >= root.getData().getLevel());
-                if (span.getLevel() <= root.getData().getLevel()) {
-                    break;
-                }
 
-                if (span.getLevel() == rootLevel + 1) {
-                    Node node = create(idx, spanVisit);
-                    root.addChild(node);
-                }
+            if (span.getLevel() == rootLevel + 1) {
+                Node node = create(idx, spanVisit);
+                root.addChild(node);
             }
-            idx++;
         }
 
-        firstChildIdx = spanIdx - 1;
-        //search for the first span on the right having level = root.getLevel()+1
-        while (firstChildIdx >= 0 && (spans.get(firstChildIdx).getLevel() != rootLevel + 1)) {
-            if ((spans.get(firstChildIdx).getLevel() == rootLevel) || (spans.get(firstChildIdx).getLevel() == rootLevel + 1)) {
+        //search for the first span on the left having level = root.getLevel() or root.getLevel()+1
+        firstChildIdx = spanVisit.previous(spanIdx, rootLevel);
+
+        // consider all unvisited spans on the left of the root
+        for (int idx = spanVisit.nextUnvisited(0); idx <= firstChildIdx; idx = spanVisit.nextUnvisited(idx + 1)) {
+            Span span = spans.get(idx);
+            assert (span.getLevel() >= root.getData().getLevel());
+            if (span.getLevel() <= root.getData().getLevel()) {
                 break;
             }
-            firstChildIdx--;
-        }
-
-        // consider all spans on the left of the root
-        idx = 0;
-        while (idx <= firstChildIdx) {
 
-            if (!spanVisit.contains(idx)) {
-                Span span = spans.get(idx);
-                assert (span.getLevel() >= root.getData().getLevel());
-                if (span.getLevel() <= root.getData().getLevel()) {
-                    break;
-                }
-
-                if (span.getLevel() == rootLevel + 1) {
-                    Node node = create(idx, spanVisit);
-                    root.addChild(node);
-                }
+            if (span.getLevel() == rootLevel + 1) {
+                Node node = create(idx, spanVisit);
+                root.addChild(node);
             }
-            idx++;
         }
         return root;
     }
@@ -259,8 +322,7 @@ class SpanTree {
             modified = false;
             Coverage posI = childI.getData().getPositions();
             Coverage posJ = childJ.getData().getPositions();
-            Coverage positions = Coverage.intersection(Coverage.contiguous(posI), Coverage.contiguous(posJ));
-            if (!positions.isEmpty()) {
+            if (Coverage.overlaps(posI, posJ)) {
                 // the two children overlap
                 // choose one point to exclude from either childI or childJ
                 // so that their intersection is minimal
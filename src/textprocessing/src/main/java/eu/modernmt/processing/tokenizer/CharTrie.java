@@ -0,0 +1,216 @@
+package eu.modernmt.processing.tokenizer;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.TreeMap;
+
+/**
+ * Immutable trie of char sequences, each mapped to a non-negative int value.
+ * The trie is a double-array: a transition costs a couple of array reads, so lookups can walk
+ * the characters of a text one by one without creating substrings:
+ * <pre>
+ *     int node = trie.next(CharTrie.ROOT, c1);
+ *     node = trie.next(node, c2);
+ *     int value = trie.getValue(node); // NONE if "c1c2" is not in the trie
+ * </pre>
+ * Walking from a missing node (NONE) always returns NONE.
+ */
+public final class CharTrie {
+
+    public static final int ROOT = 0;
+    public static final int NONE = -1;
+
+    private final int[] codes;  // char -> dense code, 0 if the char is not in any key
+    private final int[] base;
+    private final int[] check;  // check[base[n] + code] == n if node n has a transition with code
+    private final int[] values;
+    private final int size;
+
+    private CharTrie(int[] codes, int[] base, int[] check, int[] values, int size) {
+        this.codes = codes;
+        this.base = base;
+        this.check = check;
+        this.values = values;
+        this.size = size;
+    }
+
+    public int next(int node, char c) {
+        if (node < 0 || c >= codes.length)
+            return NONE;
+
+        int code = codes[c];
+        if (code == 0)
+            return NONE;
+
+        int target = base[node] + code;
+        return target < check.length && check[target] == node ? target : NONE;
+    }
+
+    public int getValue(int node) {
+        return node < 0 ? NONE : values[node];
+    }
+
+    public int get(CharSequence key) {
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node >= 0; i++)
+            node = next(node, key.charAt(i));
+
+        return getValue(node);
+    }
+
+    /**
+     * @return the number of keys in the trie
+     */
+    public int size() {
+        return size;
+    }
+
+    public static class Builder {
+
+        private static class Node {
+
+            private final TreeMap<Character, Node> children = new TreeMap<>();
+            private int value = NONE;
+
+        }
+
+        private final Node root = new Node();
+        private final BitSet alphabet = new BitSet();
+        private int nodes = 1;
+        private int size = 0;
+
+        public Builder put(CharSequence key, int value) {
+            if (value < 0)
+                throw new IllegalArgumentException("Negative value for key: " + key);
+
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                Character c = key.charAt(i);
+
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                    alphabet.set(c);
+                    nodes++;
+                }
+
+                node = child;
+            }
+
+            if (node.value == NONE)
+                size++;
+            node.value = value;
+
+            return this;
+        }
+
+        public CharTrie build() {
+            int[] codes = new int[alphabet.length()];
+            int alphabetSize = 0;
+            for (int c = alphabet.nextSetBit(0); c >= 0; c = alphabet.nextSetBit(c + 1))
+                codes[c] = ++alphabetSize;
+
+            DoubleArray array = new DoubleArray(nodes + alphabetSize + 1);
+
+            ArrayDeque<Node> queue = new ArrayDeque<>();
+            ArrayDeque<Integer> ids = new ArrayDeque<>();
+            queue.add(root);
+            ids.add(ROOT);
+
+            int firstFree = 1;
+
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                int id = ids.poll();
+
+                array.values[id] = node.value;
+
+                if (node.children.isEmpty())
+                    continue;
+
+                int[] children = new int[node.children.size()];
+                int i = 0;
+                for (Character c : node.children.keySet())
+                    children[i++] = codes[c];
+
+                // first-fit: the lowest base that puts every child in a free slot
+                int base = Math.max(0, firstFree - children[0]);
+                while (!array.isFree(base, children))
+                    base++;
+
+                array.base[id] = base;
+
+                i = 0;
+                for (Node child : node.children.values()) {
+                    int target = base + children[i++];
+                    array.check[target] = id;
+
+                    queue.add(child);
+                    ids.add(target);
+                }
+
+                while (array.check[firstFree] != NONE)
+                    array.ensureCapacity(++firstFree);
+            }
+
+            int length = array.length();
+            return new CharTrie(codes, Arrays.copyOf(array.base, length), Arrays.copyOf(array.check, length),
+                    Arrays.copyOf(array.values, length), size);
+        }
+
+    }
+
+    private static class DoubleArray {
+
+        private int[] base;
+        private int[] check;
+        private int[] values;
+
+        private DoubleArray(int capacity) {
+            base = new int[capacity];
+            check = new int[capacity];
+            values = new int[capacity];
+
+            Arrays.fill(check, NONE);
+            Arrays.fill(values, NONE);
+            check[ROOT] = ROOT;
+        }
+
+        private void ensureCapacity(int index) {
+            if (index < check.length)
+                return;
+
+            int oldCapacity = check.length;
+            int capacity = Math.max(index + 1, oldCapacity * 2);
+
+            base = Arrays.copyOf(base, capacity);
+            check = Arrays.copyOf(check, capacity);
+            values = Arrays.copyOf(values, capacity);
+
+            Arrays.fill(check, oldCapacity, capacity, NONE);
+            Arrays.fill(values, oldCapacity, capacity, NONE);
+        }
+
+        private boolean isFree(int base, int[] codes) {
+            ensureCapacity(base + codes[codes.length - 1]);
+
+            for (int code : codes) {
+                if (check[base + code] != NONE)
+                    return false;
+            }
+
+            return true;
+        }
+
+        private int length() {
+            int length = check.length;
+            while (length > 1 && check[length - 1] == NONE)
+                length--;
+            return length;
+        }
+
+    }
+
+}
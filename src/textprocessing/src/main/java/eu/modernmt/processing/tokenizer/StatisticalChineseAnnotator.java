@@ -1,15 +1,12 @@
 package eu.modernmt.processing.tokenizer;
 
 import eu.modernmt.io.RuntimeIOException;
-import eu.modernmt.processing.ProcessingException;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.HashSet;
 
 public class StatisticalChineseAnnotator implements BaseTokenizer.Annotator {
 
@@ -19,39 +16,41 @@ public class StatisticalChineseAnnotator implements BaseTokenizer.Annotator {
             InputStream stream = null;
 
             try {
-                HashSet<String> words = new HashSet<>(21000);
-                int maxLength = 0;
+                CharTrie.Builder words = new CharTrie.Builder();
 
                 stream = StatisticalChineseAnnotator.class.getResourceAsStream(filename);
 
                 LineIterator lines = IOUtils.lineIterator(stream, StandardCharsets.UTF_8);
-                while (lines.hasNext()) {
-                    String line = lines.nextLine();
+                while (lines.hasNext())
+                    words.put(lines.nextLine(), 1);
 
-                    words.add(line);
-                    maxLength = Math.max(maxLength, line.length());
-                }
-
-                return new Dictionary(maxLength, words);
+                return new Dictionary(words.build());
             } finally {
                 IOUtils.closeQuietly(stream);
             }
         }
 
-        private final int maxLength;
-        private final HashSet<String> words;
+        private final CharTrie words;
 
-        private Dictionary(int maxLength, HashSet<String> words) {
-            this.maxLength = maxLength;
+        private Dictionary(CharTrie words) {
             this.words = words;
         }
 
-        public boolean contains(String word) {
-            return words.contains(word);
-        }
+        /**
+         * Returns the length of the longest word of at least 2 chars that starts at the given offset,
+         * or 1 if there is no such word.
+         */
+        public int getLongestMatch(String text, int offset) {
+            int length = 1;
+            int node = words.next(CharTrie.ROOT, text.charAt(offset));
+
+            for (int i = offset + 1; i < text.length() && node != CharTrie.NONE; i++) {
+                node = words.next(node, text.charAt(i));
+                if (words.getValue(node) != CharTrie.NONE)
+                    length = i - offset + 1;
+            }
 
-        public int getWordMaxLength() {
-            return maxLength;
+            return length;
         }
     }
 
@@ -81,18 +80,9 @@ public class StatisticalChineseAnnotator implements BaseTokenizer.Annotator {
         int i = 0;
 
         while (i < text.length() - 1) {
-            int length;
-
-            for (length = dictionary.getWordMaxLength(); length > 1; length--) {
-                if (i + length > text.length())
-                    continue;
-
-                String word = text.substring(i, i + length);
-                if (dictionary.contains(word)) {
-                    string.protect(i + 1, i + length);
-                    break;
-                }
-            }
+            int length = dictionary.getLongestMatch(text, i);
+            if (length > 1)
+                string.protect(i + 1, i + length);
 
             i += length;
         }
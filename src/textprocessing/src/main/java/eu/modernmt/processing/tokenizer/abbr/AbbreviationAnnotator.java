@@ -5,13 +5,15 @@ import eu.modernmt.io.UTF8Charset;
 import eu.modernmt.io.UnixLineReader;
 import eu.modernmt.lang.Language;
 import eu.modernmt.processing.tokenizer.BaseTokenizer;
+import eu.modernmt.processing.tokenizer.CharTrie;
 import eu.modernmt.processing.tokenizer.TokenizedString;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -82,25 +84,37 @@ public class AbbreviationAnnotator implements BaseTokenizer.Annotator {
         }
     }
 
-    private static char[] getAlphabet(Set<String> words, boolean caseless) {
-        HashSet<Character> set = new HashSet<>();
+    private static CharTrie toReversedTrie(HashMap<String, Boolean> words) {
+        CharTrie.Builder builder = new CharTrie.Builder();
+        for (Map.Entry<String, Boolean> entry : words.entrySet()) {
+            String word = new StringBuilder(entry.getKey()).reverse().toString();
+            builder.put(word, entry.getValue() ? NUMERIC_ONLY : ALWAYS);
+        }
+
+        return builder.build();
+    }
+
+    private static BitSet getAlphabet(Set<String> words, boolean caseless) {
+        BitSet alphabet = new BitSet();
         for (String word : words) {
             if (caseless)
                 word = word.toLowerCase();
 
             for (int i = 0; i < word.length(); i++) {
-                set.add(word.charAt(i));
+                alphabet.set(word.charAt(i));
             }
         }
 
-        int i = 0;
-        char[] alphabet = new char[set.size()];
-        for (char c : set)
-            alphabet[i++] = c;
-
         return alphabet;
     }
 
+    private static BitSet asBitSet(String chars) {
+        BitSet set = new BitSet();
+        for (int i = 0; i < chars.length(); i++)
+            set.set(chars.charAt(i));
+        return set;
+    }
+
     private int getMaxLength(Set<String> words) {
         int len = 0;
         for (String word : words) {
@@ -111,29 +125,38 @@ public class AbbreviationAnnotator implements BaseTokenizer.Annotator {
         return len;
     }
 
-    private static final char[] SEPARATORS = " !¡\\#$%&\"'*+,-./:;<=>?¿@[]^_`{|}~()".toCharArray();
-    private final HashMap<String, Boolean> words;
-    private final char[] alphabet;
+    /**
+     * Chars that String.toLowerCase() does not lower-case one by one like Character.toLowerCase(),
+     * words containing them are looked up as strings
+     */
+    private static boolean isSpecialCase(char c) {
+        return c == '\u0130' || c == '\u03A3' || Character.isSurrogate(c);
+    }
+
+    private static final int ALWAYS = 0;
+    private static final int NUMERIC_ONLY = 1;
+
+    private static final BitSet SEPARATORS = asBitSet(" !¡\\#$%&\"'*+,-./:;<=>?¿@[]^_`{|}~()");
+    private final CharTrie words;  // reversed, so that they can be matched backwards from the full stop
+    private final BitSet alphabet;
     private final boolean caseless;
     private final int maxLength;
 
-    private AbbreviationAnnotator(String resourceName, boolean caseless) throws IOException {
-        this.words = readResource(resourceName, caseless);
+    AbbreviationAnnotator(String resourceName, boolean caseless) throws IOException {
+        HashMap<String, Boolean> words = readResource(resourceName, caseless);
+
+        this.words = toReversedTrie(words);
         this.alphabet = getAlphabet(words.keySet(), caseless);
         this.maxLength = getMaxLength(words.keySet());
         this.caseless = caseless;
     }
 
-    private boolean contains(char[] chars, char c) {
-        if (this.caseless)
-            c = Character.toLowerCase(c);
-
-        for (char o : chars) {
-            if (o == c)
-                return true;
-        }
+    private int getValue(String chars, int start, int end) {
+        String word = chars.substring(start, end + 1);
+        if (caseless && word.length() > 2)  // 1 char + full-stop
+            word = word.toLowerCase();
 
-        return false;
+        return words.get(new StringBuilder(word).reverse());
     }
 
     private int getLongestMatch(String chars, int end) {
@@ -144,23 +167,39 @@ public class AbbreviationAnnotator implements BaseTokenizer.Annotator {
 
         int left = Math.max(0, end - maxLength);
 
+        // node of the word chars[i + 1, end]; words of 1 char + full-stop are never lower-cased
+        int node = words.next(CharTrie.ROOT, chars.charAt(end));
+        int exactNode = CharTrie.NONE;
+        boolean specialCase = false;
+
         for (int i = end - 1; i >= left; i--) {
             char c = chars.charAt(i);
-            boolean acceptable = contains(this.alphabet, c);
-
-            if (contains(SEPARATORS, c)) {
-                String word = chars.substring(i + 1, end + 1);
-
-                if (caseless && word.length() > 2)  // 1 char + full-stop
-                    word = word.toLowerCase();
-
-                Boolean numberOnly = this.words.get(word);
-                if (numberOnly != null && (!numberOnly || digitFollows))
+            char lc = caseless ? Character.toLowerCase(c) : c;
+
+            if (SEPARATORS.get(lc)) {
+                int value;
+                if (i == end - 2)
+                    value = words.getValue(exactNode);
+                else if (specialCase)
+                    value = getValue(chars, i + 1, end);
+                else
+                    value = words.getValue(node);
+
+                if (value != CharTrie.NONE && (value == ALWAYS || digitFollows))
                     result = i + 1;
             }
 
-            if (!acceptable)
+            if (!alphabet.get(lc))
                 break;
+
+            if (i == end - 1)
+                exactNode = words.next(node, c);
+            if (caseless && isSpecialCase(c))
+                specialCase = true;
+
+            node = words.next(node, lc);
+            if (node == CharTrie.NONE && i < end - 1 && !specialCase)
+                break;  // no longer word can match
         }
 
         return result;
@@ -0,0 +1,51 @@
+package eu.modernmt.cleaning.dedup;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.corpus.TranslationUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CorporaBloomFilterTest {
+
+    private static final LanguageDirection EN__IT = new LanguageDirection(Language.fromString("en"), Language.fromString("it"));
+    private static final LanguageDirection EN__FR = new LanguageDirection(Language.fromString("en"), Language.fromString("fr"));
+
+    private static TranslationUnit tu(LanguageDirection language, String source, String target) {
+        return new TranslationUnit(null, language, source, target);
+    }
+
+    @Test
+    public void newLinesAndSpacesAreDuplicates() {
+        CorporaBloomFilter filter = new CorporaBloomFilter(1000);
+
+        assertTrue(filter.put(tu(EN__IT, "Hello world", "Ciao mondo")));
+        assertFalse(filter.put(tu(EN__IT, "Hello\nworld", "Ciao mondo")));
+        assertFalse(filter.put(tu(EN__IT, "Hello world", "Ciao\nmondo")));
+        assertTrue(filter.contains(tu(EN__IT, "Hello\nworld", "Ciao\nmondo")));
+    }
+
+    @Test
+    public void differentUnitsAreNotDuplicates() {
+        CorporaBloomFilter filter = new CorporaBloomFilter(1000);
+
+        assertTrue(filter.put(tu(EN__IT, "Hello world", "Ciao mondo")));
+        assertTrue(filter.put(tu(EN__FR, "Hello world", "Ciao mondo")));
+        assertTrue(filter.put(tu(EN__IT, "Hello  world", "Ciao mondo")));
+        assertTrue(filter.put(tu(EN__IT, "Hello world", "Ciao mondo!")));
+        assertTrue(filter.put(tu(EN__IT, "Hello world Ciao", "mondo")));
+    }
+
+    @Test
+    public void linesAreDeduplicated() {
+        CorporaBloomFilter filter = new CorporaBloomFilter(1000);
+
+        assertTrue(filter.put("Hello world"));
+        assertFalse(filter.put("Hello world"));
+        assertTrue(filter.contains("Hello world"));
+        assertFalse(filter.contains("Hello world!"));
+    }
+
+}
@@ -0,0 +1,135 @@
+package eu.modernmt.processing;
+
+import com.google.common.cache.CacheStats;
+import eu.modernmt.lang.Language;
+import eu.modernmt.lang.LanguageDirection;
+import eu.modernmt.model.Sentence;
+import eu.modernmt.model.Tag;
+import eu.modernmt.model.Word;
+import eu.modernmt.processing.tags.format.InputFormat;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class PreprocessorCacheTest {
+
+    private static final LanguageDirection language = new LanguageDirection(Language.ENGLISH, Language.ITALIAN);
+
+    private static Preprocessor preprocessor;
+    private static Preprocessor cachedPreprocessor;
+
+    @BeforeClass
+    public static void setup() throws IOException {
+        preprocessor = new Preprocessor(1, Preprocessor.getDefaultBuilder());
+        cachedPreprocessor = new Preprocessor(2, Preprocessor.getDefaultBuilder(), 100);
+    }
+
+    @AfterClass
+    public static void teardown() {
+        preprocessor.close();
+        cachedPreprocessor.close();
+    }
+
+    private static void assertSentenceEquals(Sentence expected, Sentence actual) {
+        assertArrayEquals(expected.getWords(), actual.getWords());
+        assertArrayEquals(expected.getTags(), actual.getTags());
+        assertEquals(expected.toString(true, true), actual.toString(true, true));
+        assertEquals(expected.toString(false, false), actual.toString(false, false));
+
+        for (int i = 0; i < expected.getWords().length; i++) {
+            Word e = expected.getWords()[i];
+            Word a = actual.getWords()[i];
+
+            assertEquals(e.isLeftSpaceRequired(), a.isLeftSpaceRequired());
+            assertEquals(e.isRightSpaceRequired(), a.isRightSpaceRequired());
+            assertEquals(e.hasHiddenLeftSpace(), a.hasHiddenLeftSpace());
+            assertEquals(e.hasHiddenRightSpace(), a.hasHiddenRightSpace());
+            assertEquals(e.isSentenceBreak(), a.isSentenceBreak());
+        }
+    }
+
+    @Test
+    public void cachedResultEqualsPipelineResult() throws ProcessingException {
+        String[] inputs = new String[]{
+                "Hello world!",
+                "This is <b>a test</b> with <br/> tags.",
+                "The price is 10.5 $ - isn't it?",
+                "First sentence. Second sentence.",
+                "   ",
+        };
+
+        for (String input : inputs) {
+            Sentence expected = preprocessor.process(language, input);
+
+            assertSentenceEquals(expected, cachedPreprocessor.process(language, input));
+            assertSentenceEquals(expected, cachedPreprocessor.process(language, input));
+        }
+    }
+
+    @Test
+    public void returnedSentencesAreDefensiveCopies() throws ProcessingException {
+        String input = "Hello <b>world</b>!";
+        Sentence expected = preprocessor.process(language, input);
+
+        Sentence first = cachedPreprocessor.process(language, input);
+        first.getWords()[0].setText("changed");
+        first.getWords()[0].setPlaceholder("changed");
+        for (Tag tag : first.getTags())
+            tag.setPosition(0);
+        first.setTags(new Tag[0]);
+
+        Sentence second = cachedPreprocessor.process(language, input);
+        assertNotSame(first, second);
+        assertSentenceEquals(expected, second);
+    }
+
+    @Test
+    public void optionsArePartOfTheKey() throws ProcessingException {
+        String input = "Line one\nLine two";
+
+        Preprocessor.Options options = new Preprocessor.Options();
+        options.splitByNewline = true;
+        options.format = InputFormat.Type.XML;
+
+        assertSentenceEquals(preprocessor.process(language, input), cachedPreprocessor.process(language, input));
+        assertSentenceEquals(preprocessor.process(language, input, options), cachedPreprocessor.process(language, input, options));
+        assertSentenceEquals(preprocessor.process(language, input), cachedPreprocessor.process(language, input));
+    }
+
+    @Test
+    public void batchProcessingWithRepetitions() throws ProcessingException, InterruptedException {
+        String[] batch = new String[]{"Alpha beta.", "Gamma delta.", "Alpha beta.", "Epsilon <i>zeta</i>.", "Gamma delta."};
+
+        Sentence[] expected = preprocessor.process(language, batch.clone());
+        Sentence[] first = cachedPreprocessor.process(language, batch.clone());
+        Sentence[] second = cachedPreprocessor.process(language, batch.clone());
+
+        for (int i = 0; i < batch.length; i++) {
+            assertSentenceEquals(expected[i], first[i]);
+            assertSentenceEquals(expected[i], second[i]);
+        }
+
+        assertNotSame(second[0], second[2]);
+    }
+
+    @Test
+    public void statistics() throws IOException, ProcessingException {
+        try (Preprocessor cached = new Preprocessor(1, Preprocessor.getDefaultBuilder(), 10)) {
+            cached.process(language, "one");
+            cached.process(language, "two");
+            cached.process(language, "one");
+            cached.process(language, "one");
+
+            CacheStats stats = cached.getCacheStats();
+            assertEquals(2, stats.hitCount());
+            assertEquals(2, stats.missCount());
+        }
+
+        assertNull(preprocessor.getCacheStats());
+    }
+
+}
@@ -0,0 +1,218 @@
+package eu.modernmt.processing.tags.projection;
+
+import eu.modernmt.model.*;
+import eu.modernmt.model.Alignment;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Differential test of TagProjector against the legacy implementation, over random tagged sentences
+ * (well-formed, crossing and unbalanced tags) and random alignments (unaligned, one-to-many, many-to-one words).
+ */
+public class TagProjectorTest {
+
+    private static final String PACKAGE_NAME = "eu.modernmt.processing.tags.projection";
+
+    /**
+     * Loads the projection classes with assertions disabled, as they run in production:
+     * the legacy projector asserts on malformed tag structures that it handles anyway.
+     */
+    private static class NoAssertionsClassLoader extends ClassLoader {
+
+        private static final String PACKAGE = "eu.modernmt.processing.tags.projection.";
+
+        private NoAssertionsClassLoader(ClassLoader parent) {
+            super(parent);
+            setDefaultAssertionStatus(false);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(PACKAGE) || name.startsWith(TagProjectorTest.class.getName()))
+                return super.loadClass(name, resolve);
+
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+
+                if (clazz == null) {
+                    try (InputStream stream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = IOUtils.toByteArray(stream);
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+
+                if (resolve)
+                    resolveClass(clazz);
+
+                return clazz;
+            }
+        }
+    }
+
+    private static final Method LEGACY_PROJECTOR = getProjectMethod(PACKAGE_NAME + ".legacy.TagProjector");
+    private static final Method PROJECTOR = getProjectMethod(PACKAGE_NAME + ".TagProjector");
+
+    private static Method getProjectMethod(String className) {
+        try {
+            ClassLoader loader = new NoAssertionsClassLoader(TagProjectorTest.class.getClassLoader());
+            return loader.loadClass(className).getMethod("project", Translation.class);
+        } catch (ReflectiveOperationException e) {
+            throw new Error(e);
+        }
+    }
+
+    private static Translation project(Method method, Translation translation) {
+        try {
+            return (Translation) method.invoke(method.getDeclaringClass().newInstance(), translation);
+        } catch (ReflectiveOperationException e) {
+            throw new Error(e);
+        }
+    }
+
+    private static final String[] NAMES = new String[]{"a", "b", "i", "span"};
+    private static final String[] SPACES = new String[]{null, " "};
+
+    private static Tag randomTag(Random random, Tag.Type type, String name, int position) {
+        String text;
+        switch (type) {
+            case OPENING_TAG:
+                text = '<' + name + '>';
+                break;
+            case CLOSING_TAG:
+                text = "</" + name + '>';
+                break;
+            default:
+                text = '<' + name + "/>";
+                break;
+        }
+
+        return XMLTag.fromText(text, SPACES[random.nextInt(2)], SPACES[random.nextInt(2)], position);
+    }
+
+    private static Tag[] randomTags(Random random, int words, int size, boolean wellFormed) {
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++)
+            positions[i] = random.nextInt(words + 1);
+        Arrays.sort(positions);
+
+        ArrayList<Tag> tags = new ArrayList<>(size);
+        ArrayList<String> stack = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            int position = positions[i];
+            int choice = random.nextInt(3);
+
+            if (wellFormed) {
+                if (choice == 0 && !stack.isEmpty()) {
+                    tags.add(randomTag(random, Tag.Type.CLOSING_TAG, stack.remove(stack.size() - 1), position));
+                } else if (choice == 1 || size - i <= stack.size()) {
+                    tags.add(randomTag(random, Tag.Type.EMPTY_TAG, NAMES[random.nextInt(NAMES.length)], position));
+                } else {
+                    String name = NAMES[random.nextInt(NAMES.length)];
+                    stack.add(name);
+                    tags.add(randomTag(random, Tag.Type.OPENING_TAG, name, position));
+                }
+            } else {
+                Tag.Type type = Tag.Type.values()[random.nextInt(3)];
+                tags.add(randomTag(random, type, NAMES[random.nextInt(NAMES.length)], position));
+            }
+        }
+
+        while (wellFormed && !stack.isEmpty())
+            tags.add(randomTag(random, Tag.Type.CLOSING_TAG, stack.remove(stack.size() - 1), words));
+
+        return tags.toArray(new Tag[0]);
+    }
+
+    private static Word[] randomWords(Random random, String prefix, int size) {
+        Word[] words = new Word[size];
+        for (int i = 0; i < size; i++) {
+            words[i] = new Word(prefix + i, SPACES[random.nextInt(2)], SPACES[random.nextInt(2)],
+                    random.nextInt(4) > 0, random.nextInt(4) > 0);
+        }
+        return words;
+    }
+
+    private static Alignment randomAlignment(Random random, int sourceWords, int targetWords) {
+        ArrayList<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < sourceWords; i++) {
+            int links = random.nextInt(10) == 0 ? 0 : 1 + (random.nextInt(4) == 0 ? random.nextInt(3) : 0);
+            int target = Math.min(targetWords - 1, i + random.nextInt(5) - 2);
+
+            for (int j = 0; j < links; j++) {
+                int t = random.nextInt(3) == 0 ? random.nextInt(targetWords) : Math.max(0, target + j);
+                pairs.add(new int[]{i, Math.min(t, targetWords - 1)});
+            }
+        }
+
+        return Alignment.fromAlignmentPairs(pairs.toArray(new int[0][]));
+    }
+
+    /**
+     * Creates a new random translation: the same seed always creates the same translation
+     */
+    private static Translation randomTranslation(long seed, int maxWords, int maxTags) {
+        Random random = new Random(seed);
+
+        int sourceWords = random.nextInt(maxWords + 1);
+        int targetWords = Math.max(1, sourceWords + random.nextInt(7) - 3);
+
+        Tag[] tags = randomTags(random, sourceWords, random.nextInt(maxTags + 1), random.nextBoolean());
+        Sentence source = new Sentence(randomWords(random, "s", sourceWords), tags);
+
+        Translation translation = new Translation(randomWords(random, "t", targetWords), source,
+                randomAlignment(random, sourceWords, targetWords));
+        translation.fixWordSpacing();
+
+        return translation;
+    }
+
+    private static String dump(Translation translation) {
+        StringBuilder result = new StringBuilder();
+        for (Token token : translation) {
+            result.append(token instanceof Tag ? "T(" + ((Tag) token).getPosition() + ")" : "W")
+                    .append('[').append(token.getLeftSpace()).append(']')
+                    .append(token)
+                    .append('[').append(token.getRightSpace()).append(']')
+                    .append(' ');
+        }
+        return result.toString();
+    }
+
+    private static void assertSameProjection(long seed, int maxWords, int maxTags) {
+        Translation expected = project(LEGACY_PROJECTOR, randomTranslation(seed, maxWords, maxTags));
+        Translation actual = project(PROJECTOR, randomTranslation(seed, maxWords, maxTags));
+
+        assertEquals("seed " + seed, dump(expected), dump(actual));
+    }
+
+    @Test
+    public void sameProjectionOfLegacy_FewTags() {
+        for (long seed = 0; seed < 5000; seed++)
+            assertSameProjection(seed, 15, 6);
+    }
+
+    @Test
+    public void sameProjectionOfLegacy_ManyTags() {
+        for (long seed = 0; seed < 1000; seed++)
+            assertSameProjection(seed, 40, 40);
+    }
+
+    @Test
+    public void sameProjectionOfLegacy_LongSentences() {
+        for (long seed = 0; seed < 100; seed++)
+            assertSameProjection(seed, 300, 150);
+    }
+
+}
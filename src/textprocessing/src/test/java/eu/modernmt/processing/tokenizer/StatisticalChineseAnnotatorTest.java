@@ -0,0 +1,130 @@
+package eu.modernmt.processing.tokenizer;
+
+import eu.modernmt.lang.Language;
+import eu.modernmt.model.Word;
+import eu.modernmt.processing.string.SentenceBuilder;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StatisticalChineseAnnotatorTest {
+
+    /**
+     * The substring-based segmentation, the expected behaviour of StatisticalChineseAnnotator
+     */
+    private static class ReferenceAnnotator implements BaseTokenizer.Annotator {
+
+        private final HashSet<String> words;
+        private final int maxLength;
+
+        private ReferenceAnnotator(List<String> words) {
+            this.words = new HashSet<>(words);
+
+            int maxLength = 0;
+            for (String word : words)
+                maxLength = Math.max(maxLength, word.length());
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void annotate(TokenizedString string) {
+            String text = string.toString();
+
+            int i = 0;
+
+            while (i < text.length() - 1) {
+                int length;
+
+                for (length = maxLength; length > 1; length--) {
+                    if (i + length > text.length())
+                        continue;
+
+                    String word = text.substring(i, i + length);
+                    if (words.contains(word)) {
+                        string.protect(i + 1, i + length);
+                        break;
+                    }
+                }
+
+                i += length;
+            }
+        }
+    }
+
+    private static List<String> loadWords() throws IOException {
+        try (InputStream stream = StatisticalChineseAnnotator.class.getResourceAsStream("chinese-words.list")) {
+            return IOUtils.readLines(stream, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String tokenize(BaseTokenizer.Annotator annotator, String text) {
+        TokenizedString string = new TokenizedString(text, true);
+        annotator.annotate(string);
+
+        StringBuilder result = new StringBuilder();
+        for (Word word : string.compile(new SentenceBuilder(Language.CHINESE, text)).build().getWords())
+            result.append(word.getText()).append('|');
+
+        return result.toString();
+    }
+
+    @Test
+    public void longestMatch() throws IOException {
+        List<String> words = loadWords();
+        HashSet<String> dictionary = new HashSet<>(words);
+
+        // a word whose prefix is a word as well
+        String word = null;
+        for (String candidate : words) {
+            if (candidate.length() > 2 && dictionary.contains(candidate.substring(0, 2))) {
+                word = candidate;
+                break;
+            }
+        }
+
+        assertEquals(word + '|', tokenize(new StatisticalChineseAnnotator(), word));
+    }
+
+    @Test
+    public void sameSegmentationOfReference() throws IOException {
+        List<String> words = loadWords();
+        ReferenceAnnotator reference = new ReferenceAnnotator(words);
+        StatisticalChineseAnnotator annotator = new StatisticalChineseAnnotator();
+
+        ArrayList<Character> chars = new ArrayList<>();
+        for (String word : words.subList(0, 500)) {
+            for (char c : word.toCharArray())
+                chars.add(c);
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+
+            int length = 1 + random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                int type = random.nextInt(10);
+
+                if (type < 5)
+                    text.append(words.get(random.nextInt(words.size())));
+                else if (type < 9)
+                    text.append(chars.get(random.nextInt(chars.size())));
+                else
+                    text.append(random.nextBoolean() ? " " : "，abc ");
+            }
+
+            String string = text.toString();
+            assertEquals(string, tokenize(reference, string), tokenize(annotator, string));
+        }
+    }
+
+}
@@ -0,0 +1,237 @@
+package eu.modernmt.processing.tokenizer.abbr;
+
+import eu.modernmt.io.UTF8Charset;
+import eu.modernmt.io.UnixLineReader;
+import eu.modernmt.lang.Language;
+import eu.modernmt.model.Word;
+import eu.modernmt.processing.string.SentenceBuilder;
+import eu.modernmt.processing.tokenizer.BaseTokenizer;
+import eu.modernmt.processing.tokenizer.TokenizedString;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class AbbreviationAnnotatorTest {
+
+    private static final String[] LANGUAGES = new String[]{
+            "ca", "cs", "de", "el", "en", "es", "fi", "fr", "ga", "hu", "is",
+            "it", "lv", "nl", "pl", "pt", "ro", "ru", "sk", "sl", "sv", "ta"
+    };
+
+    /**
+     * The substring-based lookup, the expected behaviour of AbbreviationAnnotator
+     */
+    private static class ReferenceAnnotator implements BaseTokenizer.Annotator {
+
+        private static final char[] SEPARATORS = " !¡\\#$%&\"'*+,-./:;<=>?¿@[]^_`{|}~()".toCharArray();
+        private final HashMap<String, Boolean> words;
+        private final char[] alphabet;
+        private final boolean caseless;
+        private final int maxLength;
+
+        private ReferenceAnnotator(HashMap<String, Boolean> words, boolean caseless) {
+            HashSet<Character> set = new HashSet<>();
+            int maxLength = 0;
+            for (String word : words.keySet()) {
+                maxLength = Math.max(maxLength, word.length());
+
+                if (caseless)
+                    word = word.toLowerCase();
+                for (int i = 0; i < word.length(); i++)
+                    set.add(word.charAt(i));
+            }
+
+            this.words = words;
+            this.alphabet = new char[set.size()];
+            this.caseless = caseless;
+            this.maxLength = maxLength;
+
+            int i = 0;
+            for (char c : set)
+                alphabet[i++] = c;
+        }
+
+        private boolean contains(char[] chars, char c) {
+            if (this.caseless)
+                c = Character.toLowerCase(c);
+
+            for (char o : chars) {
+                if (o == c)
+                    return true;
+            }
+
+            return false;
+        }
+
+        private int getLongestMatch(String chars, int end) {
+            int result = -1;
+            boolean digitFollows = end + 2 < chars.length()
+                    && chars.charAt(end + 1) == ' '
+                    && Character.isDigit(chars.charAt(end + 2));
+
+            int left = Math.max(0, end - maxLength);
+
+            for (int i = end - 1; i >= left; i--) {
+                char c = chars.charAt(i);
+                boolean acceptable = contains(this.alphabet, c);
+
+                if (contains(SEPARATORS, c)) {
+                    String word = chars.substring(i + 1, end + 1);
+
+                    if (caseless && word.length() > 2)
+                        word = word.toLowerCase();
+
+                    Boolean numberOnly = this.words.get(word);
+                    if (numberOnly != null && (!numberOnly || digitFollows))
+                        result = i + 1;
+                }
+
+                if (!acceptable)
+                    break;
+            }
+
+            return result;
+        }
+
+        @Override
+        public void annotate(TokenizedString string) {
+            String chars = string.toString();
+
+            for (int i = chars.length() - 1; i >= 0; i--) {
+                if (chars.charAt(i) == '.') {
+                    int left = getLongestMatch(chars, i);
+
+                    if (left >= 0) {
+                        string.protect(left + 1, i + 1);
+                        i = left;
+                    }
+                }
+            }
+        }
+    }
+
+    private static HashMap<String, Boolean> loadWords(String language, boolean caseless) throws IOException {
+        HashMap<String, Boolean> words = new HashMap<>();
+
+        try (InputStream stream = AbbreviationAnnotator.class.getResourceAsStream(language + ".txt")) {
+            UnixLineReader reader = new UnixLineReader(stream, UTF8Charset.get());
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+
+                if (line.isEmpty() || line.charAt(0) == '#')
+                    continue;
+
+                boolean numericOnly = line.endsWith("#NUMERIC_ONLY#");
+                if (numericOnly)
+                    line = line.replace("#NUMERIC_ONLY#", "").trim();
+
+                if (caseless && line.length() > 2)
+                    line = line.toLowerCase();
+
+                words.put(line, numericOnly);
+            }
+        }
+
+        return words;
+    }
+
+    private static String tokenize(BaseTokenizer.Annotator annotator, String text) {
+        TokenizedString string = new TokenizedString(text, true);
+        annotator.annotate(string);
+
+        StringBuilder result = new StringBuilder();
+        for (Word word : string.compile(new SentenceBuilder(Language.ENGLISH, text)).build().getWords())
+            result.append(word.getText()).append('|');
+
+        return result.toString();
+    }
+
+    private static String randomCase(Random random, String word) {
+        switch (random.nextInt(4)) {
+            case 0:
+                return word.toUpperCase();
+            case 1:
+                return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            default:
+                return word;
+        }
+    }
+
+    private static String randomText(Random random, List<String> words) {
+        String[] glue = new String[]{" ", " ", " ", "(", "-", "/", "'", " 12 ", ". ", ""};
+        String[] special = new String[]{"İ", "Σ", "σ", "𐐀", "ß"};
+
+        StringBuilder text = new StringBuilder();
+
+        int length = 1 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            String word = words.get(random.nextInt(words.size()));
+
+            if (random.nextInt(4) == 0)
+                word = word.substring(0, word.length() - 1);  // no full-stop
+            if (random.nextInt(8) == 0)
+                word = special[random.nextInt(special.length)] + word;
+            if (random.nextInt(8) == 0 && word.length() > 1) {
+                int split = 1 + random.nextInt(word.length() - 1);
+                word = word.substring(0, split) + special[random.nextInt(special.length)] + word.substring(split);
+            }
+
+            text.append(randomCase(random, word));
+            text.append(glue[random.nextInt(glue.length)]);
+            if (random.nextInt(4) == 0)
+                text.append(random.nextInt(100));
+        }
+
+        return text.toString();
+    }
+
+    private static void testLanguage(String language, boolean caseless) throws IOException {
+        HashMap<String, Boolean> words = loadWords(language, caseless);
+        ArrayList<String> list = new ArrayList<>(words.keySet());
+        Collections.sort(list);
+
+        ReferenceAnnotator reference = new ReferenceAnnotator(words, caseless);
+        AbbreviationAnnotator annotator = new AbbreviationAnnotator(language + ".txt", caseless);
+
+        Random random = new Random(language.hashCode());
+        for (int i = 0; i < 1000; i++) {
+            String text = randomText(random, list);
+            assertEquals(language + ": " + text, tokenize(reference, text), tokenize(annotator, text));
+        }
+    }
+
+    @Test
+    public void sameAbbreviationsOfReference() throws IOException {
+        for (String language : LANGUAGES)
+            testLanguage(language, false);
+    }
+
+    @Test
+    public void sameAbbreviationsOfReference_Caseless() throws IOException {
+        for (String language : LANGUAGES) {
+            try {
+                new AbbreviationAnnotator(language + ".txt", true);
+            } catch (IOException e) {
+                continue;  // not a valid caseless resource
+            }
+
+            testLanguage(language, true);
+        }
+    }
+
+    @Test
+    public void numericOnly() {
+        AbbreviationAnnotator annotator = AbbreviationAnnotator.getInstance(Language.ENGLISH, true);
+
+        assertEquals("see|pp.|12|", tokenize(annotator, "see pp. 12"));
+        assertEquals("see|pp|.|", tokenize(annotator, "see pp."));
+        assertEquals("Mr.|Smith|", tokenize(annotator, "Mr. Smith"));
+    }
+
+}